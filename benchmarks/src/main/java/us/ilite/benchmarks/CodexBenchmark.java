@@ -0,0 +1,55 @@
+package us.ilite.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.flybotix.hfr.codex.Codex;
+
+import us.ilite.common.types.drive.EDriveData;
+
+/**
+ * Filling the drive codex the way Drive.periodicInput() does, and formatting it the way CodexCsvLogger does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodexBenchmark {
+
+    private static final EDriveData[] kElements = EDriveData.values();
+
+    private final Codex<Double, EDriveData> mCodex = Codex.of.thisEnum(EDriveData.class);
+    private double mValue = 0.0;
+
+    private void fill() {
+        mValue += 0.01;
+        for(int i = 0; i < kElements.length; i++) {
+            mCodex.set(kElements[i], mValue + i);
+        }
+    }
+
+    @Benchmark
+    public void set(Blackhole pBlackhole) {
+        fill();
+        pBlackhole.consume(mCodex);
+    }
+
+    @Benchmark
+    public String setToCSV() {
+        fill();
+        return mCodex.toCSV();
+    }
+
+}
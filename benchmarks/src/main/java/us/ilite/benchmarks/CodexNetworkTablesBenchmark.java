@@ -0,0 +1,63 @@
+package us.ilite.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.flybotix.hfr.codex.Codex;
+
+import us.ilite.common.io.CodexNetworkTables;
+import us.ilite.common.types.drive.EDriveData;
+
+/**
+ * Publishing the drive codex to NetworkTables once per cycle: send() then flush().  Compares a cycle where every value
+ * changed against a steady one where send() finds nothing to write.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodexNetworkTablesBenchmark {
+
+    private static final EDriveData[] kElements = EDriveData.values();
+
+    private final CodexNetworkTables mNetworkTables = CodexNetworkTables.getInstance();
+    private final Codex<Double, EDriveData> mCodex = Codex.of.thisEnum(EDriveData.class);
+    private double mValue = 0.0;
+
+    @Setup
+    public void setUp() {
+        mNetworkTables.registerCodex("Benchmark", mCodex);
+        for(int i = 0; i < kElements.length; i++) {
+            mCodex.set(kElements[i], (double)i);
+        }
+    }
+
+    @Benchmark
+    public void sendChanged() {
+        mValue += 0.01;
+        for(int i = 0; i < kElements.length; i++) {
+            mCodex.set(kElements[i], mValue + i);
+        }
+        mNetworkTables.send(mCodex);
+        mNetworkTables.flush();
+    }
+
+    @Benchmark
+    public void sendUnchanged() {
+        mNetworkTables.send(mCodex);
+        mNetworkTables.flush();
+    }
+
+}
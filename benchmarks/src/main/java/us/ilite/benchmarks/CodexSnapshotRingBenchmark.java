@@ -0,0 +1,79 @@
+package us.ilite.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.flybotix.hfr.codex.Codex;
+
+import us.ilite.common.io.CodexFrameLayout;
+import us.ilite.common.io.CodexSnapshotRing;
+import us.ilite.common.types.ETargetingData;
+import us.ilite.common.types.drive.EDriveData;
+import us.ilite.common.types.input.ELogitech310;
+import us.ilite.common.types.sensor.EGyro;
+import us.ilite.common.types.sensor.EPowerDistPanel;
+
+/**
+ * What snapshotting the logged codexes costs the control thread while the flight recorder's thread drains the ring.
+ * Sampled, so JMH reports the p50/p99 per snapshot - both should stay within a few microseconds.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodexSnapshotRingBenchmark {
+
+    private CodexSnapshotRing mRing;
+    private Thread mConsumer;
+
+    @Setup
+    public void setUp() {
+        Codex<Double, EGyro> imu = Codex.of.thisEnum(EGyro.class);
+        Codex<Double, EDriveData> drive = Codex.of.thisEnum(EDriveData.class);
+        Codex<Double, ELogitech310> driverinput = Codex.of.thisEnum(ELogitech310.class);
+        Codex<Double, EPowerDistPanel> pdp = Codex.of.thisEnum(EPowerDistPanel.class);
+        Codex<Double, ETargetingData> limelight = Codex.of.thisEnum(ETargetingData.class);
+        for(EDriveData e : EDriveData.values()) drive.set(e, (double)e.ordinal());
+        for(EPowerDistPanel e : EPowerDistPanel.values()) pdp.set(e, (double)e.ordinal());
+        imu.set(EGyro.YAW_DEGREES, 1.0);
+        driverinput.set(ELogitech310.LEFT_Y_AXIS, 0.5);
+        limelight.set(ETargetingData.tx, 3.0);
+
+        CodexSnapshotRing ring = new CodexSnapshotRing(new CodexFrameLayout(imu, drive, driverinput, pdp, limelight), 1024);
+        mConsumer = new Thread(() -> {
+            while(!Thread.currentThread().isInterrupted()) {
+                if(ring.poll() != null) {
+                    ring.release();
+                }
+            }
+        });
+        mConsumer.setDaemon(true);
+        mConsumer.start();
+        mRing = ring;
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        mConsumer.interrupt();
+        mConsumer.join();
+    }
+
+    @Benchmark
+    public boolean snapshot() {
+        return mRing.snapshot();
+    }
+
+}
@@ -0,0 +1,135 @@
+package us.ilite.benchmarks;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.ilite.robot.commands.ICommand;
+import us.ilite.robot.commands.ParallelCommandGroup;
+import us.ilite.robot.commands.ParallelDeadlineGroup;
+import us.ilite.robot.commands.SequentialCommandGroup;
+
+/**
+ * One cycle of a routine with many subsystem commands running in parallel: the array-backed command groups against
+ * the LinkedList-backed ParallelCommand they replaced.  -prof gc should report no allocation for the groups.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandGroupBenchmark {
+
+    @Param({"8", "48"})
+    public int mCommandCount;
+
+    private ICommand mParallel;
+    private ICommand mRoutine;
+    private ICommand mLinkedList;
+    private double mNow = 0.0;
+
+    /** Never finishes, like a subsystem command holding a setpoint */
+    private static class HoldCommand implements ICommand {
+        private double mLastUpdate;
+
+        @Override
+        public void init(double pNow) {
+        }
+
+        @Override
+        public boolean update(double pNow) {
+            mLastUpdate = pNow;
+            return false;
+        }
+
+        @Override
+        public void shutdown(double pNow) {
+        }
+    }
+
+    /** What ParallelCommand used to do */
+    private static class LinkedListParallelCommand implements ICommand {
+        private final List<ICommand> mCommandList = new LinkedList<>();
+
+        LinkedListParallelCommand(ICommand[] pCommands) {
+            for(ICommand command : pCommands) {
+                mCommandList.add(command);
+            }
+        }
+
+        @Override
+        public void init(double pNow) {
+            for(ICommand c : mCommandList) {
+                c.init(pNow);
+            }
+        }
+
+        @Override
+        public boolean update(double pNow) {
+            List<ICommand> toremove = new ArrayList<>();
+            for(ICommand c : mCommandList) {
+                if(c.update(pNow)) {
+                    toremove.add(c);
+                }
+            }
+            mCommandList.removeAll(toremove);
+            return mCommandList.isEmpty();
+        }
+
+        @Override
+        public void shutdown(double pNow) {
+        }
+    }
+
+    private ICommand[] holdCommands() {
+        ICommand[] commands = new ICommand[mCommandCount];
+        for(int i = 0; i < commands.length; i++) {
+            commands[i] = new HoldCommand();
+        }
+        return commands;
+    }
+
+    @Setup
+    public void setUp() {
+        mParallel = new ParallelCommandGroup(holdCommands());
+        mParallel.init(0.0);
+        // A drive command as the deadline for everything else, inside the routine's sequence
+        mRoutine = new SequentialCommandGroup(new ParallelDeadlineGroup(new HoldCommand(), new ParallelCommandGroup(holdCommands())));
+        mRoutine.init(0.0);
+        mLinkedList = new LinkedListParallelCommand(holdCommands());
+        mLinkedList.init(0.0);
+    }
+
+    @Benchmark
+    public boolean parallelGroup() {
+        mNow += 0.02;
+        return mParallel.update(mNow);
+    }
+
+    @Benchmark
+    public boolean nestedRoutine() {
+        mNow += 0.02;
+        return mRoutine.update(mNow);
+    }
+
+    @Benchmark
+    public boolean linkedList() {
+        mNow += 0.02;
+        return mLinkedList.update(mNow);
+    }
+
+}
@@ -0,0 +1,96 @@
+package us.ilite.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.ilite.robot.commands.ICommand;
+import us.ilite.robot.modules.CommandScheduler;
+import us.ilite.robot.modules.ESubsystem;
+
+/**
+ * The CommandScheduler with many commands running at once: one cycle of updates, and a trigger command interrupting
+ * whatever holds the drivetrain.  Neither should allocate, and interrupting shouldn't grow with the command count.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandSchedulerBenchmark {
+
+    @Param({"8", "48"})
+    public int mCommandCount;
+
+    private CommandScheduler mScheduler;
+    private ICommand mFirstDriveCommand;
+    private ICommand mSecondDriveCommand;
+    private boolean mIsFirst = false;
+    private double mNow = 0.0;
+
+    /** Never finishes, like a subsystem command holding a setpoint */
+    private static class HoldCommand implements ICommand {
+        private final long mRequirements;
+        private double mLastUpdate;
+
+        HoldCommand(long pRequirements) {
+            mRequirements = pRequirements;
+        }
+
+        @Override
+        public void init(double pNow) {
+        }
+
+        @Override
+        public boolean update(double pNow) {
+            mLastUpdate = pNow;
+            return false;
+        }
+
+        @Override
+        public void shutdown(double pNow) {
+        }
+
+        @Override
+        public long getRequirements() {
+            return mRequirements;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        mScheduler = new CommandScheduler();
+        mFirstDriveCommand = new HoldCommand(ESubsystem.DRIVE.mask());
+        mSecondDriveCommand = new HoldCommand(ESubsystem.DRIVE.mask());
+        mScheduler.schedule(mSecondDriveCommand, 0, 0.0);
+        for(int i = 1; i < mCommandCount; i++) {
+            mScheduler.schedule(new HoldCommand(0L), 0, 0.0);
+        }
+    }
+
+    @Benchmark
+    public int update() {
+        mNow += 0.02;
+        mScheduler.update(mNow);
+        return mScheduler.getScheduledCount();
+    }
+
+    @Benchmark
+    public boolean interrupt() {
+        mNow += 0.02;
+        mIsFirst = !mIsFirst;
+        return mScheduler.schedule(mIsFirst ? mFirstDriveCommand : mSecondDriveCommand, 0, mNow);
+    }
+
+}
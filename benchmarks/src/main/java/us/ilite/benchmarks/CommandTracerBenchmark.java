@@ -0,0 +1,81 @@
+package us.ilite.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.ilite.robot.commands.CommandTracer;
+import us.ilite.robot.commands.ICommand;
+import us.ilite.robot.commands.ParallelCommandGroup;
+
+/**
+ * What tracing costs one cycle of a parallel group: compare against CommandGroupBenchmark.parallelGroup.  Each child
+ * update is two System.nanoTime() calls and a record, and -prof gc should report no allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandTracerBenchmark {
+
+    @Param({"8", "48"})
+    public int mCommandCount;
+
+    private ICommand mParallel;
+    private double mNow = 0.0;
+
+    /** Never finishes, like a subsystem command holding a setpoint */
+    private static class HoldCommand implements ICommand {
+        private double mLastUpdate;
+
+        @Override
+        public void init(double pNow) {
+        }
+
+        @Override
+        public boolean update(double pNow) {
+            mLastUpdate = pNow;
+            return false;
+        }
+
+        @Override
+        public void shutdown(double pNow) {
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        ICommand[] commands = new ICommand[mCommandCount];
+        for(int i = 0; i < commands.length; i++) {
+            commands[i] = new HoldCommand();
+        }
+        mParallel = new ParallelCommandGroup(commands);
+        CommandTracer.setActive(new CommandTracer(1 << 16));
+        CommandTracer.init(mParallel, 0.0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        CommandTracer.setActive(null);
+    }
+
+    @Benchmark
+    public boolean tracedParallelGroup() {
+        mNow += 0.02;
+        return CommandTracer.update(mParallel, mNow);
+    }
+
+}
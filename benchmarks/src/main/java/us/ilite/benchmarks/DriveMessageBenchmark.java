@@ -0,0 +1,99 @@
+package us.ilite.benchmarks;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import us.ilite.robot.hardware.ECommonControlMode;
+import us.ilite.robot.hardware.ECommonNeutralMode;
+import us.ilite.robot.modules.DriveMessage;
+
+/**
+ * Compares building a new DriveMessage every cycle against the reused, double-buffered path Drive uses, including the
+ * hand-off to the drive thread.  Run with -prof gc to see the allocation difference.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DriveMessageBenchmark {
+
+    private final Object mLock = new Object();
+    private final DriveMessage mProducerMessage = new DriveMessage();
+    private final DriveMessage mCommandBuffer = new DriveMessage();
+    private final DriveMessage mOutputBuffer = new DriveMessage();
+    private DriveMessage mLatestMessage = DriveMessage.kNeutral;
+
+    private double mThrottle = 0.0;
+    private double mTurn = 0.0;
+
+    private void nextInputs() {
+        // Vary inputs so nothing is constant-folded
+        mThrottle = mThrottle > 1.0 ? -1.0 : mThrottle + 0.01;
+        mTurn = mTurn < -1.0 ? 1.0 : mTurn - 0.013;
+    }
+
+    @Benchmark
+    public void allocatingPath(Blackhole pBlackhole) {
+        nextInputs();
+        DriveMessage message = new DriveMessage().throttle(mThrottle).turn(mTurn).mode(ECommonControlMode.PERCENT_OUTPUT).normalize().calculateCurvature();
+        synchronized(mLock) {
+            mLatestMessage = message;
+        }
+        DriveMessage output;
+        synchronized(mLock) {
+            output = mLatestMessage;
+        }
+        pBlackhole.consume(output.getLeftOutput());
+        pBlackhole.consume(output.getRightOutput());
+    }
+
+    @Benchmark
+    public void reusedPath(Blackhole pBlackhole) {
+        nextInputs();
+        mProducerMessage.reset().throttle(mThrottle).turn(mTurn).mode(ECommonControlMode.PERCENT_OUTPUT).normalize().calculateCurvature();
+        synchronized(mLock) {
+            mCommandBuffer.set(mProducerMessage);
+        }
+        synchronized(mLock) {
+            mOutputBuffer.set(mCommandBuffer);
+        }
+        pBlackhole.consume(mOutputBuffer.getLeftOutput());
+        pBlackhole.consume(mOutputBuffer.getRightOutput());
+    }
+
+    @Benchmark
+    public double normalizeCalculateCurvature() {
+        nextInputs();
+        mProducerMessage.reset().throttle(mThrottle).turn(mTurn).normalize().calculateCurvature();
+        return mProducerMessage.getLeftOutput() + mProducerMessage.getRightOutput();
+    }
+
+    @Benchmark
+    public int boxedHashCode() {
+        nextInputs();
+        mProducerMessage.throttle(mThrottle);
+        // What DriveMessage.hashCode() used to do
+        return Objects.hash(false, mTurn, mThrottle, 0.0, 0.0, ECommonControlMode.PERCENT_OUTPUT, ECommonNeutralMode.BRAKE);
+    }
+
+    @Benchmark
+    public int primitiveHashCode() {
+        nextInputs();
+        mProducerMessage.throttle(mThrottle).turn(mTurn);
+        return mProducerMessage.hashCode();
+    }
+
+}
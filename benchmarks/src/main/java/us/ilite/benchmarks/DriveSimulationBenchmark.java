@@ -0,0 +1,69 @@
+package us.ilite.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.ilite.common.lib.util.SimulatedTimeSource;
+import us.ilite.robot.auto.paths.AutoPaths;
+import us.ilite.robot.hardware.Clock;
+import us.ilite.robot.hardware.DifferentialDriveSim;
+import us.ilite.robot.hardware.ECommonControlMode;
+import us.ilite.robot.hardware.SimDriveHardware;
+import us.ilite.robot.modules.DriveMessage;
+
+/**
+ * Wall time to simulate a whole 150 second match: the bare physics at 1kHz, and SimDriveHardware driven the way
+ * Drive drives it, a set() and refresh() every 10ms with the physics stepping at 1kHz underneath.  Both should come in
+ * well under a second so autonomous routines can be evaluated in batches.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DriveSimulationBenchmark {
+
+    private static final double kMatchSeconds = 150.0;
+
+    @Benchmark
+    public double physicsMatch() {
+        DifferentialDriveSim sim = new DifferentialDriveSim(AutoPaths.kProfile, 0.057);
+        int steps = (int)(kMatchSeconds / 0.001);
+        for(int i = 0; i < steps; i++) {
+            // Weave, so both the linear and angular dynamics are exercised
+            double turn = (i / 2000) % 2 == 0 ? 1.0 : -1.0;
+            sim.setVoltages(6.0 - turn, 6.0 + turn, false, false);
+            sim.step(0.001);
+        }
+        return sim.getX() + sim.getY();
+    }
+
+    @Benchmark
+    public double hardwareMatch() {
+        SimulatedTimeSource time = new SimulatedTimeSource();
+        Clock clock = new Clock(time);
+        SimDriveHardware hardware = new SimDriveHardware(clock, AutoPaths.kProfile);
+        hardware.init();
+        DriveMessage message = new DriveMessage().mode(ECommonControlMode.VELOCITY);
+        int cycles = (int)(kMatchSeconds / 0.01);
+        for(int i = 0; i < cycles; i++) {
+            double turn = (i / 200) % 2 == 0 ? 50.0 : -50.0;
+            hardware.set(message.demand(300.0 - turn, 300.0 + turn));
+            time.advanceSeconds(0.01);
+            clock.cycleEnded();
+            hardware.refresh(clock.getCurrentTime());
+        }
+        return hardware.getLeftInches() + hardware.getRightInches();
+    }
+
+}
@@ -0,0 +1,86 @@
+package us.ilite.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.flybotix.hfr.codex.Codex;
+
+import edu.wpi.first.wpilibj.Joystick;
+import us.ilite.common.types.input.ELogitech310;
+
+/**
+ * Mapping a gamepad into its codex, which DriverInput does for both controllers every cycle.  The joystick replays
+ * canned values so the cost measured is the mapping's, not the Driver Station's.  Joystick's constructor still reaches
+ * the HAL, so this needs the desktop simulation natives on the library path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DriverInputBenchmark {
+
+    private final Codex<Double, ELogitech310> mCodex = Codex.of.thisEnum(ELogitech310.class);
+    private ReplayJoystick mJoystick;
+
+    @Setup
+    public void setUp() {
+        mJoystick = new ReplayJoystick();
+    }
+
+    @Benchmark
+    public void map(Blackhole pBlackhole) {
+        mJoystick.next();
+        ELogitech310.map(mCodex, mJoystick, null, false);
+        pBlackhole.consume(mCodex);
+    }
+
+    @Benchmark
+    public void mapWithDeadband(Blackhole pBlackhole) {
+        mJoystick.next();
+        ELogitech310.map(mCodex, mJoystick, null, true);
+        pBlackhole.consume(mCodex);
+    }
+
+    private static class ReplayJoystick extends Joystick {
+
+        private int mCycle = 0;
+
+        ReplayJoystick() {
+            super(0);
+        }
+
+        void next() {
+            mCycle++;
+        }
+
+        @Override
+        public boolean getRawButton(int pButton) {
+            return ((mCycle + pButton) & 4) != 0;
+        }
+
+        @Override
+        public double getRawAxis(int pAxis) {
+            return Math.sin(mCycle * 0.01 + pAxis);
+        }
+
+        @Override
+        public int getPOV(int pPov) {
+            return (mCycle & 8) != 0 ? 90 : -1;
+        }
+
+    }
+
+}
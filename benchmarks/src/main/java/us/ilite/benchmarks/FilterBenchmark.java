@@ -0,0 +1,97 @@
+package us.ilite.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.ilite.common.lib.util.ExponentialFilter;
+import us.ilite.common.lib.util.FirFilter;
+import us.ilite.common.lib.util.IFilter;
+import us.ilite.common.lib.util.MedianFilter;
+import us.ilite.common.lib.util.MovingAverage;
+import us.ilite.common.lib.util.SavitzkyGolayDerivative;
+
+/**
+ * Adding a sample to each full IFilter, at two window lengths.  -prof gc should report no allocation for any of them,
+ * and the moving average and exponential filter should take the same time at both lengths.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterBenchmark {
+
+    @Param({"4", "16"})
+    public int mLength;
+
+    private IFilter mFir;
+    private IFilter mMovingAverage;
+    private IFilter mExponential;
+    private IFilter mMedian;
+    private IFilter mDerivative;
+    private double mSample = 0.0;
+
+    @Setup
+    public void setUp() {
+        double[] gains = new double[mLength];
+        for(int i = 0; i < mLength; i++) {
+            gains[i] = 1.0 / mLength;
+        }
+        mFir = new FirFilter(gains);
+        mMovingAverage = new MovingAverage(mLength);
+        mExponential = ExponentialFilter.fromTimeConstant(mLength * 0.02, 0.02);
+        mMedian = new MedianFilter(mLength);
+        mDerivative = new SavitzkyGolayDerivative(mLength, 0.02);
+        for(int i = 0; i < mLength; i++) {
+            nextSample();
+            mFir.add(mSample);
+            mMovingAverage.add(mSample);
+            mExponential.add(mSample);
+            mMedian.add(mSample);
+            mDerivative.add(mSample);
+        }
+    }
+
+    private double nextSample() {
+        mSample = mSample > 1.0 ? -1.0 : mSample + 0.01;
+        return mSample;
+    }
+
+    @Benchmark
+    public double firFilter() {
+        return mFir.add(nextSample());
+    }
+
+    @Benchmark
+    public double movingAverage() {
+        return mMovingAverage.add(nextSample());
+    }
+
+    @Benchmark
+    public double exponentialFilter() {
+        return mExponential.add(nextSample());
+    }
+
+    @Benchmark
+    public double medianFilter() {
+        return mMedian.add(nextSample());
+    }
+
+    @Benchmark
+    public double savitzkyGolayDerivative() {
+        return mDerivative.add(nextSample());
+    }
+
+}
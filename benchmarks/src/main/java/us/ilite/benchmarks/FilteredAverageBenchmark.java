@@ -0,0 +1,56 @@
+package us.ilite.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.ilite.common.lib.util.FilteredAverage;
+
+/**
+ * Adding a sample to a full FilteredAverage and reading the average back, as the IMUs do for each acceleration axis
+ * every cycle.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilteredAverageBenchmark {
+
+    @Param({"4", "16"})
+    public int mLength;
+
+    private FilteredAverage mAverage;
+    private double mSample = 0.0;
+
+    @Setup
+    public void setUp() {
+        double[] gains = new double[mLength];
+        for(int i = 0; i < mLength; i++) {
+            gains[i] = 1.0 / mLength;
+        }
+        mAverage = new FilteredAverage(gains);
+        for(int i = 0; i < mLength; i++) {
+            mAverage.addNumber(i);
+        }
+    }
+
+    @Benchmark
+    public double addNumberGetAverage() {
+        mSample = mSample > 1.0 ? -1.0 : mSample + 0.01;
+        mAverage.addNumber(mSample);
+        return mAverage.getAverage();
+    }
+
+}
@@ -0,0 +1,51 @@
+package us.ilite.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.ilite.common.config.Settings;
+import us.ilite.common.lib.control.PIDController;
+import us.ilite.common.lib.control.ProfileGains;
+
+/**
+ * One calculate() of a continuous heading loop, as DriveStraight and TurnToDegree run it every cycle.  Includes the
+ * controller's per-call codex logging.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PIDControllerBenchmark {
+
+    private PIDController mController;
+    private double mInput = 0.0;
+    private double mTime = 0.0;
+
+    @Setup
+    public void setUp() {
+        mController = new PIDController(new ProfileGains().p(0.02).d(0.001), -180.0, 180.0, Settings.kControlLoopPeriod);
+        mController.setContinuous(true);
+        mController.setSetpoint(90.0);
+    }
+
+    @Benchmark
+    public double calculate() {
+        // Sweep all the way around so the continuous wrap is exercised too
+        mInput = mInput >= 180.0 ? -180.0 : mInput + 0.7;
+        mTime += Settings.kControlLoopPeriod;
+        return mController.calculate(mInput, mTime);
+    }
+
+}
@@ -0,0 +1,91 @@
+package us.ilite.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.wpi.first.wpilibj.controller.RamseteController;
+import edu.wpi.first.wpilibj.geometry.Pose2d;
+import edu.wpi.first.wpilibj.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.kinematics.DifferentialDriveKinematics;
+import edu.wpi.first.wpilibj.kinematics.DifferentialDriveWheelSpeeds;
+import edu.wpi.first.wpilibj.trajectory.Trajectory;
+import us.ilite.common.config.Settings;
+import us.ilite.common.lib.control.RamseteFollower;
+import us.ilite.common.lib.control.TrajectorySampler;
+import us.ilite.robot.auto.paths.AutoPaths;
+import us.ilite.robot.auto.paths.PathGenerator;
+
+/**
+ * Cost of one path following cycle at 100Hz: RamseteFollower over a flattened trajectory, against the same control
+ * law built from WPILib's Trajectory.sample() and RamseteController, which allocate a handful of objects per call.
+ * -prof gc should report no allocation for follower.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathFollowerBenchmark {
+
+    private Trajectory mTrajectory;
+    private TrajectorySampler mSampler;
+    private RamseteFollower mFollower;
+    private RamseteController mWpiController;
+    private DifferentialDriveKinematics mKinematics;
+    private double mTime;
+
+    @Setup
+    public void setUp() {
+        PathGenerator generator = new PathGenerator(AutoPaths.kProfile);
+        mTrajectory = generator.generate(AutoPaths.kSCurveLeft);
+        mSampler = new TrajectorySampler(mTrajectory);
+        mFollower = new RamseteFollower(AutoPaths.kProfile, Settings.Paths.kRamseteB, Settings.Paths.kRamseteZeta);
+        mFollower.start(mSampler, 0.0);
+        mWpiController = new RamseteController(Settings.Paths.kRamseteB, Settings.Paths.kRamseteZeta);
+        mKinematics = generator.getKinematics();
+    }
+
+    private double nextTime() {
+        // Sweep the whole trajectory so the search isn't always hitting the same states
+        mTime += 0.01;
+        if(mTime > mTrajectory.getTotalTimeSeconds()) {
+            mTime = 0.0;
+        }
+        return mTime;
+    }
+
+    @Benchmark
+    public double follower() {
+        double t = nextTime();
+        // A pose slightly off the path, as if odometry drifted
+        mSampler.sample(t);
+        double x = mSampler.getX() + 0.02, y = mSampler.getY() - 0.01, heading = mSampler.getHeading() + 0.01;
+        mFollower.update(t, x, y, heading);
+        return mFollower.getLeftVelocity() + mFollower.getRightVelocity() + mFollower.getLeftFeedforward();
+    }
+
+    @Benchmark
+    public double wpilibController() {
+        double t = nextTime();
+        Trajectory.State reference = mTrajectory.sample(t);
+        Pose2d pose = new Pose2d(reference.poseMeters.getTranslation().getX() + 0.02,
+                reference.poseMeters.getTranslation().getY() - 0.01,
+                new Rotation2d(reference.poseMeters.getRotation().getRadians() + 0.01));
+        ChassisSpeeds speeds = mWpiController.calculate(pose, reference);
+        DifferentialDriveWheelSpeeds wheels = mKinematics.toWheelSpeeds(speeds);
+        return wheels.leftMetersPerSecond + wheels.rightMetersPerSecond;
+    }
+
+}
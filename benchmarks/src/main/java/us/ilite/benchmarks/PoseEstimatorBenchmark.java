@@ -0,0 +1,71 @@
+package us.ilite.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.ilite.common.config.Settings;
+import us.ilite.common.lib.control.DifferentialDrivePoseEstimator;
+
+/**
+ * Cost of one pose estimator cycle at 100Hz, with and without a vision measurement to fuse.  The budget is well under
+ * 100us per update; -prof gc should report no allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PoseEstimatorBenchmark {
+
+    private DifferentialDrivePoseEstimator mEstimator;
+    private double mTime;
+    private double mLeft;
+    private double mRight;
+    private double mHeading;
+
+    @Setup
+    public void setUp() {
+        mEstimator = new DifferentialDrivePoseEstimator(Settings.kPoseHistoryCapacity, Settings.kPoseInitialVariance,
+                Settings.kPoseOdometryVariancePerInch, Settings.kPoseVisionBaseVariance,
+                Settings.kPoseVisionVariancePerDistanceSquared, Settings.kPoseVisionGateSigmas);
+        // Fill the history so lookups search a full ring
+        for(int i = 0; i < Settings.kPoseHistoryCapacity; i++) {
+            step();
+        }
+    }
+
+    private void step() {
+        // Gentle left arc
+        mTime += 0.01;
+        mLeft += 0.9;
+        mRight += 1.1;
+        mHeading += 0.5;
+        mEstimator.update(mTime, mLeft, mRight, mHeading);
+    }
+
+    @Benchmark
+    public double odometryUpdate() {
+        step();
+        return mEstimator.getXInches();
+    }
+
+    @Benchmark
+    public double odometryUpdateWithVision() {
+        step();
+        // A frame captured 40ms ago of a target about 10ft ahead
+        mEstimator.addVisionMeasurement(mTime - 0.04, 120.0, 5.0, mEstimator.getXInches() + 120.0, mEstimator.getYInches() + 5.0);
+        return mEstimator.getXInches();
+    }
+
+}
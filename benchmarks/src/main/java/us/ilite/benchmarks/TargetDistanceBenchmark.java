@@ -0,0 +1,49 @@
+package us.ilite.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.ilite.common.Data;
+import us.ilite.common.config.Settings;
+import us.ilite.common.types.ETargetingData;
+import us.ilite.robot.modules.Limelight;
+
+/**
+ * Limelight's distance estimate from ty, which it computes for every frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TargetDistanceBenchmark {
+
+    private Data mData;
+    private Limelight mLimelight;
+    private double mTy = 0.0;
+
+    @Setup
+    public void setUp() {
+        mData = new Data(false);
+        mLimelight = new Limelight(mData);
+    }
+
+    @Benchmark
+    public double calcTargetDistance() {
+        mTy = mTy > 20.0 ? -20.0 : mTy + 0.1;
+        mData.limelight.set(ETargetingData.ty, mTy);
+        return mLimelight.calcTargetDistance(Settings.VisionTarget.HatchPort);
+    }
+
+}
@@ -12,9 +12,13 @@ import us.ilite.common.config.Settings;
 import us.ilite.common.io.CodexNetworkTables;
 import us.ilite.common.io.CodexNetworkTablesParser;
 import us.ilite.common.io.CodexCsvLogger;
+import us.ilite.common.io.CodexFlightRecorder;
+import us.ilite.common.io.CodexFrameLayout;
+import us.ilite.common.io.CodexSnapshotRing;
 import us.ilite.common.lib.util.SimpleNetworkTable;
 import us.ilite.common.types.ETargetingData;
 import us.ilite.common.types.drive.EDriveData;
+import us.ilite.common.types.drive.EPose;
 import us.ilite.common.types.input.EDriverInputMode;
 import us.ilite.common.types.input.ELogitech310;
 import us.ilite.common.types.sensor.EGyro;
@@ -33,6 +37,7 @@ public class Data {
 
     public final Codex<Double, EGyro> imu = Codex.of.thisEnum(EGyro.class);
     public final Codex<Double, EDriveData> drive = Codex.of.thisEnum(EDriveData.class);
+    public final Codex<Double, EPose> pose = Codex.of.thisEnum(EPose.class);
     public final Codex<Double, ELogitech310> driverinput = Codex.of.thisEnum(ELogitech310.class);
     public final Codex<Double, ELogitech310> operatorinput = Codex.of.thisEnum(ELogitech310.class);
     public final Codex<Double, EPowerDistPanel> pdp = Codex.of.thisEnum(EPowerDistPanel.class);
@@ -44,19 +49,38 @@ public class Data {
             imu, /*drive,*/ driverinput, operatorinput, pdp, /*limelight,*/
     };
 
+    /** Written by the main robot thread, which resets them at the start of each periodic cycle */
+    public final Codex[] mPeriodicCodexes = new Codex[] {
+            driverinput, operatorinput, pdp
+    };
+
     public final Codex[] mLoggedCodexes = new Codex[] {
-        imu, drive, driverinput, /*operatorinput,*/  pdp, limelight
+        imu, drive, pose, driverinput, /*operatorinput,*/  pdp, limelight
     };
 
     public final Codex[] mDisplayedCodexes = new Codex[] {
             imu, /*drive,*/ driverinput, operatorinput, pdp
     };
 
+    // Each ring only holds the codexes its producer thread writes, so a snapshot never reads a codex mid-update
+    /** Snapshots taken by the drive LoopGroup thread at the end of each high-frequency cycle */
+    public final CodexSnapshotRing mDriveLoopSnapshots = new CodexSnapshotRing(new CodexFrameLayout(imu, drive, pose), Settings.kSnapshotRingCapacity);
+    /** Snapshots taken by the vision LoopGroup thread at the end of each cycle */
+    public final CodexSnapshotRing mVisionLoopSnapshots = new CodexSnapshotRing(new CodexFrameLayout(limelight), Settings.kSnapshotRingCapacity);
+    /** Snapshots of mPeriodicCodexes taken by the main robot thread at the end of each periodic cycle */
+    public final CodexSnapshotRing mPeriodicSnapshots = new CodexSnapshotRing(new CodexFrameLayout(mPeriodicCodexes), Settings.kSnapshotRingCapacity);
+
     public static NetworkTableInstance kInst = NetworkTableInstance.getDefault();
     public static SimpleNetworkTable kLoggingTable = new SimpleNetworkTable("LoggingTable");
     public static SimpleNetworkTable kSmartDashboard = new SimpleNetworkTable("SmartDashboard");
     public static NetworkTable kLimelight = kInst.getTable("limelight");
     public static NetworkTable kAutonTable = kInst.getTable("AUTON_SELECTION");
+    // Sent by AutonConfigDisplay: the autonomous routine to run, and seconds to wait before running it
+    public static String kAutonRoutineKey = "Routine";
+    public static String kAutonDelayKey = "Delay";
+    // Sent by the robot: the routines it has built, and the one it will run
+    public static String kAutonRoutinesKey = "Routines";
+    public static String kAutonSelectedKey = "Selected";
     public static SimpleNetworkTable kDriverControlSelection = new SimpleNetworkTable("DriverControlSelection") {
         @Override
         public void initKeys() {
@@ -69,6 +93,7 @@ public class Data {
 
     private List<CodexNetworkTablesParser<?>> mNetworkTableParsers;
     private List<CodexCsvLogger> mCodexCsvLoggers;
+    private CodexFlightRecorder mFlightRecorder;
 
     /**
      * Create a Data object based on whether or not it is being used for logging
@@ -86,20 +111,21 @@ public class Data {
     }
 
     private void initParsers() {
-        //Add new codexes as we support more into this list
-//        mNetworkTableParsers = Arrays.asList(
-//            new CodexNetworkTablesParser<EGyro>(imu),
-//            new CodexNetworkTablesParser<EDriveData>(drive),
-//            new CodexNetworkTablesParser<ELogitech310>(driverinput, "DRIVER"),
-//            new CodexNetworkTablesParser<ELogitech310>(operatorinput, "OPERATOR"),
-//            new CodexNetworkTablesParser<EElevator>( elevator, "ELEVATOR" ),
-//            new CodexNetworkTablesParser<ECargoSpit>( cargospit, "CARGOSPIT" ),
-//            new CodexNetworkTablesParser<EPowerDistPanel>( pdp, "PDP" ),
-//            new CodexNetworkTablesParser<EFourBarData>(fourbar, "FOURBAR")
-//        );
+        //Add new codexes as we support more into this list.  These must match the tables registerCodices() publishes to.
+        mNetworkTableParsers = Arrays.asList(
+            new CodexNetworkTablesParser<EGyro>(imu),
+            new CodexNetworkTablesParser<EDriveData>(drive),
+            new CodexNetworkTablesParser<EPose>(pose),
+            new CodexNetworkTablesParser<ELogitech310>(driverinput),
+            new CodexNetworkTablesParser<EPowerDistPanel>(pdp),
+            new CodexNetworkTablesParser<ETargetingData>(limelight)
+        );
         
         mCodexCsvLoggers = new ArrayList<>();
 //        for(Codex c : mLoggedCodexes) mCodexCsvLoggers.add(new CodexCsvLogger(c));
+        if(Settings.kUseFlightRecorder) {
+            mFlightRecorder = new CodexFlightRecorder(mDriveLoopSnapshots, mVisionLoopSnapshots, mPeriodicSnapshots);
+        }
     }
 
     /**
@@ -109,6 +135,14 @@ public class Data {
         mNetworkTableParsers.forEach(c -> c.parseFromNetworkTables());
     }
 
+    /**
+     * Subscribes every parser in mNetworkTableParsers to its table, so networkTablesCodexToCSVLog() logs every
+     * published sample instead of polling.
+     */
+    public void startNetworkTableListeners() {
+        mNetworkTableParsers.forEach(c -> c.startListening(Settings.kSnapshotRingCapacity));
+    }
+
     /**
      * Logs csv headers to the files using network tables
      * -- This should be called once before csv logging --
@@ -126,13 +160,14 @@ public class Data {
         }
     }
     /**
-     * Logs codex values to its corresponding csv using network tables
+     * Logs every codex frame received since the last call to its corresponding csv.
+     * Requires startNetworkTableListeners().
      */
     public void networkTablesCodexToCSVLog() {
         for (CodexNetworkTablesParser<?> parser : mNetworkTableParsers) {
             try {
                 Writer logger = mNetworkTableWriters.get(parser.getCSVIdentifier());
-                logger.append(parser.codexToCSVLog());
+                parser.drainTo(logger);
                 logger.flush();
             }
             catch (IOException e) {
@@ -154,6 +189,24 @@ public class Data {
 //        }
     }
 
+    /**
+     * Opens a new flight recorder file and starts recording, if the recorder is enabled and not already running.
+     */
+    public void startFlightRecorder() {
+        if(mFlightRecorder != null) {
+            mFlightRecorder.start();
+        }
+    }
+
+    /**
+     * Flushes and closes the flight recorder, if it is enabled.  It is re-opened by startFlightRecorder().
+     */
+    public void stopFlightRecorder() {
+        if(mFlightRecorder != null) {
+            mFlightRecorder.stop();
+        }
+    }
+
     /**
      * Creates writers if they don't already exist
      */
@@ -185,6 +238,7 @@ public class Data {
         }
 
         mCodexCsvLoggers.forEach(c -> c.closeWriter());
+        stopFlightRecorder();
     }
 
     /**
@@ -217,14 +271,17 @@ public class Data {
         }
     }
 
+    /**
+     * Publishes the values of mLoggedCodexes that changed since the last call, with a single NetworkTables flush.
+     */
     public void sendCodicesToNetworkTables() {
         for(Codex<?, ?> c : mLoggedCodexes) {
             mCodexNT.send(c);
         }
+        mCodexNT.flush();
     }
 
     /**
-     * @Deprecated
      * Do this before sending codices to NetworkTables
      */
     public void registerCodices() {
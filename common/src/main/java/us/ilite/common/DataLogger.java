@@ -3,6 +3,9 @@ package us.ilite.common;
 import edu.wpi.first.networktables.NetworkTableInstance;
 
 public class DataLogger extends Thread {
+    // How often queued frames are written out.  Frames are captured by NT listeners, so this only affects latency.
+    private static final long kWritePeriodMs = 20;
+
     //This is for logging codexes to csv
     public static void main(String[] args) {
         NetworkTableInstance.getDefault().startClientTeam(1885);
@@ -11,20 +14,20 @@ public class DataLogger extends Thread {
         Thread logger = new Thread() {
             public void run() {
                 boolean running = true;
-                loggedData.logFromCodexToCSVHeader();
+                loggedData.handleNetworkTableWriterCreation();
+                loggedData.networkTablesCodexToCSVHeader();
+                loggedData.startNetworkTableListeners();
                     while(running) {
-                        loggedData.logFromNetworkTables();
-                        // System.out.println(System.currentTimeMillis() + " " + loggedData.imu);
                         loggedData.networkTablesCodexToCSVLog();
                         try {
-                            Thread.sleep(1000);
+                            Thread.sleep(kWritePeriodMs);
                         } catch (InterruptedException e) {
-                            // TODO Auto-generated catch block
-                            e.printStackTrace();
+                            running = false;
                         }
                     }
+                loggedData.closeWriters();
             }
         };
         logger.start();
     }
-}
\ No newline at end of file
+}
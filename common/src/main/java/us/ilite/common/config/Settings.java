@@ -12,7 +12,25 @@ import java.util.List;
 public class Settings extends NetworkTablesConstantsBase {
 
     public static double kControlLoopPeriod = 0.01; // seconds
+    public static double kVisionLoopPeriod = 0.02; // seconds
+    // CPU each loop group's thread should be pinned to, or -1 to let the OS decide - see LoopGroup.setAffinityHint
+    public static int kDriveLoopCpuHint = -1;
+    public static int kVisionLoopCpuHint = -1;
     public static double kCSVLoggingPeriod = 0.02;  // seconds
+    // Binary codex logging - see CodexFlightRecorder
+    public static boolean kUseFlightRecorder = true;
+    // Frames per codex snapshot ring (rounded up to a power of two) - about 10s of high-frequency loop cycles
+    public static int kSnapshotRingCapacity = 1024;
+    // Command init/update/shutdown records kept for the trace written after each match - see CommandTracer
+    public static boolean kUseCommandTracer = true;
+    public static int kCommandTraceCapacity = 1 << 16;
+    // Distinct commands traced between writes - each routine and trigger command counts
+    public static int kCommandTraceCommands = 512;
+    // How often per-module execution time stats are published - see ModuleTimings
+    public static double kModuleTimingPublishPeriod = 1.0; // seconds
+    // PDP sampling - see PdpSampler.  Drive.kPdpSlots and VOLTAGE are read every fast period, everything else slowly
+    public static double kPdpFastSamplePeriod = 0.01; // seconds
+    public static double kPdpSlowSamplePeriod = 0.25; // seconds
 
     public static double kNetworkTableUpdateRate = 0.01;
 
@@ -81,6 +99,10 @@ public class Settings extends NetworkTablesConstantsBase {
         public static ProfileGains kVelocityPID = new ProfileGains().p(1.0).maxVelocity(5676d).maxAccel(56760d);
         public static ProfileGains kTurnToProfileGains = new ProfileGains().f(0.085);
         public static double kTurnSensitivity = 0.85;
+        // Drive outputs closer than this to the last frame sent are not re-sent over CAN...
+        public static double kCanWriteEpsilon = 1e-4;
+        // ...unless this many seconds have passed since that frame
+        public static double kCanKeepAlivePeriod = 0.1;
 
         public static EPowerDistPanel[] kPdpSlots = new EPowerDistPanel[]{
                 /* Left */
@@ -94,6 +116,43 @@ public class Settings extends NetworkTablesConstantsBase {
         };
     }
 
+    // =============================================================================
+    // Autonomous path defaults - see PathDefinition
+    // =============================================================================
+    public static class Paths {
+        public static double kMaxVelocity = 3.0; // m/s
+        public static double kMaxAcceleration = 2.0; // m/s^2
+        public static double kMaxCentripetalAcceleration = 2.0; // m/s^2
+        // Leaves headroom below battery voltage for feedback corrections
+        public static double kMaxVoltage = 10.0;
+        // Trajectories generated on the robot are saved here, since the deploy directory is replaced on every deploy
+        public static String kCacheDirectory = "/home/lvuser/trajectories";
+        // Ramsete follower gains - see RamseteFollower
+        public static double kRamseteB = 2.0;
+        public static double kRamseteZeta = 0.7;
+    }
+
+    // =============================================================================
+    // Drivetrain simulation - see SimDriveHardware and DifferentialDriveSim
+    // =============================================================================
+    public static class Simulation {
+        public static double kPhysicsPeriod = 0.001; // seconds, same rate as the motor controllers' loops
+        public static double kBatteryVoltage = 12.0;
+        // Two NEOs in parallel per side
+        public static double kDriveSideResistanceOhms = 0.057;
+        public static int kDriveMotorsPerSide = 2;
+        // Emulated motor controller loops, in volts per m/s and volts per meter of error
+        public static double kVelocityKp = 6.0;
+        public static double kPositionKp = 40.0;
+        // Standard deviation of the noise added to each sensor reading
+        public static double kEncoderNoiseInches = 0.0;
+        public static double kEncoderVelocityNoiseInchesPerSecond = 0.0;
+        public static double kGyroNoiseDegrees = 0.0;
+        // How old sensor readings are when refresh() returns them
+        public static double kSensorLatency = 0.0; // seconds
+        public static long kNoiseSeed = 1885L;
+    }
+
     public static class Input {
 
         public static double kNormalPercentThrottleReduction = 1.0;
@@ -118,7 +177,14 @@ public class Settings extends NetworkTablesConstantsBase {
         // =============================================================================
         public static double kHeightIn = 58.0;
         public static double kToBumperIn = 10.0;
+        // Camera lens position relative to the centre of the robot, which the pose estimator tracks
+        public static double kForwardOfCenterIn = 0.0;
+        public static double kLeftOfCenterIn = 0.0;
         public static double kAngleDeg = 28.55;
+        // Time between exposure and the start of the pipeline, which tl doesn't include (from the Limelight docs)
+        public static double kImageCaptureLatencyMs = 11.0;
+        // Frames the median of tx, ty and ta is taken over, to reject a frame that saw something else.  1 turns it off.
+        public static int kTargetFilterLength = 1;
 
         // Left angle coefficients for angle = a + bx + cx^2
         //    a	0.856905324060421
@@ -149,6 +215,9 @@ public class Settings extends NetworkTablesConstantsBase {
     public static List<ELogitech310> kTeleopCommandTriggers = Arrays.asList(InputMap.DRIVER.TRACK_TARGET_BTN,
                                                                             InputMap.DRIVER.TRACK_CARGO_BTN,
                                                                             InputMap.DRIVER.TRACK_HATCH_BTN);
+    // Above autonomous and default commands, so a held trigger takes the subsystems it needs
+    public static int kTeleopCommandPriority = 10;
+    public static int kAutonomousCommandPriority = 0;
 
     public static List<ELogitech310> kAutonOverrideTriggers = Arrays.asList(InputMap.DRIVER.THROTTLE_AXIS,
                                                                             InputMap.DRIVER.TURN_AXIS);
@@ -160,6 +229,15 @@ public class Settings extends NetworkTablesConstantsBase {
 
 
 
+    // =============================================================================
+    // Pose estimation - see DifferentialDrivePoseEstimator
+    // =============================================================================
+    public static double kPoseInitialVariance = 1.0; // in^2
+    public static double kPoseOdometryVariancePerInch = 0.01; // in^2 per inch driven
+    public static double kPoseVisionBaseVariance = 4.0; // in^2
+    public static double kPoseVisionVariancePerDistanceSquared = 0.0025; // i.e. 1 sigma = 5% of distance
+    public static double kPoseVisionGateSigmas = 3.0;
+
     // =============================================================================
     // PID TargetLock constants
     // =============================================================================
@@ -171,6 +249,10 @@ public class Settings extends NetworkTablesConstantsBase {
     public static final double kTargetAngleLockMinInput = -27;
     public static final double kTargetAngleLockMaxInput = 27;
     public static final double kTargetAngleLockFrictionFeedforward = 0.44 / 12;
+    // Correct tx for how far the robot turned between the frame's capture and now
+    public static boolean kTargetAngleLockLatencyCompensation = true;
+    // Drive cycles of heading/encoder history kept for latency compensation - 128 is ~1.3s at 100Hz
+    public static int kPoseHistoryCapacity = 128;
 
     // =============================================================================
     // Target Constants
@@ -0,0 +1,141 @@
+package us.ilite.common.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * Offline converter for files written by CodexFlightRecorder.  Produces one CSV per recorded codex, named after
+ * the codex enum like the CodexCsvLogger files.  Each row holds the codex timestamp and id followed by the values
+ * in enum order; NaN (unset) values are written as empty cells.
+ *
+ * Each snapshot ring the recorder drained - e.g. the loop groups and commonPeriodic() - snapshots its own codexes at
+ * its own rate, so frames from different rings would interleave out of time order.  Each ring's CSVs go in their own
+ * source<N> directory, numbered in the order the rings were passed to the recorder.
+ *
+ * Usage: CodexFlightRecordConverter <recording.ilrf> [output directory]
+ */
+public class CodexFlightRecordConverter {
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 1) {
+            System.err.println("Usage: CodexFlightRecordConverter <recording" + CodexFlightRecorder.FILE_EXTENSION + "> [output directory]");
+            System.exit(1);
+        }
+        File input = new File(args[0]);
+        File outputDir = args.length > 1 ? new File(args[1]) : input.getAbsoluteFile().getParentFile();
+        int frames = convert(input, outputDir);
+        System.out.println("Converted " + frames + " frames from " + input + " into " + outputDir);
+    }
+
+    /**
+     * @return The number of frames converted
+     */
+    public static int convert(File pRecording, File pOutputDir) throws IOException {
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(pRecording)))) {
+            if(in.readInt() != CodexFlightRecorder.MAGIC) {
+                throw new IOException(pRecording + " is not a codex flight recording");
+            }
+            int version = in.readInt();
+            if(version != CodexFlightRecorder.VERSION) {
+                throw new IOException("Unsupported flight recording version " + version);
+            }
+
+            // By source ring, then codex
+            int sourceCount = in.readInt();
+            int[][] elementCounts = new int[sourceCount][];
+            String[][] fileNames = new String[sourceCount][];
+            String[][] headers = new String[sourceCount][];
+            for(int s = 0; s < sourceCount; s++) {
+                int codexCount = in.readInt();
+                elementCounts[s] = new int[codexCount];
+                fileNames[s] = new String[codexCount];
+                headers[s] = new String[codexCount];
+                for(int i = 0; i < codexCount; i++) {
+                    String enumName = in.readUTF();
+                    elementCounts[s][i] = in.readInt();
+                    StringBuilder header = new StringBuilder("TIME,ID");
+                    for(int e = 0; e < elementCounts[s][i]; e++) {
+                        header.append(',').append(in.readUTF());
+                    }
+                    fileNames[s][i] = enumName.substring(enumName.lastIndexOf('.') + 1) + ".csv";
+                    headers[s][i] = header.toString();
+                }
+            }
+
+            // Opened when a ring's first frame is read
+            BufferedWriter[][] sources = new BufferedWriter[sourceCount][];
+            try {
+                int frames = 0;
+                StringBuilder row = new StringBuilder();
+                while(true) {
+                    try {
+                        int source = (int)in.readDouble();
+                        in.readDouble(); // sequence number
+                        if(source < 0 || source >= sourceCount) {
+                            throw new IOException("Frame from unknown source " + source);
+                        }
+                        if(sources[source] == null) {
+                            sources[source] = openWriters(new File(pOutputDir, "source" + source), fileNames[source], headers[source]);
+                        }
+                        BufferedWriter[] writers = sources[source];
+                        for(int i = 0; i < writers.length; i++) {
+                            row.setLength(0);
+                            row.append((long)in.readDouble()).append(',');
+                            row.append((long)in.readDouble());
+                            for(int e = 0; e < elementCounts[source][i]; e++) {
+                                double value = in.readDouble();
+                                row.append(',');
+                                if(!Double.isNaN(value)) {
+                                    row.append(value);
+                                }
+                            }
+                            writers[i].append(row);
+                            writers[i].newLine();
+                        }
+                        frames++;
+                    } catch (EOFException pE) {
+                        // A partially written trailing frame is expected if the robot lost power mid-write
+                        return frames;
+                    }
+                }
+            } finally {
+                for(BufferedWriter[] writers : sources) {
+                    if(writers != null) {
+                        close(writers);
+                    }
+                }
+            }
+        }
+    }
+
+    private static BufferedWriter[] openWriters(File pDir, String[] pFileNames, String[] pHeaders) throws IOException {
+        pDir.mkdirs();
+        BufferedWriter[] writers = new BufferedWriter[pFileNames.length];
+        try {
+            for(int i = 0; i < writers.length; i++) {
+                writers[i] = new BufferedWriter(new FileWriter(new File(pDir, pFileNames[i])));
+                writers[i].append(pHeaders[i]);
+                writers[i].newLine();
+            }
+        } catch (IOException pE) {
+            close(writers);
+            throw pE;
+        }
+        return writers;
+    }
+
+    private static void close(BufferedWriter[] pWriters) throws IOException {
+        for(BufferedWriter writer : pWriters) {
+            if(writer != null) {
+                writer.close();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,243 @@
+package us.ilite.common.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.concurrent.locks.LockSupport;
+
+import com.flybotix.hfr.util.log.ILog;
+import com.flybotix.hfr.util.log.Logger;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Binary replacement for CodexCsvLogger.  The control threads snapshot the codexes into CodexSnapshotRings, and this
+ * recorder's background thread drains those rings to a FileChannel on the USB stick - so the control threads never
+ * format Strings, box values or touch the file system.  Use CodexFlightRecordConverter to turn a recording back
+ * into CSVs.
+ *
+ * Each ring has its own CodexFrameLayout, holding only the codexes its producer thread writes.
+ *
+ * File layout (big-endian):
+ *   int MAGIC, int VERSION, int source count
+ *   per source: int codex count, then per codex: UTF enum class name, int element count, UTF element name * element count
+ *   frames of (1 + source layout width) doubles: [source ring index, sequence, per codex: (timestamp, id, values...)]
+ * Unset codex values are written as NaN.
+ */
+public class CodexFlightRecorder implements Runnable {
+
+    public static final int MAGIC = 0x494C5246; // "ILRF"
+    public static final int VERSION = 3;
+    public static final String FILE_EXTENSION = ".ilrf";
+
+    private static final String LOG_PATH_FORMAT = "/logs/%s/flight-%s-%s-%s" + FILE_EXTENSION;
+    private static final long kIdleParkNanos = 5_000_000L;
+    private static final int kFramesPerWrite = 64;
+
+    private final ILog mLog = Logger.createLog(CodexFlightRecorder.class);
+
+    private final CodexSnapshotRing[] mSources;
+
+    private final ByteBuffer mWriteBuffer;
+    private FileChannel mChannel;
+    private Thread mWriterThread;
+    private volatile boolean mIsRunning = false;
+    private long mWrittenFrames = 0;
+
+    /**
+     * @param pSources Rings to drain, each built with a CodexFrameLayout.  The recorder is their only consumer.
+     */
+    public CodexFlightRecorder(CodexSnapshotRing ... pSources) {
+        mSources = pSources;
+        int maxWidth = 0;
+        for(CodexSnapshotRing source : pSources) {
+            maxWidth = Math.max(maxWidth, source.getLayout().width());
+        }
+        mWriteBuffer = ByteBuffer.allocateDirect((1 + maxWidth) * Double.BYTES * kFramesPerWrite);
+    }
+
+    /**
+     * Opens the log file and starts the writer thread.
+     */
+    public synchronized void start() {
+        start(file());
+    }
+
+    public synchronized void start(File pFile) {
+        if(mChannel != null) {
+            return;
+        }
+        pFile.getAbsoluteFile().getParentFile().mkdirs();
+        try {
+            mChannel = FileChannel.open(pFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            writeHeader();
+        } catch (IOException pE) {
+            mLog.error("Unable to open flight recorder file ", pFile.toPath());
+            mLog.exception(pE);
+            mChannel = null;
+            return;
+        }
+
+        mIsRunning = true;
+        mWriterThread = new Thread(this, "CodexFlightRecorder");
+        mWriterThread.setDaemon(true);
+        mWriterThread.setPriority(Thread.MIN_PRIORITY);
+        mWriterThread.start();
+        mLog.warn("Flight recorder started at ", pFile.toPath());
+    }
+
+    @Override
+    public void run() {
+        while(mIsRunning) {
+            if(drain() == 0) {
+                LockSupport.parkNanos(kIdleParkNanos);
+            }
+        }
+    }
+
+    /**
+     * Stops the writer thread, flushes any frames still in the rings and closes the file.
+     */
+    public synchronized void stop() {
+        if(mChannel == null) {
+            return;
+        }
+        mIsRunning = false;
+        try {
+            mWriterThread.join();
+        } catch (InterruptedException pE) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+        try {
+            mChannel.force(true);
+            mChannel.close();
+        } catch (IOException pE) {
+            mLog.exception(pE);
+        }
+        mChannel = null;
+
+        long dropped = 0;
+        for(CodexSnapshotRing source : mSources) {
+            dropped += source.getDroppedFrames();
+        }
+        if(dropped > 0) {
+            mLog.error("Flight recorder rings dropped ", dropped, " frames. ", mWrittenFrames, " frames were written.");
+        }
+    }
+
+    /**
+     * Writes every published frame of every source to the file.
+     * @return The number of frames written
+     */
+    private int drain() {
+        int written = 0;
+        try {
+            boolean hasFrames = true;
+            while(hasFrames) {
+                hasFrames = false;
+                mWriteBuffer.clear();
+                for(int s = 0; s < mSources.length; s++) {
+                    int frameBytes = (1 + mSources[s].getLayout().width()) * Double.BYTES;
+                    double[] frame;
+                    while(mWriteBuffer.remaining() >= frameBytes && (frame = mSources[s].poll()) != null) {
+                        mWriteBuffer.putDouble(s);
+                        for(int i = 0; i < frame.length; i++) {
+                            mWriteBuffer.putDouble(frame[i]);
+                        }
+                        // Release the frame as soon as it's copied so the producer never waits on file I/O
+                        mSources[s].release();
+                        hasFrames = true;
+                        written++;
+                    }
+                }
+                mWriteBuffer.flip();
+                while(mWriteBuffer.hasRemaining()) {
+                    mChannel.write(mWriteBuffer);
+                }
+            }
+        } catch (IOException pE) {
+            mLog.error("Flight recorder write failed, stopping.");
+            mLog.exception(pE);
+            mIsRunning = false;
+        }
+        mWrittenFrames += written;
+        return written;
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(headerSize());
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(mSources.length);
+        for(CodexSnapshotRing source : mSources) {
+            CodexFrameLayout layout = source.getLayout();
+            header.putInt(layout.codexCount());
+            for(int i = 0; i < layout.codexCount(); i++) {
+                putUTF(header, layout.getCodex(i).meta().getEnum().getName());
+                header.putInt(layout.getElements(i).length);
+                for(Enum e : layout.getElements(i)) {
+                    putUTF(header, e.name());
+                }
+            }
+        }
+        header.flip();
+        while(header.hasRemaining()) {
+            mChannel.write(header);
+        }
+    }
+
+    private int headerSize() {
+        int size = Integer.BYTES * 3;
+        for(CodexSnapshotRing source : mSources) {
+            CodexFrameLayout layout = source.getLayout();
+            size += Integer.BYTES;
+            for(int i = 0; i < layout.codexCount(); i++) {
+                size += Short.BYTES + layout.getCodex(i).meta().getEnum().getName().getBytes(StandardCharsets.UTF_8).length;
+                size += Integer.BYTES;
+                for(Enum e : layout.getElements(i)) {
+                    size += Short.BYTES + e.name().getBytes(StandardCharsets.UTF_8).length;
+                }
+            }
+        }
+        return size;
+    }
+
+    private static void putUTF(ByteBuffer pBuffer, String pString) {
+        byte[] bytes = pString.getBytes(StandardCharsets.UTF_8);
+        pBuffer.putShort((short)bytes.length);
+        pBuffer.put(bytes);
+    }
+
+    /**
+     * The time of day is part of the name so restarting the recorder between modes never overwrites a recording.
+     */
+    public File file() {
+        String eventName = DriverStation.getInstance().getEventName();
+        if ( eventName.length() <= 0 ) {
+            // event name format: MM-DD-YYYY
+            eventName =  new SimpleDateFormat("MM-dd-YYYY").format(Calendar.getInstance().getTime());
+        }
+
+        return new File(String.format( CodexCsvLogger.USB_DIR + LOG_PATH_FORMAT,
+                eventName,
+                DriverStation.getInstance().getMatchType().name(),
+                Integer.toString(DriverStation.getInstance().getMatchNumber()),
+                new SimpleDateFormat("HH-mm-ss").format(Calendar.getInstance().getTime())
+        ));
+    }
+
+    public long getWrittenFrames() {
+        return mWrittenFrames;
+    }
+
+    public boolean isRunning() {
+        return mIsRunning;
+    }
+
+}
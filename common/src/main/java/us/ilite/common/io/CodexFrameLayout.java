@@ -0,0 +1,75 @@
+package us.ilite.common.io;
+
+import com.flybotix.hfr.codex.Codex;
+
+/**
+ * Describes how a set of codexes is flattened into a single double[] frame:
+ *   [sequence, per codex: (timestamp, id, values...)]
+ * Unset codex values are stored as NaN.  The enum constants are resolved once here so copying a frame never
+ * allocates.
+ */
+public class CodexFrameLayout {
+
+    private final Codex[] mCodexes;
+    private final Enum[][] mElements;
+    private final int[] mOffsets;
+    private final int kWidth;
+
+    public CodexFrameLayout(Codex ... pCodexes) {
+        mCodexes = pCodexes;
+        mElements = new Enum[pCodexes.length][];
+        mOffsets = new int[pCodexes.length];
+        int width = 1;
+        for(int i = 0; i < pCodexes.length; i++) {
+            mElements[i] = (Enum[])pCodexes[i].meta().getEnum().getEnumConstants();
+            mOffsets[i] = width;
+            width += 2 + mElements[i].length;
+        }
+        kWidth = width;
+    }
+
+    /**
+     * Copies the current value of every codex into pFrame.
+     */
+    @SuppressWarnings("unchecked")
+    public void write(double[] pFrame, long pSequence) {
+        int slot = 0;
+        pFrame[slot++] = pSequence;
+        for(int i = 0; i < mCodexes.length; i++) {
+            Codex codex = mCodexes[i];
+            pFrame[slot++] = codex.meta().timestamp();
+            pFrame[slot++] = codex.meta().id();
+            for(Enum e : mElements[i]) {
+                Object value = codex.get(e);
+                pFrame[slot++] = value == null ? Double.NaN : ((Number)value).doubleValue();
+            }
+        }
+    }
+
+    /**
+     * @return The total number of doubles in a frame
+     */
+    public int width() {
+        return kWidth;
+    }
+
+    public int codexCount() {
+        return mCodexes.length;
+    }
+
+    public Codex getCodex(int pIndex) {
+        return mCodexes[pIndex];
+    }
+
+    public Enum[] getElements(int pIndex) {
+        return mElements[pIndex];
+    }
+
+    /**
+     * @return The frame index of the timestamp slot of the given codex.  The id follows it, then the values.
+     */
+    public int getOffset(int pIndex) {
+        return mOffsets[pIndex];
+    }
+
+}
@@ -1,7 +1,8 @@
 package us.ilite.common.io;
 
-import java.util.EnumSet;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
 import com.flybotix.hfr.codex.Codex;
@@ -13,11 +14,23 @@ import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
 
+/**
+ * Publishes codexes to NetworkTables.  All table and entry lookups happen once in registerCodex(), so send() only
+ * compares the codex against the values last sent and stages the ones that changed.  flush() then writes the staged
+ * values and pushes them to the network in a single NetworkTables flush - call it once per cycle after all sends.
+ *
+ * Register codexes during initialization.  Different codexes may be sent from different threads; each publisher
+ * locks only itself, so this is uncontended in the usual case of one sending thread.  Registering copies the lookup
+ * maps and publishes the copies through volatile fields, so sends on other threads never see a map mid-update.
+ */
 public class CodexNetworkTables {
   private final ILog mLog = Logger.createLog(CodexNetworkTables.class);
-  private Map<Integer, NetworkTable> mTables = new HashMap<>();
-  private Map<Integer, Map<String, NetworkTableEntry>> mEntries = new HashMap<>();
-  private Map<Integer, Put<?>> mWriters = new HashMap<>();
+  // Only used while registering, under the lock
+  private final Map<String, CodexPublisher> mPublishersByTable = new HashMap<>();
+  // Copy-on-write - never modified once published
+  private volatile Map<Codex<?, ?>, CodexPublisher> mPublishers = new IdentityHashMap<>();
+  private volatile Map<Class<?>, Map<String, CodexPublisher>> mNamedPublishers = new HashMap<>();
+  private volatile CodexPublisher[] mPublisherArray = new CodexPublisher[0];
   private final static NetworkTableInstance sNETWORK_TABLES = NetworkTableInstance.getDefault();
 
   /**
@@ -26,63 +39,97 @@ public class CodexNetworkTables {
    */
   public <V, E extends Enum<E> & CodexOf<V>> void registerCodex(Codex<V, E> pCodex) {
     Class<E> enumClass = pCodex.meta().getEnum();
-    registerCodexWithTableName(CodexNetworkTablesParser.constructNetworkTableName(enumClass), pCodex);
+    registerCodexWithTableName(null, CodexNetworkTablesParser.constructNetworkTableName(enumClass), pCodex);
   }
 
   /**
    * Initializes a few items related to writing elements of a codex to a network table.
    * Do this ahead of time to prevent issues with timing on the first cycle.
+   * The same codex may be registered under several names and sent to each with send(pName, pCodex).
    */
   public <V, E extends Enum<E> & CodexOf<V>> void registerCodex(String pName, Codex<V, E> pCodex) {
     Class<E> enumClass = pCodex.meta().getEnum();
-    registerCodexWithTableName(CodexNetworkTablesParser.constructNetworkTableName(enumClass, pName), pCodex);
+    registerCodexWithTableName(pName, CodexNetworkTablesParser.constructNetworkTableName(enumClass, pName), pCodex);
   }
-  
-  private <V, E extends Enum<E> & CodexOf<V>> void registerCodexWithTableName(String pTableName, Codex<V, E> pCodex) {
-      Integer hash = pTableName.hashCode();
-      mLog.debug("Registering codex " + pTableName + " with hash " + hash);
-      mTables.put(hash, sNETWORK_TABLES.getTable(pTableName));
-  
-      mWriters.put(hash, ((nt, key, val) -> nt.getEntry(key).setValue(val)));
+
+  private synchronized <V, E extends Enum<E> & CodexOf<V>> void registerCodexWithTableName(String pName, String pTableName, Codex<V, E> pCodex) {
+    CodexPublisher publisher = mPublishersByTable.get(pTableName);
+    if(publisher == null) {
+      mLog.debug("Registering codex " + pTableName);
+      publisher = new CodexPublisher(pTableName, sNETWORK_TABLES.getTable(pTableName), pCodex.meta().getEnum());
+      mPublishersByTable.put(pTableName, publisher);
+      mPublisherArray = mPublishersByTable.values().toArray(new CodexPublisher[0]);
+    }
+    // send(pCodex) goes to the table the codex was registered with last
+    if(mPublishers.get(pCodex) != publisher) {
+      Map<Codex<?, ?>, CodexPublisher> publishers = new IdentityHashMap<>(mPublishers);
+      publishers.put(pCodex, publisher);
+      mPublishers = publishers;
+    }
+    if(pName != null) {
+      Map<String, CodexPublisher> named = mNamedPublishers.get(pCodex.meta().getEnum());
+      if(named == null || named.get(pName) != publisher) {
+        Map<Class<?>, Map<String, CodexPublisher>> namedPublishers = new HashMap<>(mNamedPublishers);
+        named = named == null ? new HashMap<>() : new HashMap<>(named);
+        named.put(pName, publisher);
+        namedPublishers.put(pCodex.meta().getEnum(), named);
+        mNamedPublishers = namedPublishers;
+      }
+    }
   }
 
   /**
-   * Writes the elements and metadata values of the codex to the NetworkTables that
-   * corresponds to the Codex's enum class name.
+   * Stages the elements and metadata values of the codex that changed since the last flush for the NetworkTable
+   * it was registered with.
    */
   public <V, E extends Enum<E> & CodexOf<V>> void send(Codex<V,E> pCodex) {
-    String tableName = CodexNetworkTablesParser.constructNetworkTableName(pCodex.meta().getEnum());
-    sendWithTableName(tableName, pCodex);
+    CodexPublisher publisher = mPublishers.get(pCodex);
+    if(publisher == null) {
+      mLog.warn("Cannot send codex " + pCodex.meta().getEnum().getSimpleName() + " because it has not been registered.");
+      return;
+    }
+    publisher.stage(pCodex);
   }
 
   /**
-   * Writes the elements and metadata values of the codex to the NetworkTables that
-   * corresponds to the Codex's enum class name.
+   * Stages the codex for the NetworkTable it was registered with under pName.  Looked up by enum class and name, so
+   * no table name is built on each call.
    */
   public <V, E extends Enum<E> & CodexOf<V>> void send(String pName, Codex<V,E> pCodex) {
-    String tableName = CodexNetworkTablesParser.constructNetworkTableName(pCodex.meta().getEnum(), pName);
-    sendWithTableName(tableName, pCodex);
+    Map<String, CodexPublisher> named = mNamedPublishers.get(pCodex.meta().getEnum());
+    CodexPublisher publisher = named == null ? null : named.get(pName);
+    if(publisher == null) {
+      mLog.warn("Cannot send codex " + pCodex.meta().getEnum().getSimpleName() + " as " + pName + " because it has not been registered.");
+      return;
+    }
+    publisher.stage(pCodex);
   }
 
-  private <V, E extends Enum<E> & CodexOf<V>> void sendWithTableName(String pTableName, Codex<V,E> pCodex) {
-    int hash = pTableName.hashCode();
+  /**
+   * Writes every staged value to its entry and flushes NetworkTables once.
+   */
+  public void flush() {
+    boolean wroteAny = false;
+    for(CodexPublisher publisher : mPublisherArray) {
+      wroteAny |= publisher.write();
+    }
+    if(wroteAny) {
+      sNETWORK_TABLES.flush();
+    }
+  }
 
-    if(!mWriters.containsKey(hash) || !mTables.containsKey(hash)) {
-      mLog.warn("Cannot send codex " + pTableName + " because it has not been registered.");
+  /**
+   * Sends the codex and flushes immediately.  For codexes published at a low rate outside the per-cycle send/flush.
+   */
+  public <V, E extends Enum<E> & CodexOf<V>> void sendNow(Codex<V,E> pCodex) {
+    CodexPublisher publisher = mPublishers.get(pCodex);
+    if(publisher == null) {
+      send(pCodex);
       return;
     }
-
-    @SuppressWarnings("unchecked")
-    Put<V> writer = (Put<V>)mWriters.get(hash);
-    NetworkTable nt = mTables.get(hash);
-
-    nt.getEntry("ID").setNumber(pCodex.meta().id());
-    nt.getEntry("KEY").setNumber(pCodex.meta().key());
-    nt.getEntry("TIME_MS").setNumber(pCodex.meta().timestamp());
-    for(E e : EnumSet.allOf(pCodex.meta().getEnum())) {
-      if(pCodex.isSet(e)) {
-        writer.write(nt, e.name().toUpperCase(), pCodex.get(e));
-      }
+    publisher.stage(pCodex);
+    if(publisher.write()) {
+      sNETWORK_TABLES.flush();
     }
   }
 
@@ -97,8 +144,80 @@ public class CodexNetworkTables {
     private final static CodexNetworkTables instance = new CodexNetworkTables();
   }
 
- private interface Put<V> {
-   void write(NetworkTable nt, String pKey, V pValue);
- }
+  /**
+   * Cached entries and last-sent values for one registered codex.  Slots 0-2 are ID, KEY and TIME_MS, followed by
+   * one slot per enum element.
+   */
+  private static class CodexPublisher {
+    private static final int kMetaSlots = 3;
+
+    private final String mTableName;
+    private final Enum<?>[] mElements;
+    private final NetworkTableEntry[] mEntries;
+    private final double[] mStaged;
+    private final double[] mLastSent;
+    private final long[] mDirty;
+
+    CodexPublisher(String pTableName, NetworkTable pTable, Class<? extends Enum<?>> pEnumClass) {
+      mTableName = pTableName;
+      mElements = pEnumClass.getEnumConstants();
+      int slots = kMetaSlots + mElements.length;
+      mEntries = new NetworkTableEntry[slots];
+      mEntries[0] = pTable.getEntry("ID");
+      mEntries[1] = pTable.getEntry("KEY");
+      mEntries[2] = pTable.getEntry("TIME_MS");
+      for(int i = 0; i < mElements.length; i++) {
+        mEntries[kMetaSlots + i] = pTable.getEntry(mElements[i].name().toUpperCase());
+      }
+      mStaged = new double[slots];
+      mLastSent = new double[slots];
+      Arrays.fill(mLastSent, Double.NaN);
+      mDirty = new long[(slots + 63) / 64];
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    synchronized void stage(Codex pCodex) {
+      stage(0, pCodex.meta().id());
+      stage(1, pCodex.meta().key());
+      stage(2, pCodex.meta().timestamp());
+      for(int i = 0; i < mElements.length; i++) {
+        Enum e = mElements[i];
+        if(pCodex.isSet(e)) {
+          Object value = pCodex.get(e);
+          if(value instanceof Number) {
+            stage(kMetaSlots + i, ((Number)value).doubleValue());
+          }
+        }
+      }
+    }
+
+    private void stage(int pSlot, double pValue) {
+      mStaged[pSlot] = pValue;
+      if(Double.doubleToLongBits(pValue) != Double.doubleToLongBits(mLastSent[pSlot])) {
+        mDirty[pSlot >>> 6] |= 1L << pSlot;
+      } else {
+        mDirty[pSlot >>> 6] &= ~(1L << pSlot);
+      }
+    }
+
+    /**
+     * @return true if any entry was written
+     */
+    synchronized boolean write() {
+      boolean wroteAny = false;
+      for(int word = 0; word < mDirty.length; word++) {
+        long dirty = mDirty[word];
+        while(dirty != 0) {
+          int slot = (word << 6) + Long.numberOfTrailingZeros(dirty);
+          dirty &= dirty - 1;
+          mEntries[slot].setDouble(mStaged[slot]);
+          mLastSent[slot] = mStaged[slot];
+        }
+        wroteAny |= mDirty[word] != 0;
+        mDirty[word] = 0;
+      }
+      return wroteAny;
+    }
+  }
 
 }
@@ -1,16 +1,29 @@
 package us.ilite.common.io;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
 import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 import com.flybotix.hfr.codex.Codex;
 import com.flybotix.hfr.codex.CodexOf;
 import com.flybotix.hfr.util.lang.EnumUtils;
 
+import edu.wpi.first.networktables.EntryListenerFlags;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.NetworkTableValue;
 import edu.wpi.first.wpilibj.DriverStation;
 
+/**
+ * Reads a codex published by CodexNetworkTables back out of NetworkTables.  Either poll the current values with
+ * parseFromNetworkTables(), or call startListening() to receive every published update: updates are written into a
+ * preallocated frame as they arrive, and each frame is queued once the next codex ID shows up, so no samples are
+ * lost between polls.  Queued frames are written as CSV rows by drainTo().
+ */
 public class CodexNetworkTablesParser<E extends Enum<E> & CodexOf<Double>> {
 
     private static final String ROBOT_DIR = "/u";
@@ -25,6 +38,18 @@ public class CodexNetworkTablesParser<E extends Enum<E> & CodexOf<Double>> {
 
     private String csvIdentifier;
 
+    // Frame layout: [TIME_MS, ID, values..., TIME_RECEIVED]
+    private static final int kTimeSlot = 0;
+    private static final int kIdSlot = 1;
+    private static final int kValueOffset = 2;
+    private E[] mElements;
+    private Map<String, Integer> mSlotsByKey;
+    private double[] mPendingFrame;
+    private boolean mHasPendingFrame = false;
+    private CodexSnapshotRing mFrames = null;
+    private int mListenerHandle = 0;
+    private final StringBuilder mRow = new StringBuilder();
+
     /**
      * Use this constructor when you have multiple codices that have the same enumeration
      * @param pCodex The codex that this CodexNetworkTablesParser instance is parsing
@@ -35,6 +60,7 @@ public class CodexNetworkTablesParser<E extends Enum<E> & CodexOf<Double>> {
         mEnumClass = mCodex.meta().getEnum(); //This gets the enumeration that corresponds to the codex
         csvIdentifier = constructNetworkTableName(mEnumClass, pNetworkTablesName);
         kNetworkTable = kNetworkTablesInstance.getTable(csvIdentifier);
+        initFrame();
     }
 
     /**
@@ -46,6 +72,17 @@ public class CodexNetworkTablesParser<E extends Enum<E> & CodexOf<Double>> {
         mEnumClass = mCodex.meta().getEnum();
         csvIdentifier = constructNetworkTableName(mEnumClass);
         kNetworkTable = kNetworkTablesInstance.getTable(csvIdentifier);
+        initFrame();
+    }
+
+    private void initFrame() {
+        mElements = mEnumClass.getEnumConstants();
+        mSlotsByKey = new HashMap<>();
+        for(int i = 0; i < mElements.length; i++) {
+            mSlotsByKey.put(mElements[i].name().toUpperCase(), kValueOffset + i);
+        }
+        mPendingFrame = new double[kValueOffset + mElements.length + 1];
+        Arrays.fill(mPendingFrame, Double.NaN);
     }
 
     /**
@@ -78,19 +115,112 @@ public class CodexNetworkTablesParser<E extends Enum<E> & CodexOf<Double>> {
             mCodex.set(e, value);
         }
     }
+
     /**
-     * Translates and adds codex keys to a CSV Header in 'log' File path
-     * @return returns the codex's header string
+     * Subscribes to the codex's table.  Must only be called once per parser until stopListening().
+     * @param pQueueCapacity Number of complete frames that can wait for drainTo() before new ones are dropped
      */
-    public String codexToCSVHeader() {
-        return mCodex.getCSVHeader() + "TIME_RECEIVED";
+    public void startListening(int pQueueCapacity) {
+        mFrames = new CodexSnapshotRing(mPendingFrame.length, pQueueCapacity);
+        mListenerHandle = kNetworkTable.addEntryListener(
+                (table, key, entry, value, flags) -> onValueChanged(key, value),
+                EntryListenerFlags.kImmediate | EntryListenerFlags.kNew | EntryListenerFlags.kUpdate);
+    }
+
+    /**
+     * Unsubscribes from the codex's table.  The frame still being received is discarded.
+     */
+    public void stopListening() {
+        kNetworkTable.removeEntryListener(mListenerHandle);
+    }
+
+    /**
+     * Runs on the NetworkTables listener thread, the only producer of mFrames.
+     */
+    private void onValueChanged(String pKey, NetworkTableValue pValue) {
+        if(!pValue.isDouble()) {
+            return;
+        }
+        double value = pValue.getDouble();
+        if("ID".equals(pKey)) {
+            // The robot sends ID first, so a new ID means every value of the previous frame has arrived
+            if(mHasPendingFrame && value != mPendingFrame[kIdSlot]) {
+                queuePendingFrame();
+            }
+            mPendingFrame[kIdSlot] = value;
+            mHasPendingFrame = true;
+        } else if("TIME_MS".equals(pKey)) {
+            mPendingFrame[kTimeSlot] = value;
+        } else {
+            Integer slot = mSlotsByKey.get(pKey);
+            if(slot != null) {
+                mPendingFrame[slot] = value;
+            }
+        }
     }
+
+    private void queuePendingFrame() {
+        double[] frame = mFrames.claim();
+        if(frame == null) {
+            return;
+        }
+        // Values that didn't change keep the value from the previous frame, like on the robot
+        System.arraycopy(mPendingFrame, 0, frame, 0, mPendingFrame.length - 1);
+        frame[mPendingFrame.length - 1] = System.currentTimeMillis();
+        mFrames.publish();
+    }
+
     /**
-     * Translates and adds codex entries to a String
-     * @return returns the codex's values string
+     * Writes every queued frame to pWriter as a CSV row and updates the codex with the latest one.
+     * Must be called from a single thread.
+     * @return The number of frames written
      */
-    public String codexToCSVLog() {
-        return "\n"+mCodex.toCSV()+System.currentTimeMillis()/1000;
+    public int drainTo(Writer pWriter) throws IOException {
+        if(mFrames == null) {
+            return 0;
+        }
+        int count = 0;
+        double[] frame;
+        while((frame = mFrames.poll()) != null) {
+            mRow.setLength(0);
+            mRow.append('\n').append((long)frame[kTimeSlot]).append(',').append((long)frame[kIdSlot]);
+            for(int i = 0; i < mElements.length; i++) {
+                double value = frame[kValueOffset + i];
+                mRow.append(',');
+                if(!Double.isNaN(value)) {
+                    mRow.append(value);
+                }
+            }
+            mRow.append(',').append((long)frame[frame.length - 1]);
+            pWriter.append(mRow);
+
+            if(mFrames.size() == 1) {
+                for(int i = 0; i < mElements.length; i++) {
+                    mCodex.set(mElements[i], frame[kValueOffset + i]);
+                }
+            }
+            mFrames.release();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return The number of complete frames dropped because drainTo() fell a whole queue behind
+     */
+    public long getDroppedFrames() {
+        return mFrames == null ? 0 : mFrames.getDroppedFrames();
+    }
+
+    /**
+     * @return The CSV header matching the rows written by drainTo()
+     */
+    public String codexToCSVHeader() {
+        StringBuilder header = new StringBuilder("TIME_MS,ID");
+        for(E e : mElements) {
+            header.append(',').append(e.name().toUpperCase());
+        }
+        return header.append(",TIME_RECEIVED").toString();
     }
     /**
      * Gives back a file with a path based on the enumeration name and date
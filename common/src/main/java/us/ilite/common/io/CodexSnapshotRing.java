@@ -0,0 +1,137 @@
+package us.ilite.common.io;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free single-producer/single-consumer ring of preallocated double[] frames.  The control loop snapshots
+ * the codexes into the ring at the end of each cycle, and a logging or sending thread consumes whole frames later,
+ * so consumers never see a half-written cycle and the producer never waits on a consumer.
+ *
+ * Exactly one thread may call the producer methods (snapshot, claim, publish) and exactly one thread may call the
+ * consumer methods (poll, release).  When the ring is full, new frames are dropped and counted rather than
+ * blocking the producer.
+ */
+public class CodexSnapshotRing {
+
+    private final double[][] mFrames;
+    private final int kCapacity;
+    private final int kMask;
+    private final CodexFrameLayout mLayout;
+
+    // Written only by the producer
+    private long mHead = 0;
+    private long mCachedTail = 0;
+    // Written only by the consumer
+    private long mTail = 0;
+    private long mCachedHead = 0;
+
+    private final AtomicLong mPublished = new AtomicLong(0);
+    private final AtomicLong mReleased = new AtomicLong(0);
+    private final AtomicLong mDropped = new AtomicLong(0);
+
+    /**
+     * @param pLayout Codexes to snapshot with snapshot().  May be null if frames are only filled through claim().
+     * @param pFrameWidth Length of each frame
+     * @param pCapacity Number of frames, rounded up to a power of two
+     */
+    public CodexSnapshotRing(CodexFrameLayout pLayout, int pFrameWidth, int pCapacity) {
+        mLayout = pLayout;
+        int capacity = Integer.highestOneBit(Math.max(2, pCapacity) - 1) << 1;
+        kCapacity = capacity;
+        kMask = capacity - 1;
+        mFrames = new double[capacity][pFrameWidth];
+    }
+
+    public CodexSnapshotRing(CodexFrameLayout pLayout, int pCapacity) {
+        this(pLayout, pLayout.width(), pCapacity);
+    }
+
+    public CodexSnapshotRing(int pFrameWidth, int pCapacity) {
+        this(null, pFrameWidth, pCapacity);
+    }
+
+    // ======== Producer ========
+
+    /**
+     * Copies the layout's codexes into the next frame and publishes it.
+     * @return false if the ring was full and the snapshot was dropped
+     */
+    public boolean snapshot() {
+        double[] frame = claim();
+        if(frame == null) {
+            return false;
+        }
+        mLayout.write(frame, mHead);
+        publish();
+        return true;
+    }
+
+    /**
+     * @return The next writable frame, or null (and a dropped frame is counted) if the consumer is a full ring behind.
+     * Call publish() once the frame is filled.
+     */
+    public double[] claim() {
+        if(mHead - mCachedTail >= kCapacity) {
+            mCachedTail = mReleased.get();
+            if(mHead - mCachedTail >= kCapacity) {
+                mDropped.lazySet(mDropped.get() + 1);
+                return null;
+            }
+        }
+        return mFrames[(int)(mHead & kMask)];
+    }
+
+    /**
+     * Makes the frame returned by the last claim() visible to the consumer.
+     */
+    public void publish() {
+        mHead++;
+        mPublished.lazySet(mHead);
+    }
+
+    // ======== Consumer ========
+
+    /**
+     * @return The oldest published frame, or null if there is none.  The frame stays valid until release().
+     */
+    public double[] poll() {
+        if(mTail >= mCachedHead) {
+            mCachedHead = mPublished.get();
+            if(mTail >= mCachedHead) {
+                return null;
+            }
+        }
+        return mFrames[(int)(mTail & kMask)];
+    }
+
+    /**
+     * Returns the frame from the last poll() to the producer.
+     */
+    public void release() {
+        mTail++;
+        mReleased.lazySet(mTail);
+    }
+
+    // ======== Either side ========
+
+    public int size() {
+        return (int)(mPublished.get() - mReleased.get());
+    }
+
+    public int capacity() {
+        return kCapacity;
+    }
+
+    public long getPublishedFrames() {
+        return mPublished.get();
+    }
+
+    public long getDroppedFrames() {
+        return mDropped.get();
+    }
+
+    public CodexFrameLayout getLayout() {
+        return mLayout;
+    }
+
+}
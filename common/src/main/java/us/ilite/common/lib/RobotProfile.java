@@ -30,5 +30,10 @@ public interface RobotProfile {
 
     // friction_force / w
     double getAngularDrag();
+
+    // The volt-per-speed and volt-per-accel gains are per rad/s (rad/s^2) of the wheel - this converts one to per m/s (m/s^2)
+    default double toLinearGain(double pWheelGain) {
+        return pWheelGain / getWheelRadiusMeters();
+    }
     
 }
@@ -0,0 +1,186 @@
+package us.ilite.common.lib.control;
+
+import us.ilite.common.lib.util.PoseHistoryBuffer;
+
+/**
+ * Tracks a differential drive's field position from encoder distances and gyro heading, and fuses in robot positions
+ * measured by vision with a scalar Kalman filter.  The heading comes straight from the gyro; vision only corrects the
+ * position.
+ *
+ * Odometry is integrated on its own and vision corrections are kept as a separate offset, so a delayed measurement
+ * can be compared against where odometry had the robot when the frame was captured.  Everything is primitive fields
+ * and a PoseHistoryBuffer - no per-update allocation.  Not thread safe.
+ *
+ * Field frame: x is forward and y is to the left of the robot's starting pose, heading is CCW-positive degrees.
+ */
+public class DifferentialDrivePoseEstimator {
+
+    private final PoseHistoryBuffer mHistory;
+    private final double kOdometryVariancePerInch;
+    private final double kVisionBaseVariance;
+    private final double kVisionVariancePerDistanceSquared;
+    private final double kVisionGateSigmas;
+
+    private boolean mHasOdometry = false;
+    private double mLastLeftInches, mLastRightInches, mLastHeadingRadians;
+    private double mHeadingOffsetDegrees = 0.0;
+    private double mHeadingDegrees = 0.0;
+    // Integrated odometry, never corrected by vision
+    private double mOdometryX = 0.0, mOdometryY = 0.0;
+    // Vision correction added to odometry to get the estimate
+    private double mCorrectionX = 0.0, mCorrectionY = 0.0;
+    // Variance of the position estimate, the same in x and y (in^2)
+    private double mVariance;
+
+    private double mLastInnovation = 0.0;
+    private long mVisionUpdates = 0;
+    private long mVisionRejects = 0;
+
+    /**
+     * @param pHistoryCapacity Number of updates kept to look up poses at vision capture times
+     * @param pInitialVariance Variance of the starting position (in^2)
+     * @param pOdometryVariancePerInch Variance added per inch travelled (in^2/in)
+     * @param pVisionBaseVariance Variance of a vision position at zero distance (in^2)
+     * @param pVisionVariancePerDistanceSquared Extra vision variance per square inch of distance to the target
+     * @param pVisionGateSigmas Vision measurements further than this many standard deviations from the estimate are
+     *                          rejected as outliers
+     */
+    public DifferentialDrivePoseEstimator(int pHistoryCapacity, double pInitialVariance, double pOdometryVariancePerInch,
+                                          double pVisionBaseVariance, double pVisionVariancePerDistanceSquared, double pVisionGateSigmas) {
+        mHistory = new PoseHistoryBuffer(pHistoryCapacity);
+        mVariance = pInitialVariance;
+        kOdometryVariancePerInch = pOdometryVariancePerInch;
+        kVisionBaseVariance = pVisionBaseVariance;
+        kVisionVariancePerDistanceSquared = pVisionVariancePerDistanceSquared;
+        kVisionGateSigmas = pVisionGateSigmas;
+    }
+
+    /**
+     * Sets the current pose.  The next update() only re-baselines the encoders.
+     */
+    public void reset(double pXInches, double pYInches, double pHeadingDegrees, double pVariance) {
+        mHasOdometry = false;
+        mOdometryX = pXInches;
+        mOdometryY = pYInches;
+        mCorrectionX = mCorrectionY = 0.0;
+        mHeadingDegrees = pHeadingDegrees;
+        mHeadingOffsetDegrees = Double.NaN; // Computed from the next gyro reading
+        mVariance = pVariance;
+        mHistory.clear();
+    }
+
+    /**
+     * Keeps the current pose, but takes the next update's encoder and gyro readings as the new baseline instead of
+     * treating the change from the last readings as motion.  Call it after the encoders or gyro have been zeroed.
+     */
+    public void rebaseline() {
+        mHasOdometry = false;
+        mHeadingOffsetDegrees = Double.NaN; // Computed from the next gyro reading
+        // Recorded against the old readings
+        mHistory.clear();
+    }
+
+    /**
+     * Integrates one odometry step.
+     * @param pGyroHeadingDegrees Raw gyro heading; the offset from reset() is applied here
+     */
+    public void update(double pTime, double pLeftInches, double pRightInches, double pGyroHeadingDegrees) {
+        if(Double.isNaN(mHeadingOffsetDegrees)) {
+            mHeadingOffsetDegrees = mHeadingDegrees - pGyroHeadingDegrees;
+        }
+        mHeadingDegrees = pGyroHeadingDegrees + mHeadingOffsetDegrees;
+        double heading = Math.toRadians(mHeadingDegrees);
+
+        if(mHasOdometry) {
+            double distance = ((pLeftInches - mLastLeftInches) + (pRightInches - mLastRightInches)) / 2.0;
+            // Midpoint heading - exact for a constant-curvature arc to second order
+            double dHeading = Math.atan2(Math.sin(heading - mLastHeadingRadians), Math.cos(heading - mLastHeadingRadians));
+            double midHeading = mLastHeadingRadians + dHeading / 2.0;
+            mOdometryX += distance * Math.cos(midHeading);
+            mOdometryY += distance * Math.sin(midHeading);
+            mVariance += kOdometryVariancePerInch * Math.abs(distance);
+        }
+        mHasOdometry = true;
+        mLastLeftInches = pLeftInches;
+        mLastRightInches = pRightInches;
+        mLastHeadingRadians = heading;
+        mHistory.add(pTime, mHeadingDegrees, pLeftInches, pRightInches, mOdometryX, mOdometryY);
+    }
+
+    /**
+     * Fuses a vision sighting of a target whose field position is known.
+     * @param pCaptureTime When the frame was captured, on the same clock as update()
+     * @param pForwardInches Target position relative to the robot at capture time, forward of it
+     * @param pLeftInches Target position relative to the robot at capture time, to its left
+     * @param pTargetXInches Known field position of the target
+     * @param pTargetYInches Known field position of the target
+     * @return false if the measurement was rejected (no odometry yet, or an outlier)
+     */
+    public boolean addVisionMeasurement(double pCaptureTime, double pForwardInches, double pLeftInches,
+                                        double pTargetXInches, double pTargetYInches) {
+        if(mHistory.isEmpty()) {
+            mVisionRejects++;
+            return false;
+        }
+        double heading = Math.toRadians(mHistory.getHeadingAt(pCaptureTime));
+        double cos = Math.cos(heading);
+        double sin = Math.sin(heading);
+        // Where the robot must have been for the target to appear where it did
+        double measuredX = pTargetXInches - (pForwardInches * cos - pLeftInches * sin);
+        double measuredY = pTargetYInches - (pForwardInches * sin + pLeftInches * cos);
+        double innovationX = measuredX - (mHistory.getXInchesAt(pCaptureTime) + mCorrectionX);
+        double innovationY = measuredY - (mHistory.getYInchesAt(pCaptureTime) + mCorrectionY);
+
+        double distanceSquared = pForwardInches * pForwardInches + pLeftInches * pLeftInches;
+        double measurementVariance = kVisionBaseVariance + kVisionVariancePerDistanceSquared * distanceSquared;
+        double innovationVariance = mVariance + measurementVariance;
+        double innovationSquared = innovationX * innovationX + innovationY * innovationY;
+        mLastInnovation = Math.sqrt(innovationSquared);
+        if(innovationSquared > kVisionGateSigmas * kVisionGateSigmas * innovationVariance) {
+            mVisionRejects++;
+            return false;
+        }
+
+        double gain = mVariance / innovationVariance;
+        mCorrectionX += gain * innovationX;
+        mCorrectionY += gain * innovationY;
+        mVariance *= (1.0 - gain);
+        mVisionUpdates++;
+        return true;
+    }
+
+    public double getXInches() {
+        return mOdometryX + mCorrectionX;
+    }
+
+    public double getYInches() {
+        return mOdometryY + mCorrectionY;
+    }
+
+    public double getHeadingDegrees() {
+        return mHeadingDegrees;
+    }
+
+    /**
+     * @return Variance of the position estimate in x and in y (in^2)
+     */
+    public double getVariance() {
+        return mVariance;
+    }
+
+    /**
+     * @return Distance between the last vision measurement and the estimate at its capture time, accepted or not
+     */
+    public double getLastInnovation() {
+        return mLastInnovation;
+    }
+
+    public long getVisionUpdates() {
+        return mVisionUpdates;
+    }
+
+    public long getVisionRejects() {
+        return mVisionRejects;
+    }
+
+}
@@ -9,6 +9,7 @@ import com.flybotix.hfr.codex.Codex;
 import com.flybotix.hfr.codex.CodexOf;
 import com.flybotix.hfr.util.log.ILog;
 import com.flybotix.hfr.util.log.Logger;
+import us.ilite.common.lib.util.IFilter;
 import us.ilite.common.lib.util.Utils;
 
 public class PIDController {
@@ -41,6 +42,8 @@ public class PIDController {
     private double mOutputForCodex;
     private double mDTForCodex;
     private double mDefaultDT;
+    // Smooths the derivative of the error, which amplifies sensor noise.  Null to use it as is.
+    private IFilter mDerivativeFilter = null;
 
 
     /**
@@ -96,7 +99,12 @@ public class PIDController {
         // Don't blow away mError so as to not break derivative
         double proportionalError = Math.abs( mError ) < mDeadband ? 0 : mError;
 
-        mResult = ( mProfileGains.P * proportionalError ) + ( mProfileGains.I * mTotalError ) + ( mProfileGains.D * ( mError - mPrevError ) / mDt )
+        double derivative = ( mError - mPrevError ) / mDt;
+        if ( mDerivativeFilter != null ) {
+            derivative = mDerivativeFilter.add( derivative );
+        }
+
+        mResult = ( mProfileGains.P * proportionalError ) + ( mProfileGains.I * mTotalError ) + ( mProfileGains.D * derivative )
                 + ( mProfileGains.F * mSetpoint );
         mPrevError = mError;
 
@@ -126,6 +134,9 @@ public class PIDController {
         mTotalError = 0;
         mResult = 0;
         mSetpoint = 0;
+        if ( mDerivativeFilter != null ) {
+            mDerivativeFilter.clear();
+        }
     }
 
     /**
@@ -204,6 +215,14 @@ public class PIDController {
         mDeadband = deadband;
     }
 
+    /**
+     * Filters the derivative term, e.g. with a MovingAverage or ExponentialFilter.  Cleared by reset().
+     * @param derivativeFilter the filter, or null to use the unfiltered derivative
+     */
+    public void setDerivativeFilter( IFilter derivativeFilter ) {
+        mDerivativeFilter = derivativeFilter;
+    }
+
     // ####### //
     // Getters //
     // ####### //
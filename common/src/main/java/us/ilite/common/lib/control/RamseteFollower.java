@@ -0,0 +1,161 @@
+package us.ilite.common.lib.control;
+
+import us.ilite.common.lib.RobotProfile;
+
+/**
+ * Follows a trajectory with the Ramsete unicycle controller, producing a velocity and feedforward voltage for each
+ * side of a differential drive.  The same control law as WPILib's RamseteController, written over primitives so each
+ * update is a binary search plus a few dozen flops and never allocates.
+ *
+ * Meters, radians and seconds, in the same field frame as the trajectory.  Not thread safe.
+ */
+public class RamseteFollower {
+
+    private final double kB;
+    private final double kZeta;
+    private final double kHalfTrackWidth;
+    // Feedforward per side, in volts per m/s and m/s^2
+    private final double kLeftS, kLeftV, kLeftA;
+    private final double kRightS, kRightV, kRightA;
+
+    private TrajectorySampler mTrajectory = null;
+    private double mStartTime = 0.0;
+    private double mTime = 0.0;
+
+    private double mLeftVelocity, mRightVelocity;
+    private double mLeftFeedforward, mRightFeedforward;
+    private double mAlongTrackError, mCrossTrackError, mHeadingError;
+
+    /**
+     * @param pB Convergence gain, > 0.  Larger corrects position errors more aggressively.  2.0 is typical.
+     * @param pZeta Damping, between 0 and 1.  0.7 is typical.
+     */
+    public RamseteFollower(RobotProfile pProfile, double pB, double pZeta) {
+        kB = pB;
+        kZeta = pZeta;
+        kHalfTrackWidth = pProfile.getWheelbaseRadiusMeters() * pProfile.getWheelbaseScrubFactor();
+        kLeftS = pProfile.getLeftFrictionVoltage();
+        kLeftV = pProfile.toLinearGain(pProfile.getLeftVoltPerSpeed());
+        kLeftA = pProfile.toLinearGain(pProfile.getLeftVoltPerAccel());
+        kRightS = pProfile.getRightFrictionVoltage();
+        kRightV = pProfile.toLinearGain(pProfile.getRightVoltPerSpeed());
+        kRightA = pProfile.toLinearGain(pProfile.getRightVoltPerAccel());
+    }
+
+    /**
+     * Starts following pTrajectory from its beginning at pNow.
+     */
+    public void start(TrajectorySampler pTrajectory, double pNow) {
+        mTrajectory = pTrajectory;
+        mStartTime = pNow;
+        mTime = 0.0;
+        mLeftVelocity = mRightVelocity = 0.0;
+        mLeftFeedforward = mRightFeedforward = 0.0;
+        mAlongTrackError = mCrossTrackError = mHeadingError = 0.0;
+    }
+
+    public void stop() {
+        mTrajectory = null;
+        mLeftVelocity = mRightVelocity = 0.0;
+        mLeftFeedforward = mRightFeedforward = 0.0;
+    }
+
+    /**
+     * Computes the wheel velocities and feedforwards for the robot's current pose.  Does nothing if no trajectory is
+     * being followed.
+     */
+    public void update(double pNow, double pX, double pY, double pHeading) {
+        if(mTrajectory == null) {
+            return;
+        }
+        mTime = pNow - mStartTime;
+        mTrajectory.sample(mTime);
+        double desiredVelocity = mTrajectory.getVelocity();
+        double desiredAcceleration = mTrajectory.getAcceleration();
+        double curvature = mTrajectory.getCurvature();
+        double desiredOmega = desiredVelocity * curvature;
+
+        // Error in the robot's frame
+        double dx = mTrajectory.getX() - pX;
+        double dy = mTrajectory.getY() - pY;
+        double cos = Math.cos(pHeading);
+        double sin = Math.sin(pHeading);
+        mAlongTrackError = dx * cos + dy * sin;
+        mCrossTrackError = -dx * sin + dy * cos;
+        double headingError = mTrajectory.getHeading() - pHeading;
+        mHeadingError = Math.atan2(Math.sin(headingError), Math.cos(headingError));
+
+        double k = 2.0 * kZeta * Math.sqrt(desiredOmega * desiredOmega + kB * desiredVelocity * desiredVelocity);
+        double velocity = desiredVelocity * Math.cos(mHeadingError) + k * mAlongTrackError;
+        double omega = desiredOmega + k * mHeadingError + kB * desiredVelocity * sinc(mHeadingError) * mCrossTrackError;
+
+        mLeftVelocity = velocity - omega * kHalfTrackWidth;
+        mRightVelocity = velocity + omega * kHalfTrackWidth;
+
+        // Feedforward for the corrected wheel velocities, so the motor controllers' PID only has to make up model
+        // error.  Wheel accelerations ignore the change in curvature, which is small on splines this smooth.
+        double turnScale = curvature * kHalfTrackWidth;
+        mLeftFeedforward = feedforward(kLeftS, kLeftV, kLeftA, mLeftVelocity, desiredAcceleration * (1.0 - turnScale));
+        mRightFeedforward = feedforward(kRightS, kRightV, kRightA, mRightVelocity, desiredAcceleration * (1.0 + turnScale));
+    }
+
+    private static double feedforward(double pS, double pV, double pA, double pVelocity, double pAcceleration) {
+        return pS * Math.signum(pVelocity) + pV * pVelocity + pA * pAcceleration;
+    }
+
+    private static double sinc(double pX) {
+        return Math.abs(pX) < 1e-9 ? 1.0 - pX * pX / 6.0 : Math.sin(pX) / pX;
+    }
+
+    public boolean isFollowing() {
+        return mTrajectory != null;
+    }
+
+    /**
+     * @return true once the whole trajectory has been played back, or if nothing is being followed
+     */
+    public boolean isFinished() {
+        return mTrajectory == null || mTime >= mTrajectory.getTotalTime();
+    }
+
+    /** Seconds since start() as of the last update */
+    public double getTime() {
+        return mTime;
+    }
+
+    /** m/s */
+    public double getLeftVelocity() {
+        return mLeftVelocity;
+    }
+
+    /** m/s */
+    public double getRightVelocity() {
+        return mRightVelocity;
+    }
+
+    /** Volts */
+    public double getLeftFeedforward() {
+        return mLeftFeedforward;
+    }
+
+    /** Volts */
+    public double getRightFeedforward() {
+        return mRightFeedforward;
+    }
+
+    /** How far the trajectory is ahead of the robot, in meters */
+    public double getAlongTrackError() {
+        return mAlongTrackError;
+    }
+
+    /** How far the trajectory is to the robot's left, in meters */
+    public double getCrossTrackError() {
+        return mCrossTrackError;
+    }
+
+    /** Radians */
+    public double getHeadingError() {
+        return mHeadingError;
+    }
+
+}
@@ -0,0 +1,134 @@
+package us.ilite.common.lib.control;
+
+import java.util.List;
+
+import edu.wpi.first.wpilibj.trajectory.Trajectory;
+
+/**
+ * A trajectory flattened into primitive arrays, so it can be sampled every control cycle without allocating.
+ * Trajectory.sample() builds a new State and Pose2d on every call; sample() here binary searches the state times and
+ * interpolates into fields instead.  Meters, radians and seconds like WPILib.
+ *
+ * Immutable after construction apart from the last sample, so give each follower its own sampler.
+ */
+public class TrajectorySampler {
+
+    private final double[] mTimes;
+    private final double[] mX;
+    private final double[] mY;
+    private final double[] mHeading;
+    private final double[] mVelocity;
+    private final double[] mAcceleration;
+    private final double[] mCurvature;
+
+    // Last sample
+    private double mSampleX, mSampleY, mSampleHeading, mSampleVelocity, mSampleAcceleration, mSampleCurvature;
+
+    public TrajectorySampler(Trajectory pTrajectory) {
+        List<Trajectory.State> states = pTrajectory.getStates();
+        int count = states.size();
+        if(count == 0) {
+            throw new IllegalArgumentException("Trajectory has no states");
+        }
+        mTimes = new double[count];
+        mX = new double[count];
+        mY = new double[count];
+        mHeading = new double[count];
+        mVelocity = new double[count];
+        mAcceleration = new double[count];
+        mCurvature = new double[count];
+        for(int i = 0; i < count; i++) {
+            Trajectory.State state = states.get(i);
+            mTimes[i] = state.timeSeconds;
+            mX[i] = state.poseMeters.getTranslation().getX();
+            mY[i] = state.poseMeters.getTranslation().getY();
+            mHeading[i] = state.poseMeters.getRotation().getRadians();
+            mVelocity[i] = state.velocityMetersPerSecond;
+            mAcceleration[i] = state.accelerationMetersPerSecondSq;
+            mCurvature[i] = state.curvatureRadPerMeter;
+        }
+        sample(0.0);
+    }
+
+    /**
+     * Interpolates the state at pTime into the getters.  Times outside the trajectory are clamped to its ends.
+     * O(log n) in the number of states.
+     */
+    public void sample(double pTime) {
+        int last = mTimes.length - 1;
+        if(pTime <= mTimes[0] || last == 0) {
+            copy(0);
+            return;
+        }
+        if(pTime >= mTimes[last]) {
+            copy(last);
+            return;
+        }
+        // Invariant: time[lo] <= pTime < time[hi]
+        int lo = 0, hi = last;
+        while(hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            if(mTimes[mid] <= pTime) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        double dt = mTimes[hi] - mTimes[lo];
+        double t = dt > 0.0 ? (pTime - mTimes[lo]) / dt : 0.0;
+        mSampleX = lerp(mX, lo, hi, t);
+        mSampleY = lerp(mY, lo, hi, t);
+        double dHeading = mHeading[hi] - mHeading[lo];
+        mSampleHeading = mHeading[lo] + t * Math.atan2(Math.sin(dHeading), Math.cos(dHeading));
+        mSampleVelocity = lerp(mVelocity, lo, hi, t);
+        // Acceleration is constant between states
+        mSampleAcceleration = mAcceleration[lo];
+        mSampleCurvature = lerp(mCurvature, lo, hi, t);
+    }
+
+    private void copy(int pIndex) {
+        mSampleX = mX[pIndex];
+        mSampleY = mY[pIndex];
+        mSampleHeading = mHeading[pIndex];
+        mSampleVelocity = mVelocity[pIndex];
+        mSampleAcceleration = mAcceleration[pIndex];
+        mSampleCurvature = mCurvature[pIndex];
+    }
+
+    private static double lerp(double[] pValues, int pLo, int pHi, double pT) {
+        return pValues[pLo] + pT * (pValues[pHi] - pValues[pLo]);
+    }
+
+    public double getTotalTime() {
+        return mTimes[mTimes.length - 1];
+    }
+
+    public int getStateCount() {
+        return mTimes.length;
+    }
+
+    public double getX() {
+        return mSampleX;
+    }
+
+    public double getY() {
+        return mSampleY;
+    }
+
+    public double getHeading() {
+        return mSampleHeading;
+    }
+
+    public double getVelocity() {
+        return mSampleVelocity;
+    }
+
+    public double getAcceleration() {
+        return mSampleAcceleration;
+    }
+
+    public double getCurvature() {
+        return mSampleCurvature;
+    }
+
+}
@@ -0,0 +1,58 @@
+package us.ilite.common.lib.util;
+
+/**
+ * A single pole low-pass filter: each sample moves the output a fixed fraction of the way towards it.  The first sample
+ * after a clear() is taken as is, so the output doesn't ramp up from 0.
+ */
+public class ExponentialFilter implements IFilter {
+
+    private final double mAlpha;
+
+    private boolean mIsEmpty = true;
+    private double mOutput = 0.0;
+
+    /**
+     * @param pAlpha How far each sample moves the output, between 0 (not at all) and 1 (no filtering)
+     */
+    public ExponentialFilter(double pAlpha) {
+        if(!(pAlpha > 0.0 && pAlpha <= 1.0)) {
+            throw new IllegalArgumentException("Filter alpha must be in (0, 1], not " + pAlpha);
+        }
+        mAlpha = pAlpha;
+    }
+
+    /**
+     * @param pTimeConstant Seconds for the output to get ~63% of the way to a step in the input
+     * @param pPeriod Seconds between samples, like Settings.kControlLoopPeriod
+     */
+    public static ExponentialFilter fromTimeConstant(double pTimeConstant, double pPeriod) {
+        return new ExponentialFilter(pPeriod / (pTimeConstant + pPeriod));
+    }
+
+    @Override
+    public double add(double pSample) {
+        if(mIsEmpty) {
+            mOutput = pSample;
+            mIsEmpty = false;
+        } else {
+            mOutput += mAlpha * (pSample - mOutput);
+        }
+        return mOutput;
+    }
+
+    @Override
+    public double get() {
+        return mOutput;
+    }
+
+    @Override
+    public void clear() {
+        mIsEmpty = true;
+        mOutput = 0.0;
+    }
+
+    public double getAlpha() {
+        return mAlpha;
+    }
+
+}
@@ -1,55 +1,41 @@
 package us.ilite.common.lib.util;
 
-import java.util.ArrayList;
-
-
+/**
+ * The original weighted running average, kept for existing callers.  It's a FirFilter now, so it no longer boxes every
+ * sample - new code should use FirFilter, or one of the other IFilters, directly.
+ */
 public class FilteredAverage {
-  private final ArrayList<Double> mNumbers = new ArrayList<Double>();
-  private final double[] mGains;
+  private final FirFilter mFilter;
 
     /**
      * @param pGains - applied to the average. First number in
-     *               the list is applied to the oldest number in the average. Running average length matches the length
+     *               the list is applied to the newest number in the average. Running average length matches the length
      *               of the gains.
      */
   public FilteredAverage(double[] pGains) {
     if(pGains == null || pGains.length == 0) {
       throw new IllegalArgumentException("Cannot create a filtered average without filter gains!");
     }
-    mGains = pGains;
+    mFilter = new FirFilter(pGains);
   }
 
   public void addNumber(double newNumber) {
-      mNumbers.add(newNumber);
-      if (!isUnderMaxSize()) {
-          mNumbers.remove(0);
-      }
+      mFilter.add(newNumber);
     }
 
   public double getAverage() {
-      double result = 0;
-      
-      int g = 0;
-      for (int i = mNumbers.size()-1; i >= 0; i--) {
-        if(g >= 0 && g < mGains.length) {
-          result += mGains[g] * mNumbers.get(i);
-          g++;
-        }
-        
-      }
-
-      return result;
+      return mFilter.get();
   }
 
   public int getSize() {
-      return mNumbers.size();
+      return mFilter.size();
   }
 
   public boolean isUnderMaxSize() {
-      return getSize() <= mGains.length;
+      return getSize() <= mFilter.getLength();
   }
 
   public void clear() {
-      mNumbers.clear();
+      mFilter.clear();
   }
 }
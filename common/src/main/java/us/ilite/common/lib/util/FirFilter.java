@@ -0,0 +1,84 @@
+package us.ilite.common.lib.util;
+
+import java.util.Arrays;
+
+/**
+ * A finite impulse response filter: the output is the sum of the last N samples, each multiplied by its gain.  Until N
+ * samples have been added, the missing ones count as 0.
+ *
+ * Every sample is written twice into a ring of 2N, so the last N samples are always contiguous and the output is a
+ * single branch-free loop over two arrays, which the JIT unrolls.
+ */
+public class FirFilter implements IFilter {
+
+    // Ordered oldest first, to line up with the samples in the ring
+    private final double[] mGains;
+    private final double[] mSamples;
+    private final int mLength;
+
+    // Where the next sample goes, which is also where the oldest sample in the window is
+    private int mNext = 0;
+    private int mSize = 0;
+    private double mOutput = 0.0;
+
+    /**
+     * @param pGains Applied to the samples, newest first.  The number of gains is the number of samples kept.
+     */
+    public FirFilter(double[] pGains) {
+        if(pGains == null || pGains.length == 0) {
+            throw new IllegalArgumentException("Cannot create a filter without gains!");
+        }
+        mLength = pGains.length;
+        mGains = new double[mLength];
+        for(int i = 0; i < mLength; i++) {
+            mGains[i] = pGains[mLength - 1 - i];
+        }
+        mSamples = new double[mLength * 2];
+    }
+
+    @Override
+    public double add(double pSample) {
+        mSamples[mNext] = pSample;
+        mSamples[mNext + mLength] = pSample;
+        mNext = mNext + 1 == mLength ? 0 : mNext + 1;
+        if(mSize < mLength) {
+            mSize++;
+        }
+
+        double output = 0.0;
+        for(int i = 0; i < mLength; i++) {
+            output += mGains[i] * mSamples[mNext + i];
+        }
+        mOutput = output;
+        return output;
+    }
+
+    @Override
+    public double get() {
+        return mOutput;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(mSamples, 0.0);
+        mNext = 0;
+        mSize = 0;
+        mOutput = 0.0;
+    }
+
+    /**
+     * @return The number of samples kept, up to the number of gains
+     */
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isFull() {
+        return mSize == mLength;
+    }
+
+    public int getLength() {
+        return mLength;
+    }
+
+}
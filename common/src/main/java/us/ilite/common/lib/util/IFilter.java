@@ -0,0 +1,25 @@
+package us.ilite.common.lib.util;
+
+/**
+ * A filter over a stream of samples.  Implementations keep their history in preallocated primitive arrays, so adding
+ * a sample never allocates.  Not thread safe.
+ */
+public interface IFilter {
+
+    /**
+     * Adds a sample and calculates the filter's new output.
+     * @return The output, the same as get() returns until the next sample
+     */
+    double add(double pSample);
+
+    /**
+     * @return The output as of the last sample, or 0 if there have been none since the last clear()
+     */
+    double get();
+
+    /**
+     * Forgets every sample.
+     */
+    void clear();
+
+}
@@ -0,0 +1,26 @@
+package us.ilite.common.lib.util;
+
+/**
+ * A monotonic source of time that schedulers and clocks can be built on, so the same code can run against real
+ * time on the robot or against a simulated clock on a desktop JVM.
+ */
+public interface ITimeSource {
+
+    /**
+     * @return A monotonic time, in nanoseconds.  Only differences between values are meaningful.
+     */
+    long getNanos();
+
+    /**
+     * Blocks the calling thread until getNanos() is at least pNanos.  Simulated sources may simply advance time.
+     */
+    void sleepUntil(long pNanos) throws InterruptedException;
+
+    /**
+     * @return getNanos(), in seconds
+     */
+    default double getSeconds() {
+        return getNanos() / 1e9;
+    }
+
+}
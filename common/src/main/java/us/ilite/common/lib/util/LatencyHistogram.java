@@ -0,0 +1,151 @@
+package us.ilite.common.lib.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A preallocated, log-linear histogram of durations in nanoseconds, in the spirit of HdrHistogram.  Each power of two
+ * is split into 16 linear sub-buckets, so any recorded value is reported within ~6% of its real value, from
+ * nanoseconds up to about a minute.  Recording is a handful of integer operations and never allocates.
+ *
+ * Only one thread may record into (or reset) a histogram, but any thread may read it or copyInto() another histogram
+ * without locking.  The recording thread publishes with ordered stores, so a concurrent reader sees every bucket at
+ * least as up to date as the totals it read before it, never a torn value.
+ */
+public class LatencyHistogram {
+
+    private static final int kSubBucketBits = 4;
+    private static final int kSubBucketCount = 1 << kSubBucketBits;
+    private static final int kMaxExponent = 36; // 2^36ns ~= 68s
+    private static final int kBucketCount = kSubBucketCount + (kMaxExponent - kSubBucketBits + 1) * kSubBucketCount;
+
+    private final AtomicLongArray mCounts = new AtomicLongArray(kBucketCount);
+    private final long kOverrunThresholdNanos;
+    private final AtomicLong mTotalCount = new AtomicLong(0);
+    private final AtomicLong mOverrunCount = new AtomicLong(0);
+    private final AtomicLong mMax = new AtomicLong(0);
+    private final AtomicLong mSum = new AtomicLong(0);
+
+    /**
+     * @param pOverrunThresholdNanos Recorded values strictly greater than this are counted as overruns
+     */
+    public LatencyHistogram(long pOverrunThresholdNanos) {
+        kOverrunThresholdNanos = pOverrunThresholdNanos;
+    }
+
+    public LatencyHistogram() {
+        this(Long.MAX_VALUE);
+    }
+
+    public void record(long pNanos) {
+        long value = Math.max(0, pNanos);
+        // Single writer, so plain read-increment-lazySet is enough - no CAS loops
+        int index = indexOf(value);
+        mCounts.lazySet(index, mCounts.get(index) + 1);
+        mSum.lazySet(mSum.get() + value);
+        if(value > mMax.get()) {
+            mMax.lazySet(value);
+        }
+        if(value > kOverrunThresholdNanos) {
+            mOverrunCount.lazySet(mOverrunCount.get() + 1);
+        }
+        mTotalCount.lazySet(mTotalCount.get() + 1);
+    }
+
+    /**
+     * Copies this histogram's current state into pTarget, replacing its contents.  Safe to call from any thread while
+     * this histogram is being recorded into; pTarget must not be recorded into concurrently.
+     */
+    public void copyInto(LatencyHistogram pTarget) {
+        long total = 0;
+        for(int i = 0; i < kBucketCount; i++) {
+            long count = mCounts.get(i);
+            pTarget.mCounts.lazySet(i, count);
+            total += count;
+        }
+        // Derive the total from the buckets actually copied so percentiles stay self-consistent
+        pTarget.mTotalCount.lazySet(total);
+        pTarget.mSum.lazySet(mSum.get());
+        pTarget.mMax.lazySet(mMax.get());
+        pTarget.mOverrunCount.lazySet(mOverrunCount.get());
+    }
+
+    /**
+     * @param pPercentile In the range [0, 100]
+     * @return The (approximate) smallest recorded value that pPercentile percent of values are less than or equal to,
+     * or 0 if nothing has been recorded.
+     */
+    public long getPercentile(double pPercentile) {
+        long total = mTotalCount.get();
+        long max = mMax.get();
+        if(total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long)Math.ceil(pPercentile / 100.0 * total));
+        long seen = 0;
+        for(int i = 0; i < kBucketCount; i++) {
+            seen += mCounts.get(i);
+            if(seen >= target) {
+                return Math.min(highestValueAt(i), max);
+            }
+        }
+        return max;
+    }
+
+    public long getMax() {
+        return mMax.get();
+    }
+
+    public double getMean() {
+        long total = mTotalCount.get();
+        return total == 0 ? 0.0 : (double)mSum.get() / (double)total;
+    }
+
+    public long getTotalCount() {
+        return mTotalCount.get();
+    }
+
+    public long getOverrunCount() {
+        return mOverrunCount.get();
+    }
+
+    public long getOverrunThreshold() {
+        return kOverrunThresholdNanos;
+    }
+
+    /**
+     * Clears all recorded values.  Must only be called by the recording thread.
+     */
+    public void reset() {
+        mTotalCount.lazySet(0);
+        for(int i = 0; i < kBucketCount; i++) {
+            mCounts.lazySet(i, 0);
+        }
+        mOverrunCount.lazySet(0);
+        mMax.lazySet(0);
+        mSum.lazySet(0);
+    }
+
+    static int indexOf(long pValue) {
+        if(pValue < kSubBucketCount) {
+            return (int)pValue;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(pValue);
+        if(exponent > kMaxExponent) {
+            return kBucketCount - 1;
+        }
+        int shift = exponent - kSubBucketBits;
+        int subBucket = (int)(pValue >>> shift) & (kSubBucketCount - 1);
+        return kSubBucketCount + shift * kSubBucketCount + subBucket;
+    }
+
+    static long highestValueAt(int pIndex) {
+        if(pIndex < kSubBucketCount) {
+            return pIndex;
+        }
+        int shift = (pIndex - kSubBucketCount) / kSubBucketCount;
+        int subBucket = (pIndex - kSubBucketCount) % kSubBucketCount;
+        return ((long)(kSubBucketCount + subBucket + 1) << shift) - 1;
+    }
+
+}
@@ -0,0 +1,79 @@
+package us.ilite.common.lib.util;
+
+import java.util.Arrays;
+
+/**
+ * The median of the last N samples, or of every sample until there have been N.  Rejects single-sample spikes, like a
+ * camera frame that saw the wrong target, without lagging behind steps the way an average does.
+ *
+ * Keeps the window sorted in a second array: each sample replaces the oldest one with a binary search and a shift, so
+ * adding a sample is O(N) in the worst case - a few nanoseconds for the short windows this is meant for.  NaN samples
+ * sort above every number, like Arrays.sort() puts them.
+ */
+public class MedianFilter implements IFilter {
+
+    // In the order they were added
+    private final double[] mSamples;
+    // The same samples, sorted.  Only the first mSize are in use.
+    private final double[] mSorted;
+
+    private int mNext = 0;
+    private int mSize = 0;
+    private double mOutput = 0.0;
+
+    /**
+     * @param pLength The number of samples the median is taken over
+     */
+    public MedianFilter(int pLength) {
+        if(pLength <= 0) {
+            throw new IllegalArgumentException("Cannot take the median of fewer than 1 sample!");
+        }
+        mSamples = new double[pLength];
+        mSorted = new double[pLength];
+    }
+
+    @Override
+    public double add(double pSample) {
+        if(mSize == mSamples.length) {
+            // Close the gap left by the oldest sample
+            int oldest = Arrays.binarySearch(mSorted, 0, mSize, mSamples[mNext]);
+            System.arraycopy(mSorted, oldest + 1, mSorted, oldest, mSize - oldest - 1);
+            mSize--;
+        }
+        mSamples[mNext] = pSample;
+        mNext = mNext + 1 == mSamples.length ? 0 : mNext + 1;
+
+        int insert = Arrays.binarySearch(mSorted, 0, mSize, pSample);
+        if(insert < 0) {
+            insert = -insert - 1;
+        }
+        System.arraycopy(mSorted, insert, mSorted, insert + 1, mSize - insert);
+        mSorted[insert] = pSample;
+        mSize++;
+
+        int middle = mSize / 2;
+        mOutput = (mSize & 1) == 1 ? mSorted[middle] : (mSorted[middle - 1] + mSorted[middle]) / 2.0;
+        return mOutput;
+    }
+
+    @Override
+    public double get() {
+        return mOutput;
+    }
+
+    @Override
+    public void clear() {
+        mNext = 0;
+        mSize = 0;
+        mOutput = 0.0;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isFull() {
+        return mSize == mSamples.length;
+    }
+
+}
@@ -0,0 +1,72 @@
+package us.ilite.common.lib.util;
+
+/**
+ * The mean of the last N samples, or of every sample until there have been N.  Keeps a running sum, so adding a sample
+ * doesn't depend on N.
+ *
+ * Adding and subtracting samples from the sum accumulates rounding error, and a NaN sample would stick in it for good,
+ * so the sum is recalculated from the ring whenever the ring wraps.  That costs N additions once every N samples.
+ */
+public class MovingAverage implements IFilter {
+
+    private final double[] mSamples;
+
+    private int mNext = 0;
+    private int mSize = 0;
+    private double mSum = 0.0;
+    private double mOutput = 0.0;
+
+    /**
+     * @param pLength The number of samples averaged
+     */
+    public MovingAverage(int pLength) {
+        if(pLength <= 0) {
+            throw new IllegalArgumentException("Cannot average fewer than 1 sample!");
+        }
+        mSamples = new double[pLength];
+    }
+
+    @Override
+    public double add(double pSample) {
+        if(mSize == mSamples.length) {
+            mSum -= mSamples[mNext];
+        } else {
+            mSize++;
+        }
+        mSamples[mNext] = pSample;
+        mSum += pSample;
+
+        mNext++;
+        if(mNext == mSamples.length) {
+            mNext = 0;
+            mSum = 0.0;
+            for(int i = 0; i < mSamples.length; i++) {
+                mSum += mSamples[i];
+            }
+        }
+        mOutput = mSum / mSize;
+        return mOutput;
+    }
+
+    @Override
+    public double get() {
+        return mOutput;
+    }
+
+    @Override
+    public void clear() {
+        mNext = 0;
+        mSize = 0;
+        mSum = 0.0;
+        mOutput = 0.0;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isFull() {
+        return mSize == mSamples.length;
+    }
+
+}
@@ -3,35 +3,82 @@ package us.ilite.common.lib.util;
 import com.flybotix.hfr.util.log.ILog;
 import com.flybotix.hfr.util.log.Logger;
 
+/**
+ * Times a section of code with System.nanoTime and aggregates every measurement into a LatencyHistogram.
+ * Named timers should be obtained through PerfTimerRegistry so the dashboard and log writer can find them.
+ *
+ * start()/stop() must be called from a single thread.  snapshot() may be called from any thread and never blocks it.
+ */
 public class PerfTimer {
 
     private final ILog mLog = Logger.createLog(PerfTimer.class);
 
-    private double mStartTime = Double.NaN;
-    private double mWarningThreshold = Double.NaN;
+    private final String mName;
+    private final LatencyHistogram mHistogram = new LatencyHistogram();
+
+    private long mStartNanos = 0;
+    private boolean mIsStarted = false;
+
+    private long mWarningThresholdNanos = Long.MAX_VALUE;
+    private long mWarningIntervalNanos = 1_000_000_000L;
+    private long mLastWarningNanos = 0;
+    private long mSuppressedWarnings = 0;
+    private boolean mHasWarned = false;
     private String mWarningMessage = "Time warning: %s";
 
+    public PerfTimer(String pName) {
+        mName = pName;
+    }
+
+    public PerfTimer() {
+        this("unnamed");
+    }
+
     public void start() {
-        mStartTime = getSeconds();
+        mStartNanos = System.nanoTime();
+        mIsStarted = true;
     }
 
+    /**
+     * @return The time since start(), in seconds, or NaN if the timer was never started
+     */
     public double stop() {
-        double delta = getSeconds() - mStartTime;
+        if(!mIsStarted) {
+            return Double.NaN;
+        }
+        long now = System.nanoTime();
+        long delta = now - mStartNanos;
+        mIsStarted = false;
+        mHistogram.record(delta);
 
-        if(mWarningThreshold != Double.NaN && mWarningThreshold <= delta) {
-            mLog.warn(String.format(mWarningMessage, delta));
+        if(delta >= mWarningThresholdNanos) {
+            if(!mHasWarned || now - mLastWarningNanos >= mWarningIntervalNanos) {
+                String message = String.format(mWarningMessage, delta / 1e9);
+                if(mSuppressedWarnings > 0) {
+                    message += " (" + mSuppressedWarnings + " similar warnings suppressed)";
+                }
+                mLog.warn(mName, ": ", message);
+                mHasWarned = true;
+                mLastWarningNanos = now;
+                mSuppressedWarnings = 0;
+            } else {
+                mSuppressedWarnings++;
+            }
         }
 
-        return delta;
+        return delta / 1e9;
     }
 
+    /**
+     * Logs a warning when a measurement takes at least pTime seconds.
+     */
     public PerfTimer logWhenTimeGreaterThan(double pTime) {
-        mWarningThreshold = pTime;
+        mWarningThresholdNanos = (long)(pTime * 1e9);
         return this;
     }
 
     public PerfTimer alwayLog() {
-        mWarningThreshold = 0.0;
+        mWarningThresholdNanos = 0;
         return this;
     }
 
@@ -40,7 +87,64 @@ public class PerfTimer {
         return this;
     }
 
-    private double getSeconds() {
-        return System.currentTimeMillis() / 1000.0;
+    /**
+     * Logs at most one warning per pInterval seconds; the rest are counted and reported with the next warning.
+     */
+    public PerfTimer setWarningInterval(double pInterval) {
+        mWarningIntervalNanos = (long)(pInterval * 1e9);
+        return this;
+    }
+
+    /**
+     * Clears the aggregated measurements.  Must be called from the timing thread.
+     */
+    public void reset() {
+        mHistogram.reset();
+    }
+
+    /**
+     * @return A consistent copy of this timer's statistics.  Safe to call from any thread.
+     */
+    public Snapshot snapshot() {
+        LatencyHistogram copy = new LatencyHistogram();
+        mHistogram.copyInto(copy);
+        return new Snapshot(mName, copy);
     }
+
+    public String getName() {
+        return mName;
+    }
+
+    public LatencyHistogram getHistogram() {
+        return mHistogram;
+    }
+
+    /**
+     * Point-in-time statistics of a PerfTimer, in seconds.
+     */
+    public static class Snapshot {
+        public final String name;
+        public final long count;
+        public final double mean;
+        public final double p50;
+        public final double p90;
+        public final double p99;
+        public final double max;
+
+        private Snapshot(String pName, LatencyHistogram pHistogram) {
+            name = pName;
+            count = pHistogram.getTotalCount();
+            mean = pHistogram.getMean() / 1e9;
+            p50 = pHistogram.getPercentile(50) / 1e9;
+            p90 = pHistogram.getPercentile(90) / 1e9;
+            p99 = pHistogram.getPercentile(99) / 1e9;
+            max = pHistogram.getMax() / 1e9;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: n=%d mean=%.6f p50=%.6f p90=%.6f p99=%.6f max=%.6f", name, count, mean, p50, p90, p99, max);
+        }
+    }
+
 }
@@ -0,0 +1,39 @@
+package us.ilite.common.lib.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Global registry of named PerfTimers.  Look timers up once (e.g. in a field initializer) and keep the reference -
+ * get() is not meant for the hot path.
+ */
+public class PerfTimerRegistry {
+
+    private static final Map<String, PerfTimer> sTimers = new ConcurrentHashMap<>();
+
+    /**
+     * @return The timer registered under pName, creating it if it doesn't exist yet
+     */
+    public static PerfTimer get(String pName) {
+        return sTimers.computeIfAbsent(pName, PerfTimer::new);
+    }
+
+    public static Collection<PerfTimer> getTimers() {
+        return sTimers.values();
+    }
+
+    /**
+     * @return A snapshot of every registered timer.  Never blocks the threads doing the timing.
+     */
+    public static List<PerfTimer.Snapshot> snapshotAll() {
+        List<PerfTimer.Snapshot> snapshots = new ArrayList<>(sTimers.size());
+        for(PerfTimer timer : sTimers.values()) {
+            snapshots.add(timer.snapshot());
+        }
+        return snapshots;
+    }
+
+}
@@ -0,0 +1,178 @@
+package us.ilite.common.lib.util;
+
+/**
+ * A preallocated ring of timestamped headings, drive encoder positions and (optionally) field positions, for looking up where the robot was when a
+ * delayed measurement (like a camera frame) was taken.  Lookups binary search the ring and linearly interpolate
+ * between the two closest samples, so they take nanoseconds and never allocate.
+ *
+ * Samples must be added in increasing time order.  Not thread safe - add and look up from the same thread.
+ */
+public class PoseHistoryBuffer {
+
+    private final double[] mTimes;
+    private final double[] mHeadings;
+    private final double[] mLeftInches;
+    private final double[] mRightInches;
+    private final double[] mXInches;
+    private final double[] mYInches;
+    private final int kMask;
+
+    // Total samples ever added; the newest is at (mCount - 1) & kMask
+    private long mCount = 0;
+
+    /**
+     * @param pCapacity Number of samples kept, rounded up to a power of two
+     */
+    public PoseHistoryBuffer(int pCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, pCapacity) - 1) << 1;
+        kMask = capacity - 1;
+        mTimes = new double[capacity];
+        mHeadings = new double[capacity];
+        mLeftInches = new double[capacity];
+        mRightInches = new double[capacity];
+        mXInches = new double[capacity];
+        mYInches = new double[capacity];
+    }
+
+    /**
+     * @param pTime Seconds.  Samples at or before the newest sample's time are ignored.
+     * @param pHeadingDegrees Heading in degrees, wrapped or not
+     */
+    public void add(double pTime, double pHeadingDegrees, double pLeftInches, double pRightInches) {
+        add(pTime, pHeadingDegrees, pLeftInches, pRightInches, 0.0, 0.0);
+    }
+
+    /**
+     * @param pTime Seconds.  Samples at or before the newest sample's time are ignored.
+     * @param pHeadingDegrees Heading in degrees, wrapped or not
+     * @param pXInches Field position
+     * @param pYInches Field position
+     */
+    public void add(double pTime, double pHeadingDegrees, double pLeftInches, double pRightInches, double pXInches, double pYInches) {
+        if(mCount > 0 && pTime <= mTimes[(int)((mCount - 1) & kMask)]) {
+            return;
+        }
+        int i = (int)(mCount & kMask);
+        mTimes[i] = pTime;
+        mHeadings[i] = pHeadingDegrees;
+        mLeftInches[i] = pLeftInches;
+        mRightInches[i] = pRightInches;
+        mXInches[i] = pXInches;
+        mYInches[i] = pYInches;
+        mCount++;
+    }
+
+    public void clear() {
+        mCount = 0;
+    }
+
+    public int size() {
+        return (int)Math.min(mCount, kMask + 1);
+    }
+
+    public boolean isEmpty() {
+        return mCount == 0;
+    }
+
+    public double getOldestTime() {
+        return mTimes[(int)((mCount - size()) & kMask)];
+    }
+
+    public double getNewestTime() {
+        return mTimes[(int)((mCount - 1) & kMask)];
+    }
+
+    /**
+     * @return The heading at pTime in degrees, interpolated the short way around between samples.  Times outside the
+     * buffer are clamped to the oldest or newest sample.  NaN if the buffer is empty.
+     */
+    public double getHeadingAt(double pTime) {
+        if(mCount < 2) {
+            return mCount == 0 ? Double.NaN : mHeadings[0];
+        }
+        long after = search(pTime);
+        int a = (int)((after - 1) & kMask);
+        int b = (int)(after & kMask);
+        double t = fraction(pTime, after);
+        return mHeadings[a] + t * wrapDegrees(mHeadings[b] - mHeadings[a]);
+    }
+
+    /**
+     * @return How many degrees the robot has turned since pTime, the short way around.  0 if the buffer is empty.
+     */
+    public double getHeadingChangeSince(double pTime) {
+        if(mCount == 0) {
+            return 0.0;
+        }
+        return wrapDegrees(mHeadings[(int)((mCount - 1) & kMask)] - getHeadingAt(pTime));
+    }
+
+    public double getLeftInchesAt(double pTime) {
+        return interpolate(mLeftInches, pTime);
+    }
+
+    public double getRightInchesAt(double pTime) {
+        return interpolate(mRightInches, pTime);
+    }
+
+    public double getXInchesAt(double pTime) {
+        return interpolate(mXInches, pTime);
+    }
+
+    public double getYInchesAt(double pTime) {
+        return interpolate(mYInches, pTime);
+    }
+
+    private double interpolate(double[] pValues, double pTime) {
+        if(mCount < 2) {
+            return mCount == 0 ? Double.NaN : pValues[0];
+        }
+        long after = search(pTime);
+        int a = (int)((after - 1) & kMask);
+        int b = (int)(after & kMask);
+        return pValues[a] + fraction(pTime, after) * (pValues[b] - pValues[a]);
+    }
+
+    /**
+     * Requires at least two samples.
+     * @return The sequence number of the first sample after pTime, clamped so that it and the sample before it are
+     * both in the buffer.
+     */
+    private long search(double pTime) {
+        long lo = mCount - size();
+        long hi = mCount - 1;
+        if(pTime <= mTimes[(int)(lo & kMask)]) {
+            return lo + 1;
+        }
+        if(pTime >= mTimes[(int)(hi & kMask)]) {
+            return hi;
+        }
+        // Invariant: time[lo] < pTime < time[hi]
+        while(hi - lo > 1) {
+            long mid = (lo + hi) >>> 1;
+            if(mTimes[(int)(mid & kMask)] <= pTime) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        return hi;
+    }
+
+    private double fraction(double pTime, long pAfter) {
+        double t0 = mTimes[(int)((pAfter - 1) & kMask)];
+        double t1 = mTimes[(int)(pAfter & kMask)];
+        if(t1 <= t0) {
+            return 0.0;
+        }
+        return Math.max(0.0, Math.min(1.0, (pTime - t0) / (t1 - t0)));
+    }
+
+    /**
+     * @return pDegrees in [-180, 180)
+     */
+    static double wrapDegrees(double pDegrees) {
+        return pDegrees - 360.0 * Math.floor((pDegrees + 180.0) / 360.0);
+    }
+
+}
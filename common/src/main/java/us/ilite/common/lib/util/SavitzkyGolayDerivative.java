@@ -0,0 +1,66 @@
+package us.ilite.common.lib.util;
+
+/**
+ * The rate of change of evenly spaced samples: the slope of a least squares line through the last N of them.  That's
+ * the Savitzky-Golay first derivative for a polynomial of order 1 or 2, and it is far less noisy than differencing the
+ * last two samples.  The slope is the derivative at the middle of the window, so it lags by (N - 1) / 2 samples.
+ *
+ * The fit is a fixed set of gains, so this is a FirFilter.  The output is 0 until N samples have been added.
+ */
+public class SavitzkyGolayDerivative implements IFilter {
+
+    private final FirFilter mFilter;
+
+    private double mOutput = 0.0;
+
+    /**
+     * @param pLength The number of samples fit, at least 2
+     * @param pPeriod Seconds between samples, like Settings.kControlLoopPeriod
+     */
+    public SavitzkyGolayDerivative(int pLength, double pPeriod) {
+        if(pLength < 2) {
+            throw new IllegalArgumentException("Cannot fit a slope to fewer than 2 samples!");
+        }
+        if(!(pPeriod > 0.0)) {
+            throw new IllegalArgumentException("Sample period must be positive, not " + pPeriod);
+        }
+        mFilter = new FirFilter(calculateGains(pLength, pPeriod));
+    }
+
+    /**
+     * @return Gains for a window of pLength samples, newest first
+     */
+    static double[] calculateGains(int pLength, double pPeriod) {
+        // Newer samples have smaller ages, so they get the positive gains
+        double meanAge = (pLength - 1) / 2.0;
+        double sumOfSquares = pLength * ((double)pLength * pLength - 1.0) / 12.0;
+        double[] gains = new double[pLength];
+        for(int age = 0; age < pLength; age++) {
+            gains[age] = (meanAge - age) / (sumOfSquares * pPeriod);
+        }
+        return gains;
+    }
+
+    @Override
+    public double add(double pSample) {
+        double slope = mFilter.add(pSample);
+        mOutput = mFilter.isFull() ? slope : 0.0;
+        return mOutput;
+    }
+
+    @Override
+    public double get() {
+        return mOutput;
+    }
+
+    @Override
+    public void clear() {
+        mFilter.clear();
+        mOutput = 0.0;
+    }
+
+    public boolean isFull() {
+        return mFilter.isFull();
+    }
+
+}
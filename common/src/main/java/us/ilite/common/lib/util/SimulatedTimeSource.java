@@ -0,0 +1,47 @@
+package us.ilite.common.lib.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time that only moves when it is told to.  sleepUntil() jumps straight to the requested time instead of waiting,
+ * so code driven by this source runs as fast as the CPU allows while seeing exactly the timestamps it would see in
+ * real time.  For deterministic results, drive all loops that share a simulated source from one thread.
+ */
+public class SimulatedTimeSource implements ITimeSource {
+
+    private final AtomicLong mNanos;
+
+    public SimulatedTimeSource(long pStartNanos) {
+        mNanos = new AtomicLong(pStartNanos);
+    }
+
+    public SimulatedTimeSource() {
+        this(0L);
+    }
+
+    @Override
+    public long getNanos() {
+        return mNanos.get();
+    }
+
+    @Override
+    public void sleepUntil(long pNanos) throws InterruptedException {
+        if(Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        mNanos.accumulateAndGet(pNanos, Math::max);
+    }
+
+    public void advance(long pNanos) {
+        mNanos.addAndGet(pNanos);
+    }
+
+    public void advanceSeconds(double pSeconds) {
+        advance((long)(pSeconds * 1e9));
+    }
+
+    public void setSeconds(double pSeconds) {
+        mNanos.set((long)(pSeconds * 1e9));
+    }
+
+}
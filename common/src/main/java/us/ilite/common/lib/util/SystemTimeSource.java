@@ -0,0 +1,26 @@
+package us.ilite.common.lib.util;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Real time from System.nanoTime.
+ */
+public class SystemTimeSource implements ITimeSource {
+
+    @Override
+    public long getNanos() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void sleepUntil(long pNanos) throws InterruptedException {
+        long remaining;
+        while((remaining = pNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if(Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,18 @@
+package us.ilite.common.types;
+
+import com.flybotix.hfr.codex.CodexOf;
+
+/**
+ * Execution time statistics for a single module, in microseconds, over the last publishing window.  Elements are
+ * grouped per phase in the order INPUT, UPDATE, LOOP, OUTPUT so they can be indexed as phase * kStatsPerPhase + stat.
+ */
+public enum EModuleTiming implements CodexOf<Double> {
+
+    INPUT_P50_US, INPUT_P99_US, INPUT_MAX_US, INPUT_OVERRUNS,
+    UPDATE_P50_US, UPDATE_P99_US, UPDATE_MAX_US, UPDATE_OVERRUNS,
+    LOOP_P50_US, LOOP_P99_US, LOOP_MAX_US, LOOP_OVERRUNS,
+    OUTPUT_P50_US, OUTPUT_P99_US, OUTPUT_MAX_US, OUTPUT_OVERRUNS;
+
+    public static final int kStatsPerPhase = 4;
+
+}
@@ -19,5 +19,8 @@ public enum ETargetingData implements CodexOf<Double> {
     calcDistToTarget,
     calcAngleToTarget,
     calcTargetX,
-    calcTargetY
+    calcTargetY,
+
+    // Robot time (seconds) the frame was captured, from the NT receive time minus tl and image capture latency
+    captureTime
 }
\ No newline at end of file
@@ -14,11 +14,18 @@ public enum EDriveData implements CodexOf<Double> {
     // Commanded Outputs
 //    LEFT_DEMAND, RIGHT_DEMAND,
 //    LEFT_ACCEL, RIGHT_ACCEL,
-//    LEFT_FEEDFORWARD, RIGHT_FEEDFORWARD,
+    LEFT_FEEDFORWARD, RIGHT_FEEDFORWARD,
 
     // Raw Outputs
     LEFT_MESSAGE_OUTPUT, RIGHT_MESSAGE_OUTPUT,
     LEFT_MESSAGE_CONTROL_MODE, RIGHT_MESSAGE_CONTROL_MODE,
-    LEFT_MESSAGE_NEUTRAL_MODE, RIGHT_MESSAGE_NEUTRAL_MODE
+    LEFT_MESSAGE_NEUTRAL_MODE, RIGHT_MESSAGE_NEUTRAL_MODE,
+
+    // Path following - errors are the trajectory minus the actual pose
+    PATH_TIME,
+    PATH_ALONG_TRACK_ERROR_INCHES, PATH_CROSS_TRACK_ERROR_INCHES, PATH_HEADING_ERROR_DEGREES,
+
+    // Bus utilization
+    CAN_FRAMES_SENT, CAN_FRAMES_SUPPRESSED
 
 }
@@ -0,0 +1,17 @@
+package us.ilite.common.types.drive;
+
+import com.flybotix.hfr.codex.CodexOf;
+
+/**
+ * Field pose from the pose estimator.  x is forward and y is left of the starting pose; heading is CCW-positive.
+ */
+public enum EPose implements CodexOf<Double> {
+
+    X_INCHES, Y_INCHES, HEADING_DEGREES,
+
+    // Estimator state
+    POSITION_VARIANCE,
+    VISION_INNOVATION_INCHES,
+    VISION_UPDATES, VISION_REJECTS
+
+}
@@ -50,7 +50,7 @@ public enum EPowerDistPanel implements CodexOf<Double> {
    * This code takes about 5ms to execute.  If I try to split it to concurrently read the PDP,
    * it takes about 7.5ms.
    * 
-   * Longer-term, we should cut out the PDP current readings we don't need.
+   * Robot reads the PDP through PdpSampler on its own thread instead.
    * @param pCodex PDP codex
    * @param pPDP PDP hardware
    */
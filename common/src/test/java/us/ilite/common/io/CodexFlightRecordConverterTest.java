@@ -0,0 +1,52 @@
+package us.ilite.common.io;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import com.flybotix.hfr.codex.Codex;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import us.ilite.common.types.sensor.EGyro;
+import us.ilite.common.types.sensor.EPowerDistPanel;
+
+public class CodexFlightRecordConverterTest {
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    @Test
+    public void testWritesEachSourceSeparately() throws Exception {
+        Codex<Double, EGyro> imu = Codex.of.thisEnum(EGyro.class);
+        Codex<Double, EPowerDistPanel> pdp = Codex.of.thisEnum(EPowerDistPanel.class);
+        CodexSnapshotRing fast = new CodexSnapshotRing(new CodexFrameLayout(imu), 16);
+        CodexSnapshotRing slow = new CodexSnapshotRing(new CodexFrameLayout(pdp), 16);
+        CodexFlightRecorder recorder = new CodexFlightRecorder(fast, slow);
+        File recording = mFolder.newFile("flight" + CodexFlightRecorder.FILE_EXTENSION);
+
+        recorder.start(recording);
+        for(int i = 0; i < 3; i++) {
+            imu.set(EGyro.YAW_DEGREES, (double)i);
+            fast.snapshot();
+        }
+        pdp.set(EPowerDistPanel.VOLTAGE, 12.5);
+        slow.snapshot();
+        recorder.stop();
+
+        File output = mFolder.newFolder("csv");
+        assertEquals(4, CodexFlightRecordConverter.convert(recording, output));
+        List<String> fastRows = Files.readAllLines(new File(output, "source0/EGyro.csv").toPath());
+        List<String> slowRows = Files.readAllLines(new File(output, "source1/EPowerDistPanel.csv").toPath());
+        // Header and one row per snapshot, and only the codexes each ring snapshots
+        assertEquals(4, fastRows.size());
+        assertEquals(2, slowRows.size());
+        assertTrue(slowRows.get(1).contains("12.5"));
+        assertFalse(new File(output, "source0/EPowerDistPanel.csv").exists());
+        assertFalse(new File(output, "source1/EGyro.csv").exists());
+    }
+
+}
@@ -0,0 +1,31 @@
+package us.ilite.common.io;
+
+import static org.junit.Assert.*;
+
+import com.flybotix.hfr.codex.Codex;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import org.junit.Test;
+
+import us.ilite.common.types.sensor.EGyro;
+
+public class CodexNetworkTablesTest {
+
+    @Test
+    public void testSendsToTheNamedTable() {
+        CodexNetworkTables networkTables = CodexNetworkTables.getInstance();
+        Codex<Double, EGyro> imu = Codex.of.thisEnum(EGyro.class);
+        networkTables.registerCodex("left", imu);
+        networkTables.registerCodex("right", imu);
+
+        imu.set(EGyro.YAW_DEGREES, 10.0);
+        networkTables.send("left", imu);
+        imu.set(EGyro.YAW_DEGREES, 20.0);
+        networkTables.send("right", imu);
+        networkTables.flush();
+
+        NetworkTableInstance instance = NetworkTableInstance.getDefault();
+        assertEquals(10.0, instance.getTable("LEFT-EGYRO").getEntry("YAW_DEGREES").getDouble(0.0), 0.0);
+        assertEquals(20.0, instance.getTable("RIGHT-EGYRO").getEntry("YAW_DEGREES").getDouble(0.0), 0.0);
+    }
+
+}
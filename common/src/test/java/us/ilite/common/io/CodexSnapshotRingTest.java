@@ -0,0 +1,107 @@
+package us.ilite.common.io;
+
+import static org.junit.Assert.*;
+
+import com.flybotix.hfr.codex.Codex;
+import org.junit.Test;
+
+import us.ilite.common.types.drive.EDriveData;
+import us.ilite.common.types.sensor.EGyro;
+
+public class CodexSnapshotRingTest {
+
+    private static final int kSnapshots = 100_000;
+
+    @Test
+    public void testFramesArriveInOrder() {
+        CodexSnapshotRing ring = new CodexSnapshotRing(2, 4);
+        for(int i = 0; i < 3; i++) {
+            double[] frame = ring.claim();
+            frame[0] = i;
+            ring.publish();
+        }
+
+        assertEquals(3, ring.size());
+        for(int i = 0; i < 3; i++) {
+            double[] frame = ring.poll();
+            assertNotNull(frame);
+            assertEquals(i, frame[0], 0);
+            ring.release();
+        }
+        assertNull(ring.poll());
+    }
+
+    @Test
+    public void testDropsInsteadOfBlockingWhenFull() {
+        CodexSnapshotRing ring = new CodexSnapshotRing(1, 4);
+        for(int i = 0; i < 4; i++) {
+            assertNotNull(ring.claim());
+            ring.publish();
+        }
+        assertNull(ring.claim());
+        assertEquals(1, ring.getDroppedFrames());
+
+        ring.poll();
+        ring.release();
+        assertNotNull(ring.claim());
+    }
+
+    @Test
+    public void testSnapshotCopiesCodexValues() {
+        Codex<Double, EGyro> imu = Codex.of.thisEnum(EGyro.class);
+        imu.set(EGyro.YAW_DEGREES, 42.0);
+        CodexFrameLayout layout = new CodexFrameLayout(imu);
+        CodexSnapshotRing ring = new CodexSnapshotRing(layout, 2);
+
+        assertTrue(ring.snapshot());
+        // Later writes must not leak into a published frame
+        imu.set(EGyro.YAW_DEGREES, 0.0);
+
+        double[] frame = ring.poll();
+        int values = layout.getOffset(0) + 2;
+        assertEquals(42.0, frame[values + EGyro.YAW_DEGREES.ordinal()], 0);
+        assertTrue(Double.isNaN(frame[values + EGyro.PITCH_DEGREES.ordinal()]));
+    }
+
+    /**
+     * Snapshots while another thread drains the ring, and checks that every frame is either received, in order, or
+     * counted as dropped.  CodexSnapshotRingBenchmark measures how long the snapshots take.
+     */
+    @Test
+    public void testConcurrentDrainKeepsOrder() throws InterruptedException {
+        Codex<Double, EDriveData> drive = Codex.of.thisEnum(EDriveData.class);
+        CodexSnapshotRing ring = new CodexSnapshotRing(new CodexFrameLayout(drive), 64);
+        long[] received = new long[1];
+        boolean[] inOrder = {true};
+        Thread consumer = new Thread(() -> {
+            double last = -1;
+            while(!Thread.currentThread().isInterrupted() || ring.size() > 0) {
+                double[] frame = ring.poll();
+                if(frame != null) {
+                    // The sequence is the first slot of every frame
+                    inOrder[0] &= frame[0] > last;
+                    last = frame[0];
+                    received[0]++;
+                    ring.release();
+                }
+            }
+        });
+        consumer.start();
+
+        int published = 0;
+        for(int i = 0; i < kSnapshots; i++) {
+            drive.set(EDriveData.LEFT_POS_INCHES, (double)i);
+            if(ring.snapshot()) {
+                published++;
+            }
+        }
+        consumer.interrupt();
+        consumer.join();
+
+        assertTrue(inOrder[0]);
+        assertEquals(published, received[0]);
+        assertEquals(published, ring.getPublishedFrames());
+        assertEquals(kSnapshots - published, ring.getDroppedFrames());
+    }
+
+}
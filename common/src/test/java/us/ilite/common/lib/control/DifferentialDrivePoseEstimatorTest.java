@@ -0,0 +1,80 @@
+package us.ilite.common.lib.control;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class DifferentialDrivePoseEstimatorTest {
+
+    private final DifferentialDrivePoseEstimator mEstimator = new DifferentialDrivePoseEstimator(64, 1.0, 0.01, 4.0, 0.0, 3.0);
+
+    @Test
+    public void testStraightAndArcOdometry() {
+        mEstimator.update(0.0, 0.0, 0.0, 0.0);
+        mEstimator.update(0.01, 10.0, 10.0, 0.0);
+        assertEquals(10.0, mEstimator.getXInches(), 1e-9);
+        assertEquals(0.0, mEstimator.getYInches(), 1e-9);
+
+        // Quarter circle to the left of radius r: each wheel travels (r -/+ w/2) * pi/2
+        mEstimator.reset(0.0, 0.0, 0.0, 1.0);
+        double r = 50.0, w = 24.0;
+        int steps = 500;
+        for(int i = 0; i <= steps; i++) {
+            double angle = Math.PI / 2.0 * i / steps;
+            mEstimator.update(i * 0.01, (r - w / 2.0) * angle, (r + w / 2.0) * angle, Math.toDegrees(angle));
+        }
+        assertEquals(r, mEstimator.getXInches(), 0.01);
+        assertEquals(r, mEstimator.getYInches(), 0.01);
+        assertEquals(90.0, mEstimator.getHeadingDegrees(), 1e-9);
+    }
+
+    @Test
+    public void testResetAppliesHeadingOffset() {
+        mEstimator.update(0.0, 0.0, 0.0, 30.0);
+        mEstimator.reset(100.0, 50.0, 90.0, 1.0);
+        mEstimator.update(0.01, 0.0, 0.0, 30.0);
+        mEstimator.update(0.02, 10.0, 10.0, 30.0);
+        assertEquals(90.0, mEstimator.getHeadingDegrees(), 1e-9);
+        assertEquals(100.0, mEstimator.getXInches(), 1e-9);
+        assertEquals(60.0, mEstimator.getYInches(), 1e-9);
+    }
+
+    @Test
+    public void testRebaselineKeepsPoseAcrossZeroedSensors() {
+        mEstimator.update(0.0, 0.0, 0.0, 0.0);
+        mEstimator.update(0.01, 10.0, 10.0, 0.0);
+        mEstimator.update(0.02, 10.0, 10.0, 90.0);
+
+        // Encoders and gyro zeroed, e.g. by a mode change
+        mEstimator.rebaseline();
+        mEstimator.update(0.03, 0.0, 0.0, 0.0);
+        assertEquals(10.0, mEstimator.getXInches(), 1e-9);
+        assertEquals(0.0, mEstimator.getYInches(), 1e-9);
+        assertEquals(90.0, mEstimator.getHeadingDegrees(), 1e-9);
+
+        mEstimator.update(0.04, 5.0, 5.0, 0.0);
+        assertEquals(10.0, mEstimator.getXInches(), 1e-9);
+        assertEquals(5.0, mEstimator.getYInches(), 1e-9);
+    }
+
+    @Test
+    public void testVisionPullsTowardMeasurementAtCaptureTime() {
+        // Odometry thinks it drove 100in, but it really drove 98in.  The target is at (200, 0).
+        for(int i = 0; i <= 100; i++) {
+            mEstimator.update(i * 0.01, i, i, 0.0);
+        }
+        double varianceBefore = mEstimator.getVariance();
+        // Frame captured at t=0.5, when odometry said x=50 but the robot was really at 49 - 102in from the target
+        assertTrue(mEstimator.addVisionMeasurement(0.5, 151.0, 0.0, 200.0, 0.0));
+        assertTrue(mEstimator.getXInches() < 100.0);
+        assertTrue(mEstimator.getXInches() > 99.0);
+        assertEquals(0.0, mEstimator.getYInches(), 1e-9);
+        assertTrue(mEstimator.getVariance() < varianceBefore);
+
+        // Way off - rejected
+        assertFalse(mEstimator.addVisionMeasurement(0.9, 10.0, 0.0, 200.0, 0.0));
+        assertEquals(1, mEstimator.getVisionUpdates());
+        assertEquals(1, mEstimator.getVisionRejects());
+    }
+
+}
@@ -0,0 +1,109 @@
+package us.ilite.common.lib.util;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class FilterTest {
+
+    @Test
+    public void testFirAppliesGainsNewestFirst() {
+        FirFilter filter = new FirFilter(new double[]{0.5, 0.3, 0.2});
+        // Missing samples count as 0
+        assertEquals(0.5, filter.add(1.0), 1e-12);
+        assertEquals(0.5 * 2.0 + 0.3 * 1.0, filter.add(2.0), 1e-12);
+        filter.add(3.0);
+        assertEquals(0.5 * 4.0 + 0.3 * 3.0 + 0.2 * 2.0, filter.add(4.0), 1e-12);
+        assertTrue(filter.isFull());
+        assertEquals(0.5 * 4.0 + 0.3 * 3.0 + 0.2 * 2.0, filter.get(), 1e-12);
+
+        filter.clear();
+        assertEquals(0.0, filter.get(), 0.0);
+        assertEquals(0.5 * 7.0, filter.add(7.0), 1e-12);
+    }
+
+    @Test
+    public void testMovingAverageMatchesRecalculating() {
+        MovingAverage average = new MovingAverage(5);
+        assertEquals(2.0, average.add(2.0), 1e-12);
+        assertEquals(3.0, average.add(4.0), 1e-12);
+
+        Random random = new Random(2020);
+        double[] window = {2.0, 4.0, 0.0, 0.0, 0.0};
+        for(int i = 2; i < 1000; i++) {
+            double sample = random.nextDouble() * 100.0;
+            window[i % window.length] = sample;
+            double mean = average.add(sample);
+            if(i >= window.length - 1) {
+                assertEquals(Arrays.stream(window).sum() / window.length, mean, 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testMovingAverageRecoversFromNaN() {
+        MovingAverage average = new MovingAverage(3);
+        average.add(Double.NaN);
+        assertTrue(Double.isNaN(average.add(1.0)));
+        // The sum is recalculated the next time the ring wraps after the NaN has left it
+        for(int i = 0; i < 3; i++) {
+            average.add(1.0);
+        }
+        assertEquals(1.0, average.add(1.0), 1e-12);
+    }
+
+    @Test
+    public void testExponentialStartsAtFirstSample() {
+        ExponentialFilter filter = new ExponentialFilter(0.25);
+        assertEquals(8.0, filter.add(8.0), 0.0);
+        assertEquals(6.0, filter.add(0.0), 1e-12);
+        assertEquals(0.5, ExponentialFilter.fromTimeConstant(0.02, 0.02).getAlpha(), 1e-12);
+    }
+
+    @Test
+    public void testMedianRejectsSpikes() {
+        MedianFilter filter = new MedianFilter(3);
+        assertEquals(1.0, filter.add(1.0), 0.0);
+        assertEquals(1.5, filter.add(2.0), 0.0);
+        assertEquals(2.0, filter.add(100.0), 0.0);
+        assertEquals(3.0, filter.add(3.0), 0.0);
+        assertEquals(4.0, filter.add(4.0), 0.0);
+
+        Random random = new Random(254);
+        double[] window = new double[5];
+        MedianFilter five = new MedianFilter(window.length);
+        for(int i = 0; i < 1000; i++) {
+            // Lots of repeats, which the sorted window has to remove the right copy of
+            double sample = random.nextInt(10);
+            window[i % window.length] = sample;
+            double median = five.add(sample);
+            if(i >= window.length) {
+                double[] sorted = window.clone();
+                Arrays.sort(sorted);
+                assertEquals(sorted[window.length / 2], median, 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testSavitzkyGolayDerivativeOfLineAndParabola() {
+        SavitzkyGolayDerivative derivative = new SavitzkyGolayDerivative(7, 0.02);
+        for(int i = 0; i < 6; i++) {
+            assertEquals(0.0, derivative.add(3.0 * i * 0.02 + 1.0), 0.0);
+        }
+        assertEquals(3.0, derivative.add(3.0 * 6 * 0.02 + 1.0), 1e-9);
+
+        // The slope is exact at the middle of the window for a parabola too
+        derivative.clear();
+        double t = 0.0;
+        for(int i = 0; i < 20; i++) {
+            t = i * 0.02;
+            derivative.add(t * t);
+        }
+        assertEquals(2.0 * (t - 3 * 0.02), derivative.get(), 1e-9);
+    }
+
+}
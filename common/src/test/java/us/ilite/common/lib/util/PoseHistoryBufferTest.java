@@ -0,0 +1,57 @@
+package us.ilite.common.lib.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class PoseHistoryBufferTest {
+
+    @Test
+    public void testInterpolatesBetweenSamples() {
+        PoseHistoryBuffer history = new PoseHistoryBuffer(8);
+        assertTrue(Double.isNaN(history.getHeadingAt(0.0)));
+
+        history.add(1.0, 10.0, 0.0, 100.0);
+        assertEquals(10.0, history.getHeadingAt(5.0), 1e-9);
+
+        history.add(2.0, 20.0, 10.0, 80.0);
+        history.add(3.0, 40.0, 30.0, 60.0);
+        assertEquals(15.0, history.getHeadingAt(1.5), 1e-9);
+        assertEquals(30.0, history.getHeadingAt(2.5), 1e-9);
+        assertEquals(20.0, history.getLeftInchesAt(2.5), 1e-9);
+        assertEquals(70.0, history.getRightInchesAt(2.5), 1e-9);
+        assertEquals(25.0, history.getHeadingChangeSince(1.5), 1e-9);
+
+        // Clamped outside the buffer
+        assertEquals(10.0, history.getHeadingAt(0.0), 1e-9);
+        assertEquals(40.0, history.getHeadingAt(9.0), 1e-9);
+    }
+
+    @Test
+    public void testHeadingWrapsTheShortWay() {
+        PoseHistoryBuffer history = new PoseHistoryBuffer(4);
+        history.add(0.0, 170.0, 0, 0);
+        history.add(1.0, -170.0, 0, 0);
+        assertEquals(180.0, Math.abs(history.getHeadingAt(0.5)), 1e-9);
+        assertEquals(10.0, history.getHeadingChangeSince(0.5), 1e-9);
+        assertEquals(20.0, history.getHeadingChangeSince(0.0), 1e-9);
+    }
+
+    @Test
+    public void testOverwritesOldestSamples() {
+        PoseHistoryBuffer history = new PoseHistoryBuffer(4);
+        for(int i = 0; i < 10; i++) {
+            history.add(i, i, i, i);
+        }
+        assertEquals(4, history.size());
+        assertEquals(6.0, history.getOldestTime(), 0.0);
+        assertEquals(9.0, history.getNewestTime(), 0.0);
+        assertEquals(6.0, history.getLeftInchesAt(0.0), 1e-9);
+        assertEquals(7.25, history.getLeftInchesAt(7.25), 1e-9);
+
+        // Out-of-order samples are ignored
+        history.add(8.5, 100, 100, 100);
+        assertEquals(9.0, history.getNewestTime(), 0.0);
+    }
+
+}
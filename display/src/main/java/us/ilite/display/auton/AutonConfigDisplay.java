@@ -28,6 +28,8 @@ import java.net.URL;
 import java.util.Arrays;
 import java.util.List;
 
+import us.ilite.common.Data;
+
 // **2018 imports**
 // import us.ilite.frc.common.config.Settings;
 // import us.ilite.frc.common.input.EDriverControlMode;
@@ -43,6 +45,7 @@ public class AutonConfigDisplay extends Application {
   
   // private Integer[] preferredCubeActions = new Integer[]{-1, -1, -1, -1};
   private double mDelay = 0.0;
+  private String mRoutine = "";
   private static Integer mStartingPosition;
   private static Integer mCargoAction;
   private static Integer mHatchAction;
@@ -95,9 +98,18 @@ public class AutonConfigDisplay extends Application {
       mDelay = Double.parseDouble(delayText.getText());
     });
     Label delayLabel = new Label("Delay");
+
+    // One of the names the robot lists under Data.kAutonRoutinesKey
+    TextField routineText = new TextField();
+    routineText.setOnAction(e -> {
+      mRoutine = routineText.getText().trim();
+    });
+    Label routineLabel = new Label("Routine");
     
     HBox selectionBoxes = new HBox(
         //This is the dropdown for selecting autonomous type
+    		routineLabel,
+    		routineText,
     		delayLabel,
     		delayText);
     
@@ -197,6 +209,8 @@ public class AutonConfigDisplay extends Application {
   }
   
   private void sendData() {
+    Data.kAutonTable.getEntry(Data.kAutonRoutineKey).setString(mRoutine);
+    Data.kAutonTable.getEntry(Data.kAutonDelayKey).setDouble(mDelay);
 //      Data.kAutonTable.getEntry(ECargoAction.class.getSimpleName()).setDouble(mCargoAction);
 //      Data.kAutonTable.getEntry(EHatchAction.class.getSimpleName()).setDouble(mHatchAction);
 //      Data.kAutonTable.getEntry(EStartingPosition.class.getSimpleName()).setDouble(mStartingPosition);
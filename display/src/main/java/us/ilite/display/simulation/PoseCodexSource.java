@@ -0,0 +1,59 @@
+package us.ilite.display.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.flybotix.hfr.codex.Codex;
+
+import edu.wpi.first.wpilibj.geometry.Pose2d;
+import edu.wpi.first.wpilibj.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.geometry.Translation2d;
+import us.ilite.common.io.CodexNetworkTablesParser;
+import us.ilite.common.types.drive.EPose;
+
+/**
+ * Reads the robot's pose codex from NetworkTables and passes each new pose to ISimulationListeners, e.g. a
+ * RobotPoseCanvas.
+ */
+public class PoseCodexSource {
+
+    private final Codex<Double, EPose> mPose = Codex.of.thisEnum(EPose.class);
+    private final CodexNetworkTablesParser<EPose> mParser = new CodexNetworkTablesParser<>(mPose);
+    private final List<ISimulationListener> mListeners = new ArrayList<>();
+
+    private double mLastX = Double.NaN, mLastY = Double.NaN, mLastHeading = Double.NaN;
+
+    public void addListener(ISimulationListener pListener) {
+        mListeners.add(pListener);
+    }
+
+    /**
+     * Reads the latest published pose, and notifies listeners if it moved.
+     */
+    public void poll() {
+        mParser.parseFromNetworkTables();
+        // Unset until the robot has published a pose
+        if(!mPose.isSet(EPose.X_INCHES) || !mPose.isSet(EPose.Y_INCHES) || !mPose.isSet(EPose.HEADING_DEGREES)) {
+            return;
+        }
+        double x = mPose.get(EPose.X_INCHES);
+        double y = mPose.get(EPose.Y_INCHES);
+        double heading = mPose.get(EPose.HEADING_DEGREES);
+        if(Double.isNaN(x) || Double.isNaN(y) || Double.isNaN(heading)) {
+            return;
+        }
+        if(x == mLastX && y == mLastY && heading == mLastHeading) {
+            return;
+        }
+        mLastX = x;
+        mLastY = y;
+        mLastHeading = heading;
+
+        Pose2d pose = new Pose2d(new Translation2d(x, y), Rotation2d.fromDegrees(heading));
+        double now = System.currentTimeMillis() / 1000.0;
+        for(ISimulationListener listener : mListeners) {
+            listener.update(now, pose);
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+package us.ilite.display.simulation.ui;
+
+import edu.wpi.first.wpilibj.geometry.Pose2d;
+import edu.wpi.first.wpilibj.geometry.Translation2d;
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import us.ilite.display.simulation.ISimulationListener;
+
+/**
+ * Draws the robot's outline at each pose it is given, and the path its wheels have traced.  Poses are in inches
+ * with the field origin at the canvas' bottom-left corner.
+ */
+public class RobotPoseCanvas extends Canvas implements ISimulationListener {
+
+    // Robot frame: x forward, y left, centered on the robot
+    private static final double kRobotLengthInches = 28.0;
+    private static final double kRobotWidthInches = 33.91;
+
+    private final RobotOutline mRobotOutline = new RobotOutline(
+            new Translation2d(-kRobotLengthInches / 2.0, kRobotWidthInches / 2.0),
+            new Translation2d(-kRobotLengthInches / 2.0, -kRobotWidthInches / 2.0),
+            new Translation2d(kRobotLengthInches / 2.0, -kRobotWidthInches / 2.0),
+            new Translation2d(kRobotLengthInches / 2.0, kRobotWidthInches / 2.0));
+    private final Translation2d mPixelsPerInch;
+
+    /**
+     * @param pFieldLengthInches Field length shown across the canvas
+     * @param pFieldWidthInches Field width shown up the canvas
+     */
+    public RobotPoseCanvas(double pWidthPixels, double pHeightPixels, double pFieldLengthInches, double pFieldWidthInches) {
+        super(pWidthPixels, pHeightPixels);
+        // Flip y so the field's +y is up
+        mPixelsPerInch = new Translation2d(pWidthPixels / pFieldLengthInches, -pHeightPixels / pFieldWidthInches);
+    }
+
+    @Override
+    public void update(double pTimeStamp, Pose2d pCurrentPose) {
+        Platform.runLater(() -> draw(pCurrentPose));
+    }
+
+    private void draw(Pose2d pPose) {
+        GraphicsContext gc = getGraphicsContext2D();
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+        gc.setFill(Color.WHITE);
+        gc.fillRect(0, 0, getWidth(), getHeight());
+        // Origin at the bottom-left corner
+        gc.translate(0, getHeight());
+        mRobotOutline.draw(gc, pPose, mPixelsPerInch);
+    }
+
+    public void clear() {
+        mRobotOutline.clear();
+    }
+
+}
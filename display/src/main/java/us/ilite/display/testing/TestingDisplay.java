@@ -4,12 +4,17 @@ import com.flybotix.hfr.util.log.ELevel;
 import com.flybotix.hfr.util.log.ILog;
 import com.flybotix.hfr.util.log.Logger;
 import edu.wpi.first.networktables.*;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import us.ilite.common.config.Settings;
+import us.ilite.display.simulation.PoseCodexSource;
+import us.ilite.display.simulation.ui.RobotPoseCanvas;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -24,6 +29,10 @@ public class TestingDisplay extends Application {
 
     private static final ILog mLog = Logger.createLog(TestingDisplay.class);
     private static final NetworkTableInstance kNetworkTableInst = NetworkTableInstance.getDefault();
+    // A 2020 field is 52' 5.25" by 26' 11.25"
+    private static final double kFieldLengthInches = 629.25;
+    private static final double kFieldWidthInches = 323.25;
+    private static final double kPosePollPeriod = 0.05; // seconds
 
     private NetworkTable mSettingsNetworkTable = kNetworkTableInst.getTable(Settings.class.getSimpleName().toUpperCase());
 
@@ -34,6 +43,9 @@ public class TestingDisplay extends Application {
     private ActionBar mActionBar;
     private SettingsTable mSettingsTable;
 
+    // Where the robot's pose estimator thinks it is
+    private PoseCodexSource mPoseSource = new PoseCodexSource();
+    private RobotPoseCanvas mPoseCanvas = new RobotPoseCanvas(400, 400 * kFieldWidthInches / kFieldLengthInches, kFieldLengthInches, kFieldWidthInches);
 
     private BorderPane mSceneLayout = new BorderPane();
 
@@ -96,8 +108,14 @@ public class TestingDisplay extends Application {
 
         mSceneLayout.setTop(mMenuBar.getRootNode());
         mSceneLayout.setCenter(mSettingsBox);
+        mSceneLayout.setRight(mPoseCanvas);
 
-        Scene scene = new Scene(mSceneLayout, 800, 600);
+        mPoseSource.addListener(mPoseCanvas);
+        Timeline posePoll = new Timeline(new KeyFrame(Duration.seconds(kPosePollPeriod), e -> mPoseSource.poll()));
+        posePoll.setCycleCount(Timeline.INDEFINITE);
+        posePoll.play();
+
+        Scene scene = new Scene(mSceneLayout, 1200, 600);
         scene.getStylesheets().add("ILITEStyle.css");
         pStage.setTitle("ILITE Testing Display");
         pStage.setScene(scene);
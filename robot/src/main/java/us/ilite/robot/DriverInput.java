@@ -13,20 +13,26 @@ import us.ilite.common.types.input.EInputScale;
 import us.ilite.common.types.input.ELogitech310;
 import static us.ilite.robot.hardware.ECommonControlMode.*;
 
+import us.ilite.robot.commands.CommandTracer;
+import us.ilite.robot.commands.ICommand;
+import us.ilite.robot.commands.LimelightTargetLock;
 import us.ilite.robot.hardware.ECommonControlMode;
 import us.ilite.robot.modules.Module;
 import us.ilite.robot.modules.*;
 
+import java.util.Arrays;
+
 public class DriverInput extends Module implements IThrottleProvider, ITurnProvider {
 
     protected static final double
             DRIVER_SUB_WARP_AXIS_THRESHOLD = 0.5;
+    // Degrees - only used by commands that end once aligned, which held triggers don't
+    private static final double kTargetLockAllowableError = 1.0;
     private ILog mLog = Logger.createLog(DriverInput.class);
 
 
     protected Drive mDrive;
-    private CommandManager mTeleopCommandManager;
-    private CommandManager mAutonomousCommandManager;
+    private CommandScheduler mCommandScheduler;
     private Limelight mLimelight;
     private Data mData;
     private Timer mGroundCargoTimer = new Timer();
@@ -38,14 +44,19 @@ public class DriverInput extends Module implements IThrottleProvider, ITurnProvi
     protected Codex<Double, ELogitech310> mDriverInputCodex, mOperatorInputCodex;
 
     private ETrackingType mLastTrackingType = null;
+    // Reused every cycle - Drive copies it
+    private final DriveMessage mDriveMessage = new DriveMessage();
+
+    // The command each trigger runs while held, and whether it was held last cycle, by ELogitech310 ordinal
+    private final ICommand[] mTriggerCommands = new ICommand[ELogitech310.values().length];
+    private final boolean[] mTriggerHeld = new boolean[ELogitech310.values().length];
 
     public DriverInput(Drive pDrivetrain, Limelight pLimelight, Data pData,
-                       CommandManager pTeleopCommandManager, CommandManager pAutonomousCommandManager,
-                       boolean pSimulated) {
+                       CommandScheduler pCommandScheduler, boolean pSimulated) {
+        this.mDrive = pDrivetrain;
         this.mLimelight = pLimelight;
         this.mData = pData;
-        this.mTeleopCommandManager = pTeleopCommandManager;
-        this.mAutonomousCommandManager = pAutonomousCommandManager;
+        this.mCommandScheduler = pCommandScheduler;
 
         this.mDriverInputCodex = mData.driverinput;
         this.mOperatorInputCodex = mData.operatorinput;
@@ -56,12 +67,32 @@ public class DriverInput extends Module implements IThrottleProvider, ITurnProvi
             this.mDriverJoystick = new Joystick(0);
             this.mOperatorJoystick = new Joystick(1);
         }
+
+        whileHeld(InputMap.DRIVER.TRACK_TARGET_BTN, new LimelightTargetLock(mDrive, mLimelight, kTargetLockAllowableError, ETrackingType.TARGET, this, false));
+        whileHeld(InputMap.DRIVER.TRACK_CARGO_BTN, new LimelightTargetLock(mDrive, mLimelight, kTargetLockAllowableError, ETrackingType.CARGO, this, false));
+        whileHeld(InputMap.DRIVER.TRACK_HATCH_BTN, new LimelightTargetLock(mDrive, mLimelight, kTargetLockAllowableError, ETrackingType.LINE, this, false));
+    }
+
+    /**
+     * Runs pCommand from when pTrigger is pressed until it's released, if pTrigger is one of
+     * Settings.kTeleopCommandTriggers.  Other commands keep running unless pCommand needs their subsystems.
+     */
+    public DriverInput whileHeld(ELogitech310 pTrigger, ICommand pCommand) {
+        mTriggerCommands[pTrigger.ordinal()] = CommandTracer.register(pCommand);
+        return this;
     }
 
 
     @Override
     public void modeInit(double pNow) {
-
+        // The scheduler cancels trigger commands at a mode change, so they start again on the next press
+        Arrays.fill(mTriggerHeld, false);
+        // Again, since writing the last command trace forgot them
+        for(ICommand command : mTriggerCommands) {
+            if(command != null) {
+                CommandTracer.register(command);
+            }
+        }
     }
 
     @Override
@@ -76,8 +107,29 @@ public class DriverInput extends Module implements IThrottleProvider, ITurnProvi
         If the driver started the commands that the superstructure is running and then released the button,
         stop running commands.
         */
+        for(int i = 0; i < Settings.kTeleopCommandTriggers.size(); i++) {
+            updateTrigger(Settings.kTeleopCommandTriggers.get(i), pNow);
+        }
+        // Commands that drive, like the target locks, read the sticks themselves
+        if(mCommandScheduler.getRequiring(ESubsystem.DRIVE) == null) {
+            updateDriveTrain();
+        }
+    }
 
+    private void updateTrigger(ELogitech310 pTrigger, double pNow) {
+        ICommand command = mTriggerCommands[pTrigger.ordinal()];
+        boolean isHeld = mData.driverinput.isSet(pTrigger);
+        boolean wasHeld = mTriggerHeld[pTrigger.ordinal()];
+        mTriggerHeld[pTrigger.ordinal()] = isHeld;
+        if(command == null || isHeld == wasHeld) {
+            return;
+        }
 
+        if(isHeld) {
+            mCommandScheduler.schedule(command, Settings.kTeleopCommandPriority, pNow);
+        } else {
+            mCommandScheduler.cancel(command, pNow);
+        }
     }
 
     private void updateDriveTrain() {
@@ -93,9 +145,9 @@ public class DriverInput extends Module implements IThrottleProvider, ITurnProvi
             rotate *= Settings.Input.kSnailModePercentRotateReduction;
         }
 
-        DriveMessage driveMessage = new DriveMessage().throttle(throttle).turn(rotate).mode(PERCENT_OUTPUT).normalize().calculateCurvature();
+        mDriveMessage.reset().throttle(throttle).turn(rotate).mode(PERCENT_OUTPUT).normalize().calculateCurvature();
 
-        mDrive.setDriveMessage(driveMessage);
+        mDrive.setDriveMessage(mDriveMessage);
     }
 
     @Override
@@ -2,63 +2,98 @@ package us.ilite.robot;
 
 import com.flybotix.hfr.codex.Codex;
 import com.flybotix.hfr.codex.CodexMetadata;
-import com.flybotix.hfr.codex.ICodexTimeProvider;
 import com.flybotix.hfr.util.log.ELevel;
 import com.flybotix.hfr.util.log.ILog;
 import com.flybotix.hfr.util.log.Logger;
 import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
 import edu.wpi.first.wpilibj.PowerDistributionPanel;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.geometry.Pose2d;
 import edu.wpi.first.wpilibj.livewindow.LiveWindow;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import us.ilite.common.Data;
 import us.ilite.common.config.AbstractSystemSettingsUtils;
 import us.ilite.common.config.Settings;
+import us.ilite.common.lib.util.ITimeSource;
 import us.ilite.common.lib.util.PerfTimer;
+import us.ilite.common.lib.util.PerfTimerRegistry;
 import us.ilite.common.types.MatchMetadata;
 import us.ilite.common.types.sensor.EPowerDistPanel;
+import us.ilite.robot.auto.AutonomousRoutines;
+import us.ilite.robot.auto.RoutineLoader;
+import us.ilite.robot.auto.paths.AutoPaths;
+import us.ilite.robot.auto.paths.TrajectoryLibrary;
+import us.ilite.robot.commands.CommandTracer;
+import us.ilite.robot.commands.ICommand;
 import us.ilite.robot.hardware.Clock;
+import us.ilite.robot.hardware.FPGATimeSource;
 import us.ilite.robot.hardware.GetLocalIP;
+import us.ilite.robot.hardware.PdpSampler;
 import us.ilite.robot.hardware.VisionGyro;
-import us.ilite.robot.loops.LoopManager;
-import us.ilite.robot.modules.CommandManager;
+import us.ilite.robot.loops.EOverrunPolicy;
+import us.ilite.robot.loops.LoopScheduler;
+import us.ilite.robot.modules.CommandScheduler;
 import us.ilite.robot.modules.Drive;
 import us.ilite.robot.modules.Limelight;
 import us.ilite.robot.modules.ModuleList;
+import us.ilite.robot.modules.PoseEstimator;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
 
 public class Robot extends TimedRobot {
 
     private ILog mLogger = Logger.createLog(this.getClass());
 
-    private LoopManager mLoopManager = new LoopManager(Settings.kControlLoopPeriod);
-    // It sure would be convenient if we could reduce this to just a LoopManager...Will have to test timing of Codex first
-    private LoopManager mLoopManagerx = new LoopManager(Settings.kControlLoopPeriod);
-    private ModuleList mRunningModules = new ModuleList();
-
-    private Clock mClock = new Clock();
+    // Everything that needs time - the clock, loop scheduler and codex timestamps - shares this source
+    private final ITimeSource mTimeSource = new FPGATimeSource();
+    private LoopScheduler mLoopScheduler = new LoopScheduler(mTimeSource);
+    // Each mode's modules are listed once in robotInit, so a mode init only swaps which list runs
+    private ModuleList mAutonomousModules = new ModuleList("AUTONOMOUS");
+    private ModuleList mTeleopModules = new ModuleList("TELEOP");
+    private ModuleList mTestModules = new ModuleList("TEST");
+    // Nothing has been initialized before the first mode starts
+    private ModuleList mRunningModules = new ModuleList("DISABLED");
+
+    private Clock mClock = new Clock(mTimeSource);
     private Data mData = new Data();
     private Timer initTimer = new Timer();
     private final Settings mSettings = new Settings();
     private CSVLogger mCSVLogger = new CSVLogger(mData);
 
     private PowerDistributionPanel pdp = new PowerDistributionPanel(Settings.Hardware.CAN.kPDP);
+    private PdpSampler mPdpSampler = new PdpSampler(pdp, mTimeSource, Settings.kPdpFastSamplePeriod)
+            .setSamplePeriod(Settings.kPdpSlowSamplePeriod, EPowerDistPanel.values())
+            .setSamplePeriod(Settings.kPdpFastSamplePeriod, Settings.Drive.kPdpSlots)
+            .setSamplePeriod(Settings.kPdpFastSamplePeriod, EPowerDistPanel.VOLTAGE);
+    private final double[] mPdpValues = new double[EPowerDistPanel.values().length];
+    private TrajectoryLibrary mTrajectories = new TrajectoryLibrary(AutoPaths.kProfile,
+            new File(Filesystem.getDeployDirectory(), AutoPaths.kDeployDirectory),
+            new File(Settings.Paths.kCacheDirectory));
 
 
     // Module declarations here
-    private CommandManager mAutonomousCommandManager = new CommandManager().setManagerTag("Autonomous Manager");
-    private CommandManager mTeleopCommandManager = new CommandManager().setManagerTag("Teleop Manager");
+    private CommandScheduler mCommandScheduler = new CommandScheduler();
+    private CommandTracer mCommandTracer = new CommandTracer(Settings.kCommandTraceCapacity, Settings.kCommandTraceCommands);
 
-    private Drive mDrive = new Drive(mData);
+    private Drive mDrive = new Drive(mData, mPdpSampler);
     private Limelight mLimelight = new Limelight(mData);
+    private PoseEstimator mPoseEstimator = new PoseEstimator(mData);
     private VisionGyro mVisionGyro = new VisionGyro(mData);
+    private DriverInput mDriverInput = new DriverInput(mDrive, mLimelight, mData, mCommandScheduler, false);
+
+    private AutonomousRoutines mAutonomousRoutines = new AutonomousRoutines(
+            new RoutineLoader(mDrive, mData, mLimelight, mTrajectories),
+            new File(Filesystem.getDeployDirectory(), AutonomousRoutines.kDeployDirectory),
+            mTrajectories);
 
 
     private MatchMetadata mMatchMeta = null;
 
-    private PerfTimer mClockUpdateTimer = new PerfTimer();
+    private PerfTimer mPeriodicTimer = PerfTimerRegistry.get("common_periodic");
 
     @Override
     public void robotInit() {
@@ -72,26 +107,48 @@ public class Robot extends TimedRobot {
         mLogger.info("Starting Robot Initialization...");
 
         mSettings.writeToNetworkTables();
+        // Before the routines are built, so their commands are registered with it
+        if(Settings.kUseCommandTracer) {
+            CommandTracer.setActive(mCommandTracer);
+        }
+        // Off the main thread - generating any path that wasn't precomputed takes seconds
+        mTrajectories.loadAsync(AutoPaths.kAll);
+        // Also off the main thread, and after the trajectories its FollowPath commands need
+        mAutonomousRoutines.loadAsync();
 
 //        new Thread(new DSConnectInitThread()).start();
         // Init static variables and get singleton instances first
 
-        ICodexTimeProvider provider = new ICodexTimeProvider() {
-            public long getTimestamp() {
-                return (long) mClock.getCurrentTimeInNanos();
-            }
-        };
-        CodexMetadata.overrideTimeProvider(provider);
-
-        mRunningModules.setModules();
+        CodexMetadata.overrideTimeProvider(mClock.getCodexTimeProvider());
+
+        mDrive.setPoseEstimator(mPoseEstimator.getEstimator());
+        mLoopScheduler.addGroup("drive", Settings.kControlLoopPeriod)
+                .addLoop(mDrive, 0)
+                // After Drive, which fills the codexes it reads
+                .addLoop(mPoseEstimator, -1)
+                .setOverrunPolicy(EOverrunPolicy.SKIP)
+                .setAffinityHint(Settings.kDriveLoopCpuHint)
+                .setSnapshotRing(mData.mDriveLoopSnapshots);
+        mLoopScheduler.addGroup("vision", Settings.kVisionLoopPeriod)
+                .addLoop(mLimelight, 0)
+                .setOverrunPolicy(EOverrunPolicy.DEGRADE)
+                .setThreadPriority(Thread.NORM_PRIORITY)
+                .setAffinityHint(Settings.kVisionLoopCpuHint)
+                .setSnapshotRing(mData.mVisionLoopSnapshots);
 
         try {
         } catch(Exception e) {
             mLogger.exception(e);
         }
 
+        mAutonomousModules.setModules(mCommandScheduler);
+        // DriverInput schedules and cancels the commands its triggers run, so it goes ahead of the scheduler
+        mTeleopModules.setModules(mDriverInput, mCommandScheduler);
+        mTestModules.setModules(mDrive);
+
         mData.registerCodices();
         LiveWindow.disableAllTelemetry();
+        mPdpSampler.start();
 
         initTimer.stop();
         mLogger.info("Robot initialization finished. Took: ", initTimer.get(), " seconds");
@@ -113,18 +170,27 @@ public class Robot extends TimedRobot {
         initTimer.start();
         mLogger.info("Starting Autonomous Initialization...");
 
-        mSettings.loadFromNetworkTables();
-
         // Init modules after commands are set
+        mRunningModules = mAutonomousModules;
         mRunningModules.modeInit(mClock.getCurrentTime());
         mRunningModules.periodicInput(mClock.getCurrentTime());
 
-        mLoopManager.setRunningLoops(mLimelight, mDrive);
-        mLoopManager.start();
+        // Built while disabled, so starting it allocates nothing
+        ICommand routine = mAutonomousRoutines.take();
+        if(routine != null) {
+            // Applied on the drive loop's first cycle, before any path is followed
+            Pose2d start = mAutonomousRoutines.getSelectedStartPose();
+            mPoseEstimator.resetPose(start.getTranslation().getX(), start.getTranslation().getY(), start.getRotation().getDegrees());
+        } else {
+            mLogger.error("No autonomous routine has been built");
+        }
 
-//        mAutonomousCommandManager.startCommands(mAutonomousRoutines.getDefault());
+        mLoopScheduler.start();
+
+        if(routine != null) {
+            mCommandScheduler.schedule(routine, Settings.kAutonomousCommandPriority, mClock.getCurrentTime());
+        }
 
-        mData.registerCodices();
 //        mCSVLogger.start(); // Start csv logging
 
         initTimer.stop();
@@ -140,13 +206,11 @@ public class Robot extends TimedRobot {
     public void teleopInit() {
         initMatchMetadata();
 
-        mSettings.loadFromNetworkTables();
-
+        mRunningModules = mTeleopModules;
         mRunningModules.modeInit(mClock.getCurrentTime());
         mRunningModules.periodicInput(mClock.getCurrentTime());
 
-        mLoopManager.setRunningLoops(mLimelight, mDrive);
-        mLoopManager.start();
+        mLoopScheduler.start();
 
 //        mCSVLogger.start(); // start csv logging
     }
@@ -161,22 +225,35 @@ public class Robot extends TimedRobot {
     public void disabledInit() {
         mLogger.info("Disabled Initialization");
         mRunningModules.shutdown(mClock.getCurrentTime());
-        mLoopManager.stop();
+        mLoopScheduler.stop();
         mCSVLogger.stop(); // stop csv logging
+        // Closes the last mode's recording and opens the next mode's file now, rather than when the mode starts
+        mData.stopFlightRecorder();
+        mData.startFlightRecorder();
+        writeCommandTrace();
+        // Reflection and JSON parsing, so it's done while disabled rather than when a mode starts
+        mSettings.loadFromNetworkTables();
     }
 
     @Override
     public void disabledPeriodic() {
+        String routine = Data.kAutonTable.getEntry(Data.kAutonRoutineKey).getString("");
+        double delay = Data.kAutonTable.getEntry(Data.kAutonDelayKey).getDouble(0.0);
+        if(mAutonomousRoutines.update(routine, delay)) {
+            Data.kAutonTable.getEntry(Data.kAutonRoutinesKey).setStringArray(mAutonomousRoutines.getNames());
+            String selected = mAutonomousRoutines.getSelectedName();
+            Data.kAutonTable.getEntry(Data.kAutonSelectedKey).setString(selected == null ? "" : selected);
+        }
     }
 
     @Override
     public void testInit() {
-        mRunningModules.setModules(mDrive);
+        mRunningModules = mTestModules;
         mRunningModules.modeInit(mClock.getCurrentTime());
         mRunningModules.periodicInput(mClock.getCurrentTime());
         mRunningModules.checkModule(mClock.getCurrentTime());
 
-        mLoopManager.start();
+        mLoopScheduler.start();
     }
 
     @Override
@@ -186,15 +263,31 @@ public class Robot extends TimedRobot {
     }
 
     private void commonPeriodic() {
-        double start = Timer.getFPGATimestamp();
-        for(Codex c : mData.mAllCodexes) {
+        mPeriodicTimer.start();
+        // The loop groups' codexes are written on their own threads and must not be reset here
+        for(Codex c : mData.mPeriodicCodexes) {
             c.reset();
         }
-        EPowerDistPanel.map(mData.pdp, pdp);
+        mPdpSampler.copyLatest(mData.pdp, mPdpValues);
         mRunningModules.periodicInput(mClock.getCurrentTime());
         mRunningModules.update(mClock.getCurrentTime());
-//        mData.sendCodicesToNetworkTables();
-        SmartDashboard.putNumber("common_periodic_dt", Timer.getFPGATimestamp() - start);
+        mData.mPeriodicSnapshots.snapshot();
+        mData.sendCodicesToNetworkTables();
+        SmartDashboard.putNumber("common_periodic_dt", mPeriodicTimer.stop());
+    }
+
+    private void writeCommandTrace() {
+        if(mCommandTracer.size() == 0) {
+            return;
+        }
+        File file = mCommandTracer.file();
+        try {
+            mCommandTracer.write(file);
+            mLogger.warn("Wrote command trace to ", file);
+        } catch(IOException e) {
+            mLogger.exception(e);
+        }
+        mCommandTracer.clear();
     }
 
     private void initMatchMetadata() {
@@ -211,7 +304,7 @@ public class Robot extends TimedRobot {
 
         String mRobotMode = "Unknown";
         String mRobotEnabledDisabled = "Unknown";
-        double mNow = Timer.getFPGATimestamp();
+        double mNow = mClock.getCurrentTime();
 
         if (this.isAutonomous()) {
             mRobotMode = "Autonomous";
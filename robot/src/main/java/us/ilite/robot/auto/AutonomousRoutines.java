@@ -0,0 +1,190 @@
+package us.ilite.robot.auto;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.flybotix.hfr.util.log.ILog;
+import com.flybotix.hfr.util.log.Logger;
+
+import edu.wpi.first.wpilibj.geometry.Pose2d;
+import us.ilite.robot.auto.paths.TrajectoryLibrary;
+import us.ilite.robot.commands.Delay;
+import us.ilite.robot.commands.ICommand;
+import us.ilite.robot.commands.SequentialCommandGroup;
+
+/**
+ * Every selectable autonomous routine, parsed and built on a background thread while the robot is disabled, so that
+ * starting autonomous only hands over a command that already exists.
+ *
+ * Routines are the .json files in the routine directory - see RoutineLoader for the format.  A routine's commands keep
+ * state, so once the selected routine has been taken to run, the next update() rebuilds all of them.
+ */
+public class AutonomousRoutines {
+
+    // Routine files live in this subdirectory of the deploy directory
+    public static final String kDeployDirectory = "autos";
+    // How long the loader waits for trajectories, which are also loaded in the background at startup
+    private static final double kTrajectoryTimeout = 30.0; // seconds
+
+    private final ILog mLog = Logger.createLog(AutonomousRoutines.class);
+
+    private final RoutineLoader mLoader;
+    private final File mDirectory;
+    private final TrajectoryLibrary mTrajectories;
+
+    // Replaced as a whole by the loader thread
+    private volatile Map<String, RoutineLoader.Routine> mRoutines = Collections.emptyMap();
+    private volatile boolean mIsLoading = false;
+
+    // Only touched by the thread calling update() and take()
+    private Map<String, RoutineLoader.Routine> mSelectedFrom = null;
+    private String mRequestedName = null;
+    private double mRequestedDelay = 0.0;
+    private ICommand mSelected = null;
+    private String mSelectedRoutine = null;
+    private Pose2d mSelectedStartPose = null;
+    private boolean mIsStale = false;
+
+    /**
+     * @param pTrajectories Waited on before building routines, may be null
+     */
+    public AutonomousRoutines(RoutineLoader pLoader, File pDirectory, TrajectoryLibrary pTrajectories) {
+        mLoader = pLoader;
+        mDirectory = pDirectory;
+        mTrajectories = pTrajectories;
+    }
+
+    /**
+     * Builds every routine on a new low-priority daemon thread, unless a build is already running.
+     */
+    public synchronized void loadAsync() {
+        if(mIsLoading) {
+            return;
+        }
+        mIsLoading = true;
+        Thread thread = new Thread(() -> {
+            try {
+                loadAll();
+            } finally {
+                mIsLoading = false;
+            }
+        }, "RoutineLoader");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Builds every routine on the calling thread.  A routine that fails to load is logged and left out.
+     */
+    public void loadAll() {
+        long start = System.nanoTime();
+        if(mTrajectories != null) {
+            try {
+                if(!mTrajectories.awaitLoaded(kTrajectoryTimeout)) {
+                    mLog.error("Trajectories still aren't loaded - routines that follow paths will be left out");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        File[] files = mDirectory.listFiles((dir, name) -> name.endsWith(".json"));
+        if(files == null) {
+            mLog.error("No autonomous routine directory at ", mDirectory);
+            files = new File[0];
+        }
+        Arrays.sort(files);
+
+        Map<String, RoutineLoader.Routine> routines = new LinkedHashMap<>();
+        for(File file : files) {
+            try {
+                RoutineLoader.Routine routine = mLoader.load(file);
+                routines.put(routine.getName(), routine);
+            } catch (IOException e) {
+                mLog.error("Unable to load routine ", e.getMessage());
+            }
+        }
+        mRoutines = Collections.unmodifiableMap(routines);
+        mLog.warn("Built ", routines.size(), " autonomous routines in ", (System.nanoTime() - start) / 1e6, "ms");
+    }
+
+    /**
+     * Selects the routine to run next, and rebuilds the routines if the last selection has been run.  Call it while
+     * disabled - it may allocate.
+     * @param pName The routine to run, or the first one if there's no routine by this name
+     * @param pDelay Seconds to wait before starting the routine
+     * @return true if the selection or the routines changed
+     */
+    public boolean update(String pName, double pDelay) {
+        // Wait out a build that started before the routine was taken, or this one would be skipped
+        if(mIsStale && !mIsLoading) {
+            mIsStale = false;
+            loadAsync();
+        }
+
+        Map<String, RoutineLoader.Routine> routines = mRoutines;
+        if(routines == mSelectedFrom && pName.equals(mRequestedName) && pDelay == mRequestedDelay) {
+            return false;
+        }
+        mSelectedFrom = routines;
+        mRequestedName = pName;
+        mRequestedDelay = pDelay;
+
+        RoutineLoader.Routine routine = routines.get(pName);
+        if(routine == null && !routines.isEmpty()) {
+            routine = routines.values().iterator().next();
+            mLog.warn("No autonomous routine named \"", pName, "\", selecting ", routine.getName());
+        }
+        if(routine == null) {
+            mSelected = null;
+            mSelectedRoutine = null;
+            mSelectedStartPose = null;
+            return true;
+        }
+        mSelectedRoutine = routine.getName();
+        mSelectedStartPose = routine.getStartPose();
+        mSelected = pDelay > 0.0 ? new SequentialCommandGroup(new Delay(pDelay), routine.getCommand()) : routine.getCommand();
+        return true;
+    }
+
+    /**
+     * Hands over the selected routine to run.  Doesn't allocate, so it's safe to call at the start of autonomous.
+     * @return The selected routine, or null if none has been built yet
+     */
+    public ICommand take() {
+        mIsStale = mSelected != null;
+        return mSelected;
+    }
+
+    /**
+     * @return The names of the built routines, in file order
+     */
+    public String[] getNames() {
+        return mRoutines.keySet().toArray(new String[0]);
+    }
+
+    /**
+     * @return The name of the routine take() will return, or null if there is none
+     */
+    public String getSelectedName() {
+        return mSelectedRoutine;
+    }
+
+    /**
+     * @return Where the routine take() will return starts on the field, or null if there is none
+     */
+    public Pose2d getSelectedStartPose() {
+        return mSelectedStartPose;
+    }
+
+    public boolean isLoading() {
+        return mIsLoading;
+    }
+
+}
@@ -0,0 +1,254 @@
+package us.ilite.robot.auto;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import edu.wpi.first.wpilibj.geometry.Pose2d;
+import edu.wpi.first.wpilibj.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.geometry.Translation2d;
+import edu.wpi.first.wpilibj.trajectory.Trajectory;
+import us.ilite.common.Data;
+import us.ilite.common.lib.util.Units;
+import us.ilite.common.types.ETrackingType;
+import us.ilite.robot.auto.paths.TrajectoryLibrary;
+import us.ilite.robot.commands.CommandTracer;
+import us.ilite.robot.commands.Delay;
+import us.ilite.robot.commands.DriveStraight;
+import us.ilite.robot.commands.DriveToVisionTarget;
+import us.ilite.robot.commands.FollowPath;
+import us.ilite.robot.commands.ICommand;
+import us.ilite.robot.commands.LimelightTargetLock;
+import us.ilite.robot.commands.ParallelCommandGroup;
+import us.ilite.robot.commands.ParallelDeadlineGroup;
+import us.ilite.robot.commands.ParallelRaceGroup;
+import us.ilite.robot.commands.SequentialCommandGroup;
+import us.ilite.robot.commands.TurnToDegree;
+import us.ilite.robot.commands.WaitForVisionTarget;
+import us.ilite.robot.modules.Drive;
+import us.ilite.robot.modules.Limelight;
+
+/**
+ * Builds autonomous routines from JSON, one routine per file:
+ *
+ *   {"name": "Drive and turn", "start": {"x": 0, "y": 0, "heading": 0}, "commands": [
+ *     {"type": "DriveStraight", "inches": 120},
+ *     {"type": "Parallel", "commands": [
+ *       {"type": "TurnToDegree", "degrees": 90},
+ *       {"type": "WaitForVisionTarget", "targetArea": 3.0}]}]}
+ *
+ * A routine's commands run one after another.  Types, and their parameters (optional ones in brackets):
+ *   Sequential, Parallel, Race: commands.  Deadline: deadline, commands.
+ *   Delay: seconds.  DriveStraight: inches, [mode].  TurnToDegree: degrees, [allowableError].
+ *   FollowPath: path, one of AutoPaths.  DriveToVisionTarget.  WaitForVisionTarget: targetArea.
+ *   TargetLock: [tracking], [allowableError].
+ * Every routine is built completely up front, so a mistake is reported when the file is loaded rather than mid-match.
+ *
+ * The pose estimator is reset to the routine's start pose (inches and degrees, all optional) when autonomous starts.
+ * Without one, a routine starts where its first FollowPath's path starts, or at the origin if it follows none.
+ */
+public class RoutineLoader {
+
+    private static final double kDefaultTurnAllowableError = 2.0; // degrees
+    private static final double kDefaultTargetLockAllowableError = 1.0; // degrees
+
+    private final Drive mDrive;
+    private final Data mData;
+    private final Limelight mLimelight;
+    private final TrajectoryLibrary mTrajectories;
+
+    // The first trajectory FollowPath found while building the current routine
+    private Trajectory mFirstTrajectory = null;
+
+    /**
+     * @param pTrajectories Where FollowPath finds its paths, may be null if no routine follows one
+     */
+    public RoutineLoader(Drive pDrive, Data pData, Limelight pLimelight, TrajectoryLibrary pTrajectories) {
+        mDrive = pDrive;
+        mData = pData;
+        mLimelight = pLimelight;
+        mTrajectories = pTrajectories;
+    }
+
+    public Routine load(File pFile) throws IOException {
+        String defaultName = pFile.getName().replaceAll("\\.json$", "");
+        try(Reader reader = new FileReader(pFile)) {
+            return load(reader, defaultName);
+        } catch (JsonParseException e) {
+            throw new IOException(pFile + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @throws JsonParseException If pJson isn't a valid routine
+     */
+    public Routine load(String pJson, String pDefaultName) {
+        return load(new StringReader(pJson), pDefaultName);
+    }
+
+    private Routine load(Reader pReader, String pDefaultName) {
+        try {
+            JsonObject routine = JsonParser.parseReader(pReader).getAsJsonObject();
+            String name = routine.has("name") ? routine.get("name").getAsString() : pDefaultName;
+            mFirstTrajectory = null;
+            ICommand command = CommandTracer.register(new SequentialCommandGroup(buildAll(routine)));
+            return new Routine(name, command, getStartPose(routine));
+        } catch (IllegalStateException | IllegalArgumentException | UnsupportedOperationException e) {
+            // Gson's getAs*() and the enums' valueOf() report a wrong value with these
+            throw new JsonParseException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Registers each command with the command tracer as it's built, so tracing it never allocates.
+     */
+    private ICommand build(JsonObject pCommand) {
+        return CommandTracer.register(create(pCommand));
+    }
+
+    private ICommand create(JsonObject pCommand) {
+        String type = getString(pCommand, "type", null);
+        switch(type) {
+            case "Sequential":
+                return new SequentialCommandGroup(buildAll(pCommand));
+            case "Parallel":
+                return new ParallelCommandGroup(buildAll(pCommand));
+            case "Race":
+                return new ParallelRaceGroup(buildAll(pCommand));
+            case "Deadline":
+                return new ParallelDeadlineGroup(build(getObject(pCommand, "deadline")), buildAll(pCommand));
+            case "Delay":
+                return new Delay(getDouble(pCommand, "seconds"));
+            case "DriveStraight":
+                DriveStraight.EDriveControlMode mode = DriveStraight.EDriveControlMode.valueOf(
+                        getString(pCommand, "mode", DriveStraight.EDriveControlMode.PERCENT_OUTPUT.name()));
+                return new DriveStraight(mDrive, mData, mode, getDouble(pCommand, "inches"));
+            case "TurnToDegree":
+                return new TurnToDegree(mDrive, Rotation2d.fromDegrees(getDouble(pCommand, "degrees")),
+                        getDouble(pCommand, "allowableError", kDefaultTurnAllowableError), mData);
+            case "FollowPath":
+                return new FollowPath(mDrive, getTrajectory(getString(pCommand, "path", null)));
+            case "DriveToVisionTarget":
+                return new DriveToVisionTarget(mLimelight, mDrive, mData);
+            case "WaitForVisionTarget":
+                return new WaitForVisionTarget(mData, mLimelight, getDouble(pCommand, "targetArea"));
+            case "TargetLock":
+                ETrackingType tracking = ETrackingType.valueOf(getString(pCommand, "tracking", ETrackingType.TARGET.name()));
+                return new LimelightTargetLock(mDrive, mLimelight,
+                        getDouble(pCommand, "allowableError", kDefaultTargetLockAllowableError), tracking, () -> 0.0, true);
+            default:
+                throw new JsonParseException("Unknown command type " + type);
+        }
+    }
+
+    private Pose2d getStartPose(JsonObject pRoutine) {
+        if(pRoutine.has("start")) {
+            JsonObject start = pRoutine.getAsJsonObject("start");
+            return new Pose2d(new Translation2d(getDouble(start, "x", 0.0), getDouble(start, "y", 0.0)),
+                    Rotation2d.fromDegrees(getDouble(start, "heading", 0.0)));
+        }
+        if(mFirstTrajectory == null) {
+            return new Pose2d();
+        }
+        // Trajectories are in meters
+        Pose2d first = mFirstTrajectory.getStates().get(0).poseMeters;
+        return new Pose2d(new Translation2d(Units.meters_to_inches(first.getTranslation().getX()), Units.meters_to_inches(first.getTranslation().getY())),
+                first.getRotation());
+    }
+
+    private ICommand[] buildAll(JsonObject pParent) {
+        if(!pParent.has("commands")) {
+            throw new JsonParseException("Missing commands in " + pParent);
+        }
+        JsonArray commands = pParent.getAsJsonArray("commands");
+        ICommand[] built = new ICommand[commands.size()];
+        for(int i = 0; i < built.length; i++) {
+            built[i] = build(commands.get(i).getAsJsonObject());
+        }
+        return built;
+    }
+
+    private Trajectory getTrajectory(String pPath) {
+        Trajectory trajectory = mTrajectories == null ? null : mTrajectories.get(pPath);
+        if(trajectory == null) {
+            throw new JsonParseException("No trajectory for path " + pPath);
+        }
+        if(mFirstTrajectory == null) {
+            mFirstTrajectory = trajectory;
+        }
+        return trajectory;
+    }
+
+    private static JsonObject getObject(JsonObject pCommand, String pName) {
+        if(!pCommand.has(pName)) {
+            throw new JsonParseException("Missing " + pName + " in " + pCommand);
+        }
+        return pCommand.getAsJsonObject(pName);
+    }
+
+    private static double getDouble(JsonObject pCommand, String pName) {
+        if(!pCommand.has(pName)) {
+            throw new JsonParseException("Missing " + pName + " in " + pCommand);
+        }
+        return pCommand.get(pName).getAsDouble();
+    }
+
+    private static double getDouble(JsonObject pCommand, String pName, double pDefault) {
+        return pCommand.has(pName) ? pCommand.get(pName).getAsDouble() : pDefault;
+    }
+
+    /**
+     * @param pDefault Returned if pName is missing, or null if it's required
+     */
+    private static String getString(JsonObject pCommand, String pName, String pDefault) {
+        JsonElement value = pCommand.get(pName);
+        if(value == null) {
+            if(pDefault == null) {
+                throw new JsonParseException("Missing " + pName + " in " + pCommand);
+            }
+            return pDefault;
+        }
+        return value.getAsString();
+    }
+
+    /**
+     * A routine, built and ready to run.
+     */
+    public static class Routine {
+
+        private final String mName;
+        private final ICommand mCommand;
+        private final Pose2d mStartPose;
+
+        /**
+         * @param pStartPose Where the routine starts on the field, in inches
+         */
+        public Routine(String pName, ICommand pCommand, Pose2d pStartPose) {
+            mName = pName;
+            mCommand = pCommand;
+            mStartPose = pStartPose;
+        }
+
+        public String getName() {
+            return mName;
+        }
+
+        public ICommand getCommand() {
+            return mCommand;
+        }
+
+        public Pose2d getStartPose() {
+            return mStartPose;
+        }
+
+    }
+
+}
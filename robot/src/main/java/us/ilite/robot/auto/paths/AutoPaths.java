@@ -0,0 +1,44 @@
+package us.ilite.robot.auto.paths;
+
+import java.util.Arrays;
+import java.util.List;
+
+import us.ilite.common.lib.RobotProfile;
+import us.ilite.robot.profiles.HenryProfile;
+
+/**
+ * Every path autonomous can drive.  Waypoints are in inches and degrees, relative to the robot's starting pose: x is
+ * forward, y is to the left.  Add new paths to kAll so they are precomputed and loaded at startup.
+ */
+public class AutoPaths {
+
+    // The drivetrain paths are generated for
+    public static final RobotProfile kProfile = new HenryProfile();
+    // Precomputed trajectories live in this subdirectory of the deploy directory
+    public static final String kDeployDirectory = "paths";
+
+    public static final PathDefinition kDriveForward = new PathDefinition("DriveForward")
+            .waypoint(0, 0, 0)
+            .waypoint(120, 0, 0);
+
+    public static final PathDefinition kSCurveLeft = new PathDefinition("SCurveLeft")
+            .waypoint(0, 0, 0)
+            .waypoint(120, 60, 0);
+
+    public static final PathDefinition kSCurveRight = new PathDefinition("SCurveRight")
+            .waypoint(0, 0, 0)
+            .waypoint(120, -60, 0);
+
+    public static final PathDefinition kBackUp = new PathDefinition("BackUp")
+            .waypoint(0, 0, 0)
+            .waypoint(-48, 0, 0)
+            .reversed(true);
+
+    public static final List<PathDefinition> kAll = Arrays.asList(
+            kDriveForward,
+            kSCurveLeft,
+            kSCurveRight,
+            kBackUp
+    );
+
+}
@@ -0,0 +1,147 @@
+package us.ilite.robot.auto.paths;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import edu.wpi.first.wpilibj.geometry.Pose2d;
+import edu.wpi.first.wpilibj.geometry.Rotation2d;
+import us.ilite.common.config.Settings;
+import us.ilite.common.lib.RobotProfile;
+import us.ilite.common.lib.util.Units;
+
+/**
+ * Waypoints and limits of one autonomous path.  Waypoints are given in inches and degrees like the rest of the robot,
+ * and stored in meters for WPILib's trajectory generator.
+ *
+ * Builder-pattern: new PathDefinition("Name").waypoint(0, 0, 0).waypoint(120, 48, 0).maxVelocity(2.0)
+ */
+public class PathDefinition {
+
+    private final String mName;
+    private final List<Pose2d> mWaypoints = new ArrayList<>();
+    private boolean mIsReversed = false;
+    private double mMaxVelocity = Settings.Paths.kMaxVelocity;
+    private double mMaxAcceleration = Settings.Paths.kMaxAcceleration;
+    private double mMaxCentripetalAcceleration = Settings.Paths.kMaxCentripetalAcceleration;
+    private double mMaxVoltage = Settings.Paths.kMaxVoltage;
+
+    /**
+     * @param pName Also the name of the path's cache file, so keep it to letters, digits and underscores
+     */
+    public PathDefinition(String pName) {
+        mName = pName;
+    }
+
+    public PathDefinition waypoint(double pXInches, double pYInches, double pHeadingDegrees) {
+        mWaypoints.add(new Pose2d(Units.inches_to_meters(pXInches), Units.inches_to_meters(pYInches), Rotation2d.fromDegrees(pHeadingDegrees)));
+        return this;
+    }
+
+    /**
+     * Drive the path backwards.  Headings are still the direction the robot faces.
+     */
+    public PathDefinition reversed(boolean pIsReversed) {
+        mIsReversed = pIsReversed;
+        return this;
+    }
+
+    /** m/s */
+    public PathDefinition maxVelocity(double pMaxVelocity) {
+        mMaxVelocity = pMaxVelocity;
+        return this;
+    }
+
+    /** m/s^2 */
+    public PathDefinition maxAcceleration(double pMaxAcceleration) {
+        mMaxAcceleration = pMaxAcceleration;
+        return this;
+    }
+
+    /** m/s^2 */
+    public PathDefinition maxCentripetalAcceleration(double pMaxCentripetalAcceleration) {
+        mMaxCentripetalAcceleration = pMaxCentripetalAcceleration;
+        return this;
+    }
+
+    /** Volts available to the feedforward, below battery voltage to leave headroom for feedback */
+    public PathDefinition maxVoltage(double pMaxVoltage) {
+        mMaxVoltage = pMaxVoltage;
+        return this;
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    public List<Pose2d> getWaypoints() {
+        return Collections.unmodifiableList(mWaypoints);
+    }
+
+    public boolean isReversed() {
+        return mIsReversed;
+    }
+
+    public double getMaxVelocity() {
+        return mMaxVelocity;
+    }
+
+    public double getMaxAcceleration() {
+        return mMaxAcceleration;
+    }
+
+    public double getMaxCentripetalAcceleration() {
+        return mMaxCentripetalAcceleration;
+    }
+
+    public double getMaxVoltage() {
+        return mMaxVoltage;
+    }
+
+    /**
+     * @return A hash of everything the generated trajectory depends on - the waypoints, limits, robot dynamics and
+     * cache format.  A cached trajectory is only used if its fingerprint matches.
+     */
+    public long fingerprint(RobotProfile pProfile) {
+        long hash = mix(0x9E3779B97F4A7C15L, TrajectoryCache.kFormatVersion);
+        hash = mix(hash, mName.hashCode());
+        for(Pose2d waypoint : mWaypoints) {
+            hash = mix(hash, waypoint.getTranslation().getX());
+            hash = mix(hash, waypoint.getTranslation().getY());
+            hash = mix(hash, waypoint.getRotation().getRadians());
+        }
+        hash = mix(hash, mIsReversed ? 1 : 0);
+        hash = mix(hash, mMaxVelocity);
+        hash = mix(hash, mMaxAcceleration);
+        hash = mix(hash, mMaxCentripetalAcceleration);
+        hash = mix(hash, mMaxVoltage);
+        hash = mix(hash, pProfile.getLeftFrictionVoltage());
+        hash = mix(hash, pProfile.getLeftVoltPerSpeed());
+        hash = mix(hash, pProfile.getLeftVoltPerAccel());
+        hash = mix(hash, pProfile.getRightFrictionVoltage());
+        hash = mix(hash, pProfile.getRightVoltPerSpeed());
+        hash = mix(hash, pProfile.getRightVoltPerAccel());
+        hash = mix(hash, pProfile.getWheelRadiusMeters());
+        hash = mix(hash, pProfile.getWheelbaseRadiusMeters());
+        hash = mix(hash, pProfile.getWheelbaseScrubFactor());
+        return hash;
+    }
+
+    private static long mix(long pHash, double pValue) {
+        return mix(pHash, Double.doubleToLongBits(pValue));
+    }
+
+    private static long mix(long pHash, long pValue) {
+        // splitmix64 finalizer over the running hash
+        long z = pHash ^ (pValue + 0x9E3779B97F4A7C15L + (pHash << 6) + (pHash >>> 2));
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public String toString() {
+        return mName;
+    }
+
+}
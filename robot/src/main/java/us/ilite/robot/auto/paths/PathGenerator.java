@@ -0,0 +1,64 @@
+package us.ilite.robot.auto.paths;
+
+import edu.wpi.first.wpilibj.controller.SimpleMotorFeedforward;
+import edu.wpi.first.wpilibj.kinematics.DifferentialDriveKinematics;
+import edu.wpi.first.wpilibj.trajectory.Trajectory;
+import edu.wpi.first.wpilibj.trajectory.TrajectoryConfig;
+import edu.wpi.first.wpilibj.trajectory.TrajectoryGenerator;
+import edu.wpi.first.wpilibj.trajectory.constraint.CentripetalAccelerationConstraint;
+import edu.wpi.first.wpilibj.trajectory.constraint.DifferentialDriveVoltageConstraint;
+import us.ilite.common.lib.RobotProfile;
+
+/**
+ * Turns PathDefinitions into time-parameterized trajectories, limited by what the drivetrain described by a
+ * RobotProfile can actually do.  Takes anywhere from tens of milliseconds to seconds per path on a roboRIO, so only
+ * call this from TrajectoryLibrary's loader thread or at build time.
+ */
+public class PathGenerator {
+
+    private final RobotProfile mProfile;
+    private final DifferentialDriveKinematics mKinematics;
+    private final SimpleMotorFeedforward mFeedforward;
+
+    public PathGenerator(RobotProfile pProfile) {
+        mProfile = pProfile;
+        mKinematics = createKinematics(pProfile);
+        mFeedforward = createFeedforward(pProfile);
+    }
+
+    public Trajectory generate(PathDefinition pPath) {
+        TrajectoryConfig config = new TrajectoryConfig(pPath.getMaxVelocity(), pPath.getMaxAcceleration())
+                .setKinematics(mKinematics)
+                .addConstraint(new DifferentialDriveVoltageConstraint(mFeedforward, mKinematics, pPath.getMaxVoltage()))
+                .addConstraint(new CentripetalAccelerationConstraint(pPath.getMaxCentripetalAcceleration()))
+                .setReversed(pPath.isReversed());
+        return TrajectoryGenerator.generateTrajectory(pPath.getWaypoints(), config);
+    }
+
+    public RobotProfile getProfile() {
+        return mProfile;
+    }
+
+    public DifferentialDriveKinematics getKinematics() {
+        return mKinematics;
+    }
+
+    public SimpleMotorFeedforward getFeedforward() {
+        return mFeedforward;
+    }
+
+    public static DifferentialDriveKinematics createKinematics(RobotProfile pProfile) {
+        return new DifferentialDriveKinematics(2.0 * pProfile.getWheelbaseRadiusMeters() * pProfile.getWheelbaseScrubFactor());
+    }
+
+    /**
+     * Averages the two sides of the profile into one feedforward, in volts per m/s.
+     */
+    public static SimpleMotorFeedforward createFeedforward(RobotProfile pProfile) {
+        return new SimpleMotorFeedforward(
+                (pProfile.getLeftFrictionVoltage() + pProfile.getRightFrictionVoltage()) / 2.0,
+                pProfile.toLinearGain((pProfile.getLeftVoltPerSpeed() + pProfile.getRightVoltPerSpeed()) / 2.0),
+                pProfile.toLinearGain((pProfile.getLeftVoltPerAccel() + pProfile.getRightVoltPerAccel()) / 2.0));
+    }
+
+}
@@ -0,0 +1,115 @@
+package us.ilite.robot.auto.paths;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import edu.wpi.first.wpilibj.geometry.Pose2d;
+import edu.wpi.first.wpilibj.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.trajectory.Trajectory;
+
+/**
+ * Reads and writes trajectories as flat binary files, so they load in milliseconds instead of being regenerated.
+ *
+ * Format (big-endian): magic, format version, the path's fingerprint, state count, then 7 doubles per state - time,
+ * velocity, acceleration, x, y, heading (radians), curvature - and a CRC32 of everything before it.
+ */
+public class TrajectoryCache {
+
+    static final int kMagic = 0x5452414A; // "TRAJ"
+    static final int kFormatVersion = 1;
+    static final String kExtension = ".traj";
+    // Nothing we drive in 15 seconds comes close - anything bigger is a corrupt header
+    private static final int kMaxStates = 1 << 16;
+
+    private TrajectoryCache() {
+    }
+
+    public static File getFile(File pDirectory, PathDefinition pPath) {
+        return new File(pDirectory, pPath.getName() + kExtension);
+    }
+
+    /**
+     * Writes to a temporary file and renames it, so a reader never sees half a trajectory.
+     */
+    public static void write(File pFile, long pFingerprint, Trajectory pTrajectory) throws IOException {
+        File parent = pFile.getAbsoluteFile().getParentFile();
+        if(!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Unable to create " + parent);
+        }
+        File temp = new File(parent, pFile.getName() + ".tmp");
+        List<Trajectory.State> states = pTrajectory.getStates();
+        CRC32 crc = new CRC32();
+        try(DataOutputStream raw = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(raw, crc));
+            out.writeInt(kMagic);
+            out.writeInt(kFormatVersion);
+            out.writeLong(pFingerprint);
+            out.writeInt(states.size());
+            for(Trajectory.State state : states) {
+                out.writeDouble(state.timeSeconds);
+                out.writeDouble(state.velocityMetersPerSecond);
+                out.writeDouble(state.accelerationMetersPerSecondSq);
+                out.writeDouble(state.poseMeters.getTranslation().getX());
+                out.writeDouble(state.poseMeters.getTranslation().getY());
+                out.writeDouble(state.poseMeters.getRotation().getRadians());
+                out.writeDouble(state.curvatureRadPerMeter);
+            }
+            out.flush();
+            raw.writeLong(crc.getValue());
+        }
+        Files.move(temp.toPath(), pFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return The cached trajectory, or null if the file is missing, corrupt, from another format version or was
+     * generated from a different path or robot (fingerprint mismatch)
+     */
+    public static Trajectory read(File pFile, long pFingerprint) throws IOException {
+        if(!pFile.isFile()) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        try(DataInputStream raw = new DataInputStream(new BufferedInputStream(new FileInputStream(pFile)))) {
+            DataInputStream in = new DataInputStream(new CheckedInputStream(raw, crc));
+            if(in.readInt() != kMagic || in.readInt() != kFormatVersion || in.readLong() != pFingerprint) {
+                return null;
+            }
+            int count = in.readInt();
+            if(count < 1 || count > kMaxStates) {
+                return null;
+            }
+            List<Trajectory.State> states = new ArrayList<>(count);
+            for(int i = 0; i < count; i++) {
+                double time = in.readDouble();
+                double velocity = in.readDouble();
+                double acceleration = in.readDouble();
+                double x = in.readDouble();
+                double y = in.readDouble();
+                double heading = in.readDouble();
+                double curvature = in.readDouble();
+                states.add(new Trajectory.State(time, velocity, acceleration, new Pose2d(x, y, new Rotation2d(heading)), curvature));
+            }
+            if(raw.readLong() != crc.getValue()) {
+                return null;
+            }
+            return new Trajectory(states);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+package us.ilite.robot.auto.paths;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.flybotix.hfr.util.log.ILog;
+import com.flybotix.hfr.util.log.Logger;
+
+import edu.wpi.first.wpilibj.trajectory.Trajectory;
+import us.ilite.common.lib.RobotProfile;
+
+/**
+ * Holds the trajectory of every autonomous path, loaded once on a background thread so autonomousInit() never waits
+ * on spline generation.  Each path is taken from the first place that has an up-to-date copy:
+ *  1. The deploy directory - trajectories generated at build time with `gradlew generateTrajectories`
+ *  2. The runtime cache directory - trajectories the robot generated and saved on an earlier boot
+ *  3. PathGenerator, saving the result to the runtime cache directory for next time
+ */
+public class TrajectoryLibrary {
+
+    private final ILog mLog = Logger.createLog(TrajectoryLibrary.class);
+
+    private final PathGenerator mGenerator;
+    private final File mDeployDirectory;
+    private final File mCacheDirectory;
+    private final Map<String, Trajectory> mTrajectories = new ConcurrentHashMap<>();
+    private volatile CountDownLatch mLoaded = new CountDownLatch(0);
+
+    /**
+     * @param pDeployDirectory Read-only precomputed trajectories, may be null
+     * @param pCacheDirectory Where trajectories generated at runtime are saved, may be null to not save them
+     */
+    public TrajectoryLibrary(RobotProfile pProfile, File pDeployDirectory, File pCacheDirectory) {
+        mGenerator = new PathGenerator(pProfile);
+        mDeployDirectory = pDeployDirectory;
+        mCacheDirectory = pCacheDirectory;
+    }
+
+    /**
+     * Loads pPaths on a new low-priority daemon thread.  Trajectories become available through get() one at a time.
+     */
+    public synchronized void loadAsync(List<PathDefinition> pPaths) {
+        List<PathDefinition> paths = new ArrayList<>(pPaths);
+        CountDownLatch loaded = new CountDownLatch(1);
+        mLoaded = loaded;
+        Thread thread = new Thread(() -> {
+            try {
+                loadAll(paths);
+            } finally {
+                loaded.countDown();
+            }
+        }, "TrajectoryLoader");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Loads pPaths on the calling thread.
+     */
+    public void loadAll(List<PathDefinition> pPaths) {
+        long start = System.nanoTime();
+        for(PathDefinition path : pPaths) {
+            try {
+                mTrajectories.put(path.getName(), load(path));
+            } catch (Exception e) {
+                mLog.error("Unable to load path ", path, ": ", e);
+            }
+        }
+        mLog.warn("Loaded ", mTrajectories.size(), " trajectories in ", (System.nanoTime() - start) / 1e6, "ms");
+    }
+
+    private Trajectory load(PathDefinition pPath) {
+        long fingerprint = pPath.fingerprint(mGenerator.getProfile());
+        Trajectory trajectory = read(mDeployDirectory, pPath, fingerprint);
+        if(trajectory == null) {
+            trajectory = read(mCacheDirectory, pPath, fingerprint);
+        }
+        if(trajectory != null) {
+            return trajectory;
+        }
+
+        long start = System.nanoTime();
+        trajectory = mGenerator.generate(pPath);
+        mLog.warn("Generated path ", pPath, " in ", (System.nanoTime() - start) / 1e6, "ms - precompute it to skip this");
+        if(mCacheDirectory != null) {
+            try {
+                TrajectoryCache.write(TrajectoryCache.getFile(mCacheDirectory, pPath), fingerprint, trajectory);
+            } catch (IOException e) {
+                mLog.error("Unable to cache path ", pPath, ": ", e);
+            }
+        }
+        return trajectory;
+    }
+
+    private Trajectory read(File pDirectory, PathDefinition pPath, long pFingerprint) {
+        if(pDirectory == null) {
+            return null;
+        }
+        File file = TrajectoryCache.getFile(pDirectory, pPath);
+        try {
+            Trajectory trajectory = TrajectoryCache.read(file, pFingerprint);
+            if(trajectory == null && file.exists()) {
+                mLog.warn("Ignoring out-of-date trajectory ", file);
+            }
+            return trajectory;
+        } catch (IOException e) {
+            mLog.error("Unable to read ", file, ": ", e);
+            return null;
+        }
+    }
+
+    /**
+     * @return The trajectory of the path with this name, or null if it hasn't been loaded (yet)
+     */
+    public Trajectory get(String pName) {
+        return mTrajectories.get(pName);
+    }
+
+    public Trajectory get(PathDefinition pPath) {
+        return get(pPath.getName());
+    }
+
+    /**
+     * @return true if the last loadAsync() has finished
+     */
+    public boolean isLoaded() {
+        return mLoaded.getCount() == 0;
+    }
+
+    /**
+     * Blocks until the last loadAsync() finishes or pTimeoutSeconds pass.
+     * @return isLoaded()
+     */
+    public boolean awaitLoaded(double pTimeoutSeconds) throws InterruptedException {
+        return mLoaded.await((long)(pTimeoutSeconds * 1e9), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Precomputes every path in AutoPaths into the directory given as the only argument.  Run at build time by the
+     * robot project's generateTrajectories task, which writes them into the deploy directory.
+     */
+    public static void main(String[] pArgs) throws IOException {
+        File directory = new File(pArgs.length > 0 ? pArgs[0] : "src/main/deploy/" + AutoPaths.kDeployDirectory);
+        PathGenerator generator = new PathGenerator(AutoPaths.kProfile);
+        for(PathDefinition path : AutoPaths.kAll) {
+            File file = TrajectoryCache.getFile(directory, path);
+            long fingerprint = path.fingerprint(generator.getProfile());
+            if(TrajectoryCache.read(file, fingerprint) != null) {
+                System.out.println("Up to date: " + file);
+                continue;
+            }
+            TrajectoryCache.write(file, fingerprint, generator.generate(path));
+            System.out.println("Generated: " + file);
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+package us.ilite.robot.commands;
+
+import java.util.Arrays;
+
+/**
+ * Base for commands made of other commands.  Children live in an array fixed when the group is built, and which of
+ * them have finished is kept in a bitset, so running a group never allocates - a routine with dozens of children costs
+ * the same flat amount every cycle.  Groups nest, since a group is just another ICommand.
+ *
+ * A child is shut down as soon as it finishes.  Children still running when the group ends are shut down by the
+ * group's shutdown(), which whoever runs the group calls once update() returns true.
+ */
+public abstract class CommandGroup implements ICommand {
+
+    private static final ICommand[] kNoCommands = new ICommand[0];
+
+    protected ICommand[] mCommands = kNoCommands;
+    // One bit per child, set once it has finished and been shut down
+    private long[] mFinished = new long[0];
+    private int mFinishedCount = 0;
+    // Everything any child requires, since the group holds its subsystems for as long as it runs
+    private long mRequirements = 0L;
+
+    protected CommandGroup(ICommand... pCommands) {
+        setCommands(pCommands);
+    }
+
+    /**
+     * Replaces the group's children.  Allocates, so do it while building a routine rather than while running one.
+     */
+    protected void setCommands(ICommand... pCommands) {
+        mCommands = pCommands.length == 0 ? kNoCommands : pCommands.clone();
+        mFinished = new long[(mCommands.length + 63) >>> 6];
+        mFinishedCount = 0;
+        mRequirements = 0L;
+        for(ICommand command : mCommands) {
+            mRequirements |= command.getRequirements();
+        }
+    }
+
+    protected void resetFinished() {
+        Arrays.fill(mFinished, 0L);
+        mFinishedCount = 0;
+    }
+
+    /**
+     * Shuts down child pIndex and records that it has finished.
+     */
+    protected void finish(int pIndex, double pNow) {
+        CommandTracer.shutdown(mCommands[pIndex], pNow);
+        mFinished[pIndex >>> 6] |= 1L << pIndex;
+        mFinishedCount++;
+    }
+
+    /**
+     * Updates each running child, and finishes those that are done.
+     */
+    protected void updateRunning(double pNow) {
+        for(int i = 0; i < mCommands.length; i++) {
+            if(!isFinished(i) && CommandTracer.update(mCommands[i], pNow)) {
+                finish(i, pNow);
+            }
+        }
+    }
+
+    /**
+     * Finishes every child that hasn't already, for groups whose children all run at once.
+     */
+    protected void finishRunning(double pNow) {
+        for(int i = 0; i < mCommands.length; i++) {
+            if(!isFinished(i)) {
+                finish(i, pNow);
+            }
+        }
+    }
+
+    @Override
+    public long getRequirements() {
+        return mRequirements;
+    }
+
+    public boolean isFinished(int pIndex) {
+        return (mFinished[pIndex >>> 6] & (1L << pIndex)) != 0;
+    }
+
+    public int getFinishedCount() {
+        return mFinishedCount;
+    }
+
+    public int size() {
+        return mCommands.length;
+    }
+
+}
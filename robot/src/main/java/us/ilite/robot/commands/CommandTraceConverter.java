@@ -0,0 +1,100 @@
+package us.ilite.robot.commands;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * Offline converter for files written by CommandTracer.  Produces Chrome trace-event JSON, which chrome://tracing or
+ * ui.perfetto.dev show as a timeline - one span per command call, groups' spans enclosing their children's.
+ *
+ * Usage: CommandTraceConverter <trace.iltr> [output.json]
+ */
+public class CommandTraceConverter {
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 1) {
+            System.err.println("Usage: CommandTraceConverter <trace" + CommandTracer.FILE_EXTENSION + "> [output.json]");
+            System.exit(1);
+        }
+        File input = new File(args[0]);
+        File output = args.length > 1 ? new File(args[1]) : new File(input.getPath().replaceAll("\\.[^.\\\\/]*$", "") + ".json");
+        int records = convert(input, output);
+        System.out.println("Converted " + records + " records from " + input + " into " + output);
+    }
+
+    /**
+     * @return The number of records converted
+     */
+    public static int convert(File pTrace, File pJson) throws IOException {
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(pTrace)))) {
+            if(in.readInt() != CommandTracer.MAGIC) {
+                throw new IOException(pTrace + " is not a command trace");
+            }
+            int version = in.readInt();
+            if(version != CommandTracer.VERSION) {
+                throw new IOException("Unsupported command trace version " + version);
+            }
+
+            String[] names = new String[in.readInt()];
+            for(int i = 0; i < names.length; i++) {
+                names[i] = escape(in.readUTF());
+            }
+            CommandTracer.EEvent[] events = CommandTracer.EEvent.values();
+
+            // A group's record follows its children's, so find the earliest start before writing any
+            int count = in.readInt();
+            long[] starts = new long[count];
+            long[] durations = new long[count];
+            int[] types = new int[count];
+            int[] commands = new int[count];
+            int records = 0;
+            long origin = Long.MAX_VALUE;
+            try {
+                for(; records < count; records++) {
+                    starts[records] = in.readLong();
+                    durations[records] = in.readLong();
+                    types[records] = in.readInt();
+                    commands[records] = in.readInt();
+                    origin = Math.min(origin, starts[records]);
+                }
+            } catch (EOFException pE) {
+                // Keep what was written before the file was cut off
+            }
+
+            if(pJson.getAbsoluteFile().getParentFile() != null) {
+                pJson.getAbsoluteFile().getParentFile().mkdirs();
+            }
+            try(BufferedWriter out = new BufferedWriter(new FileWriter(pJson))) {
+                out.append("{\"displayTimeUnit\":\"ns\",\"traceEvents\":[");
+                StringBuilder event = new StringBuilder();
+                for(int i = 0; i < records; i++) {
+                    // Timestamps are in microseconds.  The index tells apart commands of the same class.
+                    event.setLength(0);
+                    event.append(i == 0 ? "\n" : ",\n");
+                    event.append("{\"name\":\"").append(names[commands[i]]).append("\",\"cat\":\"").append(events[types[i]].name());
+                    event.append("\",\"ph\":\"X\",\"pid\":1,\"tid\":1,\"ts\":").append(micros(starts[i] - origin));
+                    event.append(",\"dur\":").append(micros(durations[i]));
+                    event.append(",\"args\":{\"command\":").append(commands[i]).append("}}");
+                    out.append(event);
+                }
+                out.append("\n]}\n");
+            }
+            return records;
+        }
+    }
+
+    private static String micros(long pNanos) {
+        return String.format("%d.%03d", pNanos / 1000, pNanos % 1000);
+    }
+
+    private static String escape(String pString) {
+        return pString.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+}
@@ -0,0 +1,306 @@
+package us.ilite.robot.commands;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.flybotix.hfr.util.log.ILog;
+import com.flybotix.hfr.util.log.Logger;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import us.ilite.common.io.CodexCsvLogger;
+
+/**
+ * Records every command init(), update() and shutdown() into a preallocated ring of longs - when it started, in
+ * System.nanoTime(), how long it took and which command it was - instead of logging Strings.  Command groups, the
+ * CommandScheduler and CommandManager run their commands through init(ICommand, double) and friends, which record
+ * into the active tracer if there is one.  Nested commands record inside their group's span.  Once the ring is full
+ * the oldest records are overwritten.
+ *
+ * Commands are given an index into a preallocated table when they're built - register() them as routines and
+ * triggers are built - so recording never allocates, boxes or resizes.  A command that wasn't registered is added to
+ * the table the first time it records, and once the table is full the rest are recorded as untracked.
+ *
+ * Commands must be run from one thread while a tracer is active, so leave it inactive for batch simulation.  Commands
+ * may be registered from any thread.  After the match write() the trace, and turn it into a Chrome trace with
+ * CommandTraceConverter.  clear() then forgets the commands too, so routines rebuilt for each match don't pile up.
+ *
+ * File layout (big-endian):
+ *   int MAGIC, int VERSION, int command count, UTF command name * command count
+ *   int record count, records of (long start nanos, long duration nanos, int EEvent ordinal, int command index)
+ */
+public class CommandTracer {
+
+    public static final int MAGIC = 0x494C5452; // "ILTR"
+    public static final int VERSION = 1;
+    public static final String FILE_EXTENSION = ".iltr";
+
+    private static final String LOG_PATH_FORMAT = "/logs/%s/commands-%s-%s-%s" + FILE_EXTENSION;
+    private static final int kLongsPerRecord = 3;
+    private static final int kDefaultCommandCapacity = 256;
+    private static final String kUntrackedName = "Untracked";
+
+    public enum EEvent {
+        INIT,
+        UPDATE,
+        // An update() that returned true
+        FINISH,
+        SHUTDOWN
+    }
+    private static final EEvent[] kEvents = EEvent.values();
+
+    private static CommandTracer sActive = null;
+
+    private final ILog mLog = Logger.createLog(CommandTracer.class);
+
+    private final long[] mRecords;
+    private final int kCapacity;
+    private final int kMask;
+    private long mRecorded = 0;
+
+    // Open-addressed identity table of registered commands.  A command's index is its slot; kSlots is untracked.
+    private final AtomicReferenceArray<ICommand> mCommands;
+    private final Class<?>[] mClasses;
+    private final int kSlots;
+    private final int kMaxCommands;
+    private int mCommandCount = 0;
+
+    /**
+     * @param pCapacity Number of records kept, rounded up to a power of two
+     * @param pCommandCapacity Number of distinct commands that can be traced until the next clear()
+     */
+    public CommandTracer(int pCapacity, int pCommandCapacity) {
+        kCapacity = Integer.highestOneBit(Math.max(2, pCapacity) - 1) << 1;
+        kMask = kCapacity - 1;
+        mRecords = new long[kCapacity * kLongsPerRecord];
+        kMaxCommands = Math.max(1, pCommandCapacity);
+        // At most half full, so probes stay short
+        kSlots = Integer.highestOneBit(kMaxCommands * 2 - 1) << 1;
+        mCommands = new AtomicReferenceArray<>(kSlots);
+        mClasses = new Class<?>[kSlots];
+    }
+
+    public CommandTracer(int pCapacity) {
+        this(pCapacity, kDefaultCommandCapacity);
+    }
+
+    /**
+     * Makes pTracer the one commands record into, or stops tracing if it's null.
+     */
+    public static void setActive(CommandTracer pTracer) {
+        sActive = pTracer;
+    }
+
+    public static CommandTracer getActive() {
+        return sActive;
+    }
+
+    /**
+     * Gives pCommand an index in the active tracer, if there is one.
+     * @return pCommand
+     */
+    public static <T extends ICommand> T register(T pCommand) {
+        CommandTracer tracer = sActive;
+        if(tracer != null) {
+            tracer.indexOf(pCommand);
+        }
+        return pCommand;
+    }
+
+    public static void init(ICommand pCommand, double pNow) {
+        CommandTracer tracer = sActive;
+        if(tracer == null) {
+            pCommand.init(pNow);
+            return;
+        }
+        long start = System.nanoTime();
+        pCommand.init(pNow);
+        tracer.record(EEvent.INIT, pCommand, start, System.nanoTime() - start);
+    }
+
+    public static boolean update(ICommand pCommand, double pNow) {
+        CommandTracer tracer = sActive;
+        if(tracer == null) {
+            return pCommand.update(pNow);
+        }
+        long start = System.nanoTime();
+        boolean isFinished = pCommand.update(pNow);
+        tracer.record(isFinished ? EEvent.FINISH : EEvent.UPDATE, pCommand, start, System.nanoTime() - start);
+        return isFinished;
+    }
+
+    public static void shutdown(ICommand pCommand, double pNow) {
+        CommandTracer tracer = sActive;
+        if(tracer == null) {
+            pCommand.shutdown(pNow);
+            return;
+        }
+        long start = System.nanoTime();
+        pCommand.shutdown(pNow);
+        tracer.record(EEvent.SHUTDOWN, pCommand, start, System.nanoTime() - start);
+    }
+
+    public void record(EEvent pEvent, ICommand pCommand, long pStartNanos, long pDurationNanos) {
+        int record = (int)(mRecorded & kMask) * kLongsPerRecord;
+        mRecords[record] = pStartNanos;
+        mRecords[record + 1] = pDurationNanos;
+        mRecords[record + 2] = ((long)pEvent.ordinal() << 32) | indexOf(pCommand);
+        mRecorded++;
+    }
+
+    private int indexOf(ICommand pCommand) {
+        int slot = find(pCommand);
+        return mCommands.get(slot) == pCommand ? slot : add(pCommand);
+    }
+
+    /**
+     * @return pCommand's slot, or the empty slot it would go in
+     */
+    private int find(ICommand pCommand) {
+        int slot = System.identityHashCode(pCommand) & (kSlots - 1);
+        ICommand command;
+        while((command = mCommands.get(slot)) != null && command != pCommand) {
+            slot = (slot + 1) & (kSlots - 1);
+        }
+        return slot;
+    }
+
+    private synchronized int add(ICommand pCommand) {
+        // Another thread may have added it, or taken the slot, since find()
+        int slot = find(pCommand);
+        if(mCommands.get(slot) == pCommand) {
+            return slot;
+        }
+        if(mCommandCount >= kMaxCommands) {
+            return kSlots;
+        }
+        mClasses[slot] = pCommand.getClass();
+        // Publishes the class along with the command to threads that find() it
+        mCommands.lazySet(slot, pCommand);
+        mCommandCount++;
+        return slot;
+    }
+
+    private String nameOf(int pSlot) {
+        if(pSlot == kSlots) {
+            return kUntrackedName;
+        }
+        String name = mClasses[pSlot].getSimpleName();
+        return name.isEmpty() ? mClasses[pSlot].getName() : name;
+    }
+
+    /**
+     * Forgets every record and every registered command.
+     */
+    public synchronized void clear() {
+        mRecorded = 0;
+        for(int i = 0; i < kSlots; i++) {
+            mCommands.set(i, null);
+        }
+        Arrays.fill(mClasses, null);
+        mCommandCount = 0;
+    }
+
+    /**
+     * @return The number of records kept
+     */
+    public int size() {
+        return (int)Math.min(mRecorded, kCapacity);
+    }
+
+    public int capacity() {
+        return kCapacity;
+    }
+
+    public long getOverwrittenRecords() {
+        return Math.max(0, mRecorded - kCapacity);
+    }
+
+    public EEvent getEvent(int pIndex) {
+        return kEvents[(int)(mRecords[offset(pIndex) + 2] >>> 32)];
+    }
+
+    public String getCommandName(int pIndex) {
+        return nameOf((int)mRecords[offset(pIndex) + 2]);
+    }
+
+    public long getStartNanos(int pIndex) {
+        return mRecords[offset(pIndex)];
+    }
+
+    public long getDurationNanos(int pIndex) {
+        return mRecords[offset(pIndex) + 1];
+    }
+
+    /**
+     * @param pIndex 0 for the oldest record kept
+     */
+    private int offset(int pIndex) {
+        return (int)((mRecorded - size() + pIndex) & kMask) * kLongsPerRecord;
+    }
+
+    /**
+     * Writes the records kept, oldest first.  Must be called from the thread running commands, e.g. in disabledInit().
+     */
+    public void write(File pFile) throws IOException {
+        // Number the commands in the records kept from 0, in the order they first appear
+        int[] indices = new int[kSlots + 1];
+        Arrays.fill(indices, -1);
+        List<String> names = new ArrayList<>();
+        for(int i = 0; i < size(); i++) {
+            int slot = (int)mRecords[offset(i) + 2];
+            if(indices[slot] < 0) {
+                indices[slot] = names.size();
+                names.add(nameOf(slot));
+            }
+        }
+
+        pFile.getAbsoluteFile().getParentFile().mkdirs();
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(pFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(names.size());
+            for(String name : names) {
+                out.writeUTF(name);
+            }
+            out.writeInt(size());
+            for(int i = 0; i < size(); i++) {
+                int offset = offset(i);
+                out.writeLong(mRecords[offset]);
+                out.writeLong(mRecords[offset + 1]);
+                out.writeInt((int)(mRecords[offset + 2] >>> 32));
+                out.writeInt(indices[(int)mRecords[offset + 2]]);
+            }
+        }
+        if(getOverwrittenRecords() > 0) {
+            mLog.warn("Command trace overwrote its oldest ", getOverwrittenRecords(), " records");
+        }
+    }
+
+    /**
+     * Named like CodexFlightRecorder's files, so a match's trace sits next to its recording.
+     */
+    public File file() {
+        String eventName = DriverStation.getInstance().getEventName();
+        if ( eventName.length() <= 0 ) {
+            // event name format: MM-DD-YYYY
+            eventName =  new SimpleDateFormat("MM-dd-YYYY").format(Calendar.getInstance().getTime());
+        }
+
+        return new File(String.format( CodexCsvLogger.USB_DIR + LOG_PATH_FORMAT,
+                eventName,
+                DriverStation.getInstance().getMatchType().name(),
+                Integer.toString(DriverStation.getInstance().getMatchNumber()),
+                new SimpleDateFormat("HH-mm-ss").format(Calendar.getInstance().getTime())
+        ));
+    }
+
+}
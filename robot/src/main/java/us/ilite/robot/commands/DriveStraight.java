@@ -21,6 +21,7 @@ import us.ilite.robot.hardware.ECommonControlMode;
 import us.ilite.robot.hardware.ECommonNeutralMode;
 import us.ilite.robot.modules.Drive;
 import us.ilite.robot.modules.DriveMessage;
+import us.ilite.robot.modules.ESubsystem;
 
 
 /**
@@ -48,6 +49,8 @@ public class DriveStraight implements ICommand {
     private double mStartTime = 0.0;
     private PIDController mHeadingController = new PIDController(Settings.kDriveHeadingGains, -180.0, 180.0, Settings.kControlLoopPeriod);
 
+    private final DriveMessage mDriveMessage = new DriveMessage();
+
     private ProfiledPIDController mDistanceController = Settings.Drive.kDistancePID.generateController();
 
     public DriveStraight(Drive pDrive, Data pData, EDriveControlMode pDriveControlMode, double pDistanceToDrive) {
@@ -103,8 +106,7 @@ public class DriveStraight implements ICommand {
             mLastTime = pNow;
             return true;
         } else {
-            DriveMessage driveMessage = new DriveMessage().throttle(throttle).turn(turn).normalize();
-            mDrive.setDriveMessage(driveMessage);
+            mDrive.setDriveMessage(mDriveMessage.reset().throttle(throttle).turn(turn).normalize());
             mLastTime = pNow;
 
 //            Data.kSmartDashboard.putDouble("Angle Error", mHeadingController.getError());
@@ -149,9 +151,20 @@ public class DriveStraight implements ICommand {
         return this;
     }
 
+    public DriveStraight setDistanceGains(ProfileGains pDistanceGains) {
+        mDistanceController = pDistanceGains.generateController();
+        mDistanceController.setGoal(mDistanceToDrive);
+        return this;
+    }
+
     public DriveStraight setDrivePercentOutput(double pDrivePercentOutput) {
         mDrivePercentOutput = pDrivePercentOutput;
         return this;
     }
 
+    @Override
+    public long getRequirements() {
+        return ESubsystem.DRIVE.mask();
+    }
+
 }
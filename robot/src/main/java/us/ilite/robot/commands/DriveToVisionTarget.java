@@ -8,6 +8,7 @@ import us.ilite.common.types.ETargetingData;
 import us.ilite.robot.modules.Drive;
 import us.ilite.robot.modules.DriveMessage;
 import us.ilite.robot.modules.targetData.ITargetDataProvider;
+import us.ilite.robot.modules.ESubsystem;
 
 /**
  * Untested. Should turn more aggressively when further away from the target.
@@ -22,6 +23,7 @@ public class DriveToVisionTarget implements ICommand {
     private static final double kAngleAdjustDistanceThreshold = 0.0;
     private static final double kAngleToTarget_kP = 0.0;
 
+    private final DriveMessage mDriveMessage = new DriveMessage();
     private final PIDController mHeadingController = new PIDController(Settings.kTargetAngleLockGains, -kMaxTargetAngle, kMaxTargetAngle, Settings.kControlLoopPeriod);
     private final PIDController mDistanceController = new PIDController(Settings.kTargetDistanceLockGains, kMinTargetArea, kMaxTargetAngle, Settings.kControlLoopPeriod);
 
@@ -77,7 +79,7 @@ public class DriveToVisionTarget implements ICommand {
         double turn = mHeadingController.calculate(angleToTarget, pNow);
         double throttle = mDistanceController.calculate(distanceFromTarget, pNow);
 
-        mDrive.setDriveMessage(new DriveMessage().throttle(throttle).turn(turn).normalize());
+        mDrive.setDriveMessage(mDriveMessage.reset().throttle(throttle).turn(turn).normalize());
 
         return false;
     }
@@ -87,4 +89,9 @@ public class DriveToVisionTarget implements ICommand {
 
     }
 
+    @Override
+    public long getRequirements() {
+        return ESubsystem.DRIVE.mask();
+    }
+
 }
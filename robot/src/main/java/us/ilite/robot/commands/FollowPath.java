@@ -0,0 +1,48 @@
+package us.ilite.robot.commands;
+
+import edu.wpi.first.wpilibj.trajectory.Trajectory;
+import us.ilite.common.lib.control.TrajectorySampler;
+import us.ilite.robot.modules.Drive;
+import us.ilite.robot.modules.DriveMessage;
+import us.ilite.robot.modules.ESubsystem;
+
+/**
+ * Follows a trajectory with Drive's path follower until the end of the trajectory has been played back.  Like the
+ * follower, this assumes the pose estimator is already in the trajectory's frame - autonomous resets it to the
+ * routine's start pose, which defaults to where the routine's first path starts.
+ */
+public class FollowPath implements ICommand {
+
+    private final Drive mDrive;
+    private final TrajectorySampler mTrajectory;
+
+    /**
+     * Flattens pTrajectory now, when the routine is built, so starting the command doesn't allocate.
+     */
+    public FollowPath(Drive pDrive, Trajectory pTrajectory) {
+        mDrive = pDrive;
+        mTrajectory = new TrajectorySampler(pTrajectory);
+    }
+
+    @Override
+    public void init(double pNow) {
+        mDrive.setPathFollowing(mTrajectory);
+    }
+
+    @Override
+    public boolean update(double pNow) {
+        return mDrive.isPathFinished();
+    }
+
+    @Override
+    public void shutdown(double pNow) {
+        mDrive.setNormal();
+        mDrive.setDriveMessage(DriveMessage.kNeutral);
+    }
+
+    @Override
+    public long getRequirements() {
+        return ESubsystem.DRIVE.mask();
+    }
+
+}
@@ -4,4 +4,12 @@ public interface ICommand {
 	void init(double pNow);
 	boolean update(double pNow);
 	void shutdown(double pNow);
+
+	/**
+	 * @return The ESubsystem masks of the modules this command controls, which the CommandScheduler won't let two
+	 * commands hold at once
+	 */
+	default long getRequirements() {
+		return 0L;
+	}
 }
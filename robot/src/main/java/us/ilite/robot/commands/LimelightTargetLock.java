@@ -6,12 +6,16 @@ import us.ilite.common.types.ETrackingType;
 import us.ilite.robot.modules.Drive;
 import us.ilite.robot.modules.IThrottleProvider;
 import us.ilite.robot.modules.Limelight;
+import us.ilite.robot.modules.ESubsystem;
 
 public class LimelightTargetLock extends TargetLock {
 
+    private static final long kRequirements = ESubsystem.mask(ESubsystem.DRIVE, ESubsystem.LIMELIGHT);
+
     private ILog mLog = Logger.createLog(LimelightTargetLock.class);
 
     private Limelight mLimelight;
+    private ETrackingType mTrackingType;
 
 //    public LimelightTargetLock(Drive pDrive, Limelight pLimelight, double pAllowableError, ETrackingType pTrackingType, IThrottleProvider pThrottleProvider) {
 //        super(pDrive, pAllowableError, pTrackingType, pLimelight, pThrottleProvider);
@@ -24,8 +28,15 @@ public class LimelightTargetLock extends TargetLock {
         super(pDrive, pAllowableError, pTrackingType, pLimelight, pThrottleProvider, pEndOnAlignment);
 
         this.mLimelight = pLimelight;
-        mLimelight.setTracking(pTrackingType);
+        this.mTrackingType = pTrackingType;
+    }
+
+    @Override
+    public void init(double pNow) {
+        // Here rather than when built, so commands made ahead of time for triggers only take the camera once started
+        mLimelight.setTracking(mTrackingType);
         mLog.error("STARTED LIMELIGHT TARGET LOCK");
+        super.init(pNow);
     }
 
     public void shutdown(double pNow) {
@@ -34,4 +45,9 @@ public class LimelightTargetLock extends TargetLock {
         //mLimelight.setTracking(ETrackingType.NONE);
     }
 
+    @Override
+    public long getRequirements() {
+        return kRequirements;
+    }
+
 }
@@ -1,50 +1,18 @@
 package us.ilite.robot.commands;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
 
-public class ParallelCommand implements ICommand {
+/**
+ * Runs its commands together until all of them have finished.  Same as ParallelCommandGroup.
+ */
+public class ParallelCommand extends ParallelCommandGroup {
 
-  List<ICommand> mCommandList;
-  
   public ParallelCommand(List<ICommand> pCommandList) {
-    this.mCommandList = new LinkedList<>();
-    this.mCommandList.addAll(pCommandList);
-  }
-  
-  public ParallelCommand(ICommand ... pCommands ) {
-    this(Arrays.asList(pCommands));
-  }
-  
-  @Override
-  public void init(double pNow) {
-    for(ICommand c : mCommandList) {
-      c.init(pNow);
-    }
+    super(pCommandList.toArray(new ICommand[0]));
   }
 
-  @Override
-  public boolean update(double pNow) {
-    List<ICommand> toremove = new ArrayList<>();
-    for(ICommand c : mCommandList) {
-      if(c.update(pNow)) {
-        toremove.add(c);
-      }
-    }
-    mCommandList.removeAll(toremove);
-    if(mCommandList.isEmpty()) {
-      return true;
-    }
-    return false;
-  }
-
-  @Override
-  public void shutdown(double pNow) {
-    for(ICommand c : mCommandList) {
-      c.shutdown(pNow);
-    }
+  public ParallelCommand(ICommand ... pCommands ) {
+    super(pCommands);
   }
 
 }
@@ -0,0 +1,31 @@
+package us.ilite.robot.commands;
+
+/**
+ * Runs its children together, and finishes once all of them have.
+ */
+public class ParallelCommandGroup extends CommandGroup {
+
+    public ParallelCommandGroup(ICommand... pCommands) {
+        super(pCommands);
+    }
+
+    @Override
+    public void init(double pNow) {
+        resetFinished();
+        for(int i = 0; i < mCommands.length; i++) {
+            CommandTracer.init(mCommands[i], pNow);
+        }
+    }
+
+    @Override
+    public boolean update(double pNow) {
+        updateRunning(pNow);
+        return getFinishedCount() == mCommands.length;
+    }
+
+    @Override
+    public void shutdown(double pNow) {
+        finishRunning(pNow);
+    }
+
+}
@@ -0,0 +1,26 @@
+package us.ilite.robot.commands;
+
+/**
+ * Runs its children together, and finishes when the first child - the deadline - does, whether or not the others
+ * have.  E.g. running intake and elevator commands for as long as a drive command takes.
+ */
+public class ParallelDeadlineGroup extends ParallelCommandGroup {
+
+    public ParallelDeadlineGroup(ICommand pDeadline, ICommand... pCommands) {
+        super(prepend(pDeadline, pCommands));
+    }
+
+    private static ICommand[] prepend(ICommand pFirst, ICommand[] pRest) {
+        ICommand[] commands = new ICommand[pRest.length + 1];
+        commands[0] = pFirst;
+        System.arraycopy(pRest, 0, commands, 1, pRest.length);
+        return commands;
+    }
+
+    @Override
+    public boolean update(double pNow) {
+        updateRunning(pNow);
+        return isFinished(0);
+    }
+
+}
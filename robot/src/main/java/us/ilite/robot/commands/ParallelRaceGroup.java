@@ -0,0 +1,18 @@
+package us.ilite.robot.commands;
+
+/**
+ * Runs its children together, and finishes as soon as any one of them does.  The rest are shut down with the group.
+ */
+public class ParallelRaceGroup extends ParallelCommandGroup {
+
+    public ParallelRaceGroup(ICommand... pCommands) {
+        super(pCommands);
+    }
+
+    @Override
+    public boolean update(double pNow) {
+        updateRunning(pNow);
+        return getFinishedCount() > 0 || mCommands.length == 0;
+    }
+
+}
@@ -0,0 +1,62 @@
+package us.ilite.robot.commands;
+
+/**
+ * Runs its children one after another.  The next child is initialized in the same update() the previous one
+ * finishes in, and first updated on the following cycle.
+ */
+public class SequentialCommandGroup extends CommandGroup {
+
+    private int mCurrent = 0;
+
+    public SequentialCommandGroup(ICommand... pCommands) {
+        super(pCommands);
+    }
+
+    @Override
+    protected void setCommands(ICommand... pCommands) {
+        super.setCommands(pCommands);
+        mCurrent = 0;
+    }
+
+    @Override
+    public void init(double pNow) {
+        resetFinished();
+        mCurrent = 0;
+        if(mCommands.length > 0) {
+            CommandTracer.init(mCommands[0], pNow);
+        }
+    }
+
+    @Override
+    public boolean update(double pNow) {
+        if(mCurrent < mCommands.length && CommandTracer.update(mCommands[mCurrent], pNow)) {
+            finish(mCurrent, pNow);
+            mCurrent++;
+            if(mCurrent < mCommands.length) {
+                CommandTracer.init(mCommands[mCurrent], pNow);
+            }
+        }
+        return isDone();
+    }
+
+    @Override
+    public void shutdown(double pNow) {
+        // Children after the current one were never started
+        if(mCurrent < mCommands.length) {
+            finish(mCurrent, pNow);
+            mCurrent = mCommands.length;
+        }
+    }
+
+    public boolean isDone() {
+        return mCurrent >= mCommands.length;
+    }
+
+    /**
+     * @return The index of the running child, or size() once all have finished
+     */
+    public int getCurrentIndex() {
+        return mCurrent;
+    }
+
+}
@@ -10,6 +10,7 @@ import us.ilite.robot.modules.Drive;
 import us.ilite.robot.modules.DriveMessage;
 import us.ilite.robot.modules.IThrottleProvider;
 import us.ilite.robot.modules.targetData.ITargetDataProvider;
+import us.ilite.robot.modules.ESubsystem;
 
 public class TargetLock implements ICommand {
 
@@ -113,4 +114,9 @@ public class TargetLock implements ICommand {
         return this;
     }
 
+    @Override
+    public long getRequirements() {
+        return ESubsystem.DRIVE.mask();
+    }
+
 }
\ No newline at end of file
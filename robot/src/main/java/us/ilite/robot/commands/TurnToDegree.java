@@ -5,9 +5,11 @@ import us.ilite.robot.hardware.ECommonControlMode;
 import us.ilite.robot.hardware.ECommonNeutralMode;
 import us.ilite.robot.modules.Drive;
 import us.ilite.robot.modules.DriveMessage;
+import us.ilite.robot.modules.ESubsystem;
 import us.ilite.common.types.sensor.EGyro;
 import us.ilite.common.Data;
 import us.ilite.common.lib.control.PIDController;
+import us.ilite.common.lib.control.ProfileGains;
 
 import com.flybotix.hfr.util.log.ILog;
 import com.flybotix.hfr.util.log.Logger;
@@ -30,7 +32,9 @@ public class TurnToDegree implements ICommand {
 
   private Rotation2d mInitialYaw, mTurnAngle, mTargetYaw;
   private PIDController pid;
+  private ProfileGains mGains = Settings.Drive.kTurnToProfileGains;
   private Drive mDrive;
+  private final DriveMessage mDriveMessage = new DriveMessage();
   public Data mData;
   
   public TurnToDegree( Drive pDrive, Rotation2d pTurnAngle, double pAllowableError, Data pData ) {
@@ -49,7 +53,7 @@ public class TurnToDegree implements ICommand {
     mTargetYaw = mInitialYaw.rotateBy( mTurnAngle );
 
     // PIDController configuration
-    pid = new PIDController( Settings.Drive.kTurnToProfileGains, -180, 180, Settings.kControlLoopPeriod );
+    pid = new PIDController( mGains, -180, 180, Settings.kControlLoopPeriod );
     pid.setContinuous( true );
     pid.setOutputRange( kMIN_POWER, kMAX_POWER );
     pid.setSetpoint( mTargetYaw.getDegrees() );
@@ -59,7 +63,7 @@ public class TurnToDegree implements ICommand {
 
   public boolean update( double pNow ) {
     mOutput = pid.calculate( getYaw().getDegrees(), pNow );
-    mOutput += Math.signum( mOutput ) * Settings.Drive.kTurnToProfileGains.F;
+    mOutput += Math.signum( mOutput ) * mGains.F;
 
     // Keep track of time on target
     if ( ( Math.abs( pid.getError() ) <= Math.abs( mAllowableError ) ) ) {
@@ -76,12 +80,20 @@ public class TurnToDegree implements ICommand {
     }
 
     // Apply output, log, and return false for unfinished
-    mDrive.setDriveMessage( new DriveMessage().turn(mOutput));
+    mDrive.setDriveMessage( mDriveMessage.reset().turn(mOutput));
     Data.kSmartDashboard.putDouble( "turn_error", pid.getError() );
     mLogger.info( "Target: " + mTargetYaw + " Yaw: " + getYaw() + "\n" );
     return false;
   }
 
+  /**
+   * Overrides Settings.Drive.kTurnToProfileGains, e.g. to try gains in simulation.  Takes effect on the next init().
+   */
+  public TurnToDegree setGains( ProfileGains pGains ) {
+    mGains = pGains;
+    return this;
+  }
+
   private Rotation2d getYaw() {
     // TODO - was this inverted?
     return Rotation2d.fromDegrees( mData.imu.get( EGyro.YAW_DEGREES ) );
@@ -91,5 +103,10 @@ public class TurnToDegree implements ICommand {
   public void shutdown( double pNow ) {
     
   }
- 
+
+  @Override
+  public long getRequirements() {
+    return ESubsystem.DRIVE.mask();
+  }
+
 }
\ No newline at end of file
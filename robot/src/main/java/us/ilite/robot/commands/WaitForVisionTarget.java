@@ -4,6 +4,7 @@ import us.ilite.common.Data;
 import us.ilite.common.types.ETargetingData;
 import us.ilite.common.types.ETrackingType;
 import us.ilite.robot.modules.Limelight;
+import us.ilite.robot.modules.ESubsystem;
 
 public class WaitForVisionTarget implements ICommand {
 
@@ -40,4 +41,9 @@ public class WaitForVisionTarget implements ICommand {
     public void shutdown(double pNow) {
         mLimelight.setTracking(ETrackingType.NONE);
     }
+
+    @Override
+    public long getRequirements() {
+        return ESubsystem.LIMELIGHT.mask();
+    }
 }
@@ -0,0 +1,75 @@
+package us.ilite.robot.hardware;
+
+import us.ilite.common.lib.util.ITimeSource;
+
+/**
+ * Decides whether a motor controller demand is worth a CAN frame.  A write is suppressed when the demand and
+ * arbitrary feed-forward are within an epsilon of the last frame sent with the same control type, unless the
+ * keep-alive period has elapsed since that frame.
+ *
+ * Not thread safe - use one filter per output, owned by the thread that writes it.
+ */
+public class CANWriteFilter {
+
+    private final ITimeSource mTimeSource;
+    private final double kEpsilon;
+    private final long kKeepAliveNanos;
+
+    private boolean mHasSent = false;
+    private double mLastDemand;
+    private Object mLastControlType;
+    private double mLastFeedForward;
+    private long mLastSentNanos;
+
+    private long mFramesSent = 0;
+    private long mFramesSuppressed = 0;
+
+    /**
+     * @param pEpsilon Largest change in demand or feed-forward that is not worth sending
+     * @param pKeepAliveSeconds A frame is always sent if this long has passed since the last one
+     */
+    public CANWriteFilter(double pEpsilon, double pKeepAliveSeconds, ITimeSource pTimeSource) {
+        kEpsilon = pEpsilon;
+        kKeepAliveNanos = (long)(pKeepAliveSeconds * 1e9);
+        mTimeSource = pTimeSource;
+    }
+
+    /**
+     * Counts the write as sent or suppressed.  When this returns true the caller must send the frame.
+     * @return true if the demand should be written to the bus
+     */
+    public boolean shouldWrite(double pDemand, Object pControlType, double pFeedForward) {
+        long now = mTimeSource.getNanos();
+        if(mHasSent
+                && pControlType == mLastControlType
+                && Math.abs(pDemand - mLastDemand) <= kEpsilon
+                && Math.abs(pFeedForward - mLastFeedForward) <= kEpsilon
+                && now - mLastSentNanos < kKeepAliveNanos) {
+            mFramesSuppressed++;
+            return false;
+        }
+        mHasSent = true;
+        mLastDemand = pDemand;
+        mLastControlType = pControlType;
+        mLastFeedForward = pFeedForward;
+        mLastSentNanos = now;
+        mFramesSent++;
+        return true;
+    }
+
+    /**
+     * Forces the next write through, e.g. after the controller was commanded outside this filter.
+     */
+    public void invalidate() {
+        mHasSent = false;
+    }
+
+    public long getFramesSent() {
+        return mFramesSent;
+    }
+
+    public long getFramesSuppressed() {
+        return mFramesSuppressed;
+    }
+
+}
@@ -1,25 +1,34 @@
 package us.ilite.robot.hardware;
 
+import com.flybotix.hfr.codex.ICodexTimeProvider;
 import com.flybotix.hfr.util.log.ILog;
 import com.flybotix.hfr.util.log.Logger;
 
-import edu.wpi.first.wpilibj.Timer;
+import us.ilite.common.lib.util.ITimeSource;
+import us.ilite.common.lib.util.SimulatedTimeSource;
 
 /**
  * @author Stephen Welch
  * Provides a consistent time between cycles.
  * The cycleEnded() method must be called at the end of each robot cycle so we know when to update to the next time.
+ * Time comes from an ITimeSource - the FPGA on the robot, or a SimulatedTimeSource to run robot logic faster than
+ * real time.
  */
 public class Clock {
 
     private ILog mLogger = Logger.createLog(Clock.class);
 
-    private double mStartTime = 0.0;
+    private ITimeSource mTimeSource;
+    private long mStartNanos = 0;
     private double mCurrentTime = 0.0;
     private boolean hasTimeUpdatedThisCycle = false;
-    private boolean mIsSimulated = false;
+
+    public Clock(ITimeSource pTimeSource) {
+        mTimeSource = pTimeSource;
+    }
 
     public Clock() {
+        this(new FPGATimeSource());
     }
 
     /**
@@ -28,8 +37,7 @@ public class Clock {
      */
     public double getCurrentTime() {
         if(hasTimeUpdatedThisCycle == false) {
-            mCurrentTime = (mIsSimulated) ? getJavaTime() : getRobotTime();
-            mCurrentTime -= mStartTime;
+            mCurrentTime = (mTimeSource.getNanos() - mStartNanos) / 1e9;
             hasTimeUpdatedThisCycle = true;
         }
 
@@ -68,26 +76,38 @@ public class Clock {
     }
 
     public void setTime(double time) {
-        if(mIsSimulated) {
-            mStartTime = 0.0;
+        if(isSimulated()) {
+            mStartNanos = 0;
+            ((SimulatedTimeSource)mTimeSource).setSeconds(time);
             mCurrentTime = time;
         } else {
             mLogger.error("Setting the current time is not allowed outside of simulation.");
         }
     }
 
+    /**
+     * Switches this clock to a new simulated time source starting at 0.
+     */
     public Clock simulated() {
-        mStartTime = getJavaTime();
-        mIsSimulated = true;
+        mTimeSource = new SimulatedTimeSource();
+        mStartNanos = 0;
+        hasTimeUpdatedThisCycle = false;
         return this;
     }
 
-    private static double getJavaTime() {
-        return System.currentTimeMillis() / 1000.0;
+    public boolean isSimulated() {
+        return mTimeSource instanceof SimulatedTimeSource;
     }
 
-    private static double getRobotTime() {
-        return Timer.getFPGATimestamp();
+    public ITimeSource getTimeSource() {
+        return mTimeSource;
+    }
+
+    /**
+     * @return A provider for CodexMetadata.overrideTimeProvider() so codex timestamps use this clock's cycle time
+     */
+    public ICodexTimeProvider getCodexTimeProvider() {
+        return () -> (long)getCurrentTimeInNanos();
     }
 
 }
@@ -0,0 +1,227 @@
+package us.ilite.robot.hardware;
+
+import us.ilite.common.lib.RobotProfile;
+
+/**
+ * Rigid-body physics of a differential drive, parameterized by a RobotProfile.  Each side's voltage turns into a force
+ * through the profile's characterization (V = kS + kV * v + kA * a, per side), and the two forces accelerate the
+ * robot's mass and rotate its angular inertia - so turning is coupled through the chassis, unlike a per-side model.
+ *
+ * Plain fields and arithmetic, so a step costs tens of nanoseconds and a whole match at 1kHz runs in milliseconds.
+ * Meters, radians and seconds; heading is CCW-positive.  Not thread safe.
+ */
+public class DifferentialDriveSim {
+
+    // Below this a wheel counts as stopped, and static friction applies
+    private static final double kStoppedVelocity = 1e-6;
+
+    // Per side, in volts per m/s and m/s^2 of wheel surface speed
+    private final double kLeftS, kLeftV, kLeftA;
+    private final double kRightS, kRightV, kRightA;
+    private final double kMass;
+    private final double kAngularInertia;
+    private final double kAngularDrag;
+    // Torque arm of the wheels, and the radius that maps wheel speeds to turn rate (includes scrub)
+    private final double kWheelbaseRadius;
+    private final double kEffectiveWheelbaseRadius;
+    private final double kSideResistance;
+
+    private double mLeftVoltage, mRightVoltage;
+    private boolean mIsLeftCoasting, mIsRightCoasting;
+
+    private double mX, mY, mHeading;
+    private double mVelocity, mAngularVelocity;
+    private double mLeftPosition, mRightPosition;
+    private double mLeftCurrent, mRightCurrent;
+
+    /**
+     * @param pSideResistanceOhms Winding resistance of one side's motors in parallel, used to estimate current
+     */
+    public DifferentialDriveSim(RobotProfile pProfile, double pSideResistanceOhms) {
+        kLeftS = pProfile.getLeftFrictionVoltage();
+        kLeftV = pProfile.toLinearGain(pProfile.getLeftVoltPerSpeed());
+        kLeftA = pProfile.toLinearGain(pProfile.getLeftVoltPerAccel());
+        kRightS = pProfile.getRightFrictionVoltage();
+        kRightV = pProfile.toLinearGain(pProfile.getRightVoltPerSpeed());
+        kRightA = pProfile.toLinearGain(pProfile.getRightVoltPerAccel());
+        kMass = pProfile.getLinearInertia();
+        kAngularInertia = pProfile.getAngularInertia();
+        kAngularDrag = pProfile.getAngularDrag();
+        kWheelbaseRadius = pProfile.getWheelbaseRadiusMeters();
+        kEffectiveWheelbaseRadius = pProfile.getWheelbaseRadiusMeters() * pProfile.getWheelbaseScrubFactor();
+        kSideResistance = pSideResistanceOhms;
+    }
+
+    /**
+     * Puts the robot at rest at the given pose.  Wheel positions are not reset, like real encoders.
+     */
+    public void reset(double pX, double pY, double pHeading) {
+        mX = pX;
+        mY = pY;
+        mHeading = pHeading;
+        mVelocity = mAngularVelocity = 0.0;
+        mLeftCurrent = mRightCurrent = 0.0;
+    }
+
+    /**
+     * Sets the voltage applied to each side until the next call.
+     * @param pIsLeftCoasting true if the left side is in coast and not driven, so its motors produce no braking force
+     */
+    public void setVoltages(double pLeftVolts, double pRightVolts, boolean pIsLeftCoasting, boolean pIsRightCoasting) {
+        mLeftVoltage = pLeftVolts;
+        mRightVoltage = pRightVolts;
+        mIsLeftCoasting = pIsLeftCoasting;
+        mIsRightCoasting = pIsRightCoasting;
+    }
+
+    /**
+     * Advances the simulation by pDt seconds with semi-implicit Euler.  Stable for steps well under the drivetrain's
+     * time constants (kA / kV, typically tens of milliseconds) - 1ms is a safe choice.
+     */
+    public void step(double pDt) {
+        double leftVelocity = getLeftVelocity();
+        double rightVelocity = getRightVelocity();
+        // Voltage left over after back-EMF, which is what drives current through the windings
+        double leftDrive = mIsLeftCoasting ? 0.0 : mLeftVoltage - kLeftV * leftVelocity;
+        double rightDrive = mIsRightCoasting ? 0.0 : mRightVoltage - kRightV * rightVelocity;
+        mLeftCurrent = mIsLeftCoasting ? 0.0 : Math.abs(leftDrive) / kSideResistance;
+        mRightCurrent = mIsRightCoasting ? 0.0 : Math.abs(rightDrive) / kSideResistance;
+
+        // Each side's characterization holds with half the robot's mass behind it
+        double leftForce = withFriction(leftDrive, leftVelocity, kLeftS) * kMass / (2.0 * kLeftA);
+        double rightForce = withFriction(rightDrive, rightVelocity, kRightS) * kMass / (2.0 * kRightA);
+
+        double acceleration = (leftForce + rightForce) / kMass;
+        double angularAcceleration = ((rightForce - leftForce) * kWheelbaseRadius - kAngularDrag * mAngularVelocity) / kAngularInertia;
+        mVelocity += acceleration * pDt;
+        mAngularVelocity += angularAcceleration * pDt;
+
+        // Kinetic friction can only stop a wheel, never reverse it
+        double newLeft = getLeftVelocity();
+        double newRight = getRightVelocity();
+        boolean leftStopped = stopsByFriction(leftVelocity, newLeft, leftDrive, kLeftS);
+        boolean rightStopped = stopsByFriction(rightVelocity, newRight, rightDrive, kRightS);
+        if(leftStopped || rightStopped) {
+            setWheelVelocities(leftStopped ? 0.0 : newLeft, rightStopped ? 0.0 : newRight);
+        }
+        // Stopping one wheel kicks the other through the chassis, so two slow wheels can trade a little velocity back
+        // and forth forever.  Once friction alone could stop both within a step, they've stopped.
+        double selfCoupling = (1.0 / kMass + kWheelbaseRadius * kEffectiveWheelbaseRadius / kAngularInertia) * pDt;
+        if(isStuck(getLeftVelocity(), leftDrive, kLeftS, kLeftS * kMass / (2.0 * kLeftA) * selfCoupling)
+                && isStuck(getRightVelocity(), rightDrive, kRightS, kRightS * kMass / (2.0 * kRightA) * selfCoupling)) {
+            mVelocity = mAngularVelocity = 0.0;
+        }
+
+        double midHeading = mHeading + mAngularVelocity * pDt / 2.0;
+        mX += mVelocity * Math.cos(midHeading) * pDt;
+        mY += mVelocity * Math.sin(midHeading) * pDt;
+        mHeading += mAngularVelocity * pDt;
+        mLeftPosition += getLeftVelocity() * pDt;
+        mRightPosition += getRightVelocity() * pDt;
+    }
+
+    /**
+     * @return The voltage that accelerates a side once friction is taken out
+     */
+    private static double withFriction(double pDriveVolts, double pVelocity, double pFrictionVolts) {
+        if(Math.abs(pVelocity) > kStoppedVelocity) {
+            return pDriveVolts - pFrictionVolts * Math.signum(pVelocity);
+        }
+        // Static friction holds a stopped wheel until the drive overcomes it
+        if(Math.abs(pDriveVolts) <= pFrictionVolts) {
+            return 0.0;
+        }
+        return pDriveVolts - pFrictionVolts * Math.signum(pDriveVolts);
+    }
+
+    private static boolean stopsByFriction(double pBefore, double pAfter, double pDriveVolts, double pFrictionVolts) {
+        return pBefore != 0.0 && Math.signum(pBefore) != Math.signum(pAfter) && Math.abs(pDriveVolts) <= pFrictionVolts;
+    }
+
+    private static boolean isStuck(double pVelocity, double pDriveVolts, double pFrictionVolts, double pFrictionDeltaV) {
+        return Math.abs(pDriveVolts) <= pFrictionVolts && Math.abs(pVelocity) <= pFrictionDeltaV;
+    }
+
+    private void setWheelVelocities(double pLeft, double pRight) {
+        mVelocity = (pLeft + pRight) / 2.0;
+        mAngularVelocity = (pRight - pLeft) / (2.0 * kEffectiveWheelbaseRadius);
+    }
+
+    public double getX() {
+        return mX;
+    }
+
+    public double getY() {
+        return mY;
+    }
+
+    /** Radians, unwrapped */
+    public double getHeading() {
+        return mHeading;
+    }
+
+    public double getVelocity() {
+        return mVelocity;
+    }
+
+    public double getAngularVelocity() {
+        return mAngularVelocity;
+    }
+
+    public double getLeftVelocity() {
+        return mVelocity - mAngularVelocity * kEffectiveWheelbaseRadius;
+    }
+
+    public double getRightVelocity() {
+        return mVelocity + mAngularVelocity * kEffectiveWheelbaseRadius;
+    }
+
+    /** Meters travelled by the left wheels since construction */
+    public double getLeftPosition() {
+        return mLeftPosition;
+    }
+
+    public double getRightPosition() {
+        return mRightPosition;
+    }
+
+    /** Amps drawn by the left side's motors together */
+    public double getLeftCurrent() {
+        return mLeftCurrent;
+    }
+
+    public double getRightCurrent() {
+        return mRightCurrent;
+    }
+
+    public double getLeftVoltage() {
+        return mIsLeftCoasting ? 0.0 : mLeftVoltage;
+    }
+
+    public double getRightVoltage() {
+        return mIsRightCoasting ? 0.0 : mRightVoltage;
+    }
+
+    /**
+     * @return The voltage the left motors generate turning at pVelocity
+     */
+    public double getLeftBackEmf(double pVelocity) {
+        return kLeftV * pVelocity;
+    }
+
+    public double getRightBackEmf(double pVelocity) {
+        return kRightV * pVelocity;
+    }
+
+    /**
+     * @return The voltage that holds a side at pVelocity while accelerating at pAcceleration, by the model
+     */
+    public double getLeftFeedforward(double pVelocity, double pAcceleration) {
+        return kLeftS * Math.signum(pVelocity) + kLeftV * pVelocity + kLeftA * pAcceleration;
+    }
+
+    public double getRightFeedforward(double pVelocity, double pAcceleration) {
+        return kRightS * Math.signum(pVelocity) + kRightV * pVelocity + kRightA * pAcceleration;
+    }
+
+}
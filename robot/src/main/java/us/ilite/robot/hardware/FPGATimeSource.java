@@ -0,0 +1,29 @@
+package us.ilite.robot.hardware;
+
+import java.util.concurrent.locks.LockSupport;
+
+import edu.wpi.first.wpilibj.RobotController;
+import us.ilite.common.lib.util.ITimeSource;
+
+/**
+ * Time from the FPGA's microsecond clock - the same timebase as Timer.getFPGATimestamp().
+ */
+public class FPGATimeSource implements ITimeSource {
+
+    @Override
+    public long getNanos() {
+        return RobotController.getFPGATime() * 1000L;
+    }
+
+    @Override
+    public void sleepUntil(long pNanos) throws InterruptedException {
+        long remaining;
+        while((remaining = pNanos - getNanos()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if(Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+}
@@ -2,7 +2,10 @@ package us.ilite.robot.hardware;
 
 import us.ilite.robot.modules.DriveMessage;
 
-public interface IDriveHardware extends IHardware {
+/**
+ * Sensor getters return the values read by the last refresh(), which Drive calls at the start of each cycle.
+ */
+public interface IDriveHardware extends IHardware, ISensorCache {
 
     void set(DriveMessage pDriveMessage);
     void configureMode(ECommonControlMode pControlMode);
@@ -28,4 +31,18 @@ public interface IDriveHardware extends IHardware {
     double getLeftVoltage();
     double getRightVoltage();
 
+    /**
+     * @return The number of output frames written to the bus, for implementations that filter redundant writes
+     */
+    default long getCanFramesSent() {
+        return 0;
+    }
+
+    /**
+     * @return The number of output frames skipped because they matched the last frame sent
+     */
+    default long getCanFramesSuppressed() {
+        return 0;
+    }
+
 }
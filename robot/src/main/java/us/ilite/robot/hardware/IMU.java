@@ -6,9 +6,9 @@ import edu.wpi.first.wpilibj.geometry.Rotation2d;
 
 import org.apache.commons.lang3.ArrayUtils;
 
-import us.ilite.common.lib.util.FilteredAverage;
+import us.ilite.common.lib.util.FirFilter;
 
-public abstract  class IMU {
+public abstract  class IMU implements ISensorCache {
   public enum Axis {
     YAW,
     PITCH,
@@ -17,8 +17,8 @@ public abstract  class IMU {
 
   //Collision Threshold => Temporary Value
   protected transient double mCollisionThreshold_DeltaG;
-  protected transient final FilteredAverage mAccelerationX;
-  protected transient final FilteredAverage mAccelerationY;
+  protected transient final FirFilter mAccelerationX;
+  protected transient final FirFilter mAccelerationY;
   protected transient double mJerkX = 0d;
   protected transient double mJerkY = 0d;
   protected double mLastUpdate = 0d;
@@ -28,8 +28,8 @@ public abstract  class IMU {
   }
   
   public IMU(double[] pFilterGains) {
-    mAccelerationX = new FilteredAverage(pFilterGains);
-    mAccelerationY = new FilteredAverage(pFilterGains);
+    mAccelerationX = new FirFilter(pFilterGains);
+    mAccelerationY = new FirFilter(pFilterGains);
   }
 
   /**
@@ -53,21 +53,31 @@ public abstract  class IMU {
   }
   
   /**
-   * Pre-populates the filters & calculated values so it's done only once per cycle
+   * Reads the sensor and pre-populates the filters & calculated values so it's done only once per cycle.  The
+   * getters return the values from the last call.
    * @param pTimestampNow
    */
-  public void update(double pTimestampNow) {
+  @Override
+  public void refresh(double pTimestampNow) {
     updateSensorCache(pTimestampNow);
     double currentAccelX = getRawAccelX();
     double currentAccelY = getRawAccelY();
     
-    mJerkX = (currentAccelX - mAccelerationX.getAverage()) / (pTimestampNow - mLastUpdate);
-    mJerkY = (currentAccelY - mAccelerationY.getAverage()) / (pTimestampNow - mLastUpdate);
+    double dt = pTimestampNow - mLastUpdate;
+    if(dt > 0) {
+      mJerkX = (currentAccelX - mAccelerationX.get()) / dt;
+      mJerkY = (currentAccelY - mAccelerationY.get()) / dt;
+    }
     
-    mAccelerationX.addNumber(currentAccelX);
-    mAccelerationY.addNumber(currentAccelY);
+    mAccelerationX.add(currentAccelX);
+    mAccelerationY.add(currentAccelY);
     mLastUpdate = pTimestampNow;
   }
+
+  @Override
+  public double getLastRefreshTime() {
+    return mLastUpdate;
+  }
   
   public abstract double getYaw();
   public abstract double getPitch();
@@ -75,6 +85,9 @@ public abstract  class IMU {
   public abstract void zeroAll();
   protected abstract double getRawAccelX();
   protected abstract double getRawAccelY();
+  /**
+   * Reads every value the getters return from the device into fields.  Called by refresh().
+   */
   protected abstract void updateSensorCache(double pTimestampNow);
 
   /**
@@ -87,11 +100,11 @@ public abstract  class IMU {
   }
   
   public double getFilteredAccelX() {
-    return mAccelerationX.getAverage();
+    return mAccelerationX.get();
   }
   
   public double getFilteredAccelY() {
-    return mAccelerationY.getAverage();
+    return mAccelerationY.get();
   }
   
   /**
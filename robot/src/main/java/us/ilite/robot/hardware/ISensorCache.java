@@ -0,0 +1,31 @@
+package us.ilite.robot.hardware;
+
+/**
+ * Hardware whose status values are read from the device once per cycle by refresh() and then served from fields, so
+ * calling a getter several times in a cycle costs one JNI/CAN read instead of several.
+ */
+public interface ISensorCache {
+
+    /**
+     * Reads every cached value from the device.  Call once per cycle, before anything reads the getters.
+     * @param pNow Time of the read, in seconds
+     */
+    void refresh(double pNow);
+
+    /**
+     * @return The pNow passed to the last refresh(), in seconds
+     */
+    double getLastRefreshTime();
+
+    /**
+     * @return How old the cached values are, in seconds
+     */
+    default double getAge(double pNow) {
+        return pNow - getLastRefreshTime();
+    }
+
+    default boolean isStale(double pNow, double pMaxAge) {
+        return getAge(pNow) > pMaxAge;
+    }
+
+}
@@ -14,6 +14,8 @@ public class NavX extends IMU {
 	private static final ILog mLog = Logger.createLog(NavX.class);
 
  	private double initialAngle;
+ 	// Read once per cycle by updateSensorCache()
+ 	private double mYaw, mPitch, mRoll, mRawAccelX, mRawAccelY;
  	private final AHRS iahrs;
   
    //TODO - single value for now - could be VERY noisy
@@ -31,12 +33,12 @@ public class NavX extends IMU {
  	}
 
  	public double getYaw() {
- 		return iahrs.getYaw();
+ 		return mYaw;
  	}
 
 	 @Override
 	 public Rotation2d getHeading() {
-		 return Rotation2d.fromDegrees(iahrs.getYaw());
+		 return Rotation2d.fromDegrees(mYaw);
 	 }
 
 	 public double getDisplacementX() {
@@ -84,33 +86,37 @@ public class NavX extends IMU {
 
    @Override
    public double getPitch() {
-     return iahrs.getPitch();
+     return mPitch;
    }
 
    @Override
    public double getRoll() {
-     return iahrs.getRoll();
+     return mRoll;
    }
 
    @Override
    public void zeroAll() {
      iahrs.reset();
+     mYaw = mPitch = mRoll = 0;
    }
 
    @Override
    protected double getRawAccelX() {
-     return iahrs.getRawAccelX();
+     return mRawAccelX;
    }
 
    @Override
    protected double getRawAccelY() {
-     return iahrs.getRawAccelY();
+     return mRawAccelY;
    }
 
    @Override
    protected void updateSensorCache(double pTimestampNow) {
-     // TODO Auto-generated method stub
-    
+     mYaw = iahrs.getYaw();
+     mPitch = iahrs.getPitch();
+     mRoll = iahrs.getRoll();
+     mRawAccelX = iahrs.getRawAccelX();
+     mRawAccelY = iahrs.getRawAccelY();
    }
 
  }
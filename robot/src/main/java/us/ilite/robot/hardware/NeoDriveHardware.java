@@ -8,6 +8,7 @@ import com.revrobotics.CANSparkMaxLowLevel;
 import com.revrobotics.ControlType;
 import us.ilite.common.config.Settings;
 import us.ilite.common.lib.util.Conversions;
+import us.ilite.common.lib.util.ITimeSource;
 import us.ilite.robot.modules.DriveMessage;
 
 public class NeoDriveHardware implements IDriveHardware {
@@ -20,9 +21,20 @@ public class NeoDriveHardware implements IDriveHardware {
     private final CANSparkMax mLeftMaster, mRightMaster, mLeftMiddle, mRightMiddle/*, mLeftRear, mRightRear*/;
     private ControlType mLeftControlMode, mRightControlMode;
     private CANSparkMax.IdleMode mLeftNeutralMode, mRightNeutralMode;
+    // Skip setReference() frames that wouldn't change what the masters are already doing
+    private final CANWriteFilter mLeftWriteFilter, mRightWriteFilter;
+    // Status values of the masters, read once per cycle by refresh()
+    private final SparkMaxSensorCache mLeftSensors, mRightSensors;
+    private double mLastRefreshTime = Double.NEGATIVE_INFINITY;
 
     public NeoDriveHardware(double pGearRatio) {
+        this(pGearRatio, new FPGATimeSource());
+    }
+
+    public NeoDriveHardware(double pGearRatio, ITimeSource pTimeSource) {
         kGearRatio = pGearRatio;
+        mLeftWriteFilter = new CANWriteFilter(Settings.Drive.kCanWriteEpsilon, Settings.Drive.kCanKeepAlivePeriod, pTimeSource);
+        mRightWriteFilter = new CANWriteFilter(Settings.Drive.kCanWriteEpsilon, Settings.Drive.kCanKeepAlivePeriod, pTimeSource);
         mGyro = new Pigeon(Settings.Hardware.CAN.kPigeon);
         // mGyro = new NavX(SerialPort.Port.kMXP);
 
@@ -32,6 +44,9 @@ public class NeoDriveHardware implements IDriveHardware {
         mRightMaster = SparkMaxFactory.createDefaultSparkMax(Settings.Hardware.CAN.kDriveRightMaster, CANSparkMaxLowLevel.MotorType.kBrushless);
         mRightMiddle = SparkMaxFactory.createFollowerSparkMax(Settings.Hardware.CAN.kDriveRightMiddle, mRightMaster, CANSparkMaxLowLevel.MotorType.kBrushless);
 
+        mLeftSensors = new SparkMaxSensorCache(mLeftMaster);
+        mRightSensors = new SparkMaxSensorCache(mRightMaster);
+
         configureMaster(mLeftMaster, true);
         configureMotor(mLeftMaster);
         configureMotor(mLeftMiddle);
@@ -51,11 +66,11 @@ public class NeoDriveHardware implements IDriveHardware {
 //        mRightRear.setInverted(true);
 
         // Invert sensor readings by multiplying by 1 or -1
-        mLeftMaster.getEncoder().setPositionConversionFactor(1.0 * kGearRatio);
-        mLeftMaster.getEncoder().setVelocityConversionFactor(1.0 * kGearRatio);
+        mLeftSensors.getEncoder().setPositionConversionFactor(1.0 * kGearRatio);
+        mLeftSensors.getEncoder().setVelocityConversionFactor(1.0 * kGearRatio);
 
-        mRightMaster.getEncoder().setPositionConversionFactor(1.0 * kGearRatio);
-        mRightMaster.getEncoder().setVelocityConversionFactor(1.0 * kGearRatio);
+        mRightSensors.getEncoder().setPositionConversionFactor(1.0 * kGearRatio);
+        mRightSensors.getEncoder().setVelocityConversionFactor(1.0 * kGearRatio);
 
 
         reloadVelocityGains(mLeftMaster);
@@ -76,8 +91,10 @@ public class NeoDriveHardware implements IDriveHardware {
     public void zero() {
         mGyro.zeroAll();
 
-        mLeftMaster.getEncoder().setPosition(0.0);
-        mRightMaster.getEncoder().setPosition(0.0);
+        mLeftSensors.getEncoder().setPosition(0.0);
+        mRightSensors.getEncoder().setPosition(0.0);
+        mLeftSensors.zeroPosition();
+        mRightSensors.zeroPosition();
 
         // Bypass state machine in set() and configure directly
         configSparkForPercentOutput(mLeftMaster);
@@ -87,6 +104,21 @@ public class NeoDriveHardware implements IDriveHardware {
 
         mLeftMaster.set(0.0);
         mRightMaster.set(0.0);
+        mLeftWriteFilter.invalidate();
+        mRightWriteFilter.invalidate();
+    }
+
+    @Override
+    public void refresh(double pNow) {
+        mLeftSensors.refresh(pNow);
+        mRightSensors.refresh(pNow);
+        mGyro.refresh(pNow);
+        mLastRefreshTime = pNow;
+    }
+
+    @Override
+    public double getLastRefreshTime() {
+        return mLastRefreshTime;
     }
 
     public void set(DriveMessage pDriveMessage) {
@@ -97,9 +129,15 @@ public class NeoDriveHardware implements IDriveHardware {
         mLeftNeutralMode = configForNeutralMode(mLeftNeutralMode, pDriveMessage.getNeutral().kRevIdleMode, mLeftMaster, mLeftMiddle/*, mLeftRear*/);
         mRightNeutralMode = configForNeutralMode(mRightNeutralMode, pDriveMessage.getNeutral().kRevIdleMode, mRightMaster, mRightMiddle/*, mRightRear*/);
 
-        // TODO - update arbitrary FF with the ProfileGains FF
-        mLeftMaster.getPIDController().setReference(pDriveMessage.getLeftOutput(), mLeftControlMode, 1, 0);
-        mRightMaster.getPIDController().setReference(pDriveMessage.getRightOutput(), mRightControlMode, 1, 0);
+        // Arbitrary feedforward only applies to closed-loop demands
+        double leftFeedForward = mLeftControlMode != ControlType.kDutyCycle ? pDriveMessage.getLeftFeedforward() : 0;
+        double rightFeedForward = mRightControlMode != ControlType.kDutyCycle ? pDriveMessage.getRightFeedforward() : 0;
+        if(mLeftWriteFilter.shouldWrite(pDriveMessage.getLeftOutput(), mLeftControlMode, leftFeedForward)) {
+            mLeftMaster.getPIDController().setReference(pDriveMessage.getLeftOutput(), mLeftControlMode, 1, leftFeedForward);
+        }
+        if(mRightWriteFilter.shouldWrite(pDriveMessage.getRightOutput(), mRightControlMode, rightFeedForward)) {
+            mRightMaster.getPIDController().setReference(pDriveMessage.getRightOutput(), mRightControlMode, 1, rightFeedForward);
+        }
 
     }
 
@@ -200,19 +238,19 @@ public class NeoDriveHardware implements IDriveHardware {
     }
 
     public double getLeftInches() {
-        return Conversions.ticksToInches(mLeftMaster.getEncoder().getPosition());
+        return Conversions.ticksToInches(mLeftSensors.getPosition());
     }
 
     public double getRightInches() {
-        return Conversions.ticksToInches(mRightMaster.getEncoder().getPosition());
+        return Conversions.ticksToInches(mRightSensors.getPosition());
     }
 
     public double getLeftVelTicks() {
-        return mLeftMaster.getEncoder().getVelocity();
+        return mLeftSensors.getVelocity();
     }
 
     public double getRightVelTicks() {
-        return mRightMaster.getEncoder().getVelocity();
+        return mRightSensors.getVelocity();
     }
 
     /**
@@ -239,24 +277,34 @@ public class NeoDriveHardware implements IDriveHardware {
         return Conversions.ticksPer100msToRadiansPerSecond(getRightVelTicks());
     }
 
+    @Override
+    public long getCanFramesSent() {
+        return mLeftWriteFilter.getFramesSent() + mRightWriteFilter.getFramesSent();
+    }
+
+    @Override
+    public long getCanFramesSuppressed() {
+        return mLeftWriteFilter.getFramesSuppressed() + mRightWriteFilter.getFramesSuppressed();
+    }
+
     @Override
     public double getLeftCurrent() {
-        return mLeftMaster.getOutputCurrent();
+        return mLeftSensors.getOutputCurrent();
     }
 
     @Override
     public double getRightCurrent() {
-        return mRightMaster.getOutputCurrent();
+        return mRightSensors.getOutputCurrent();
     }
 
     @Override
     public double getLeftVoltage() {
-        return mLeftMaster.getAppliedOutput() * 12.0;
+        return mLeftSensors.getAppliedOutput() * 12.0;
     }
 
     @Override
     public double getRightVoltage() {
-        return mRightMaster.getAppliedOutput() * 12.0;
+        return mRightSensors.getAppliedOutput() * 12.0;
     }
 
     @Override
@@ -0,0 +1,240 @@
+package us.ilite.robot.hardware;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.flybotix.hfr.codex.Codex;
+import com.flybotix.hfr.util.log.ILog;
+import com.flybotix.hfr.util.log.Logger;
+
+import edu.wpi.first.wpilibj.PowerDistributionPanel;
+import us.ilite.common.lib.util.ITimeSource;
+import us.ilite.common.types.sensor.EPowerDistPanel;
+
+/**
+ * Reads the PDP on its own thread, so the ~5ms it takes to read every value never lands in a control loop.  Each value
+ * has its own sample period (a multiple of the base period in practice), so channels that matter can be read every
+ * pass and the rest only occasionally.
+ *
+ * Samples are published through two buffers: the sampler fills the one readers aren't looking at, then flips a
+ * sequence number.  Readers copy the published buffer and retry in the rare case the sampler lapped them, so any
+ * number of threads can read the latest snapshot without ever blocking each other or the sampler.
+ */
+public class PdpSampler implements Runnable {
+
+    private static final EPowerDistPanel[] kValues = EPowerDistPanel.values();
+    private static final int kChannels = 16;
+    // The sample time is stored after the values in each buffer
+    private static final int kTimeSlot = kValues.length;
+
+    private final ILog mLog = Logger.createLog(PdpSampler.class);
+
+    private final PowerDistributionPanel mPdp;
+    private final ITimeSource mTimeSource;
+    private final long kBasePeriodNanos;
+    private int mThreadPriority = Thread.NORM_PRIORITY;
+
+    // Owned by the sampler thread
+    private final long[] mPeriodNanos = new long[kValues.length];
+    private final long[] mNextSampleNanos = new long[kValues.length];
+    private final double[] mLatest = new double[kValues.length];
+    private long mSamples = 0;
+
+    private final AtomicLongArray[] mBuffers = {
+            new AtomicLongArray(kValues.length + 1),
+            new AtomicLongArray(kValues.length + 1)
+    };
+    // Buffer (mSequence & 1) holds the latest sample; 0 means nothing has been published yet
+    private final AtomicLong mSequence = new AtomicLong(0);
+
+    private Thread mThread = null;
+    private volatile boolean mIsRunning = false;
+
+    /**
+     * @param pBasePeriodSeconds How often the sampler wakes up.  Also the default period of every value.
+     */
+    public PdpSampler(PowerDistributionPanel pPdp, ITimeSource pTimeSource, double pBasePeriodSeconds) {
+        mPdp = pPdp;
+        mTimeSource = pTimeSource;
+        kBasePeriodNanos = (long)(pBasePeriodSeconds * 1e9);
+        Arrays.fill(mPeriodNanos, kBasePeriodNanos);
+    }
+
+    /**
+     * Sets how often pValues are read.  Periods shorter than the base period are read every pass.  Call before start().
+     */
+    public PdpSampler setSamplePeriod(double pPeriodSeconds, EPowerDistPanel... pValues) {
+        for(EPowerDistPanel value : pValues) {
+            mPeriodNanos[value.ordinal()] = (long)(pPeriodSeconds * 1e9);
+        }
+        return this;
+    }
+
+    public PdpSampler setThreadPriority(int pPriority) {
+        mThreadPriority = pPriority;
+        return this;
+    }
+
+    public synchronized void start() {
+        if(mIsRunning) {
+            return;
+        }
+        mIsRunning = true;
+        mThread = new Thread(this, "PdpSampler");
+        mThread.setDaemon(true);
+        mThread.setPriority(mThreadPriority);
+        mThread.start();
+    }
+
+    public synchronized void stop() {
+        if(!mIsRunning) {
+            return;
+        }
+        mIsRunning = false;
+        mThread.interrupt();
+        try {
+            mThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        mThread = null;
+    }
+
+    @Override
+    public void run() {
+        long nextRelease = mTimeSource.getNanos();
+        while(mIsRunning) {
+            try {
+                mTimeSource.sleepUntil(nextRelease);
+            } catch (InterruptedException e) {
+                break;
+            }
+            try {
+                sample();
+            } catch (Throwable t) {
+                mLog.exception(t);
+            }
+            nextRelease += kBasePeriodNanos;
+            // Don't try to catch up on passes the PDP was too slow for
+            long now = mTimeSource.getNanos();
+            if(now > nextRelease) {
+                nextRelease = now;
+            }
+        }
+    }
+
+    /**
+     * Reads every value that is due and publishes a new snapshot if anything was read.
+     */
+    void sample() {
+        long now = mTimeSource.getNanos();
+        boolean sampledAny = false;
+        for(int i = 0; i < kValues.length; i++) {
+            if(now - mNextSampleNanos[i] < 0) {
+                continue;
+            }
+            mLatest[i] = read(i);
+            // Schedule from the due time so the period doesn't drift, but never more than one period behind
+            mNextSampleNanos[i] = Math.max(mNextSampleNanos[i] + mPeriodNanos[i], now);
+            sampledAny = true;
+        }
+        if(sampledAny) {
+            publish(now);
+        }
+    }
+
+    private double read(int pIndex) {
+        if(pIndex < kChannels) {
+            return mPdp.getCurrent(pIndex);
+        }
+        switch(kValues[pIndex]) {
+            case VOLTAGE:
+                return mPdp.getVoltage();
+            case TEMPERATURE:
+                return mPdp.getTemperature();
+            default:
+                return 0.0;
+        }
+    }
+
+    private void publish(long pNow) {
+        long next = mSamples + 1;
+        AtomicLongArray buffer = mBuffers[(int)(next & 1)];
+        for(int i = 0; i < mLatest.length; i++) {
+            buffer.lazySet(i, Double.doubleToRawLongBits(mLatest[i]));
+        }
+        buffer.lazySet(kTimeSlot, pNow);
+        mSamples = next;
+        mSequence.lazySet(next);
+    }
+
+    /**
+     * Copies the latest snapshot into pTarget, which must hold at least EPowerDistPanel.values().length values.
+     * @return The time the snapshot was taken in seconds, or NaN if nothing has been sampled yet (pTarget is untouched)
+     */
+    public double copyLatest(double[] pTarget) {
+        while(true) {
+            long sequence = mSequence.get();
+            if(sequence == 0) {
+                return Double.NaN;
+            }
+            AtomicLongArray buffer = mBuffers[(int)(sequence & 1)];
+            for(int i = 0; i < kValues.length; i++) {
+                pTarget[i] = Double.longBitsToDouble(buffer.get(i));
+            }
+            long time = buffer.get(kTimeSlot);
+            // The sampler only writes this buffer again after publishing the other one
+            if(mSequence.get() == sequence) {
+                return time / 1e9;
+            }
+        }
+    }
+
+    /**
+     * Copies the latest snapshot into the codex.
+     * @return false if nothing has been sampled yet
+     */
+    public boolean copyLatest(Codex<Double, EPowerDistPanel> pCodex, double[] pScratch) {
+        if(Double.isNaN(copyLatest(pScratch))) {
+            return false;
+        }
+        for(int i = 0; i < kValues.length; i++) {
+            pCodex.set(kValues[i], pScratch[i]);
+        }
+        return true;
+    }
+
+    /**
+     * Reads a single value from the latest snapshot.
+     */
+    public double get(EPowerDistPanel pValue) {
+        while(true) {
+            long sequence = mSequence.get();
+            double value = Double.longBitsToDouble(mBuffers[(int)(sequence & 1)].get(pValue.ordinal()));
+            if(mSequence.get() == sequence) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Same as EPowerDistPanel.isAboveCurrentThreshold(), against the latest snapshot.
+     */
+    public boolean isAboveCurrentThreshold(double pCurrentThreshold, EPowerDistPanel... pPdpSlots) {
+        for(EPowerDistPanel slot : pPdpSlots) {
+            if(get(slot) >= pCurrentThreshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The number of snapshots published so far
+     */
+    public long getSampleCount() {
+        return mSequence.get();
+    }
+
+}
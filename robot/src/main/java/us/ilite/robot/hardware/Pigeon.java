@@ -14,6 +14,7 @@ public class Pigeon extends IMU{
 
 	private double[] ypr;
 	private short[] xyz;
+	private double mFusedHeading = 0;
 	private double mLastYaw = 0;
 	private double mYawRate = 0;
 	private PigeonIMU mPigeon;
@@ -39,7 +40,7 @@ public class Pigeon extends IMU{
 	}
 	
 	/**
-	 * Pre-populates the filters & calculated values so it's done only once per cycle
+	 * Reads YPR, fused heading and acceleration once per cycle.  IMU.refresh() does the filtering.
 	 * @param pTimestampNow
 	 */
 	protected void updateSensorCache(double pTimestampNow) {
@@ -48,21 +49,12 @@ public class Pigeon extends IMU{
 		for(int i = 0 ; i < ypr.length; i++) {
 		  ypr[i] = Rotation2d.fromDegrees(ypr[i]).getDegrees();
 		}
-
-		double currentAccelX = getRawAccelX();
-		double currentAccelY = getRawAccelY();
-
-		mJerkX = (currentAccelX - mAccelerationX.getAverage()) / (pTimestampNow - mLastUpdate);
-		mJerkY = (currentAccelY - mAccelerationY.getAverage()) / (pTimestampNow - mLastUpdate);
-
+		mFusedHeading = mPigeon.getFusedHeading();
 		mPigeon.getBiasedAccelerometer(xyz);
-		mAccelerationX.addNumber(currentAccelX);
-		mAccelerationY.addNumber(currentAccelY);
-		mLastUpdate = pTimestampNow;
 	}
 	
 	public Rotation2d getHeading() {
-	  return Rotation2d.fromDegrees(mPigeon.getFusedHeading());
+	  return Rotation2d.fromDegrees(mFusedHeading);
 	}
 
 	public double getYaw() {
@@ -78,11 +70,11 @@ public class Pigeon extends IMU{
 	}	
 	
 	public double getAccelX() {
-	  return mAccelerationX.getAverage();
+	  return mAccelerationX.get();
 	}
 	
 	public double getAccelY() {
-	  return mAccelerationY.getAverage();
+	  return mAccelerationY.get();
 	}
 	
 	public double getJerkX() {
@@ -97,6 +89,7 @@ public class Pigeon extends IMU{
 		for(int i = 0; i < ypr.length; i++) {
 			ypr[i] = 0;
 		}
+		mFusedHeading = 0;
 		mPigeon.setYaw(0d, 20);
 		mPigeon.setFusedHeading(0d, 20); //TODO - figure out CAN timeout defaults
 	}
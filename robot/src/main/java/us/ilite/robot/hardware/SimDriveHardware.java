@@ -1,30 +1,74 @@
 package us.ilite.robot.hardware;
 
-import com.ctre.phoenix.motorcontrol.ControlMode;
-import com.flybotix.hfr.util.log.ILog;
-import com.flybotix.hfr.util.log.Logger;
+import java.util.Random;
 
+import us.ilite.common.config.Settings;
 import us.ilite.common.lib.RobotProfile;
+import us.ilite.common.lib.control.ProfileGains;
 import us.ilite.common.lib.util.Conversions;
+import us.ilite.common.lib.util.Units;
 import us.ilite.robot.modules.DriveMessage;
 
 /**
- * Simple drivebase simulation. Only supports velocity control (for now).
- * Hopefully we'll be able to replace this with SnobotSim later in the season.
+ * Drivebase simulation backed by DifferentialDriveSim.  Emulates what the motor controllers would do with each
+ * DriveMessage - percent output, velocity, position, current and smart motion, in the same units as
+ * NeoDriveHardware - and steps the physics at Settings.Simulation.kPhysicsPeriod up to the time of each refresh().
+ * Sensor readings can be delayed and noised to match a real robot, see Settings.Simulation.
+ *
+ * Time only moves when refresh() or set() is called, so the same code runs in real time against the robot's Clock or
+ * as fast as possible against a simulated one.
  */
 public class SimDriveHardware implements IDriveHardware {
 
-    private final ILog mLogger = Logger.createLog(SimDriveHardware.class);
+    // Sensor values recorded each physics step, for latency
+    private static final int kLeftPosition = 0, kRightPosition = 1, kLeftVelocity = 2, kRightVelocity = 3, kHeading = 4;
+    private static final int kSensorCount = 5;
 
-    private DriveMessage mDriveMessage;
-    public SimTalonEncoder mLeftEncoder = new SimTalonEncoder();
-    public SimTalonEncoder mRightEncoder = new SimTalonEncoder();
+    private final Clock mClock;
+    private final DifferentialDriveSim mModel;
+    private final SimGyro mGyro = new SimGyro();
+    private final Random mRandom;
+    private final double kPeriod = Settings.Simulation.kPhysicsPeriod;
 
-    private Clock mClock;
-    private double mLastTime = 0.0;
+    private final DriveMessage mDemand = new DriveMessage();
+    private ECommonControlMode mLastMode = null;
+
+    private double mStartTime = Double.NaN;
+    private long mSteps = 0;
+    private double mLastRefreshTime = Double.NEGATIVE_INFINITY;
+
+    // Ring of the last few steps' sensor values.  The slot about to be overwritten is the oldest.
+    private final double[] mHistory;
+    private final int mHistoryLength;
+    private int mHistoryHead = 0;
+
+    // Smart motion setpoints, meters and m/s
+    private double mLeftProfilePosition, mLeftProfileVelocity, mLeftProfileAcceleration;
+    private double mRightProfilePosition, mRightProfileVelocity, mRightProfileAcceleration;
+
+    // Model positions that read as zero, meters
+    private double mLeftZero = 0.0, mRightZero = 0.0;
+
+    // Published by refresh()
+    private double mLeftInches, mRightInches;
+    private double mLeftRpm, mRightRpm;
+    private double mLeftCurrent, mRightCurrent;
+    private double mLeftVoltage, mRightVoltage;
 
     public SimDriveHardware(Clock pClock, RobotProfile pRobotProfile) {
+        this(pClock, pRobotProfile, Settings.Simulation.kNoiseSeed);
+    }
+
+    /**
+     * @param pNoiseSeed Seeds the sensor noise, so a run can be repeated exactly
+     */
+    public SimDriveHardware(Clock pClock, RobotProfile pRobotProfile, long pNoiseSeed) {
         mClock = pClock;
+        mRandom = new Random(pNoiseSeed);
+        mModel = new DifferentialDriveSim(pRobotProfile, Settings.Simulation.kDriveSideResistanceOhms);
+        mHistoryLength = (int)Math.round(Settings.Simulation.kSensorLatency / kPeriod) + 1;
+        mHistory = new double[mHistoryLength * kSensorCount];
+        fillHistory();
     }
 
     @Override
@@ -34,18 +78,229 @@ public class SimDriveHardware implements IDriveHardware {
 
     @Override
     public void zero() {
+        advanceTo(mClock.getCurrentTime());
+        mLeftZero = mModel.getLeftPosition();
+        mRightZero = mModel.getRightPosition();
+        mGyro.setSimYaw(Math.toDegrees(mModel.getHeading()));
+        mGyro.zeroAll();
+    }
 
-        mLeftEncoder.zero();
-        mRightEncoder.zero();
+    /**
+     * Puts the simulated robot at rest at a pose on the field.  Encoders keep counting from where they were.
+     */
+    public void resetPose(double pXInches, double pYInches, double pHeadingDegrees) {
+        mModel.reset(Units.inches_to_meters(pXInches), Units.inches_to_meters(pYInches), Math.toRadians(pHeadingDegrees));
+        fillHistory();
     }
 
+    @Override
     public void set(DriveMessage pDriveMessage) {
-        mDriveMessage = pDriveMessage;
-        update(mClock.getCurrentTime());
+        // The last demand holds until now
+        advanceTo(mClock.getCurrentTime());
+        mDemand.set(pDriveMessage);
+        if(mDemand.getMode() == ECommonControlMode.MOTION_PROFILE && mLastMode != ECommonControlMode.MOTION_PROFILE) {
+            // Smart motion starts its profile from wherever the wheels are
+            mLeftProfilePosition = mModel.getLeftPosition() - mLeftZero;
+            mRightProfilePosition = mModel.getRightPosition() - mRightZero;
+            mLeftProfileVelocity = mModel.getLeftVelocity();
+            mRightProfileVelocity = mModel.getRightVelocity();
+        }
+        mLastMode = mDemand.getMode();
+    }
+
+    @Override
+    public void refresh(double pNow) {
+        advanceTo(pNow);
+
+        int oldest = mHistoryHead * kSensorCount;
+        mLeftInches = Units.meters_to_inches(mHistory[oldest + kLeftPosition] - mLeftZero)
+                + noise(Settings.Simulation.kEncoderNoiseInches);
+        mRightInches = Units.meters_to_inches(mHistory[oldest + kRightPosition] - mRightZero)
+                + noise(Settings.Simulation.kEncoderNoiseInches);
+        mLeftRpm = metersPerSecondToRpm(mHistory[oldest + kLeftVelocity])
+                + Conversions.inchesPerSecondToRpm(noise(Settings.Simulation.kEncoderVelocityNoiseInchesPerSecond));
+        mRightRpm = metersPerSecondToRpm(mHistory[oldest + kRightVelocity])
+                + Conversions.inchesPerSecondToRpm(noise(Settings.Simulation.kEncoderVelocityNoiseInchesPerSecond));
+        mGyro.setSimYaw(Math.toDegrees(mHistory[oldest + kHeading]) + noise(Settings.Simulation.kGyroNoiseDegrees));
+        mGyro.refresh(pNow);
+
+        mLeftCurrent = mModel.getLeftCurrent();
+        mRightCurrent = mModel.getRightCurrent();
+        mLeftVoltage = mModel.getLeftVoltage();
+        mRightVoltage = mModel.getRightVoltage();
+        mLastRefreshTime = pNow;
+    }
+
+    /**
+     * Steps the physics up to pNow.  The first call only marks the start of simulated time.
+     */
+    public void advanceTo(double pNow) {
+        if(Double.isNaN(mStartTime)) {
+            mStartTime = pNow;
+            return;
+        }
+        // Counting steps rather than accumulating time keeps the step boundaries from drifting over a match
+        long target = (long)Math.floor((pNow - mStartTime) / kPeriod + 1e-6);
+        while(mSteps < target) {
+            step();
+            mSteps++;
+        }
+    }
+
+    private void step() {
+        double leftPosition = mModel.getLeftPosition() - mLeftZero;
+        double rightPosition = mModel.getRightPosition() - mRightZero;
+        double leftVelocity = mModel.getLeftVelocity();
+        double rightVelocity = mModel.getRightVelocity();
+        ECommonControlMode mode = mDemand.getMode();
+        double leftVolts, rightVolts;
+
+        switch(mode) {
+            case VELOCITY:
+                leftVolts = mDemand.getLeftFeedforward()
+                        + Settings.Simulation.kVelocityKp * (rpmToMetersPerSecond(mDemand.getLeftOutput()) - leftVelocity);
+                rightVolts = mDemand.getRightFeedforward()
+                        + Settings.Simulation.kVelocityKp * (rpmToMetersPerSecond(mDemand.getRightOutput()) - rightVelocity);
+                break;
+            case POSITION:
+                leftVolts = mDemand.getLeftFeedforward()
+                        + Settings.Simulation.kPositionKp * (rotationsToMeters(mDemand.getLeftOutput()) - leftPosition);
+                rightVolts = mDemand.getRightFeedforward()
+                        + Settings.Simulation.kPositionKp * (rotationsToMeters(mDemand.getRightOutput()) - rightPosition);
+                break;
+            case MOTION_PROFILE:
+                leftVolts = leftSmartMotion(leftPosition, leftVelocity);
+                rightVolts = rightSmartMotion(rightPosition, rightVelocity);
+                break;
+            case CURRENT:
+                double resistance = Settings.Simulation.kDriveSideResistanceOhms * Settings.Simulation.kDriveMotorsPerSide;
+                leftVolts = mDemand.getLeftOutput() * resistance + mModel.getLeftBackEmf(leftVelocity);
+                rightVolts = mDemand.getRightOutput() * resistance + mModel.getRightBackEmf(rightVelocity);
+                break;
+            case PERCENT_OUTPUT:
+            case DEFERRED:
+            default:
+                leftVolts = mDemand.getLeftOutput() * Settings.Simulation.kBatteryVoltage;
+                rightVolts = mDemand.getRightOutput() * Settings.Simulation.kBatteryVoltage;
+                break;
+        }
+
+        leftVolts = limit(leftVolts, mModel.getLeftBackEmf(leftVelocity));
+        rightVolts = limit(rightVolts, mModel.getRightBackEmf(rightVelocity));
+        // Only an idle motor in coast lets the wheels roll freely
+        boolean isOpenLoop = mode == ECommonControlMode.PERCENT_OUTPUT || mode == ECommonControlMode.DEFERRED;
+        boolean isCoasting = isOpenLoop && mDemand.getNeutral() == ECommonNeutralMode.COAST;
+        mModel.setVoltages(leftVolts, rightVolts, isCoasting && leftVolts == 0.0, isCoasting && rightVolts == 0.0);
+        mModel.step(kPeriod);
+        recordHistory();
+    }
+
+    /**
+     * Applies the motor controllers' current limit, then the battery's voltage.
+     */
+    private static double limit(double pVolts, double pBackEmf) {
+        double maxDrive = Settings.Drive.kCurrentLimitAmps * Settings.Simulation.kDriveSideResistanceOhms
+                * Settings.Simulation.kDriveMotorsPerSide;
+        double volts = pBackEmf + Math.max(-maxDrive, Math.min(maxDrive, pVolts - pBackEmf));
+        return Math.max(-Settings.Simulation.kBatteryVoltage, Math.min(Settings.Simulation.kBatteryVoltage, volts));
+    }
+
+    private double leftSmartMotion(double pPosition, double pVelocity) {
+        double target = rotationsToMeters(mDemand.getLeftOutput());
+        double remaining = target - mLeftProfilePosition;
+        double velocity = profileVelocity(remaining, mLeftProfileVelocity);
+        mLeftProfileAcceleration = (velocity - mLeftProfileVelocity) / kPeriod;
+        mLeftProfileVelocity = velocity;
+        if(Math.abs(remaining) <= Math.abs(velocity) * kPeriod) {
+            mLeftProfilePosition = target;
+            mLeftProfileVelocity = 0.0;
+        } else {
+            mLeftProfilePosition += velocity * kPeriod;
+        }
+        return mModel.getLeftFeedforward(mLeftProfileVelocity, mLeftProfileAcceleration) + mDemand.getLeftFeedforward()
+                + Settings.Simulation.kVelocityKp * (mLeftProfileVelocity - pVelocity)
+                + Settings.Simulation.kPositionKp * (mLeftProfilePosition - pPosition);
+    }
+
+    private double rightSmartMotion(double pPosition, double pVelocity) {
+        double target = rotationsToMeters(mDemand.getRightOutput());
+        double remaining = target - mRightProfilePosition;
+        double velocity = profileVelocity(remaining, mRightProfileVelocity);
+        mRightProfileAcceleration = (velocity - mRightProfileVelocity) / kPeriod;
+        mRightProfileVelocity = velocity;
+        if(Math.abs(remaining) <= Math.abs(velocity) * kPeriod) {
+            mRightProfilePosition = target;
+            mRightProfileVelocity = 0.0;
+        } else {
+            mRightProfilePosition += velocity * kPeriod;
+        }
+        return mModel.getRightFeedforward(mRightProfileVelocity, mRightProfileAcceleration) + mDemand.getRightFeedforward()
+                + Settings.Simulation.kVelocityKp * (mRightProfileVelocity - pVelocity)
+                + Settings.Simulation.kPositionKp * (mRightProfilePosition - pPosition);
+    }
+
+    /**
+     * @return The next step of a trapezoidal profile with Settings.Drive.kDistancePID's constraints, which is what
+     * smart motion is configured with
+     */
+    private double profileVelocity(double pRemaining, double pVelocity) {
+        ProfileGains gains = Settings.Drive.kDistancePID;
+        double maxVelocity = rpmToMetersPerSecond(gains.MAX_VELOCITY);
+        double maxAcceleration = rpmToMetersPerSecond(gains.MAX_ACCEL);
+        // Fastest speed that can still stop at the target
+        double stoppingVelocity = Math.sqrt(2.0 * maxAcceleration * Math.abs(pRemaining));
+        double desired = Math.signum(pRemaining) * Math.min(maxVelocity, stoppingVelocity);
+        double maxChange = maxAcceleration * kPeriod;
+        return pVelocity + Math.max(-maxChange, Math.min(maxChange, desired - pVelocity));
+    }
+
+    private void recordHistory() {
+        int i = mHistoryHead * kSensorCount;
+        mHistory[i + kLeftPosition] = mModel.getLeftPosition();
+        mHistory[i + kRightPosition] = mModel.getRightPosition();
+        mHistory[i + kLeftVelocity] = mModel.getLeftVelocity();
+        mHistory[i + kRightVelocity] = mModel.getRightVelocity();
+        mHistory[i + kHeading] = mModel.getHeading();
+        mHistoryHead = (mHistoryHead + 1) % mHistoryLength;
+    }
+
+    private void fillHistory() {
+        for(int i = 0; i < mHistoryLength; i++) {
+            recordHistory();
+        }
+    }
+
+    private double noise(double pStdDev) {
+        return pStdDev == 0.0 ? 0.0 : mRandom.nextGaussian() * pStdDev;
+    }
+
+    private static double rpmToMetersPerSecond(double pRpm) {
+        return Units.inches_to_meters(Conversions.rpmToInchesPerSecond(pRpm));
+    }
+
+    private static double metersPerSecondToRpm(double pMetersPerSecond) {
+        return Conversions.inchesPerSecondToRpm(Units.meters_to_inches(pMetersPerSecond));
+    }
+
+    private static double rotationsToMeters(double pRotations) {
+        return Units.inches_to_meters(Conversions.rotationsToInches(pRotations));
+    }
+
+    /**
+     * @return The simulated robot's true state, without sensor latency or noise
+     */
+    public DifferentialDriveSim getModel() {
+        return mModel;
+    }
+
+    @Override
+    public double getLastRefreshTime() {
+        return mLastRefreshTime;
     }
 
+    @Override
     public void configureMode(ECommonControlMode pControlMode) {
-        
+
     }
 
     @Override
@@ -55,48 +310,24 @@ public class SimDriveHardware implements IDriveHardware {
 
     @Override
     public IMU getImu() {
-        return null;
-    }
-
-    public void update(double pNow) {
-        double dt = pNow - mLastTime;
-        mLogger.debug("Updating");
-        if(mDriveMessage.getMode().kCtreControlMode == ControlMode.Velocity && mDriveMessage.getMode().kCtreControlMode == ControlMode.Velocity) {
-            mLeftEncoder.update(dt, mDriveMessage.getLeftOutput());
-            mRightEncoder.update(dt, mDriveMessage.getRightOutput());
-            mLogger.debug(String.format(
-                "\nCommanded Vel: (%s, %s)\nVel: (%s, %s)\nPos Ticks: (%s, %s)\nPos Inches: (%s, %s)\n", 
-                mDriveMessage.getLeftOutput(),
-                mDriveMessage.getRightOutput(),
-                mLeftEncoder.getVelocity(),
-                mRightEncoder.getVelocity(),
-                mLeftEncoder.getPosition(),
-                mRightEncoder.getPosition(),
-                getLeftInches(),
-                getRightInches()
-
-            ));
-        } else {
-            mLogger.error("Control mode ", mDriveMessage.getMode(), " and ", mDriveMessage.getMode(), " is not supported in simulation.");
-        }
-
-        mLastTime = pNow;
+        return mGyro;
     }
-    
+
     public double getLeftInches() {
-        return Conversions.ticksToInches((int)mLeftEncoder.getPosition());
+        return mLeftInches;
     }
 
     public double getRightInches() {
-        return Conversions.ticksToInches((int)mRightEncoder.getPosition());
+        return mRightInches;
     }
 
+    /** Wheel RPM, like NeoDriveHardware */
     public double getLeftVelTicks() {
-        return (int)mLeftEncoder.getVelocity();
+        return mLeftRpm;
     }
 
     public double getRightVelTicks() {
-        return (int)mRightEncoder.getVelocity();
+        return mRightRpm;
     }
 
     @Override
@@ -110,40 +341,36 @@ public class SimDriveHardware implements IDriveHardware {
     }
 
     public double getLeftVelInches() {
-        return Conversions.ticksPer100msToInchesPerSecond((int)mLeftEncoder.getVelocity());
+        return Conversions.rpmToInchesPerSecond(mLeftRpm);
     }
 
     public double getRightVelInches() {
-        return Conversions.ticksPer100msToInchesPerSecond((int)mRightEncoder.getVelocity());
+        return Conversions.rpmToInchesPerSecond(mRightRpm);
     }
 
-    //TODO
     @Override
     public double getLeftCurrent() {
-        return 0;
+        return mLeftCurrent;
     }
 
-    //TODO
     @Override
     public double getRightCurrent() {
-        return 0;
+        return mRightCurrent;
     }
 
-    //TODO
     @Override
     public double getLeftVoltage() {
-        return 0;
+        return mLeftVoltage;
     }
 
-    //TODO
     @Override
     public double getRightVoltage() {
-        return 0;
+        return mRightVoltage;
     }
 
     @Override
     public boolean checkHardware() {
-        return false;
+        return true;
     }
 
 }
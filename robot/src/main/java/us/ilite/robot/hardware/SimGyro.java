@@ -0,0 +1,63 @@
+package us.ilite.robot.hardware;
+
+/**
+ * A gyro whose yaw is set by a simulation, e.g. integrated from simulated wheel motion by SimDriveHardware.
+ */
+public class SimGyro extends IMU {
+
+    private static final double[] kCollisionGains = {1.0};
+
+    // Written by the simulation, published to the getters by refresh()
+    private double mSimYaw = 0.0;
+    private double mYaw = 0.0;
+    // The simulated yaw that reads as zero, since the simulation keeps its own absolute heading
+    private double mZeroYaw = 0.0;
+
+    public SimGyro() {
+        super(kCollisionGains);
+    }
+
+    /**
+     * @param pYawDegrees CCW-positive
+     */
+    public void setSimYaw(double pYawDegrees) {
+        mSimYaw = pYawDegrees;
+    }
+
+    @Override
+    protected void updateSensorCache(double pTimestampNow) {
+        mYaw = mSimYaw - mZeroYaw;
+    }
+
+    @Override
+    public double getYaw() {
+        return mYaw;
+    }
+
+    @Override
+    public double getPitch() {
+        return 0.0;
+    }
+
+    @Override
+    public double getRoll() {
+        return 0.0;
+    }
+
+    @Override
+    public void zeroAll() {
+        mZeroYaw = mSimYaw;
+        mYaw = 0.0;
+    }
+
+    @Override
+    protected double getRawAccelX() {
+        return 0.0;
+    }
+
+    @Override
+    protected double getRawAccelY() {
+        return 0.0;
+    }
+
+}
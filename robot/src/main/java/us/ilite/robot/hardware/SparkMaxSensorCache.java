@@ -0,0 +1,67 @@
+package us.ilite.robot.hardware;
+
+import com.revrobotics.CANEncoder;
+import com.revrobotics.CANSparkMax;
+
+/**
+ * Per-cycle cache of the Spark MAX status values the robot reads: encoder position and velocity, output current and
+ * applied output.  Values are volatile so other threads see whole doubles from the latest refresh().
+ */
+public class SparkMaxSensorCache implements ISensorCache {
+
+    private final CANSparkMax mSparkMax;
+    private final CANEncoder mEncoder;
+
+    private volatile double mPosition = 0.0;
+    private volatile double mVelocity = 0.0;
+    private volatile double mOutputCurrent = 0.0;
+    private volatile double mAppliedOutput = 0.0;
+    private volatile double mLastRefreshTime = Double.NEGATIVE_INFINITY;
+
+    public SparkMaxSensorCache(CANSparkMax pSparkMax) {
+        mSparkMax = pSparkMax;
+        mEncoder = pSparkMax.getEncoder();
+    }
+
+    @Override
+    public void refresh(double pNow) {
+        mPosition = mEncoder.getPosition();
+        mVelocity = mEncoder.getVelocity();
+        mOutputCurrent = mSparkMax.getOutputCurrent();
+        mAppliedOutput = mSparkMax.getAppliedOutput();
+        mLastRefreshTime = pNow;
+    }
+
+    @Override
+    public double getLastRefreshTime() {
+        return mLastRefreshTime;
+    }
+
+    /**
+     * Call after zeroing the encoder, so the cache doesn't report the old position until the next refresh().
+     */
+    public void zeroPosition() {
+        mPosition = 0.0;
+    }
+
+    public CANEncoder getEncoder() {
+        return mEncoder;
+    }
+
+    public double getPosition() {
+        return mPosition;
+    }
+
+    public double getVelocity() {
+        return mVelocity;
+    }
+
+    public double getOutputCurrent() {
+        return mOutputCurrent;
+    }
+
+    public double getAppliedOutput() {
+        return mAppliedOutput;
+    }
+
+}
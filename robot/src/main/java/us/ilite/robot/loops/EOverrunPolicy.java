@@ -0,0 +1,22 @@
+package us.ilite.robot.loops;
+
+/**
+ * What a LoopGroup does when a cycle runs past its period.  Missed releases are never run back-to-back to catch up
+ * under any policy - the group always resumes on the next period boundary.
+ */
+public enum EOverrunPolicy {
+    /**
+     * Skip the releases that were missed and carry on at the normal rate.
+     */
+    SKIP,
+    /**
+     * Halve the group's rate after each overrun (down to 1/LoopGroup.kMaxDegradeFactor), and double it again after
+     * LoopGroup.kRecoveryCycles on-time cycles.
+     */
+    DEGRADE,
+    /**
+     * Within a cycle, don't start a loop that is expected to finish past its deadline.  Loops run in priority order,
+     * so the lowest-priority loops are shed first.  The highest-priority loop is never shed.
+     */
+    SHED
+}
@@ -0,0 +1,354 @@
+package us.ilite.robot.loops;
+
+import com.flybotix.hfr.util.log.ILog;
+import com.flybotix.hfr.util.log.Logger;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import us.ilite.common.io.CodexSnapshotRing;
+import us.ilite.common.lib.util.ITimeSource;
+import us.ilite.common.lib.util.PerfTimer;
+import us.ilite.common.lib.util.PerfTimerRegistry;
+import us.ilite.robot.modules.ModuleTimings;
+import us.ilite.robot.modules.ModuleTimings.EPhase;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A set of loops run on a dedicated thread at a fixed rate.  Each cycle runs periodicInput() on every loop, then
+ * loop() on every loop, in descending priority order.  Each loop has a deadline relative to the start of the cycle;
+ * what happens when loops or the whole cycle run late is decided by the group's EOverrunPolicy.
+ *
+ * Loops are added before the group is started and may not be changed while it runs.
+ */
+public class LoopGroup implements Runnable {
+
+    public static final int kMaxDegradeFactor = 8;
+    public static final int kRecoveryCycles = 50;
+    /** A loop shed this many cycles in a row is run anyway, so one slow iteration can't keep it shed forever */
+    public static final int kShedProbeCycles = 50;
+
+    private final ILog mLog = Logger.createLog(LoopGroup.class);
+
+    private final String mName;
+    private final long kPeriodNanos;
+    private final ITimeSource mTimeSource;
+    private final PerfTimer mCycleTimer;
+    private final NetworkTableEntry mCycleTimeEntry;
+
+    private EOverrunPolicy mOverrunPolicy = EOverrunPolicy.SKIP;
+    private int mThreadPriority = Thread.MAX_PRIORITY;
+    private int mAffinityHint = -1;
+    private CodexSnapshotRing mSnapshotRing = null;
+
+    private final List<Entry> mEntryList = new ArrayList<>();
+    private Entry[] mEntries = new Entry[0];
+    private final ModuleTimings mTimings;
+
+    private Thread mThread = null;
+    private volatile boolean mIsRunning = false;
+    private long mNextRelease = 0;
+    private int mDegradeFactor = 1;
+    private int mOnTimeCycles = 0;
+    private long mCycles = 0;
+    private long mOverruns = 0;
+    private long mSkippedReleases = 0;
+
+    private static class Entry {
+        final Loop mLoop;
+        final int mPriority;
+        final long mDeadlineNanos;
+        long mLastInputNanos = 0;
+        long mLastLoopNanos = 0;
+        long mDeadlineMisses = 0;
+        long mSheds = 0;
+        int mConsecutiveSheds = 0;
+        boolean mIsShed = false;
+
+        Entry(Loop pLoop, int pPriority, long pDeadlineNanos) {
+            mLoop = pLoop;
+            mPriority = pPriority;
+            mDeadlineNanos = pDeadlineNanos;
+        }
+    }
+
+    public LoopGroup(String pName, double pPeriodSeconds, ITimeSource pTimeSource) {
+        mName = pName;
+        kPeriodNanos = (long)(pPeriodSeconds * 1e9);
+        mTimeSource = pTimeSource;
+        mCycleTimer = PerfTimerRegistry.get(pName + "_loop")
+                .logWhenTimeGreaterThan(pPeriodSeconds)
+                .setLogMessage("Loop overrun: %s");
+        // Same key SmartDashboard.putNumber would use, without looking the entry up every cycle
+        mCycleTimeEntry = NetworkTableInstance.getDefault().getTable("SmartDashboard").getEntry(pName + "_loop_dt");
+        mTimings = new ModuleTimings(pName, pPeriodSeconds);
+    }
+
+    /**
+     * @param pPriority Higher priorities run first and are shed last
+     * @param pDeadlineSeconds Time after the start of a cycle by which this loop must have finished
+     */
+    public LoopGroup addLoop(Loop pLoop, int pPriority, double pDeadlineSeconds) {
+        mEntryList.add(new Entry(pLoop, pPriority, (long)(pDeadlineSeconds * 1e9)));
+        // Stable sort, so loops of equal priority keep the order they were added in
+        mEntryList.sort(Comparator.comparingInt((Entry e) -> e.mPriority).reversed());
+        mEntries = mEntryList.toArray(new Entry[0]);
+        Loop[] loops = new Loop[mEntries.length];
+        for(int i = 0; i < loops.length; i++) {
+            loops[i] = mEntries[i].mLoop;
+        }
+        mTimings.setModules(loops);
+        return this;
+    }
+
+    /**
+     * Adds a loop whose deadline is the end of the group's period.
+     */
+    public LoopGroup addLoop(Loop pLoop, int pPriority) {
+        return addLoop(pLoop, pPriority, kPeriodNanos / 1e9);
+    }
+
+    public LoopGroup setOverrunPolicy(EOverrunPolicy pPolicy) {
+        mOverrunPolicy = pPolicy;
+        return this;
+    }
+
+    public LoopGroup setThreadPriority(int pPriority) {
+        mThreadPriority = pPriority;
+        return this;
+    }
+
+    /**
+     * Asks the OS to pin this group's thread to one CPU.  This is only a hint - it relies on Linux's taskset and is
+     * silently skipped on platforms without it.
+     * @param pCpu The CPU index, or -1 for no preference
+     */
+    public LoopGroup setAffinityHint(int pCpu) {
+        mAffinityHint = pCpu;
+        return this;
+    }
+
+    /**
+     * Snapshots the codexes into pSnapshotRing at the end of every cycle.  This group's thread must be the ring's only
+     * producer.
+     */
+    public LoopGroup setSnapshotRing(CodexSnapshotRing pSnapshotRing) {
+        mSnapshotRing = pSnapshotRing;
+        return this;
+    }
+
+    public synchronized void start() {
+        if(mIsRunning) {
+            return;
+        }
+        double now = mTimeSource.getSeconds();
+        for(Entry entry : mEntries) {
+            entry.mLoop.modeInit(now);
+        }
+        for(Entry entry : mEntries) {
+            entry.mLoop.periodicInput(now);
+        }
+        mNextRelease = mTimeSource.getNanos();
+        mDegradeFactor = 1;
+        mOnTimeCycles = 0;
+        mIsRunning = true;
+
+        mThread = new Thread(this, "LoopGroup-" + mName);
+        mThread.setDaemon(true);
+        mThread.setPriority(mThreadPriority);
+        mThread.start();
+    }
+
+    public synchronized void stop() {
+        if(!mIsRunning) {
+            return;
+        }
+        mIsRunning = false;
+        mThread.interrupt();
+        try {
+            mThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        mThread = null;
+
+        double now = mTimeSource.getSeconds();
+        for(Entry entry : mEntries) {
+            entry.mLoop.shutdown(now);
+        }
+        if(mCycles != 0) {
+            mLog.error(mName, " experienced ", mOverruns, "/", mCycles, " timing overruns, or ", ((double)mOverruns/(double)mCycles) * 100.0, "%.");
+            mLog.info(mCycleTimer.snapshot());
+        }
+    }
+
+    @Override
+    public void run() {
+        applyAffinityHint();
+        while(mIsRunning) {
+            try {
+                step();
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Waits for the next release, runs one cycle and schedules the following release.
+     */
+    void step() throws InterruptedException {
+        mTimeSource.sleepUntil(mNextRelease);
+        long release = mNextRelease;
+
+        mCycleTimer.start();
+        try {
+            runCycle(release);
+        } catch (Throwable t) {
+            t.printStackTrace();
+        }
+        mCycleTimeEntry.setDouble(mCycleTimer.stop());
+        mCycles++;
+
+        long end = mTimeSource.getNanos();
+        long period = kPeriodNanos * mDegradeFactor;
+        long next = release + period;
+        if(end > next) {
+            mOverruns++;
+            long missed = (end - release) / period;
+            mSkippedReleases += missed;
+            next = release + (missed + 1) * period;
+            if(mOverrunPolicy == EOverrunPolicy.DEGRADE && mDegradeFactor < kMaxDegradeFactor) {
+                mDegradeFactor *= 2;
+            }
+            mOnTimeCycles = 0;
+        } else if(mDegradeFactor > 1 && ++mOnTimeCycles >= kRecoveryCycles) {
+            mDegradeFactor /= 2;
+            mOnTimeCycles = 0;
+        }
+        mNextRelease = next;
+    }
+
+    private void runCycle(long pRelease) {
+        double now = mTimeSource.getSeconds();
+
+        for(int i = 0; i < mEntries.length; i++) {
+            Entry entry = mEntries[i];
+            entry.mIsShed = shouldShed(i, pRelease, entry.mLastInputNanos + entry.mLastLoopNanos);
+            if(entry.mIsShed) {
+                entry.mSheds++;
+                entry.mConsecutiveSheds++;
+                continue;
+            }
+            long start = mTimeSource.getNanos();
+            entry.mLoop.periodicInput(now);
+            entry.mLastInputNanos = mTimeSource.getNanos() - start;
+            mTimings.record(i, EPhase.INPUT, entry.mLastInputNanos);
+        }
+
+        for(int i = 0; i < mEntries.length; i++) {
+            Entry entry = mEntries[i];
+            if(entry.mIsShed) {
+                continue;
+            }
+            // Higher-priority loops may have run long since the input phase
+            if(shouldShed(i, pRelease, entry.mLastLoopNanos)) {
+                entry.mSheds++;
+                entry.mConsecutiveSheds++;
+                continue;
+            }
+            long start = mTimeSource.getNanos();
+            entry.mLoop.loop(now);
+            long end = mTimeSource.getNanos();
+            entry.mLastLoopNanos = end - start;
+            entry.mConsecutiveSheds = 0;
+            mTimings.record(i, EPhase.LOOP, entry.mLastLoopNanos);
+            if(end - pRelease > entry.mDeadlineNanos) {
+                entry.mDeadlineMisses++;
+            }
+        }
+
+        if(mSnapshotRing != null) {
+            mSnapshotRing.snapshot();
+        }
+        mTimings.publishIfDue(now);
+    }
+
+    /**
+     * @param pExpectedNanos How long the loop is expected to take, based on its last run.  A shed loop's estimate is
+     *                       only refreshed by the probe run every kShedProbeCycles.
+     */
+    private boolean shouldShed(int pIndex, long pRelease, long pExpectedNanos) {
+        if(mOverrunPolicy != EOverrunPolicy.SHED || pIndex == 0 || mEntries[pIndex].mConsecutiveSheds >= kShedProbeCycles) {
+            return false;
+        }
+        return mTimeSource.getNanos() - pRelease + pExpectedNanos > mEntries[pIndex].mDeadlineNanos;
+    }
+
+    private void applyAffinityHint() {
+        if(mAffinityHint < 0) {
+            return;
+        }
+        try {
+            // /proc/thread-self resolves to /proc/<pid>/task/<tid> for the calling thread
+            String tid = Paths.get("/proc/thread-self").toRealPath().getFileName().toString();
+            Process taskset = new ProcessBuilder("taskset", "-p", "-c", Integer.toString(mAffinityHint), tid).start();
+            if(taskset.waitFor() != 0) {
+                mLog.warn("Could not pin ", mName, " to CPU ", mAffinityHint);
+            }
+        } catch (IOException e) {
+            mLog.warn("CPU affinity hints are not supported on this platform");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Entry find(Loop pLoop) {
+        for(Entry entry : mEntries) {
+            if(entry.mLoop == pLoop) {
+                return entry;
+            }
+        }
+        throw new IllegalArgumentException(pLoop.getClass().getSimpleName() + " is not part of loop group " + mName);
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    public boolean isRunning() {
+        return mIsRunning;
+    }
+
+    public int getDegradeFactor() {
+        return mDegradeFactor;
+    }
+
+    public long getCycles() {
+        return mCycles;
+    }
+
+    public long getOverruns() {
+        return mOverruns;
+    }
+
+    public long getSkippedReleases() {
+        return mSkippedReleases;
+    }
+
+    public long getDeadlineMisses(Loop pLoop) {
+        return find(pLoop).mDeadlineMisses;
+    }
+
+    public long getSheds(Loop pLoop) {
+        return find(pLoop).mSheds;
+    }
+
+    public ModuleTimings getTimings() {
+        return mTimings;
+    }
+
+}
@@ -3,6 +3,10 @@ package us.ilite.robot.loops;
 import com.flybotix.hfr.util.log.ILog;
 import com.flybotix.hfr.util.log.Logger;
 
+import us.ilite.common.config.Settings;
+import us.ilite.robot.modules.ModuleTimings;
+import us.ilite.robot.modules.ModuleTimings.EPhase;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -12,6 +16,7 @@ public class LoopList extends Loop {
     ILog mLogger = Logger.createLog(LoopList.class);
 
     protected List<Loop> mLoops = new ArrayList<>();
+    private final ModuleTimings mTimings = new ModuleTimings("LOOPS", Settings.kControlLoopPeriod);
 
     @Override
     public void modeInit(double pNow) {
@@ -20,12 +25,29 @@ public class LoopList extends Loop {
 
     @Override
     public void periodicInput(double pNow) {
-        mLoops.forEach(module -> module.periodicInput(pNow));
+        for(int i = 0; i < mLoops.size(); i++) {
+            long start = System.nanoTime();
+            mLoops.get(i).periodicInput(pNow);
+            mTimings.record(i, EPhase.INPUT, System.nanoTime() - start);
+        }
     }
 
     @Override
     public void update(double pNow) {
-        mLoops.forEach(module -> module.update(pNow));
+        for(int i = 0; i < mLoops.size(); i++) {
+            long start = System.nanoTime();
+            mLoops.get(i).update(pNow);
+            mTimings.record(i, EPhase.UPDATE, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void periodicOutput(double pNow) {
+        for(int i = 0; i < mLoops.size(); i++) {
+            long start = System.nanoTime();
+            mLoops.get(i).periodicOutput(pNow);
+            mTimings.record(i, EPhase.OUTPUT, System.nanoTime() - start);
+        }
     }
 
     @Override
@@ -51,12 +73,22 @@ public class LoopList extends Loop {
 
     @Override
     public void loop(double pNow) {
-        mLoops.forEach(loop -> loop.loop(pNow));
+        for(int i = 0; i < mLoops.size(); i++) {
+            long start = System.nanoTime();
+            mLoops.get(i).loop(pNow);
+            mTimings.record(i, EPhase.LOOP, System.nanoTime() - start);
+        }
+        mTimings.publishIfDue(pNow);
     }
 
     public void setLoops(Loop ... pLoops) {
         mLoops.clear();
         mLoops.addAll(Arrays.asList(pLoops));
+        mTimings.setModules(pLoops);
+    }
+
+    public ModuleTimings getTimings() {
+        return mTimings;
     }
 
 }
@@ -0,0 +1,53 @@
+package us.ilite.robot.loops;
+
+import us.ilite.common.lib.util.ITimeSource;
+import us.ilite.common.lib.util.SystemTimeSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Runs several LoopGroups, each at its own rate on its own thread - e.g. drive at 200Hz and vision at 50Hz - so a
+ * slow loop in one group can't delay the loops in another.  All groups share one time source, which makes the whole
+ * scheduler testable on a desktop JVM.
+ */
+public class LoopScheduler {
+
+    private final ITimeSource mTimeSource;
+    private final List<LoopGroup> mGroups = new ArrayList<>();
+
+    public LoopScheduler(ITimeSource pTimeSource) {
+        mTimeSource = pTimeSource;
+    }
+
+    public LoopScheduler() {
+        this(new SystemTimeSource());
+    }
+
+    /**
+     * Creates a new group of loops running every pPeriodSeconds.  Configure the returned group before start().
+     */
+    public synchronized LoopGroup addGroup(String pName, double pPeriodSeconds) {
+        LoopGroup group = new LoopGroup(pName, pPeriodSeconds, mTimeSource);
+        mGroups.add(group);
+        return group;
+    }
+
+    public synchronized void start() {
+        mGroups.forEach(LoopGroup::start);
+    }
+
+    public synchronized void stop() {
+        mGroups.forEach(LoopGroup::stop);
+    }
+
+    public List<LoopGroup> getGroups() {
+        return Collections.unmodifiableList(mGroups);
+    }
+
+    public ITimeSource getTimeSource() {
+        return mTimeSource;
+    }
+
+}
@@ -3,6 +3,7 @@ package us.ilite.robot.modules;
 import com.flybotix.hfr.util.log.ILog;
 import com.flybotix.hfr.util.log.Logger;
 import us.ilite.robot.commands.CommandQueue;
+import us.ilite.robot.commands.CommandTracer;
 import us.ilite.robot.commands.ICommand;
 
 /**
@@ -42,9 +43,9 @@ public class CommandManager extends Module {
         // Don't initialize and update on same cycle
         if (shouldInitializeCommandQueue()) {
             mLog.warn(mManagerTag, ": Initializing command queue");
-            desiredCommandQueue.init(pNow);
+            CommandTracer.init(desiredCommandQueue, pNow);
         } else if(isRunningCommands()) {
-            desiredCommandQueue.update(pNow);
+            CommandTracer.update(desiredCommandQueue, pNow);
         }
 
         // Only check if we're done with queue if we're actually running...otherwise we're just spamming stopRunningCommands()
@@ -90,7 +91,7 @@ public class CommandManager extends Module {
     public void stopRunningCommands(double pNow) {
         mLog.warn(mManagerTag, ": Stopping command queue");
         runCommandQueue = false;
-        desiredCommandQueue.shutdown(pNow);
+        CommandTracer.shutdown(desiredCommandQueue, pNow);
         desiredCommandQueue.clear();
     }
 
@@ -0,0 +1,176 @@
+package us.ilite.robot.modules;
+
+import java.util.Arrays;
+
+import com.flybotix.hfr.util.log.ILog;
+import com.flybotix.hfr.util.log.Logger;
+import us.ilite.robot.commands.CommandTracer;
+import us.ilite.robot.commands.ICommand;
+
+/**
+ * Runs any number of commands side by side, as long as no two of them require the same subsystem.  Unlike
+ * CommandManager, starting a command never tears down the ones already running - only those holding a subsystem it
+ * needs.
+ *
+ * Conflicts are found by ANDing the new command's requirement mask against the subsystems already held, and each held
+ * subsystem maps straight to the slot of the command holding it, so scheduling costs the same however many commands
+ * are running.  A command with a lower priority than any command it conflicts with is rejected; otherwise the commands
+ * it conflicts with are interrupted, so between equal priorities the newest wins.
+ */
+public class CommandScheduler extends Module {
+
+    public static final int kMaxCommands = Long.SIZE;
+
+    private final ILog mLog = Logger.createLog(CommandScheduler.class);
+
+    private final ICommand[] mCommands = new ICommand[kMaxCommands];
+    private final long[] mRequirements = new long[kMaxCommands];
+    private final int[] mPriorities = new int[kMaxCommands];
+    // Slot of the command holding each subsystem, or -1
+    private final int[] mOwners = new int[ESubsystem.values().length];
+
+    // One bit per subsystem held
+    private long mClaimed = 0L;
+    // One bit per slot in use
+    private long mScheduled = 0L;
+    // Slots initialized this cycle, which aren't updated until the next
+    private long mStarting = 0L;
+
+    public CommandScheduler() {
+        Arrays.fill(mOwners, -1);
+    }
+
+    @Override
+    public void modeInit(double pNow) {
+        cancelAll(pNow);
+    }
+
+    @Override
+    public void periodicInput(double pNow) {
+
+    }
+
+    @Override
+    public void update(double pNow) {
+        long starting = mStarting;
+        long running = mScheduled & ~starting;
+        while(running != 0L) {
+            int slot = Long.numberOfTrailingZeros(running);
+            running &= running - 1;
+            // A command's update may cancel another
+            if((mScheduled & (1L << slot)) != 0L && CommandTracer.update(mCommands[slot], pNow)) {
+                end(slot, pNow);
+            }
+        }
+        mStarting &= ~starting;
+    }
+
+    @Override
+    public void shutdown(double pNow) {
+        cancelAll(pNow);
+    }
+
+    /**
+     * Initializes pCommand and runs it every update until it finishes or is cancelled or interrupted.  Scheduling a
+     * command that is already running does nothing.
+     * @param pPriority Commands only interrupt commands of the same or lower priority
+     * @return Whether pCommand is running
+     */
+    public boolean schedule(ICommand pCommand, int pPriority, double pNow) {
+        if(indexOf(pCommand) >= 0) {
+            return true;
+        }
+
+        long requirements = pCommand.getRequirements();
+        long conflicts = requirements & mClaimed;
+        for(long bits = conflicts; bits != 0L; bits &= bits - 1) {
+            int owner = mOwners[Long.numberOfTrailingZeros(bits)];
+            if(mPriorities[owner] > pPriority) {
+                mLog.warn("Not scheduling ", pCommand, ", it conflicts with higher priority ", mCommands[owner]);
+                return false;
+            }
+        }
+        if(conflicts == 0L && mScheduled == -1L) {
+            mLog.error("Not scheduling ", pCommand, ", ", kMaxCommands, " commands are already running");
+            return false;
+        }
+
+        // Ending an owner releases all of its subsystems, so later bits it held find no owner
+        for(long bits = conflicts; bits != 0L; bits &= bits - 1) {
+            int owner = mOwners[Long.numberOfTrailingZeros(bits)];
+            if(owner >= 0) {
+                mLog.debug("Interrupting ", mCommands[owner], " for ", pCommand);
+                end(owner, pNow);
+            }
+        }
+
+        int slot = Long.numberOfTrailingZeros(~mScheduled);
+        mCommands[slot] = pCommand;
+        mRequirements[slot] = requirements;
+        mPriorities[slot] = pPriority;
+        for(long bits = requirements; bits != 0L; bits &= bits - 1) {
+            mOwners[Long.numberOfTrailingZeros(bits)] = slot;
+        }
+        mClaimed |= requirements;
+        mScheduled |= 1L << slot;
+        mStarting |= 1L << slot;
+
+        CommandTracer.init(pCommand, pNow);
+        return true;
+    }
+
+    public void cancel(ICommand pCommand, double pNow) {
+        int slot = indexOf(pCommand);
+        if(slot >= 0) {
+            end(slot, pNow);
+        }
+    }
+
+    public void cancelAll(double pNow) {
+        while(mScheduled != 0L) {
+            end(Long.numberOfTrailingZeros(mScheduled), pNow);
+        }
+    }
+
+    public boolean isScheduled(ICommand pCommand) {
+        return indexOf(pCommand) >= 0;
+    }
+
+    /**
+     * @return The command holding pSubsystem, or null if it's free
+     */
+    public ICommand getRequiring(ESubsystem pSubsystem) {
+        int owner = mOwners[pSubsystem.ordinal()];
+        return owner < 0 ? null : mCommands[owner];
+    }
+
+    public int getScheduledCount() {
+        return Long.bitCount(mScheduled);
+    }
+
+    private int indexOf(ICommand pCommand) {
+        for(long bits = mScheduled; bits != 0L; bits &= bits - 1) {
+            int slot = Long.numberOfTrailingZeros(bits);
+            if(mCommands[slot] == pCommand) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Frees pSlot and its subsystems before shutting its command down, so the shutdown can schedule something else.
+     */
+    private void end(int pSlot, double pNow) {
+        ICommand command = mCommands[pSlot];
+        for(long bits = mRequirements[pSlot]; bits != 0L; bits &= bits - 1) {
+            mOwners[Long.numberOfTrailingZeros(bits)] = -1;
+        }
+        mClaimed &= ~mRequirements[pSlot];
+        mScheduled &= ~(1L << pSlot);
+        mStarting &= ~(1L << pSlot);
+        mCommands[pSlot] = null;
+        CommandTracer.shutdown(command, pNow);
+    }
+
+}
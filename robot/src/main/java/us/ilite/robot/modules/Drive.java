@@ -7,11 +7,18 @@ import edu.wpi.first.wpilibj.geometry.Rotation2d;
 import us.ilite.common.Data;
 import us.ilite.common.config.AbstractSystemSettingsUtils;
 import us.ilite.common.config.Settings;
+import us.ilite.common.lib.control.DifferentialDrivePoseEstimator;
 import us.ilite.common.lib.control.PIDController;
+import us.ilite.common.lib.control.RamseteFollower;
+import us.ilite.common.lib.control.TrajectorySampler;
+import us.ilite.common.lib.util.Conversions;
+import us.ilite.common.lib.util.PoseHistoryBuffer;
+import us.ilite.common.lib.util.Units;
 import us.ilite.common.types.ETargetingData;
 import us.ilite.common.types.drive.EDriveData;
 import us.ilite.common.types.sensor.EGyro;
 import us.ilite.common.types.sensor.EPowerDistPanel;
+import us.ilite.robot.auto.paths.AutoPaths;
 import us.ilite.robot.hardware.*;
 import us.ilite.robot.loops.Loop;
 
@@ -27,25 +34,59 @@ public class Drive extends Loop {
 	private Data mData;
 
 	private IDriveHardware mDriveHardware;
+	private PdpSampler mPdpSampler;
 	private Rotation2d mGyroOffset = new Rotation2d();
 
 	private EDriveState mDriveState;
-	private DriveMessage mDriveMessage;
+	// Double buffer: producers (driver input, commands, target lock) write the latest demand into mDriveMessage under
+	// the lock, and each cycle it is copied into mOutputMessage, which only the thread driving the hardware touches.
+	private final DriveMessage mDriveMessage = new DriveMessage();
+	private final DriveMessage mOutputMessage = new DriveMessage();
 	private double mTargetTrackingThrottle = 0;
+	// Where the robot was at recent times, to project delayed vision measurements to the present
+	private final PoseHistoryBuffer mPoseHistory = new PoseHistoryBuffer(Settings.kPoseHistoryCapacity);
 
 	private PIDController mTargetAngleLockPid;
 
+	// Path following runs on the drive thread; setPathFollowing() hands it a new path through mPendingPath
+	private final RamseteFollower mPathFollower = new RamseteFollower(AutoPaths.kProfile, Settings.Paths.kRamseteB, Settings.Paths.kRamseteZeta);
+	private TrajectorySampler mPendingPath = null;
+	private volatile boolean mIsPathFinished = true;
+	private DifferentialDrivePoseEstimator mPoseEstimator = null;
+
 	private double mPreviousTime = 0;
 
 	public Drive(Data data)
+	{
+		this(data, null);
+	}
+
+	/**
+	 * @param pPdpSampler Current limiting is checked against its latest snapshot instead of the PDP codex, if not null
+	 */
+	public Drive(Data data, PdpSampler pPdpSampler)
+	{
+		this(data, createDriveHardware(), pPdpSampler);
+	}
+
+	/**
+	 * @param pDriveHardware e.g. SimDriveHardware to run the drive without a robot
+	 */
+	public Drive(Data data, IDriveHardware pDriveHardware, PdpSampler pPdpSampler)
 	{
 		this.mData = data;
+		this.mPdpSampler = pPdpSampler;
+		this.mDriveHardware = pDriveHardware;
+
+		this.mDriveHardware.init();
+	}
+
+	private static IDriveHardware createDriveHardware() {
 		if(AbstractSystemSettingsUtils.isPracticeBot()) {
+			return null;
 		} else {
-			this.mDriveHardware = new NeoDriveHardware(Settings.Drive.kGearboxRatio);
+			return new NeoDriveHardware(Settings.Drive.kGearboxRatio);
 		}
-
-		this.mDriveHardware.init();
 	}
 
 	@Override
@@ -55,6 +96,7 @@ public class Drive extends Loop {
 		mTargetAngleLockPid.setSetpoint(0);
 		mTargetAngleLockPid.reset();
 		mDriveHardware.zero();
+		mPoseHistory.clear();
 
 	  	setDriveMessage(DriveMessage.kNeutral);
 	  	setDriveState(EDriveState.NORMAL);
@@ -64,22 +106,33 @@ public class Drive extends Loop {
 
 	@Override
 	public void periodicInput(double pNow) {
+		// One read of each sensor per cycle - the getters below are served from the cache
+		mDriveHardware.refresh(pNow);
+
+		double leftInches = mDriveHardware.getLeftInches();
+		double rightInches = mDriveHardware.getRightInches();
+		double heading = mDriveHardware.getImu().getHeading().getDegrees();
+		mPoseHistory.add(pNow, heading, leftInches, rightInches);
 
-		mData.drive.set(EDriveData.LEFT_POS_INCHES, mDriveHardware.getLeftInches());
-		mData.drive.set(EDriveData.RIGHT_POS_INCHES, mDriveHardware.getRightInches());
+		mData.drive.set(EDriveData.LEFT_POS_INCHES, leftInches);
+		mData.drive.set(EDriveData.RIGHT_POS_INCHES, rightInches);
 //		mData.drive.set(EDriveData.LEFT_VEL_IPS, mDriveHardware.getLeftVelInches());
 //		mData.drive.set(EDriveData.RIGHT_VEL_IPS, mDriveHardware.getRightVelInches());
 		mData.drive.set(EDriveData.LEFT_VEL_TICKS, (double)mDriveHardware.getLeftVelTicks());
 		mData.drive.set(EDriveData.RIGHT_VEL_TICKS, (double)mDriveHardware.getRightVelTicks());
 
-		mData.drive.set(EDriveData.LEFT_MESSAGE_OUTPUT, mDriveMessage.getLeftOutput());
-		mData.drive.set(EDriveData.RIGHT_MESSAGE_OUTPUT, mDriveMessage.getRightOutput());
-		mData.drive.set(EDriveData.LEFT_MESSAGE_CONTROL_MODE, (double)mDriveMessage.getMode().ordinal());
-		mData.drive.set(EDriveData.RIGHT_MESSAGE_CONTROL_MODE, (double)mDriveMessage.getMode().ordinal());
-		mData.drive.set(EDriveData.LEFT_MESSAGE_NEUTRAL_MODE, (double)mDriveMessage.getNeutral().ordinal());
-		mData.drive.set(EDriveData.RIGHT_MESSAGE_NEUTRAL_MODE, (double)mDriveMessage.getNeutral().ordinal());
+		mData.drive.set(EDriveData.LEFT_MESSAGE_OUTPUT, mOutputMessage.getLeftOutput());
+		mData.drive.set(EDriveData.RIGHT_MESSAGE_OUTPUT, mOutputMessage.getRightOutput());
+		mData.drive.set(EDriveData.LEFT_FEEDFORWARD, mOutputMessage.getLeftFeedforward());
+		mData.drive.set(EDriveData.RIGHT_FEEDFORWARD, mOutputMessage.getRightFeedforward());
+		mData.drive.set(EDriveData.LEFT_MESSAGE_CONTROL_MODE, (double)mOutputMessage.getMode().ordinal());
+		mData.drive.set(EDriveData.RIGHT_MESSAGE_CONTROL_MODE, (double)mOutputMessage.getMode().ordinal());
+		mData.drive.set(EDriveData.LEFT_MESSAGE_NEUTRAL_MODE, (double)mOutputMessage.getNeutral().ordinal());
+		mData.drive.set(EDriveData.RIGHT_MESSAGE_NEUTRAL_MODE, (double)mOutputMessage.getNeutral().ordinal());
+		mData.drive.set(EDriveData.CAN_FRAMES_SENT, (double)mDriveHardware.getCanFramesSent());
+		mData.drive.set(EDriveData.CAN_FRAMES_SUPPRESSED, (double)mDriveHardware.getCanFramesSuppressed());
 //
-		mData.imu.set(EGyro.YAW_DEGREES, mDriveHardware.getImu().getHeading().getDegrees());
+		mData.imu.set(EGyro.YAW_DEGREES, heading);
 
 //		SimpleNetworkTable.writeCodexToSmartDashboard(EDriveData.class, mData.drive, mClock.getCurrentTime());
 	}
@@ -90,7 +143,7 @@ public class Drive extends Loop {
 			mLogger.error("Invalid drive state - maybe you meant to run this a high frequency?");
 			mDriveState = EDriveState.NORMAL;
 		} else {
-			mDriveHardware.set(mDriveMessage);
+			mDriveHardware.set(latchDriveMessage());
 		}
 
 		mPreviousTime = pNow;
@@ -106,6 +159,8 @@ public class Drive extends Loop {
 //		mUpdateTimer.start();
 		switch(mDriveState) {
 			case PATH_FOLLOWING:
+				followPath(pNow);
+				break;
 			case TARGET_ANGLE_LOCK:
 
 				Codex<Double, ETargetingData> targetData = mData.limelight;
@@ -113,10 +168,18 @@ public class Drive extends Loop {
 				if(mTargetAngleLockPid != null && targetData != null && targetData.isSet(ETargetingData.tv) && targetData.get(ETargetingData.tx) != null) {
 
 					//if there is a target in the limelight's fov, lock onto target using feedback loop
-					pidOutput = mTargetAngleLockPid.calculate(-1.0 * targetData.get(ETargetingData.tx), pNow - mPreviousTime);
+					double tx = targetData.get(ETargetingData.tx);
+					Double captureTime = targetData.get(ETargetingData.captureTime);
+					if(Settings.kTargetAngleLockLatencyCompensation && captureTime != null) {
+						// tx was measured at captureTime - turning left since then moves the target right in the frame
+						tx += mPoseHistory.getHeadingChangeSince(captureTime);
+					}
+					pidOutput = mTargetAngleLockPid.calculate(-1.0 * tx, pNow - mPreviousTime);
 					pidOutput = pidOutput + (Math.signum(pidOutput) * Settings.kTargetAngleLockFrictionFeedforward);
 
-					mDriveMessage = new DriveMessage().throttle(mTargetTrackingThrottle).turn(pidOutput).calculateCurvature();
+					synchronized(this) {
+						mDriveMessage.reset().throttle(mTargetTrackingThrottle).turn(pidOutput).calculateCurvature();
+					}
 					// If we've already seen the target and lose tracking, exit.
 				}
 
@@ -127,7 +190,7 @@ public class Drive extends Loop {
 				mLogger.warn("Got drive state: " + mDriveState+" which is unhandled");
 				break;
 		}
-		mDriveHardware.set(mDriveMessage);
+		mDriveHardware.set(latchDriveMessage());
 		mPreviousTime = pNow;
 //		mUpdateTimer.stop();
 	}
@@ -138,13 +201,79 @@ public class Drive extends Loop {
 		mDriveHardware.set(DriveMessage.kNeutral);
 	}
 
-	public synchronized void setPathFollowing() {
+	/**
+	 * Runs one cycle of the path follower against the pose estimator's current pose.  Bounded and allocation-free:
+	 * a binary search over the trajectory and a few dozen flops.
+	 */
+	private void followPath(double pNow) {
+		synchronized(this) {
+			if(mPendingPath != null) {
+				mPathFollower.start(mPendingPath, pNow);
+				mPendingPath = null;
+			}
+		}
+		mPathFollower.update(pNow,
+				Units.inches_to_meters(mPoseEstimator.getXInches()),
+				Units.inches_to_meters(mPoseEstimator.getYInches()),
+				Math.toRadians(mPoseEstimator.getHeadingDegrees()));
+		boolean isFinished = mPathFollower.isFinished();
+
+		double leftRpm = Conversions.inchesPerSecondToRpm(Units.meters_to_inches(mPathFollower.getLeftVelocity()));
+		double rightRpm = Conversions.inchesPerSecondToRpm(Units.meters_to_inches(mPathFollower.getRightVelocity()));
+		synchronized(this) {
+			// Unless a new path was set while this one was being updated
+			if(mPendingPath == null) {
+				mIsPathFinished = isFinished;
+			}
+			mDriveMessage.reset()
+					.mode(ECommonControlMode.VELOCITY)
+					.demand(leftRpm, rightRpm)
+					.feedforward(mPathFollower.getLeftFeedforward(), mPathFollower.getRightFeedforward());
+		}
+		mData.drive.set(EDriveData.PATH_TIME, mPathFollower.getTime());
+		mData.drive.set(EDriveData.PATH_ALONG_TRACK_ERROR_INCHES, Units.meters_to_inches(mPathFollower.getAlongTrackError()));
+		mData.drive.set(EDriveData.PATH_CROSS_TRACK_ERROR_INCHES, Units.meters_to_inches(mPathFollower.getCrossTrackError()));
+		mData.drive.set(EDriveData.PATH_HEADING_ERROR_DEGREES, Math.toDegrees(mPathFollower.getHeadingError()));
+	}
+
+	/**
+	 * Starts following pTrajectory from its beginning on the next cycle, with velocity control.  The trajectory's
+	 * frame is the pose estimator's, so reset the estimator to the trajectory's start pose first if they differ.
+	 * @param pTrajectory Flattened when the path is loaded, so starting it never allocates
+	 */
+	public synchronized void setPathFollowing(TrajectorySampler pTrajectory) {
+		if(mPoseEstimator == null) {
+			mLogger.error("Path following needs a pose estimator - see setPoseEstimator()");
+			return;
+		}
+		mPendingPath = pTrajectory;
+		mIsPathFinished = false;
 		mDriveState = EDriveState.PATH_FOLLOWING;
 		mDriveHardware.configureMode(ECommonControlMode.VELOCITY);
 	}
 
+	/**
+	 * @return true once the last path passed to setPathFollowing() has been played back to its end
+	 */
+	public boolean isPathFinished() {
+		return mIsPathFinished;
+	}
+
+	/**
+	 * Sets the pose estimator path following steers by.  It must be updated on the drive loop's thread, before
+	 * Drive.loop() - i.e. by a PoseEstimator in the same loop group.
+	 */
+	public synchronized void setPoseEstimator(DifferentialDrivePoseEstimator pPoseEstimator) {
+		if(pPoseEstimator == null) {
+			throw new IllegalArgumentException("Pose estimator cannot be null");
+		}
+		mPoseEstimator = pPoseEstimator;
+	}
+
 	public synchronized void setNormal() {
 		mDriveState = EDriveState.NORMAL;
+		mPendingPath = null;
+		mIsPathFinished = true;
 	}
 
 	public synchronized void setTargetTrackingThrottle(double pTargetTrackingThrottle) {
@@ -166,8 +295,19 @@ public class Drive extends Loop {
 		this.mDriveState = pDriveState;
 	}
 
+	/**
+	 * Copies pDriveMessage into the drive's command buffer, so callers may keep reusing their message.
+	 */
 	public synchronized void setDriveMessage(DriveMessage pDriveMessage) {
-		this.mDriveMessage = pDriveMessage;
+		mDriveMessage.set(pDriveMessage);
+	}
+
+	/**
+	 * Copies the latest commanded message into the output buffer.
+	 * @return The output buffer, valid until the next call
+	 */
+	private synchronized DriveMessage latchDriveMessage() {
+		return mOutputMessage.set(mDriveMessage);
 	}
 
 
@@ -175,11 +315,17 @@ public class Drive extends Loop {
 	    return mDriveHardware;
     }
 
+	/**
+	 * @return A copy of the latest commanded message
+	 */
     public synchronized DriveMessage getDriveMessage() {
-		return mDriveMessage;
+		return new DriveMessage().set(mDriveMessage);
 	}
 
 	public boolean isCurrentLimiting() {
+		if(mPdpSampler != null) {
+			return mPdpSampler.isAboveCurrentThreshold(Settings.Drive.kCurrentLimitAmps, Settings.Drive.kPdpSlots);
+		}
 		return EPowerDistPanel.isAboveCurrentThreshold(Settings.Drive.kCurrentLimitAmps, mData.pdp, Settings.Drive.kPdpSlots);
 	}
 
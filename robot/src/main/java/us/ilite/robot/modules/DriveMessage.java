@@ -4,9 +4,13 @@ import us.ilite.common.config.Settings;
 import us.ilite.robot.hardware.ECommonControlMode;
 import us.ilite.robot.hardware.ECommonNeutralMode;
 
-import java.util.Objects;
 import static java.lang.Math.*;
 
+/**
+ * A left/right or throttle/turn demand for the drivetrain.  The builder methods mutate and return this message, so
+ * code that runs every cycle should keep one message and reset() it rather than allocating a new one - Drive copies
+ * whatever it is given in setDriveMessage().
+ */
 public class DriveMessage {
 
   public static final DriveMessage kBrake = new DriveMessage()
@@ -27,6 +31,9 @@ public class DriveMessage {
   private double mThrottle = 0;
   private double mLeftOutput = 0;
   private double mRightOutput = 0;
+  // Volts added to closed-loop demands by the motor controller
+  private double mLeftFeedforward = 0;
+  private double mRightFeedforward = 0;
   private ECommonControlMode mControlMode = ECommonControlMode.PERCENT_OUTPUT;
   private ECommonNeutralMode mNeutralMode = ECommonNeutralMode.BRAKE;
 
@@ -34,6 +41,40 @@ public class DriveMessage {
 
   }
 
+  /**
+   * Restores the state of a newly constructed message.
+   * @return this DriveMessage object to support the builder pattern.
+   */
+  public DriveMessage reset() {
+    mIsDirect = false;
+    mTurn = 0;
+    mThrottle = 0;
+    mLeftOutput = 0;
+    mRightOutput = 0;
+    mLeftFeedforward = 0;
+    mRightFeedforward = 0;
+    mControlMode = ECommonControlMode.PERCENT_OUTPUT;
+    mNeutralMode = ECommonNeutralMode.BRAKE;
+    return this;
+  }
+
+  /**
+   * Copies every field of pOther into this message.
+   * @return this DriveMessage object to support the builder pattern.
+   */
+  public DriveMessage set(DriveMessage pOther) {
+    mIsDirect = pOther.mIsDirect;
+    mTurn = pOther.mTurn;
+    mThrottle = pOther.mThrottle;
+    mLeftOutput = pOther.mLeftOutput;
+    mRightOutput = pOther.mRightOutput;
+    mLeftFeedforward = pOther.mLeftFeedforward;
+    mRightFeedforward = pOther.mRightFeedforward;
+    mControlMode = pOther.mControlMode;
+    mNeutralMode = pOther.mNeutralMode;
+    return this;
+  }
+
   /**
    * Returns the expected left side power. If isDirect() returns TRUE, then the units will be dependent upon what method
    * created the drive message. Additionally, the values may not match [ -1 < value < 1 ]
@@ -65,6 +106,20 @@ public class DriveMessage {
     }
   }
 
+  /**
+   * @return Arbitrary feedforward for the left side in volts, applied on top of closed-loop demands
+   */
+  public double getLeftFeedforward() {
+    return mLeftFeedforward;
+  }
+
+  /**
+   * @return Arbitrary feedforward for the right side in volts, applied on top of closed-loop demands
+   */
+  public double getRightFeedforward() {
+    return mRightFeedforward;
+  }
+
   public ECommonControlMode getMode() {
     return mControlMode;
   }
@@ -170,6 +225,17 @@ public class DriveMessage {
     return this;
   }
 
+  /**
+   * Sets the voltage the motor controllers add to closed-loop (e.g. velocity) demands, typically from a RobotProfile
+   * model.  Ignored in percent output.
+   * @return this DriveMessage object to support the builder pattern.
+   */
+  public DriveMessage feedforward(double pLeftVolts, double pRightVolts) {
+    this.mLeftFeedforward = pLeftVolts;
+    this.mRightFeedforward = pRightVolts;
+    return this;
+  }
+
   public DriveMessage neutral(ECommonNeutralMode pMode) {
     this.mNeutralMode = pMode;
     return this;
@@ -184,14 +250,29 @@ public class DriveMessage {
             this.mIsDirect == that.mIsDirect &&
             Double.compare(that.mLeftOutput, mLeftOutput) == 0 &&
             Double.compare(that.mRightOutput, mRightOutput) == 0 &&
+            Double.compare(that.mLeftFeedforward, mLeftFeedforward) == 0 &&
+            Double.compare(that.mRightFeedforward, mRightFeedforward) == 0 &&
             mControlMode == that.mControlMode &&
             mNeutralMode == that.mNeutralMode
     ;
   }
 
+  /**
+   * Same value as Objects.hash() over the fields, without boxing them into an array.
+   */
   @Override
   public int hashCode() {
-    return Objects.hash(mIsDirect, mTurn, mThrottle, mLeftOutput, mRightOutput, mControlMode, mNeutralMode);
+    int result = 1;
+    result = 31 * result + Boolean.hashCode(mIsDirect);
+    result = 31 * result + Double.hashCode(mTurn);
+    result = 31 * result + Double.hashCode(mThrottle);
+    result = 31 * result + Double.hashCode(mLeftOutput);
+    result = 31 * result + Double.hashCode(mRightOutput);
+    result = 31 * result + Double.hashCode(mLeftFeedforward);
+    result = 31 * result + Double.hashCode(mRightFeedforward);
+    result = 31 * result + (mControlMode == null ? 0 : mControlMode.hashCode());
+    result = 31 * result + (mNeutralMode == null ? 0 : mNeutralMode.hashCode());
+    return result;
   }
 
 }
@@ -0,0 +1,26 @@
+package us.ilite.robot.modules;
+
+/**
+ * The subsystems a command can require, so the CommandScheduler can keep two commands from driving the same module.
+ * Each gets one bit of a requirement mask - add an entry here for every new module that commands control, up to 64.
+ */
+public enum ESubsystem {
+
+    DRIVE,
+    LIMELIGHT;
+
+    private final long kMask = 1L << ordinal();
+
+    public long mask() {
+        return kMask;
+    }
+
+    public static long mask(ESubsystem... pSubsystems) {
+        long mask = 0L;
+        for(ESubsystem subsystem : pSubsystems) {
+            mask |= subsystem.kMask;
+        }
+        return mask;
+    }
+
+}
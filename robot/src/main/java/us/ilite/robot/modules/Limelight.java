@@ -9,10 +9,12 @@ import edu.wpi.first.wpilibj.geometry.Translation2d;
 
 
 import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
 import us.ilite.common.Data;
 import us.ilite.common.config.Settings;
 import us.ilite.common.config.Settings.VisionTarget;
+import us.ilite.common.lib.util.MedianFilter;
 import us.ilite.common.types.ETargetingData;
 import us.ilite.common.types.ETrackingType;
 
@@ -23,57 +25,152 @@ import us.ilite.robot.modules.targetData.ITargetDataProvider;
 
 public class Limelight extends Loop implements ITargetDataProvider {
 
+    // tv through tvert are published by the Limelight under their own names
+    private static final ETargetingData[] kRawValues = {tv, tx, ty, ta, ts, tl, tshort, tlong, thoriz, tvert};
+    // A new frame changes at least one of these - NT doesn't update the change time when a value is re-sent unchanged
+    private static final ETargetingData[] kFrameValues = {tv, tx, ty, ta, tl};
+    private static final int kValidIndex = 0;
+    private static final int kLatencyIndex = 5;
+    // tx, ty and ta - what the targeting commands steer by
+    private static final int[] kFilteredIndices = {1, 2, 3};
+    private static final int kMaxSnapshotAttempts = 3;
+
     private final ILog mLog = Logger.createLog(Limelight.class);
     private final NetworkTable mTable = NetworkTableInstance.getDefault().getTable("limelight");
 
     private final Data mData;
 
+    // Entry handles are looked up once instead of by name every cycle
+    private final NetworkTableEntry[] mRawEntries = new NetworkTableEntry[kRawValues.length];
+    private final NetworkTableEntry[] mFrameEntries = new NetworkTableEntry[kFrameValues.length];
+    private final double[] mRawSnapshot = new double[kRawValues.length];
+    private final MedianFilter[] mTargetFilters = new MedianFilter[kFilteredIndices.length];
+    private final NetworkTableEntry mLedModeEntry = mTable.getEntry("ledMode");
+    private final NetworkTableEntry mPipelineEntry = mTable.getEntry("pipeline");
+    private final NetworkTableEntry mCamModeEntry = mTable.getEntry("camMode");
+    private final NetworkTableEntry mSnapshotEntry = mTable.getEntry("snapshot");
+    private final NetworkTableEntry mStreamEntry = mTable.getEntry("stream");
+
+    // Entries that were never published have a change time of 0
+    private long mLastFrameChange = 0;
+    private long mFrames = 0;
+    private volatile boolean mCalcsDirty = false;
+    private LedMode mLastLedMode = null;
+    private int mLastPipeline = -1;
+
     private ETrackingType mTrackingType = null;
     private VisionTarget mVisionTarget = null;
 
     public Limelight(Data pData) {
         this.mData = pData;
+        for(int i = 0; i < kRawValues.length; i++) {
+            mRawEntries[i] = mTable.getEntry(kRawValues[i].name());
+        }
+        for(int i = 0; i < kFrameValues.length; i++) {
+            mFrameEntries[i] = mTable.getEntry(kFrameValues[i].name());
+        }
+        for(int i = 0; i < mTargetFilters.length; i++) {
+            mTargetFilters[i] = new MedianFilter(Settings.LimeLight.kTargetFilterLength);
+        }
     }
 
     @Override
     public void modeInit(double pNow) {
         setTracking(ETrackingType.NONE);
+        mLastLedMode = null;
+        mLastPipeline = -1;
     }
 
+    /**
+     * Updates the targeting codex when the Limelight has published a new frame.  Between frames the codex keeps the
+     * last frame's values, including captureTime, so consumers can tell how old they are.
+     */
     @Override
     public void periodicInput(double pNow) {
-        mData.limelight.reset();
-        boolean targetValid = mTable.getEntry("tv").getDouble(0.0) > 0.0;
-        mData.limelight.set(ETargetingData.tv, targetValid ? 1.0d : null);
+        long frameChange = readFrame();
+        if(frameChange != mLastFrameChange) {
+            mLastFrameChange = frameChange;
+            mFrames++;
+            writeFrame(frameChange);
+            mCalcsDirty = true;
+        }
+        if(mCalcsDirty) {
+            calculateTargetData();
+            mCalcsDirty = false;
+        }
+    }
+
+    /**
+     * Reads every raw value into mRawSnapshot, re-reading if a new frame arrived part way through.
+     * @return The NT change time (microseconds) of the frame that was read
+     */
+    private long readFrame() {
+        long frameChange = getFrameChange();
+        if(frameChange == mLastFrameChange) {
+            return frameChange;
+        }
+        for(int attempt = 0; attempt < kMaxSnapshotAttempts; attempt++) {
+            for(int i = 0; i < mRawEntries.length; i++) {
+                mRawSnapshot[i] = mRawEntries[i].getDouble(Double.NaN);
+            }
+            long after = getFrameChange();
+            if(after == frameChange) {
+                break;
+            }
+            frameChange = after;
+        }
+        return frameChange;
+    }
+
+    private long getFrameChange() {
+        long latest = Long.MIN_VALUE;
+        for(NetworkTableEntry entry : mFrameEntries) {
+            latest = Math.max(latest, entry.getLastChange());
+        }
+        return latest;
+    }
 
+    private void writeFrame(long pFrameChange) {
+        Codex<Double, ETargetingData> limelight = mData.limelight;
+        limelight.reset();
+        boolean targetValid = mRawSnapshot[kValidIndex] > 0.0;
+        limelight.set(ETargetingData.tv, targetValid ? 1.0d : null);
         if(targetValid) {
-            mData.limelight.set(ETargetingData.tx, mTable.getEntry("tx").getDouble(Double.NaN));
-            mData.limelight.set(ETargetingData.ty,mTable.getEntry("ty").getDouble(Double.NaN));
-            mData.limelight.set(ETargetingData.ta,mTable.getEntry("ta").getDouble(Double.NaN));
-            mData.limelight.set(ETargetingData.ts,mTable.getEntry("ts").getDouble(Double.NaN));
-            mData.limelight.set(ETargetingData.tl,mTable.getEntry("tl").getDouble(Double.NaN));
-            mData.limelight.set(ETargetingData.tshort,mTable.getEntry("tshort").getDouble(Double.NaN));
-            mData.limelight.set(ETargetingData.tlong,mTable.getEntry("tlong").getDouble(Double.NaN));
-            mData.limelight.set(ETargetingData.thoriz,mTable.getEntry("thoriz").getDouble(Double.NaN));
-            mData.limelight.set(ETargetingData.tvert,mTable.getEntry("tvert").getDouble(Double.NaN));
-            if(mVisionTarget != null) {
-
-                mData.limelight.set(ETargetingData.targetOrdinal, (double)mVisionTarget.ordinal());
-                mData.limelight.set(ETargetingData.calcDistToTarget, calcTargetDistance(mVisionTarget));
-                mData.limelight.set(calcAngleToTarget, calcTargetApproachAngle());
-                Optional<Translation2d> p = calcTargetLocation(mVisionTarget);
-                if(p.isPresent()) {
-                    mData.limelight.set(ETargetingData.calcTargetX, p.get().getX());
-                    mData.limelight.set(ETargetingData.calcTargetY, p.get().getY());
-                }
+            for(int i = 1; i < kRawValues.length; i++) {
+                limelight.set(kRawValues[i], mRawSnapshot[i]);
+            }
+            for(int i = 0; i < kFilteredIndices.length; i++) {
+                int raw = kFilteredIndices[i];
+                limelight.set(kRawValues[raw], mTargetFilters[i].add(mRawSnapshot[raw]));
+            }
+        } else {
+            // Don't mix frames of the last target into the next one
+            for(MedianFilter filter : mTargetFilters) {
+                filter.clear();
             }
         }
+        // NT change times are in microseconds on the same FPGA timebase as the robot clock
+        double latencyMs = Double.isNaN(mRawSnapshot[kLatencyIndex]) ? 0.0 : mRawSnapshot[kLatencyIndex];
+        limelight.set(ETargetingData.captureTime, pFrameChange / 1e6 - (latencyMs + Settings.LimeLight.kImageCaptureLatencyMs) / 1000.0);
+    }
+
+    private void calculateTargetData() {
+        Codex<Double, ETargetingData> limelight = mData.limelight;
+        if(mVisionTarget == null || !limelight.isSet(ETargetingData.tv)) {
+            return;
+        }
+        limelight.set(ETargetingData.targetOrdinal, (double)mVisionTarget.ordinal());
+        limelight.set(ETargetingData.calcDistToTarget, calcTargetDistance(mVisionTarget));
+        limelight.set(calcAngleToTarget, calcTargetApproachAngle());
+        Optional<Translation2d> p = calcTargetLocation(mVisionTarget);
+        if(p.isPresent()) {
+            limelight.set(ETargetingData.calcTargetX, p.get().getX());
+            limelight.set(ETargetingData.calcTargetY, p.get().getY());
+        }
     }
 
     @Override
     public void update(double pNow) {
-
-        mLog.error("Current Tracking Type: " + (mTrackingType == null ? "Null" : mTrackingType.name()));
         if(mTrackingType != null) {
             setLedMode(mTrackingType.getLedOn() ? LedMode.LED_ON : LedMode.LED_OFF);
             setPipeline(mTrackingType.getPipeline());
@@ -106,11 +203,14 @@ public class Limelight extends Loop implements ITargetDataProvider {
 
     public void setVisionTarget(VisionTarget pVisionTarget) {
         mVisionTarget = pVisionTarget;
+        mCalcsDirty = true;
         // TODO reconcile pipeline
     }
 
     public void setTracking(ETrackingType pTrackingType) {
-        mLog.error("SET TRACKING TYPE: " + pTrackingType.name());
+        if(pTrackingType != mTrackingType) {
+            mLog.info("Set tracking type: " + pTrackingType.name());
+        }
         mTrackingType = pTrackingType;
         // TODO - reconcile pipeline
     }
@@ -119,24 +219,37 @@ public class Limelight extends Loop implements ITargetDataProvider {
         return this.mTrackingType;
     }
 
+    /**
+     * @return The number of frames received from the Limelight
+     */
+    public long getFrameCount() {
+        return mFrames;
+    }
+
     public void setCamMode(boolean pMode) {
-        mTable.getEntry("camMode").setBoolean(pMode);
+        mCamModeEntry.setBoolean(pMode);
     }
 
     public void setLedMode(LedMode pMode) {
-        mTable.getEntry("ledMode").setNumber(pMode.ordinal());
+        if(pMode != mLastLedMode) {
+            mLedModeEntry.setNumber(pMode.ordinal());
+            mLastLedMode = pMode;
+        }
     }
 
     public void setPipeline(int pipeline) {
-        mTable.getEntry("pipeline").setNumber(pipeline);
+        if(pipeline != mLastPipeline) {
+            mPipelineEntry.setNumber(pipeline);
+            mLastPipeline = pipeline;
+        }
     }
 
     public void setSnapshot(boolean snapshot) {
-        mTable.getEntry("snapshot").setBoolean(snapshot);
+        mSnapshotEntry.setBoolean(snapshot);
     }
 
     public void setStream(Stream stream) { 
-        mTable.getEntry("stream").setNumber(stream.ordinal());
+        mStreamEntry.setNumber(stream.ordinal());
     }
 
 
@@ -3,6 +3,9 @@ package us.ilite.robot.modules;
 import com.flybotix.hfr.util.log.ILog;
 import com.flybotix.hfr.util.log.Logger;
 
+import edu.wpi.first.wpilibj.TimedRobot;
+import us.ilite.robot.modules.ModuleTimings.EPhase;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -12,6 +15,18 @@ public class ModuleList extends Module {
     ILog mLogger = Logger.createLog(ModuleList.class);
 
     protected List<Module> mModules = new ArrayList<>();
+    private final ModuleTimings mTimings;
+
+    /**
+     * @param pName Prefix for this list's module timings in NetworkTables
+     */
+    public ModuleList(String pName) {
+        mTimings = new ModuleTimings(pName, TimedRobot.kDefaultPeriod);
+    }
+
+    public ModuleList() {
+        this("MODULES");
+    }
 
     @Override
     public void modeInit(double pNow) {
@@ -20,12 +35,30 @@ public class ModuleList extends Module {
 
     @Override
     public void periodicInput(double pNow) {
-        mModules.forEach(module -> module.periodicInput(pNow));
+        for(int i = 0; i < mModules.size(); i++) {
+            long start = System.nanoTime();
+            mModules.get(i).periodicInput(pNow);
+            mTimings.record(i, EPhase.INPUT, System.nanoTime() - start);
+        }
     }
 
     @Override
     public void update(double pNow) {
-        mModules.forEach(module -> module.update(pNow));
+        for(int i = 0; i < mModules.size(); i++) {
+            long start = System.nanoTime();
+            mModules.get(i).update(pNow);
+            mTimings.record(i, EPhase.UPDATE, System.nanoTime() - start);
+        }
+        mTimings.publishIfDue(pNow);
+    }
+
+    @Override
+    public void periodicOutput(double pNow) {
+        for(int i = 0; i < mModules.size(); i++) {
+            long start = System.nanoTime();
+            mModules.get(i).periodicOutput(pNow);
+            mTimings.record(i, EPhase.OUTPUT, System.nanoTime() - start);
+        }
     }
 
     @Override
@@ -52,6 +85,11 @@ public class ModuleList extends Module {
     public void setModules(Module ... pModules) {
         mModules.clear();
         mModules.addAll(Arrays.asList(pModules));
+        mTimings.setModules(pModules);
+    }
+
+    public ModuleTimings getTimings() {
+        return mTimings;
     }
 
 }
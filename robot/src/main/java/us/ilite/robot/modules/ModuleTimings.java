@@ -0,0 +1,127 @@
+package us.ilite.robot.modules;
+
+import com.flybotix.hfr.codex.Codex;
+
+import us.ilite.common.config.Settings;
+import us.ilite.common.io.CodexNetworkTables;
+import us.ilite.common.lib.util.LatencyHistogram;
+import us.ilite.common.types.EModuleTiming;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Records how long each module of a ModuleList or LoopList takes in each phase of a cycle.  All histograms are
+ * allocated when the module list is set, so recording a call is allocation-free.  They and the codexes are kept per
+ * module name, so setting the list again reuses them instead of registering new codexes.  Every
+ * Settings.kModuleTimingPublishPeriod seconds the stats are copied into one EModuleTiming codex per module, sent to
+ * NetworkTables and the histograms start a new window.
+ */
+public class ModuleTimings {
+
+    public enum EPhase {
+        INPUT, UPDATE, LOOP, OUTPUT
+    }
+
+    private static final EPhase[] kPhases = EPhase.values();
+    private static final EModuleTiming[] kElements = EModuleTiming.values();
+
+    private final CodexNetworkTables mCodexNT = CodexNetworkTables.getInstance();
+    private final String mListName;
+    private final long kOverrunThresholdNanos;
+    private final Map<String, LatencyHistogram[]> mHistogramsByName = new HashMap<>();
+    private final Map<String, Codex<Double, EModuleTiming>> mCodexesByName = new HashMap<>();
+    private String[] mNames;
+    private LatencyHistogram[][] mHistograms;
+    private Codex<Double, EModuleTiming>[] mCodexes;
+    private double mLastPublishTime = 0.0;
+
+    /**
+     * @param pListName Prefix for the NetworkTables names, so a module used in more than one list stays distinguishable
+     * @param pOverrunThresholdSeconds Any single call longer than this counts as an overrun
+     */
+    public ModuleTimings(String pListName, double pOverrunThresholdSeconds, Module ... pModules) {
+        mListName = pListName;
+        kOverrunThresholdNanos = (long)(pOverrunThresholdSeconds * 1e9);
+        setModules(pModules);
+    }
+
+    /**
+     * Times pModules from now on.  A module timed before keeps its codex and histograms, which start a new window.
+     */
+    @SuppressWarnings("unchecked")
+    public void setModules(Module ... pModules) {
+        mNames = new String[pModules.length];
+        mHistograms = new LatencyHistogram[pModules.length][];
+        mCodexes = new Codex[pModules.length];
+        for(int i = 0; i < pModules.length; i++) {
+            String name = (mListName + "_" + pModules[i].getClass().getSimpleName()).toUpperCase();
+            mNames[i] = name;
+            LatencyHistogram[] histograms = mHistogramsByName.get(name);
+            if(histograms == null) {
+                histograms = new LatencyHistogram[kPhases.length];
+                for(int p = 0; p < kPhases.length; p++) {
+                    histograms[p] = new LatencyHistogram(kOverrunThresholdNanos);
+                }
+                mHistogramsByName.put(name, histograms);
+                Codex<Double, EModuleTiming> codex = Codex.of.thisEnum(EModuleTiming.class);
+                mCodexesByName.put(name, codex);
+                mCodexNT.registerCodex(name, codex);
+            } else {
+                for(LatencyHistogram histogram : histograms) {
+                    histogram.reset();
+                }
+            }
+            mHistograms[i] = histograms;
+            mCodexes[i] = mCodexesByName.get(name);
+        }
+    }
+
+    public void record(int pModule, EPhase pPhase, long pNanos) {
+        mHistograms[pModule][pPhase.ordinal()].record(pNanos);
+    }
+
+    /**
+     * Publishes and resets the stats if the publishing period has elapsed since the last publish.
+     */
+    public void publishIfDue(double pNow) {
+        if(pNow - mLastPublishTime < Settings.kModuleTimingPublishPeriod) {
+            return;
+        }
+        mLastPublishTime = pNow;
+        for(int i = 0; i < mNames.length; i++) {
+            Codex<Double, EModuleTiming> codex = mCodexes[i];
+            codex.reset();
+            for(int p = 0; p < kPhases.length; p++) {
+                LatencyHistogram histogram = mHistograms[i][p];
+                if(histogram.getTotalCount() == 0) {
+                    continue;
+                }
+                int base = p * EModuleTiming.kStatsPerPhase;
+                codex.set(kElements[base], histogram.getPercentile(50) / 1000.0);
+                codex.set(kElements[base + 1], histogram.getPercentile(99) / 1000.0);
+                codex.set(kElements[base + 2], histogram.getMax() / 1000.0);
+                codex.set(kElements[base + 3], (double)histogram.getOverrunCount());
+                histogram.reset();
+            }
+            mCodexNT.sendNow(codex);
+        }
+    }
+
+    public int size() {
+        return mNames.length;
+    }
+
+    public String getName(int pModule) {
+        return mNames[pModule];
+    }
+
+    public LatencyHistogram getHistogram(int pModule, EPhase pPhase) {
+        return mHistograms[pModule][pPhase.ordinal()];
+    }
+
+    public Codex<Double, EModuleTiming> getCodex(int pModule) {
+        return mCodexes[pModule];
+    }
+
+}
@@ -0,0 +1,145 @@
+package us.ilite.robot.modules;
+
+import com.flybotix.hfr.codex.Codex;
+
+import us.ilite.common.Data;
+import us.ilite.common.config.Settings;
+import us.ilite.common.lib.control.DifferentialDrivePoseEstimator;
+import us.ilite.common.types.ETargetingData;
+import us.ilite.common.types.drive.EDriveData;
+import us.ilite.common.types.drive.EPose;
+import us.ilite.common.types.sensor.EGyro;
+import us.ilite.robot.loops.Loop;
+
+/**
+ * Integrates drive encoders and gyro heading into a field pose, and corrects it with Limelight sightings of a target
+ * whose field position has been set with setVisionTargetFieldPosition().  Must run in the same loop group as, and
+ * after, Drive, since it reads the drive and imu codexes Drive fills in periodicInput().
+ */
+public class PoseEstimator extends Loop {
+
+    private final Data mData;
+    private final DifferentialDrivePoseEstimator mEstimator = new DifferentialDrivePoseEstimator(
+            Settings.kPoseHistoryCapacity,
+            Settings.kPoseInitialVariance,
+            Settings.kPoseOdometryVariancePerInch,
+            Settings.kPoseVisionBaseVariance,
+            Settings.kPoseVisionVariancePerDistanceSquared,
+            Settings.kPoseVisionGateSigmas);
+
+    // {x, y} of the target vision is looking at, or null for odometry only.  Replaced, never modified.
+    private volatile double[] mVisionTargetFieldPosition = null;
+    private volatile double[] mPendingReset = null;
+    private double mLastCaptureTime = Double.NaN;
+
+    public PoseEstimator(Data pData) {
+        mData = pData;
+    }
+
+    @Override
+    public void modeInit(double pNow) {
+        mLastCaptureTime = Double.NaN;
+        // Drive.modeInit() zeroes the encoders and gyro
+        mEstimator.rebaseline();
+    }
+
+    @Override
+    public void periodicInput(double pNow) {
+        double[] reset = mPendingReset;
+        if(reset != null) {
+            mPendingReset = null;
+            mEstimator.reset(reset[0], reset[1], reset[2], Settings.kPoseInitialVariance);
+        }
+
+        Codex<Double, EDriveData> drive = mData.drive;
+        if(!drive.isSet(EDriveData.LEFT_POS_INCHES) || !drive.isSet(EDriveData.RIGHT_POS_INCHES) || !mData.imu.isSet(EGyro.YAW_DEGREES)) {
+            return;
+        }
+        mEstimator.update(pNow, drive.get(EDriveData.LEFT_POS_INCHES), drive.get(EDriveData.RIGHT_POS_INCHES), mData.imu.get(EGyro.YAW_DEGREES));
+    }
+
+    @Override
+    public void update(double pNow) {
+        loop(pNow);
+    }
+
+    @Override
+    public void loop(double pNow) {
+        fuseVision();
+
+        Codex<Double, EPose> pose = mData.pose;
+        pose.set(EPose.X_INCHES, mEstimator.getXInches());
+        pose.set(EPose.Y_INCHES, mEstimator.getYInches());
+        pose.set(EPose.HEADING_DEGREES, mEstimator.getHeadingDegrees());
+        pose.set(EPose.POSITION_VARIANCE, mEstimator.getVariance());
+        pose.set(EPose.VISION_INNOVATION_INCHES, mEstimator.getLastInnovation());
+        pose.set(EPose.VISION_UPDATES, (double)mEstimator.getVisionUpdates());
+        pose.set(EPose.VISION_REJECTS, (double)mEstimator.getVisionRejects());
+    }
+
+    private void fuseVision() {
+        double[] target = mVisionTargetFieldPosition;
+        Codex<Double, ETargetingData> limelight = mData.limelight;
+        Double captureTime = limelight.get(ETargetingData.captureTime);
+        if(target == null || captureTime == null || captureTime == mLastCaptureTime) {
+            return;
+        }
+        mLastCaptureTime = captureTime;
+        Double distance = limelight.get(ETargetingData.calcDistToTarget);
+        Double tx = limelight.get(ETargetingData.tx);
+        if(!limelight.isSet(ETargetingData.tv) || distance == null || tx == null) {
+            return;
+        }
+        mEstimator.addVisionMeasurement(captureTime, getForwardOfCenter(distance, tx), getLeftOfCenter(distance, tx), target[0], target[1]);
+    }
+
+    /**
+     * @param pDistance calcDistToTarget, which is measured from the bumper
+     * @param pTx Degrees, positive to the right
+     * @return How far the target is forward of the robot's centre
+     */
+    static double getForwardOfCenter(double pDistance, double pTx) {
+        double range = pDistance + Settings.LimeLight.kToBumperIn;
+        return Settings.LimeLight.kForwardOfCenterIn + range * Math.cos(Math.toRadians(pTx));
+    }
+
+    /**
+     * @return How far the target is to the left of the robot's centre
+     * @see #getForwardOfCenter(double, double)
+     */
+    static double getLeftOfCenter(double pDistance, double pTx) {
+        double range = pDistance + Settings.LimeLight.kToBumperIn;
+        return Settings.LimeLight.kLeftOfCenterIn - range * Math.sin(Math.toRadians(pTx));
+    }
+
+    @Override
+    public void shutdown(double pNow) {
+
+    }
+
+    /**
+     * Sets the field position of the target the Limelight is tracking, so sightings of it correct the pose.
+     */
+    public void setVisionTargetFieldPosition(double pXInches, double pYInches) {
+        mVisionTargetFieldPosition = new double[]{pXInches, pYInches};
+    }
+
+    /**
+     * Stops correcting the pose with vision.
+     */
+    public void clearVisionTargetFieldPosition() {
+        mVisionTargetFieldPosition = null;
+    }
+
+    /**
+     * Sets the pose at the start of the next cycle, e.g. to the starting position of an autonomous routine.
+     */
+    public void resetPose(double pXInches, double pYInches, double pHeadingDegrees) {
+        mPendingReset = new double[]{pXInches, pYInches, pHeadingDegrees};
+    }
+
+    public DifferentialDrivePoseEstimator getEstimator() {
+        return mEstimator;
+    }
+
+}
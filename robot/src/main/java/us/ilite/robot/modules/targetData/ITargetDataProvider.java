@@ -62,7 +62,7 @@ public interface ITargetDataProvider {
         // called for the first time
 
         double d = (getCameraHeightIn() - targetHeight) / 
-            Math.tan( getCameraAngleDeg() - getTargetingData().get(ETargetingData.ty) ) - 
+            Math.tan( Math.toRadians( getCameraAngleDeg() - getTargetingData().get(ETargetingData.ty) ) ) - 
             getCameraToBumperIn();
 
         return d;
@@ -1,6 +1,6 @@
-package us.ilite.robot;
+package us.ilite.robot.profiles;
 
-import us.ilite.common.config.SystemSettings;
+import us.ilite.common.config.Settings;
 import us.ilite.common.lib.RobotProfile;
 import us.ilite.common.lib.util.Units;
 
@@ -38,12 +38,12 @@ public class HenryProfile implements RobotProfile {
 
     @Override
     public double getWheelRadiusMeters() {
-        return Units.inches_to_meters(SystemSettings.kDriveWheelDiameterInches / 2.0);
+        return Units.inches_to_meters(Settings.Drive.kWheelDiameterInches / 2.0);
     }
 
     @Override
     public double getWheelbaseRadiusMeters() {
-        return Units.inches_to_meters(SystemSettings.kDriveEffectiveWheelbase / 2.0);
+        return Units.inches_to_meters(Settings.Drive.kEffectiveWheelbase / 2.0);
     }
 
     @Override
@@ -1,8 +1,8 @@
-package us.ilite.robot;
+package us.ilite.robot.profiles;
 
 import us.ilite.common.lib.RobotProfile;
-import us.ilite.common.config.SystemSettings;
-import com.team254.lib.util.Units;
+import us.ilite.common.config.Settings;
+import us.ilite.common.lib.util.Units;
 
 public class MikeyProfile implements RobotProfile {
     @Override
@@ -37,7 +37,7 @@ public class MikeyProfile implements RobotProfile {
 
     @Override
     public double getWheelRadiusMeters() {
-        return Units.inches_to_meters(SystemSettings.kDriveWheelDiameterInches / 2.0);
+        return Units.inches_to_meters(Settings.Drive.kWheelDiameterInches / 2.0);
     }
 
     @Override
@@ -1,8 +1,8 @@
-package us.ilite.robot;
+package us.ilite.robot.profiles;
 
 import us.ilite.common.lib.RobotProfile;
-import us.ilite.common.config.SystemSettings;
-import com.team254.lib.util.Units;
+import us.ilite.common.config.Settings;
+import us.ilite.common.lib.util.Units;
 
 /**
  * These values were obtained by running the "CharacterizeDrive" command with the robot on blocks.
@@ -45,12 +45,12 @@ public class StrongholdProfile implements RobotProfile {
 
     @Override
     public double getWheelRadiusMeters() {
-        return Units.inches_to_meters(SystemSettings.kDriveWheelDiameterInches / 2.0);
+        return Units.inches_to_meters(Settings.Drive.kWheelDiameterInches / 2.0);
     }
 
     @Override
     public double getWheelbaseRadiusMeters() {
-        return Units.inches_to_meters(SystemSettings.kDriveEffectiveWheelbase / 2.0);
+        return Units.inches_to_meters(Settings.Drive.kEffectiveWheelbase / 2.0);
     }
 
     @Override
@@ -0,0 +1,83 @@
+package us.ilite.robot.sim;
+
+import us.ilite.common.Data;
+import us.ilite.common.config.Settings;
+import us.ilite.common.lib.RobotProfile;
+import us.ilite.common.lib.util.SimulatedTimeSource;
+import us.ilite.common.lib.util.Units;
+import us.ilite.robot.commands.CommandTracer;
+import us.ilite.robot.commands.ICommand;
+import us.ilite.robot.hardware.Clock;
+import us.ilite.robot.hardware.DifferentialDriveSim;
+import us.ilite.robot.hardware.SimDriveHardware;
+import us.ilite.robot.modules.Drive;
+import us.ilite.robot.modules.DriveMessage;
+
+/**
+ * Runs an autonomous routine against Drive and SimDriveHardware on a simulated clock, as fast as the CPU allows.  Each
+ * run builds its own Data, Drive and hardware, so runs on different threads don't interact.
+ */
+public class AutonomousSimulation {
+
+    // Time given to the robot to come to rest after the routine ends, before its pose is measured
+    private static final double kSettleSeconds = 0.5;
+
+    private final RobotProfile mProfile;
+    private final IAutonomousRoutine mRoutine;
+
+    public AutonomousSimulation(RobotProfile pProfile, IAutonomousRoutine pRoutine) {
+        mProfile = pProfile;
+        mRoutine = pRoutine;
+    }
+
+    public SimulationResult run(SimulationParameters pParameters) {
+        SimulatedTimeSource time = new SimulatedTimeSource();
+        Clock clock = new Clock(time);
+        Data data = new Data(false);
+        SimDriveHardware hardware = new SimDriveHardware(clock, mProfile, pParameters.getNoiseSeed());
+        hardware.resetPose(pParameters.getStartX(), pParameters.getStartY(), pParameters.getStartHeading());
+        Drive drive = new Drive(data, hardware, null);
+        drive.modeInit(clock.getCurrentTime());
+        drive.periodicInput(clock.getCurrentTime());
+
+        ICommand command = mRoutine.create(drive, data, pParameters);
+        CommandTracer.init(command, clock.getCurrentTime());
+
+        // Same order as the robot: sensors, then the command, then outputs
+        double peakCurrent = 0.0;
+        boolean isCompleted = false;
+        double elapsed = 0.0;
+        while(elapsed < pParameters.getTimeout()) {
+            double now = clock.getCurrentTime();
+            drive.periodicInput(now);
+            peakCurrent = Math.max(peakCurrent, hardware.getLeftCurrent() + hardware.getRightCurrent());
+            if(CommandTracer.update(command, now)) {
+                isCompleted = true;
+                break;
+            }
+            drive.loop(now);
+            elapsed += cycle(time, clock);
+        }
+        CommandTracer.shutdown(command, clock.getCurrentTime());
+
+        drive.setDriveMessage(DriveMessage.kBrake);
+        for(double settle = 0.0; settle < kSettleSeconds; ) {
+            double now = clock.getCurrentTime();
+            drive.periodicInput(now);
+            peakCurrent = Math.max(peakCurrent, hardware.getLeftCurrent() + hardware.getRightCurrent());
+            drive.loop(now);
+            settle += cycle(time, clock);
+        }
+
+        DifferentialDriveSim model = hardware.getModel();
+        return new SimulationResult(pParameters, isCompleted, elapsed, Units.meters_to_inches(model.getX()),
+                Units.meters_to_inches(model.getY()), Math.toDegrees(model.getHeading()), peakCurrent);
+    }
+
+    private static double cycle(SimulatedTimeSource pTime, Clock pClock) {
+        pTime.advanceSeconds(Settings.kControlLoopPeriod);
+        pClock.cycleEnded();
+        return Settings.kControlLoopPeriod;
+    }
+
+}
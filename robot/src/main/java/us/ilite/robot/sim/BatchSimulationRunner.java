@@ -0,0 +1,122 @@
+package us.ilite.robot.sim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.flybotix.hfr.util.log.ELevel;
+import com.flybotix.hfr.util.log.Logger;
+
+import us.ilite.common.config.Settings;
+import us.ilite.common.lib.control.ProfileGains;
+import us.ilite.robot.auto.paths.AutoPaths;
+import us.ilite.robot.commands.DriveStraight;
+
+/**
+ * Runs many variations of an autonomous routine across all cores, e.g. to sweep gains overnight instead of on the
+ * practice field.  Variations are split recursively over a ForkJoinPool, so workers that draw quick runs steal the
+ * rest of the slow ones' share.
+ */
+public class BatchSimulationRunner {
+
+    private final AutonomousSimulation mSimulation;
+    private final ForkJoinPool mPool;
+
+    public BatchSimulationRunner(AutonomousSimulation pSimulation) {
+        this(pSimulation, Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchSimulationRunner(AutonomousSimulation pSimulation, int pParallelism) {
+        mSimulation = pSimulation;
+        mPool = new ForkJoinPool(pParallelism);
+    }
+
+    /**
+     * @return One result per variation, in the same order
+     */
+    public List<SimulationResult> run(List<SimulationParameters> pVariations) {
+        SimulationParameters[] variations = pVariations.toArray(new SimulationParameters[0]);
+        SimulationResult[] results = new SimulationResult[variations.length];
+        mPool.invoke(new RunRange(variations, results, 0, variations.length));
+        return Arrays.asList(results);
+    }
+
+    public void shutdown() {
+        mPool.shutdown();
+    }
+
+    private class RunRange extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final SimulationParameters[] mVariations;
+        private final SimulationResult[] mResults;
+        private final int mStart, mEnd;
+
+        private RunRange(SimulationParameters[] pVariations, SimulationResult[] pResults, int pStart, int pEnd) {
+            mVariations = pVariations;
+            mResults = pResults;
+            mStart = pStart;
+            mEnd = pEnd;
+        }
+
+        @Override
+        protected void compute() {
+            // A run is tens of milliseconds, plenty to be worth a task of its own
+            if(mEnd - mStart == 1) {
+                mResults[mStart] = mSimulation.run(mVariations[mStart]);
+                return;
+            }
+            int middle = (mStart + mEnd) >>> 1;
+            invokeAll(new RunRange(mVariations, mResults, mStart, middle),
+                    new RunRange(mVariations, mResults, middle, mEnd));
+        }
+
+    }
+
+    /**
+     * Sweeps DriveStraight's heading gains over noisy gyro and encoder readings, and prints the best combinations as
+     * CSV.
+     */
+    public static void main(String[] pArgs) {
+        Logger.setLevel(ELevel.WARN);
+        Settings.Simulation.kEncoderNoiseInches = 0.05;
+        Settings.Simulation.kGyroNoiseDegrees = 0.2;
+        Settings.Simulation.kSensorLatency = 0.02;
+
+        List<SimulationParameters> variations = new ArrayList<>();
+        for(double p = 0.0; p <= 0.05; p += 0.005) {
+            for(double d = 0.0; d <= 0.01; d += 0.002) {
+                for(long seed = 0; seed < 10; seed++) {
+                    variations.add(new SimulationParameters()
+                            .targetPose(120.0, 0.0, 0.0)
+                            .headingGains(new ProfileGains().p(p).d(d))
+                            .noiseSeed(seed));
+                }
+            }
+        }
+
+        AutonomousSimulation simulation = new AutonomousSimulation(AutoPaths.kProfile, (drive, data, parameters) ->
+                new DriveStraight(drive, data, DriveStraight.EDriveControlMode.PERCENT_OUTPUT, 120.0)
+                        .setHeadingGains(parameters.getHeadingGains())
+                        .setDistanceGains(parameters.getDistanceGains()));
+        BatchSimulationRunner runner = new BatchSimulationRunner(simulation);
+
+        long start = System.nanoTime();
+        List<SimulationResult> results = new ArrayList<>(runner.run(variations));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        runner.shutdown();
+
+        results.sort(Comparator.comparing((SimulationResult r) -> !r.isCompleted())
+                .thenComparingDouble(SimulationResult::getPositionError));
+        System.out.println(SimulationResult.kCsvHeader + ",parameters");
+        for(SimulationResult result : results.subList(0, Math.min(20, results.size()))) {
+            System.out.println(result.toCSV() + "," + result.getParameters());
+        }
+        System.out.println(variations.size() + " runs in " + elapsedMs + "ms");
+    }
+
+}
@@ -0,0 +1,16 @@
+package us.ilite.robot.sim;
+
+import us.ilite.common.Data;
+import us.ilite.robot.commands.ICommand;
+import us.ilite.robot.modules.Drive;
+
+/**
+ * Builds a fresh autonomous command for each simulated run, since commands keep state.  Called on the runner's worker
+ * threads, so it must not share mutable state between calls.
+ */
+@FunctionalInterface
+public interface IAutonomousRoutine {
+
+    ICommand create(Drive pDrive, Data pData, SimulationParameters pParameters);
+
+}
@@ -0,0 +1,120 @@
+package us.ilite.robot.sim;
+
+import us.ilite.common.config.Settings;
+import us.ilite.common.lib.control.ProfileGains;
+
+/**
+ * One variation of an autonomous routine to simulate: where the robot starts, where the routine should leave it, the
+ * gains its commands use and the sensor noise seed.  Gains default to Settings; routines read them from here instead,
+ * so variations can run side by side.
+ *
+ * Inches and degrees in the field frame, heading CCW-positive.
+ */
+public class SimulationParameters {
+
+    private double mStartX = 0.0, mStartY = 0.0, mStartHeading = 0.0;
+    private double mTargetX = 0.0, mTargetY = 0.0, mTargetHeading = 0.0;
+    private long mNoiseSeed = Settings.Simulation.kNoiseSeed;
+    private double mTimeout = 15.0;
+    private ProfileGains mHeadingGains = Settings.kDriveHeadingGains;
+    private ProfileGains mDistanceGains = Settings.Drive.kDistancePID;
+    private ProfileGains mTurnGains = Settings.Drive.kTurnToProfileGains;
+
+    public SimulationParameters startPose(double pXInches, double pYInches, double pHeadingDegrees) {
+        mStartX = pXInches;
+        mStartY = pYInches;
+        mStartHeading = pHeadingDegrees;
+        return this;
+    }
+
+    public SimulationParameters targetPose(double pXInches, double pYInches, double pHeadingDegrees) {
+        mTargetX = pXInches;
+        mTargetY = pYInches;
+        mTargetHeading = pHeadingDegrees;
+        return this;
+    }
+
+    public SimulationParameters noiseSeed(long pSeed) {
+        mNoiseSeed = pSeed;
+        return this;
+    }
+
+    /**
+     * @param pSeconds How long the routine gets before the run counts as not completed
+     */
+    public SimulationParameters timeout(double pSeconds) {
+        mTimeout = pSeconds;
+        return this;
+    }
+
+    public SimulationParameters headingGains(ProfileGains pGains) {
+        mHeadingGains = pGains;
+        return this;
+    }
+
+    public SimulationParameters distanceGains(ProfileGains pGains) {
+        mDistanceGains = pGains;
+        return this;
+    }
+
+    public SimulationParameters turnGains(ProfileGains pGains) {
+        mTurnGains = pGains;
+        return this;
+    }
+
+    public double getStartX() {
+        return mStartX;
+    }
+
+    public double getStartY() {
+        return mStartY;
+    }
+
+    public double getStartHeading() {
+        return mStartHeading;
+    }
+
+    public double getTargetX() {
+        return mTargetX;
+    }
+
+    public double getTargetY() {
+        return mTargetY;
+    }
+
+    public double getTargetHeading() {
+        return mTargetHeading;
+    }
+
+    public long getNoiseSeed() {
+        return mNoiseSeed;
+    }
+
+    public double getTimeout() {
+        return mTimeout;
+    }
+
+    public ProfileGains getHeadingGains() {
+        return mHeadingGains;
+    }
+
+    public ProfileGains getDistanceGains() {
+        return mDistanceGains;
+    }
+
+    public ProfileGains getTurnGains() {
+        return mTurnGains;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("start (%.1f, %.1f, %.1f) target (%.1f, %.1f, %.1f) seed %d heading %s distance %s turn %s",
+                mStartX, mStartY, mStartHeading, mTargetX, mTargetY, mTargetHeading, mNoiseSeed,
+                gainsToString(mHeadingGains), gainsToString(mDistanceGains), gainsToString(mTurnGains));
+    }
+
+    private static String gainsToString(ProfileGains pGains) {
+        return String.format("[P %.4f I %.4f D %.4f F %.4f]", pGains.P, pGains.I, pGains.D, pGains.F);
+    }
+
+}
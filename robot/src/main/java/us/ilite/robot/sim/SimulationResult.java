@@ -0,0 +1,86 @@
+package us.ilite.robot.sim;
+
+/**
+ * The outcome of one simulated autonomous run, measured against the simulation's true pose rather than the robot's
+ * sensors.
+ */
+public class SimulationResult {
+
+    public static final String kCsvHeader = "completed,time,x,y,heading,position_error,heading_error,peak_current";
+
+    private final SimulationParameters mParameters;
+    private final boolean mIsCompleted;
+    private final double mTimeToComplete;
+    private final double mX, mY, mHeading;
+    private final double mPeakCurrent;
+
+    /**
+     * @param pTimeToComplete Seconds until the routine finished, or the timeout if it didn't
+     * @param pPeakCurrent Most amps the whole drivetrain drew at once
+     */
+    public SimulationResult(SimulationParameters pParameters, boolean pIsCompleted, double pTimeToComplete,
+                            double pXInches, double pYInches, double pHeadingDegrees, double pPeakCurrent) {
+        mParameters = pParameters;
+        mIsCompleted = pIsCompleted;
+        mTimeToComplete = pTimeToComplete;
+        mX = pXInches;
+        mY = pYInches;
+        mHeading = pHeadingDegrees;
+        mPeakCurrent = pPeakCurrent;
+    }
+
+    public SimulationParameters getParameters() {
+        return mParameters;
+    }
+
+    public boolean isCompleted() {
+        return mIsCompleted;
+    }
+
+    public double getTimeToComplete() {
+        return mTimeToComplete;
+    }
+
+    public double getX() {
+        return mX;
+    }
+
+    public double getY() {
+        return mY;
+    }
+
+    public double getHeading() {
+        return mHeading;
+    }
+
+    /** Inches between where the robot came to rest and the target pose */
+    public double getPositionError() {
+        return Math.hypot(mParameters.getTargetX() - mX, mParameters.getTargetY() - mY);
+    }
+
+    /** Degrees, in [-180, 180) */
+    public double getHeadingError() {
+        double error = (mParameters.getTargetHeading() - mHeading) % 360.0;
+        if(error >= 180.0) {
+            error -= 360.0;
+        } else if(error < -180.0) {
+            error += 360.0;
+        }
+        return error;
+    }
+
+    public double getPeakCurrent() {
+        return mPeakCurrent;
+    }
+
+    public String toCSV() {
+        return String.format("%b,%.3f,%.2f,%.2f,%.2f,%.2f,%.2f,%.1f", mIsCompleted, mTimeToComplete, mX, mY, mHeading,
+                getPositionError(), getHeadingError(), mPeakCurrent);
+    }
+
+    @Override
+    public String toString() {
+        return toCSV() + " <- " + mParameters;
+    }
+
+}
@@ -0,0 +1,163 @@
+package us.ilite.robot.auto;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.gson.JsonParseException;
+
+import edu.wpi.first.wpilibj.geometry.Pose2d;
+
+import us.ilite.common.Data;
+import us.ilite.common.lib.util.SimulatedTimeSource;
+import us.ilite.robot.auto.paths.AutoPaths;
+import us.ilite.robot.auto.paths.TrajectoryLibrary;
+import us.ilite.robot.commands.ICommand;
+import us.ilite.robot.commands.ParallelDeadlineGroup;
+import us.ilite.robot.commands.SequentialCommandGroup;
+import us.ilite.robot.hardware.Clock;
+import us.ilite.robot.hardware.SimDriveHardware;
+import us.ilite.robot.modules.Drive;
+import us.ilite.robot.modules.ESubsystem;
+import us.ilite.robot.modules.Limelight;
+
+public class AutonomousRoutinesTest {
+
+    private static TrajectoryLibrary sTrajectories;
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    private final Data mData = new Data(false);
+    private final Drive mDrive = new Drive(mData, new SimDriveHardware(new Clock(new SimulatedTimeSource()), AutoPaths.kProfile), null);
+    private final RoutineLoader mLoader = new RoutineLoader(mDrive, mData, new Limelight(mData), sTrajectories);
+
+    @BeforeClass
+    public static void loadTrajectories() {
+        sTrajectories = new TrajectoryLibrary(AutoPaths.kProfile, null, null);
+        sTrajectories.loadAll(AutoPaths.kAll);
+    }
+
+    @Test
+    public void testBuildsNestedCommands() {
+        RoutineLoader.Routine routine = mLoader.load("{\"name\": \"Test\", \"commands\": ["
+                + "{\"type\": \"Deadline\", \"deadline\": {\"type\": \"FollowPath\", \"path\": \"DriveForward\"},"
+                + " \"commands\": [{\"type\": \"WaitForVisionTarget\", \"targetArea\": 3.0}]},"
+                + "{\"type\": \"Delay\", \"seconds\": 0.5}]}", "Default");
+
+        assertEquals("Test", routine.getName());
+        SequentialCommandGroup command = (SequentialCommandGroup)routine.getCommand();
+        assertEquals(2, command.size());
+        assertEquals(ESubsystem.mask(ESubsystem.DRIVE, ESubsystem.LIMELIGHT), command.getRequirements());
+    }
+
+    @Test
+    public void testStartPose() {
+        RoutineLoader.Routine explicit = mLoader.load("{\"start\": {\"x\": 12, \"y\": -6, \"heading\": 90},"
+                + " \"commands\": [{\"type\": \"FollowPath\", \"path\": \"DriveForward\"}]}", "Start");
+        assertEquals(12.0, explicit.getStartPose().getTranslation().getX(), 1e-9);
+        assertEquals(-6.0, explicit.getStartPose().getTranslation().getY(), 1e-9);
+        assertEquals(90.0, explicit.getStartPose().getRotation().getDegrees(), 1e-9);
+
+        // Where the first path starts
+        RoutineLoader.Routine path = mLoader.load("{\"commands\": [{\"type\": \"Delay\", \"seconds\": 1},"
+                + " {\"type\": \"FollowPath\", \"path\": \"SCurveLeft\"}]}", "Path");
+        Pose2d first = sTrajectories.get("SCurveLeft").getStates().get(0).poseMeters;
+        assertEquals(first.getTranslation().getX() / 0.0254, path.getStartPose().getTranslation().getX(), 1e-6);
+        assertEquals(first.getTranslation().getY() / 0.0254, path.getStartPose().getTranslation().getY(), 1e-6);
+        assertEquals(first.getRotation().getDegrees(), path.getStartPose().getRotation().getDegrees(), 1e-9);
+
+        RoutineLoader.Routine none = mLoader.load("{\"commands\": [{\"type\": \"Delay\", \"seconds\": 1}]}", "None");
+        assertEquals(new Pose2d(), none.getStartPose());
+    }
+
+    @Test
+    public void testNameDefaultsToFileName() {
+        RoutineLoader.Routine routine = mLoader.load("{\"commands\": [{\"type\": \"Delay\", \"seconds\": 1}]}", "Default");
+        assertEquals("Default", routine.getName());
+    }
+
+    @Test
+    public void testRejectsBadRoutines() {
+        String[] routines = {
+                "{\"commands\": [{\"type\": \"Teleport\"}]}",
+                "{\"commands\": [{\"type\": \"Delay\"}]}",
+                "{\"commands\": [{\"type\": \"Delay\", \"seconds\": \"soon\"}]}",
+                "{\"commands\": [{\"type\": \"DriveStraight\", \"inches\": 12, \"mode\": \"WARP\"}]}",
+                "{\"commands\": [{\"type\": \"FollowPath\", \"path\": \"NoSuchPath\"}]}",
+                "{\"commands\": [{\"type\": \"Parallel\"}]}",
+                "[]",
+                "{\"commands\": [",
+        };
+        for(String routine : routines) {
+            try {
+                mLoader.load(routine, "Bad");
+                fail("Loaded " + routine);
+            } catch (JsonParseException e) {
+                // Expected
+            }
+        }
+    }
+
+    @Test
+    public void testLoadsDeployedRoutines() {
+        AutonomousRoutines routines = new AutonomousRoutines(mLoader, new File("src/main/deploy/" + AutonomousRoutines.kDeployDirectory), null);
+        routines.loadAll();
+        assertEquals(3, routines.getNames().length);
+    }
+
+    @Test
+    public void testSelectsAndRebuildsAfterTake() throws Exception {
+        write("A.json", "{\"commands\": [{\"type\": \"Delay\", \"seconds\": 1}]}");
+        write("B.json", "{\"commands\": [{\"type\": \"Delay\", \"seconds\": 2}]}");
+        write("Broken.json", "{\"commands\": [{\"type\": \"Teleport\"}]}");
+        AutonomousRoutines routines = new AutonomousRoutines(mLoader, mFolder.getRoot(), sTrajectories);
+        routines.loadAll();
+        assertArrayEquals(new String[]{"A", "B"}, routines.getNames());
+
+        // Unknown names fall back to the first routine
+        assertTrue(routines.update("C", 0.0));
+        assertEquals("A", routines.getSelectedName());
+        assertTrue(routines.update("B", 0.0));
+        assertFalse(routines.update("B", 0.0));
+        ICommand b = routines.take();
+        assertEquals("B", routines.getSelectedName());
+        assertEquals(new Pose2d(), routines.getSelectedStartPose());
+        assertSame(b, routines.take());
+
+        // The routine that was taken is rebuilt in the background
+        routines.update("B", 0.0);
+        for(int i = 0; i < 500 && routines.isLoading(); i++) {
+            Thread.sleep(10);
+        }
+        assertFalse(routines.isLoading());
+        assertTrue(routines.update("B", 0.0));
+        assertNotSame(b, routines.take());
+
+        // A delay runs before the routine
+        routines.update("B", 1.5);
+        SequentialCommandGroup delayed = (SequentialCommandGroup)routines.take();
+        assertEquals(2, delayed.size());
+    }
+
+    @Test
+    public void testNothingSelectedWithoutRoutines() {
+        AutonomousRoutines routines = new AutonomousRoutines(mLoader, new File(mFolder.getRoot(), "missing"), null);
+        routines.loadAll();
+        routines.update("A", 0.0);
+        assertNull(routines.take());
+        assertNull(routines.getSelectedName());
+    }
+
+    private void write(String pName, String pJson) throws Exception {
+        Files.write(new File(mFolder.getRoot(), pName).toPath(), pJson.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
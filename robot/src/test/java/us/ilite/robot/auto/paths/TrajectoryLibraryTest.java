@@ -0,0 +1,94 @@
+package us.ilite.robot.auto.paths;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.wpi.first.wpilibj.trajectory.Trajectory;
+import us.ilite.robot.profiles.HenryProfile;
+
+public class TrajectoryLibraryTest {
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    private final PathGenerator mGenerator = new PathGenerator(new HenryProfile());
+
+    @Test
+    public void testGeneratedTrajectoryRespectsLimits() {
+        PathDefinition path = new PathDefinition("Test").waypoint(0, 0, 0).waypoint(120, 60, 0).maxVelocity(2.0);
+        Trajectory trajectory = mGenerator.generate(path);
+        for(Trajectory.State state : trajectory.getStates()) {
+            assertTrue(Math.abs(state.velocityMetersPerSecond) <= 2.0 + 1e-6);
+        }
+        Trajectory.State end = trajectory.sample(trajectory.getTotalTimeSeconds());
+        assertEquals(120 * 0.0254, end.poseMeters.getTranslation().getX(), 1e-6);
+        assertEquals(60 * 0.0254, end.poseMeters.getTranslation().getY(), 1e-6);
+    }
+
+    @Test
+    public void testCacheRoundTrip() throws Exception {
+        PathDefinition path = AutoPaths.kSCurveLeft;
+        long fingerprint = path.fingerprint(mGenerator.getProfile());
+        Trajectory trajectory = mGenerator.generate(path);
+        File file = TrajectoryCache.getFile(mFolder.getRoot(), path);
+        TrajectoryCache.write(file, fingerprint, trajectory);
+
+        Trajectory read = TrajectoryCache.read(file, fingerprint);
+        assertNotNull(read);
+        assertEquals(trajectory.getStates(), read.getStates());
+
+        // Anything the trajectory depends on changing invalidates the file
+        assertNotEquals(fingerprint, new PathDefinition(path.getName()).waypoint(0, 0, 0).waypoint(120, 61, 0).fingerprint(mGenerator.getProfile()));
+        assertNull(TrajectoryCache.read(file, fingerprint + 1));
+    }
+
+    @Test
+    public void testCorruptCacheIgnored() throws Exception {
+        PathDefinition path = AutoPaths.kDriveForward;
+        long fingerprint = path.fingerprint(mGenerator.getProfile());
+        File file = TrajectoryCache.getFile(mFolder.getRoot(), path);
+        TrajectoryCache.write(file, fingerprint, mGenerator.generate(path));
+
+        try(RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(40);
+            raf.write(~raf.read());
+        }
+        assertNull(TrajectoryCache.read(file, fingerprint));
+
+        try(RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() / 2);
+        }
+        assertNull(TrajectoryCache.read(file, fingerprint));
+    }
+
+    @Test
+    public void testGeneratesOnceThenLoadsFromCache() throws Exception {
+        File cache = mFolder.newFolder("cache");
+        List<PathDefinition> paths = Arrays.asList(AutoPaths.kDriveForward, AutoPaths.kBackUp);
+
+        TrajectoryLibrary first = new TrajectoryLibrary(mGenerator.getProfile(), null, cache);
+        first.loadAsync(paths);
+        assertTrue(first.awaitLoaded(30.0));
+        assertTrue(TrajectoryCache.getFile(cache, AutoPaths.kBackUp).isFile());
+        assertNull(first.get("Missing"));
+
+        long modified = TrajectoryCache.getFile(cache, AutoPaths.kBackUp).lastModified();
+        TrajectoryLibrary second = new TrajectoryLibrary(mGenerator.getProfile(), null, cache);
+        second.loadAll(paths);
+        for(PathDefinition path : paths) {
+            assertEquals(first.get(path).getStates(), second.get(path).getStates());
+        }
+        assertEquals(modified, TrajectoryCache.getFile(cache, AutoPaths.kBackUp).lastModified());
+        // Reversed paths drive backwards
+        assertTrue(second.get(AutoPaths.kBackUp).sample(1.0).velocityMetersPerSecond < 0);
+    }
+
+}
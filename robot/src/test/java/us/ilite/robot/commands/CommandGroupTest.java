@@ -0,0 +1,183 @@
+package us.ilite.robot.commands;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class CommandGroupTest {
+
+    /**
+     * Finishes after a set number of updates, and counts what was called on it.
+     */
+    private static class TestCommand implements ICommand {
+
+        private final int mUpdatesToFinish;
+        int mInits = 0, mUpdates = 0, mShutdowns = 0;
+
+        TestCommand(int pUpdatesToFinish) {
+            mUpdatesToFinish = pUpdatesToFinish;
+        }
+
+        @Override
+        public void init(double pNow) {
+            mInits++;
+            mUpdates = 0;
+        }
+
+        @Override
+        public boolean update(double pNow) {
+            return ++mUpdates >= mUpdatesToFinish;
+        }
+
+        @Override
+        public void shutdown(double pNow) {
+            mShutdowns++;
+        }
+
+    }
+
+    /**
+     * Runs pCommand the way CommandManager does.
+     * @return The number of updates until it finished
+     */
+    private static int run(ICommand pCommand, int pMaxUpdates) {
+        pCommand.init(0.0);
+        for(int i = 1; i <= pMaxUpdates; i++) {
+            if(pCommand.update(i * 0.02)) {
+                pCommand.shutdown(i * 0.02);
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void testSequentialRunsInOrder() {
+        TestCommand first = new TestCommand(2);
+        TestCommand second = new TestCommand(3);
+        SequentialCommandGroup group = new SequentialCommandGroup(first, second);
+
+        group.init(0.0);
+        assertEquals(1, first.mInits);
+        assertEquals(0, second.mInits);
+        group.update(0.02);
+        group.update(0.04);
+        // The second starts once the first finishes
+        assertEquals(1, first.mShutdowns);
+        assertEquals(1, second.mInits);
+        assertTrue(group.isFinished(0));
+        assertFalse(group.isFinished(1));
+
+        assertFalse(group.update(0.06));
+        assertFalse(group.update(0.08));
+        assertTrue(group.update(0.10));
+        assertEquals(1, second.mShutdowns);
+    }
+
+    @Test
+    public void testParallelWaitsForAll() {
+        TestCommand quick = new TestCommand(1);
+        TestCommand slow = new TestCommand(5);
+        ParallelCommandGroup group = new ParallelCommandGroup(quick, slow);
+
+        assertEquals(5, run(group, 100));
+        // Shut down once, when it finished, and not updated after
+        assertEquals(1, quick.mShutdowns);
+        assertEquals(1, quick.mUpdates);
+        assertEquals(1, slow.mShutdowns);
+    }
+
+    @Test
+    public void testRaceEndsWithFirstToFinish() {
+        TestCommand quick = new TestCommand(2);
+        TestCommand slow = new TestCommand(50);
+        ParallelRaceGroup group = new ParallelRaceGroup(slow, quick);
+
+        assertEquals(2, run(group, 100));
+        assertEquals(1, quick.mShutdowns);
+        assertEquals(1, slow.mShutdowns);
+        assertEquals(2, slow.mUpdates);
+    }
+
+    @Test
+    public void testDeadlineEndsWithDeadline() {
+        TestCommand deadline = new TestCommand(3);
+        TestCommand quick = new TestCommand(1);
+        TestCommand slow = new TestCommand(50);
+        ParallelDeadlineGroup group = new ParallelDeadlineGroup(deadline, quick, slow);
+
+        assertEquals(3, run(group, 100));
+        assertEquals(1, deadline.mShutdowns);
+        assertEquals(1, quick.mShutdowns);
+        assertEquals(1, slow.mShutdowns);
+        assertEquals(3, slow.mUpdates);
+    }
+
+    @Test
+    public void testGroupsNest() {
+        TestCommand a = new TestCommand(2);
+        TestCommand b = new TestCommand(3);
+        TestCommand c = new TestCommand(1);
+        ICommand routine = new SequentialCommandGroup(
+                new ParallelCommandGroup(a, b),
+                new ParallelRaceGroup(c, new TestCommand(100)));
+
+        // 3 for the parallel group, then 1 for the race, which starts the cycle after
+        assertEquals(4, run(routine, 100));
+        assertEquals(1, c.mInits);
+        assertEquals(1, c.mShutdowns);
+    }
+
+    @Test
+    public void testTracksMoreThan64Children() {
+        TestCommand[] commands = new TestCommand[130];
+        for(int i = 0; i < commands.length; i++) {
+            commands[i] = new TestCommand(i % 7 + 1);
+        }
+        ParallelCommandGroup group = new ParallelCommandGroup(commands);
+
+        assertEquals(7, run(group, 100));
+        for(TestCommand command : commands) {
+            assertEquals(1, command.mShutdowns);
+        }
+        assertEquals(commands.length, group.getFinishedCount());
+    }
+
+    @Test
+    public void testShutdownStopsOnlyWhatIsRunning() {
+        TestCommand first = new TestCommand(1);
+        TestCommand second = new TestCommand(10);
+        TestCommand third = new TestCommand(1);
+        SequentialCommandGroup group = new SequentialCommandGroup(first, second, third);
+
+        group.init(0.0);
+        group.update(0.02);
+        group.update(0.04);
+        group.shutdown(0.06);
+
+        assertEquals(1, second.mShutdowns);
+        assertEquals(0, third.mInits);
+        assertEquals(0, third.mShutdowns);
+    }
+
+    @Test
+    public void testCommandQueueCanBeRefilled() {
+        CommandQueue queue = new CommandQueue();
+        assertTrue(queue.isDone());
+
+        TestCommand command = new TestCommand(2);
+        queue.setCommands(command);
+        assertFalse(queue.isDone());
+        assertEquals(2, run(queue, 10));
+        assertTrue(queue.isDone());
+
+        // And again, from the start
+        assertEquals(2, run(queue, 10));
+        assertEquals(2, command.mInits);
+
+        queue.clear();
+        assertTrue(queue.isDone());
+        assertTrue(queue.update(0.0));
+    }
+
+}
@@ -0,0 +1,118 @@
+package us.ilite.robot.commands;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import us.ilite.robot.commands.CommandTracer.EEvent;
+
+public class CommandTracerTest {
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    @After
+    public void tearDown() {
+        CommandTracer.setActive(null);
+    }
+
+    @Test
+    public void testRecordsGroupAndChildren() {
+        CommandTracer tracer = new CommandTracer(64);
+        CommandTracer.setActive(tracer);
+
+        SequentialCommandGroup group = new SequentialCommandGroup(new Delay(0.0), new Delay(0.0));
+        CommandTracer.init(group, 0.0);
+        while(!CommandTracer.update(group, 0.02)) {
+        }
+        CommandTracer.shutdown(group, 0.02);
+
+        // Children record before the group call they happen inside
+        EEvent[] events = {EEvent.INIT, EEvent.INIT, EEvent.FINISH, EEvent.SHUTDOWN, EEvent.INIT, EEvent.UPDATE,
+                EEvent.FINISH, EEvent.SHUTDOWN, EEvent.FINISH, EEvent.SHUTDOWN};
+        String[] names = {"Delay", "SequentialCommandGroup", "Delay", "Delay", "Delay", "SequentialCommandGroup",
+                "Delay", "Delay", "SequentialCommandGroup", "SequentialCommandGroup"};
+        assertEquals(events.length, tracer.size());
+        for(int i = 0; i < events.length; i++) {
+            assertEquals(events[i], tracer.getEvent(i));
+            assertEquals(names[i], tracer.getCommandName(i));
+            assertTrue(tracer.getDurationNanos(i) >= 0);
+        }
+        // The group's update spans its children's
+        assertTrue(tracer.getStartNanos(5) <= tracer.getStartNanos(2));
+    }
+
+    @Test
+    public void testOverwritesOldestRecords() {
+        CommandTracer tracer = new CommandTracer(4);
+        ICommand first = new Delay(1.0);
+        ICommand second = new Delay(1.0);
+        tracer.record(EEvent.INIT, first, 0, 1);
+        for(int i = 1; i <= 5; i++) {
+            tracer.record(EEvent.UPDATE, second, i, 1);
+        }
+
+        assertEquals(4, tracer.size());
+        assertEquals(2, tracer.getOverwrittenRecords());
+        assertEquals(2, tracer.getStartNanos(0));
+        assertEquals(5, tracer.getStartNanos(3));
+    }
+
+    @Test
+    public void testRegisteredCommandsAreForgottenByClear() {
+        CommandTracer tracer = new CommandTracer(16, 2);
+        CommandTracer.setActive(tracer);
+        ICommand first = CommandTracer.register(new Delay(1.0));
+        ICommand second = CommandTracer.register(new SequentialCommandGroup());
+        // The table is full, so this one is untracked
+        ICommand third = new Delay(1.0);
+        tracer.record(EEvent.INIT, first, 0, 1);
+        tracer.record(EEvent.INIT, second, 1, 1);
+        tracer.record(EEvent.INIT, third, 2, 1);
+
+        assertEquals("Delay", tracer.getCommandName(0));
+        assertEquals("SequentialCommandGroup", tracer.getCommandName(1));
+        assertEquals("Untracked", tracer.getCommandName(2));
+
+        tracer.clear();
+        assertEquals(0, tracer.size());
+        tracer.record(EEvent.INIT, third, 3, 1);
+        assertEquals("Delay", tracer.getCommandName(0));
+    }
+
+    @Test
+    public void testNotRecordingWhenInactive() {
+        CommandTracer tracer = new CommandTracer(4);
+        Delay delay = new Delay(0.0);
+        CommandTracer.init(delay, 0.0);
+        assertTrue(CommandTracer.update(delay, 0.0));
+        assertEquals(0, tracer.size());
+    }
+
+    @Test
+    public void testConvertsToChromeTrace() throws Exception {
+        CommandTracer tracer = new CommandTracer(16);
+        ICommand command = new Delay(1.0);
+        tracer.record(EEvent.UPDATE, command, 2_001_500, 250);
+        tracer.record(EEvent.INIT, command, 1_000_000, 1_250);
+
+        File trace = mFolder.newFile("trace" + CommandTracer.FILE_EXTENSION);
+        File json = new File(mFolder.getRoot(), "trace.json");
+        tracer.write(trace);
+        assertEquals(2, CommandTraceConverter.convert(trace, json));
+
+        String contents = new String(Files.readAllBytes(json.toPath()), StandardCharsets.UTF_8);
+        assertTrue(contents.startsWith("{\"displayTimeUnit\":\"ns\",\"traceEvents\":["));
+        assertTrue(contents.contains("{\"name\":\"Delay\",\"cat\":\"UPDATE\",\"ph\":\"X\",\"pid\":1,\"tid\":1,\"ts\":1001.500,\"dur\":0.250,\"args\":{\"command\":0}}"));
+        assertTrue(contents.contains("{\"name\":\"Delay\",\"cat\":\"INIT\",\"ph\":\"X\",\"pid\":1,\"tid\":1,\"ts\":0.000,\"dur\":1.250,\"args\":{\"command\":0}}"));
+        assertTrue(contents.trim().endsWith("]}"));
+    }
+
+}
@@ -0,0 +1,48 @@
+package us.ilite.robot.hardware;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.revrobotics.ControlType;
+
+import us.ilite.common.lib.util.SimulatedTimeSource;
+
+public class CANWriteFilterTest {
+
+    private final SimulatedTimeSource mTime = new SimulatedTimeSource();
+    private final CANWriteFilter mFilter = new CANWriteFilter(1e-3, 0.1, mTime);
+
+    @Test
+    public void testSuppressesUnchangedDemand() {
+        assertTrue(mFilter.shouldWrite(0.5, ControlType.kDutyCycle, 0.0));
+        mTime.advanceSeconds(0.02);
+        assertFalse(mFilter.shouldWrite(0.5, ControlType.kDutyCycle, 0.0));
+        assertFalse(mFilter.shouldWrite(0.5005, ControlType.kDutyCycle, 0.0));
+        assertTrue(mFilter.shouldWrite(0.51, ControlType.kDutyCycle, 0.0));
+        assertTrue(mFilter.shouldWrite(0.51, ControlType.kVelocity, 0.0));
+        assertTrue(mFilter.shouldWrite(0.51, ControlType.kVelocity, 0.1));
+
+        assertEquals(4, mFilter.getFramesSent());
+        assertEquals(2, mFilter.getFramesSuppressed());
+    }
+
+    @Test
+    public void testKeepAlive() {
+        assertTrue(mFilter.shouldWrite(0.0, ControlType.kDutyCycle, 0.0));
+        for(int i = 0; i < 4; i++) {
+            mTime.advanceSeconds(0.02);
+            assertFalse(mFilter.shouldWrite(0.0, ControlType.kDutyCycle, 0.0));
+        }
+        mTime.advanceSeconds(0.02);
+        assertTrue(mFilter.shouldWrite(0.0, ControlType.kDutyCycle, 0.0));
+    }
+
+    @Test
+    public void testInvalidateForcesWrite() {
+        assertTrue(mFilter.shouldWrite(0.0, ControlType.kDutyCycle, 0.0));
+        mFilter.invalidate();
+        assertTrue(mFilter.shouldWrite(0.0, ControlType.kDutyCycle, 0.0));
+    }
+
+}
@@ -0,0 +1,59 @@
+package us.ilite.robot.hardware;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import us.ilite.common.lib.util.SimulatedTimeSource;
+import us.ilite.robot.commands.CommandQueue;
+import us.ilite.robot.commands.Delay;
+
+public class ClockTest {
+
+    @Test
+    public void testTimeIsConsistentWithinACycle() {
+        SimulatedTimeSource time = new SimulatedTimeSource();
+        Clock clock = new Clock(time);
+
+        time.advanceSeconds(1.0);
+        assertEquals(1.0, clock.getCurrentTime(), 1e-9);
+        time.advanceSeconds(0.5);
+        assertEquals(1.0, clock.getCurrentTime(), 1e-9);
+
+        clock.cycleEnded();
+        assertEquals(1.5, clock.getCurrentTime(), 1e-9);
+        assertEquals(1.5e9, clock.getCurrentTimeInNanos(), 1);
+    }
+
+    @Test
+    public void testSetTimeOnlyInSimulation() {
+        Clock clock = new Clock(new SimulatedTimeSource());
+        clock.setTime(42.0);
+        assertEquals(42.0, clock.getCurrentTime(), 1e-9);
+        assertTrue(clock.isSimulated());
+    }
+
+    /**
+     * A full 15 second autonomous period of commands should run in a small fraction of real time.
+     */
+    @Test
+    public void testFastForwardsAutonomous() throws InterruptedException {
+        SimulatedTimeSource time = new SimulatedTimeSource();
+        Clock clock = new Clock(time);
+        CommandQueue auton = new CommandQueue();
+        auton.setCommands(new Delay(5.0), new Delay(5.0), new Delay(4.0));
+
+        long wallStart = System.nanoTime();
+        auton.init(clock.getCurrentTime());
+        while(!auton.update(clock.getCurrentTime()) && clock.getCurrentTime() < 15.0) {
+            clock.cycleEnded();
+            time.sleepUntil(time.getNanos() + 20_000_000L);
+        }
+        double wallSeconds = (System.nanoTime() - wallStart) / 1e9;
+
+        assertTrue(auton.isDone());
+        assertEquals(14.0, clock.getCurrentTime(), 0.021);
+        assertTrue("Simulated 15s took " + wallSeconds + "s", wallSeconds < 1.5);
+    }
+
+}
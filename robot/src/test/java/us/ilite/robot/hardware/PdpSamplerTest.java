@@ -0,0 +1,86 @@
+package us.ilite.robot.hardware;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.wpi.first.wpilibj.PowerDistributionPanel;
+import us.ilite.common.lib.util.SimulatedTimeSource;
+import us.ilite.common.types.sensor.EPowerDistPanel;
+
+public class PdpSamplerTest {
+
+    private final SimulatedTimeSource mTime = new SimulatedTimeSource();
+    private PowerDistributionPanel mPdp;
+    private PdpSampler mSampler;
+
+    @Before
+    public void setUp() {
+        mPdp = mock(PowerDistributionPanel.class);
+        when(mPdp.getCurrent(anyInt())).thenReturn(5.0);
+        when(mPdp.getCurrent(1)).thenReturn(60.0);
+        when(mPdp.getVoltage()).thenReturn(12.5);
+        mSampler = new PdpSampler(mPdp, mTime, 0.01)
+                .setSamplePeriod(0.1, EPowerDistPanel.values())
+                .setSamplePeriod(0.01, EPowerDistPanel.CURRENT1, EPowerDistPanel.VOLTAGE);
+    }
+
+    @Test
+    public void testPerChannelRates() {
+        // One second of passes
+        for(int i = 0; i < 100; i++) {
+            mSampler.sample();
+            mTime.advanceSeconds(0.01);
+        }
+        verify(mPdp, times(100)).getCurrent(1);
+        verify(mPdp, times(100)).getVoltage();
+        verify(mPdp, times(10)).getCurrent(0);
+        verify(mPdp, times(10)).getTemperature();
+    }
+
+    @Test
+    public void testCopyLatest() {
+        double[] values = new double[EPowerDistPanel.values().length];
+        assertTrue(Double.isNaN(mSampler.copyLatest(values)));
+        assertFalse(mSampler.isAboveCurrentThreshold(50, EPowerDistPanel.CURRENT1));
+
+        mTime.setSeconds(2.0);
+        mSampler.sample();
+        assertEquals(2.0, mSampler.copyLatest(values), 1e-9);
+        assertEquals(60.0, values[EPowerDistPanel.CURRENT1.ordinal()], 0.0);
+        assertEquals(12.5, mSampler.get(EPowerDistPanel.VOLTAGE), 0.0);
+        assertTrue(mSampler.isAboveCurrentThreshold(50, EPowerDistPanel.CURRENT0, EPowerDistPanel.CURRENT1));
+        assertFalse(mSampler.isAboveCurrentThreshold(50, EPowerDistPanel.CURRENT0));
+    }
+
+    @Test
+    public void testReadersSeeConsistentSnapshots() throws InterruptedException {
+        // Every channel returns the pass number, so a torn read shows up as differing values
+        final double[] pass = {0};
+        when(mPdp.getCurrent(anyInt())).thenAnswer(invocation -> pass[0]);
+        PdpSampler sampler = new PdpSampler(mPdp, mTime, 0.01);
+
+        Thread reader = new Thread(() -> {
+            double[] values = new double[EPowerDistPanel.values().length];
+            for(int i = 0; i < 20000; i++) {
+                if(!Double.isNaN(sampler.copyLatest(values))) {
+                    for(int c = 1; c < 16; c++) {
+                        assertEquals(values[0], values[c], 0.0);
+                    }
+                }
+            }
+        });
+        final Throwable[] failure = {null};
+        reader.setUncaughtExceptionHandler((t, e) -> failure[0] = e);
+        reader.start();
+        while(reader.isAlive()) {
+            pass[0]++;
+            sampler.sample();
+            mTime.advanceSeconds(0.01);
+        }
+        assertNull(failure[0]);
+    }
+
+}
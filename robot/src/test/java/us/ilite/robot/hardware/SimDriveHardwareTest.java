@@ -0,0 +1,154 @@
+package us.ilite.robot.hardware;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import us.ilite.common.config.Settings;
+import us.ilite.common.lib.RobotProfile;
+import us.ilite.common.lib.control.ProfileGains;
+import us.ilite.common.lib.util.Conversions;
+import us.ilite.common.lib.util.SimulatedTimeSource;
+import us.ilite.common.lib.util.Units;
+import us.ilite.robot.modules.DriveMessage;
+import us.ilite.robot.profiles.HenryProfile;
+
+public class SimDriveHardwareTest {
+
+    private static final RobotProfile kProfile = new HenryProfile();
+
+    private final SimulatedTimeSource mTime = new SimulatedTimeSource();
+    private final Clock mClock = new Clock(mTime);
+    private final ProfileGains mDistancePID = Settings.Drive.kDistancePID;
+    private final double mSensorLatency = Settings.Simulation.kSensorLatency;
+    private SimDriveHardware mHardware;
+
+    @Before
+    public void setUp() {
+        mHardware = new SimDriveHardware(mClock, kProfile);
+        mHardware.init();
+    }
+
+    @After
+    public void tearDown() {
+        Settings.Drive.kDistancePID = mDistancePID;
+        Settings.Simulation.kSensorLatency = mSensorLatency;
+    }
+
+    private void run(DriveMessage pMessage, double pSeconds) {
+        for(int i = 0; i < Math.round(pSeconds / 0.01); i++) {
+            mHardware.set(pMessage);
+            mTime.advanceSeconds(0.01);
+            mClock.cycleEnded();
+            mHardware.refresh(mClock.getCurrentTime());
+        }
+    }
+
+    private static DriveMessage percent(double pLeft, double pRight) {
+        return new DriveMessage().demand(pLeft, pRight).mode(ECommonControlMode.PERCENT_OUTPUT);
+    }
+
+    @Test
+    public void testReachesModelFreeSpeed() {
+        run(percent(0.5, 0.5), 2.0);
+
+        // 6V holds the speed where friction and back-EMF take up all of it
+        double expected = (6.0 - kProfile.getLeftFrictionVoltage()) / (kProfile.getLeftVoltPerSpeed() / kProfile.getWheelRadiusMeters());
+        assertEquals(Units.meters_to_inches(expected), mHardware.getLeftVelInches(), 0.5);
+        assertTrue(mHardware.getLeftInches() > 0.0);
+        assertEquals(6.0, mHardware.getLeftVoltage(), 1e-9);
+        assertTrue(mHardware.getLeftCurrent() > 0.0);
+    }
+
+    @Test
+    public void testTurnsInPlace() {
+        run(percent(-0.3, 0.3), 1.0);
+
+        // CCW, and without going anywhere
+        assertTrue(mHardware.getImu().getYaw() > 90.0);
+        assertEquals(0.0, mHardware.getModel().getX(), 0.02);
+        assertEquals(0.0, mHardware.getModel().getY(), 0.02);
+        assertEquals(-mHardware.getLeftInches(), mHardware.getRightInches(), 3.0);
+    }
+
+    @Test
+    public void testStaticFrictionHoldsTheRobot() {
+        run(percent(0.03, 0.03), 1.0);
+
+        assertEquals(0.0, mHardware.getLeftInches(), 1e-9);
+        assertEquals(0.0, mHardware.getRightInches(), 1e-9);
+    }
+
+    @Test
+    public void testBrakeStopsSoonerThanCoast() {
+        run(percent(0.5, 0.5), 1.0);
+        run(percent(0.0, 0.0).neutral(ECommonNeutralMode.BRAKE), 0.05);
+        double brakeVelocity = mHardware.getModel().getVelocity();
+
+        setUp();
+        run(percent(0.5, 0.5), 1.0);
+        run(percent(0.0, 0.0).neutral(ECommonNeutralMode.COAST), 0.05);
+        double coastVelocity = mHardware.getModel().getVelocity();
+
+        assertTrue(brakeVelocity < coastVelocity);
+        // Coasting robots do stop eventually
+        run(percent(0.0, 0.0).neutral(ECommonNeutralMode.COAST), 10.0);
+        assertEquals(0.0, mHardware.getModel().getVelocity(), 1e-9);
+    }
+
+    @Test
+    public void testTracksVelocityDemand() {
+        double rpm = Conversions.inchesPerSecondToRpm(60.0);
+        double metersPerSecond = Units.inches_to_meters(60.0);
+        DriveMessage message = new DriveMessage()
+                .demand(rpm, rpm)
+                .mode(ECommonControlMode.VELOCITY)
+                .feedforward(mHardware.getModel().getLeftFeedforward(metersPerSecond, 0.0),
+                        mHardware.getModel().getRightFeedforward(metersPerSecond, 0.0));
+        run(message, 1.0);
+
+        assertEquals(60.0, mHardware.getLeftVelInches(), 0.5);
+        assertEquals(60.0, mHardware.getRightVelInches(), 0.5);
+        assertEquals(rpm, mHardware.getLeftVelTicks(), 1.0);
+    }
+
+    @Test
+    public void testSmartMotionStopsAtTarget() {
+        Settings.Drive.kDistancePID = new ProfileGains()
+                .maxVelocity(Conversions.inchesPerSecondToRpm(80.0))
+                .maxAccel(Conversions.inchesPerSecondToRpm(80.0));
+        double rotations = Conversions.inchesToRotations(48.0);
+        run(new DriveMessage().demand(rotations, rotations).mode(ECommonControlMode.MOTION_PROFILE), 3.0);
+
+        assertEquals(48.0, mHardware.getLeftInches(), 1.0);
+        assertEquals(48.0, mHardware.getRightInches(), 1.0);
+        assertEquals(0.0, mHardware.getLeftVelInches(), 0.5);
+    }
+
+    @Test
+    public void testDelaysSensors() {
+        Settings.Simulation.kSensorLatency = 0.05;
+        mHardware = new SimDriveHardware(mClock, kProfile);
+        mHardware.init();
+
+        run(percent(0.5, 0.5), 0.04);
+        // Moving, but it hasn't been seen yet
+        assertTrue(mHardware.getModel().getLeftPosition() > 0.0);
+        assertEquals(0.0, mHardware.getLeftInches(), 1e-9);
+        run(percent(0.5, 0.5), 0.02);
+        assertTrue(mHardware.getLeftInches() > 0.0);
+    }
+
+    @Test
+    public void testZeroesEncodersAndGyro() {
+        run(percent(0.2, 0.4), 1.0);
+        mHardware.zero();
+        mHardware.refresh(mClock.getCurrentTime());
+
+        assertEquals(0.0, mHardware.getLeftInches(), 1e-9);
+        assertEquals(0.0, mHardware.getImu().getYaw(), 1e-9);
+    }
+
+}
@@ -0,0 +1,50 @@
+package us.ilite.robot.hardware;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.Test;
+
+import com.revrobotics.CANEncoder;
+import com.revrobotics.CANSparkMax;
+
+public class SparkMaxSensorCacheTest {
+
+    @Test
+    public void testReadsEachValueOncePerRefresh() {
+        CANSparkMax sparkMax = mock(CANSparkMax.class);
+        CANEncoder encoder = mock(CANEncoder.class);
+        when(sparkMax.getEncoder()).thenReturn(encoder);
+        when(encoder.getPosition()).thenReturn(12.0);
+        when(encoder.getVelocity()).thenReturn(3.0);
+        when(sparkMax.getOutputCurrent()).thenReturn(40.0);
+
+        SparkMaxSensorCache cache = new SparkMaxSensorCache(sparkMax);
+        cache.refresh(1.0);
+        for(int i = 0; i < 5; i++) {
+            assertEquals(12.0, cache.getPosition(), 0.0);
+            assertEquals(3.0, cache.getVelocity(), 0.0);
+            assertEquals(40.0, cache.getOutputCurrent(), 0.0);
+        }
+
+        verify(sparkMax, times(1)).getEncoder();
+        verify(encoder, times(1)).getPosition();
+        verify(encoder, times(1)).getVelocity();
+        verify(sparkMax, times(1)).getOutputCurrent();
+        verify(sparkMax, times(1)).getAppliedOutput();
+    }
+
+    @Test
+    public void testStaleness() {
+        CANSparkMax sparkMax = mock(CANSparkMax.class);
+        when(sparkMax.getEncoder()).thenReturn(mock(CANEncoder.class));
+        SparkMaxSensorCache cache = new SparkMaxSensorCache(sparkMax);
+
+        assertTrue(cache.isStale(0.0, 0.1));
+        cache.refresh(1.0);
+        assertEquals(1.0, cache.getLastRefreshTime(), 0.0);
+        assertFalse(cache.isStale(1.02, 0.1));
+        assertTrue(cache.isStale(1.2, 0.1));
+    }
+
+}
@@ -0,0 +1,166 @@
+package us.ilite.robot.loops;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import us.ilite.common.lib.util.ITimeSource;
+
+public class LoopGroupTest {
+
+    private static final long kMillis = 1_000_000L;
+
+    private FakeTimeSource mTime;
+
+    @Before
+    public void setup() {
+        mTime = new FakeTimeSource();
+    }
+
+    @Test
+    public void testRunsAtConfiguredRate() throws InterruptedException {
+        WorkLoop drive = new WorkLoop(mTime, kMillis);
+        LoopGroup group = new LoopGroup("test", 0.005, mTime).addLoop(drive, 0);
+
+        for(int i = 0; i < 200; i++) {
+            group.step();
+        }
+
+        assertEquals(200, drive.mLoops);
+        assertEquals(0, group.getOverruns());
+        // The last cycle was released at 199 periods and took 1ms
+        assertEquals(199 * 5 * kMillis + kMillis, mTime.getNanos());
+    }
+
+    @Test
+    public void testSkipDoesNotBurstToCatchUp() throws InterruptedException {
+        WorkLoop drive = new WorkLoop(mTime, kMillis);
+        LoopGroup group = new LoopGroup("test", 0.005, mTime).addLoop(drive, 0).setOverrunPolicy(EOverrunPolicy.SKIP);
+
+        drive.mWorkNanos = 12 * kMillis;
+        group.step();
+        drive.mWorkNanos = kMillis;
+        group.step();
+
+        assertEquals(1, group.getOverruns());
+        assertEquals(2, group.getSkippedReleases());
+        // Second cycle starts at the next period boundary after the overrun, not immediately
+        assertEquals(15 * kMillis, drive.mLastStart);
+    }
+
+    @Test
+    public void testShedsLowestPriorityLoops() throws InterruptedException {
+        WorkLoop drive = new WorkLoop(mTime, 8 * kMillis);
+        WorkLoop vision = new WorkLoop(mTime, 4 * kMillis);
+        LoopGroup group = new LoopGroup("test", 0.02, mTime)
+                .addLoop(vision, 0, 0.01)
+                .addLoop(drive, 10, 0.01)
+                .setOverrunPolicy(EOverrunPolicy.SHED);
+
+        for(int i = 0; i < 10; i++) {
+            group.step();
+        }
+
+        assertEquals(10, drive.mLoops);
+        assertEquals(0, group.getSheds(drive));
+        assertEquals(0, group.getDeadlineMisses(drive));
+        // Vision only runs once, before its duration is known
+        assertEquals(1, vision.mLoops);
+        assertEquals(9, group.getSheds(vision));
+        assertEquals(1, group.getDeadlineMisses(vision));
+    }
+
+    @Test
+    public void testShedLoopIsProbedAfterOneSlowRun() throws InterruptedException {
+        WorkLoop drive = new WorkLoop(mTime, 8 * kMillis);
+        WorkLoop vision = new WorkLoop(mTime, 4 * kMillis);
+        LoopGroup group = new LoopGroup("test", 0.02, mTime)
+                .addLoop(vision, 0, 0.01)
+                .addLoop(drive, 10, 0.01)
+                .setOverrunPolicy(EOverrunPolicy.SHED);
+
+        group.step();
+        vision.mWorkNanos = kMillis;
+        for(int i = 0; i < LoopGroup.kShedProbeCycles + 10; i++) {
+            group.step();
+        }
+
+        // Shed until the probe run finds it is fast again, then it runs every cycle
+        assertEquals(LoopGroup.kShedProbeCycles, group.getSheds(vision));
+        assertEquals(11, vision.mLoops);
+        assertEquals(1, group.getDeadlineMisses(vision));
+    }
+
+    @Test
+    public void testDegradeSlowsDownAndRecovers() throws InterruptedException {
+        WorkLoop drive = new WorkLoop(mTime, 7 * kMillis);
+        LoopGroup group = new LoopGroup("test", 0.005, mTime).addLoop(drive, 0).setOverrunPolicy(EOverrunPolicy.DEGRADE);
+
+        group.step();
+        assertEquals(2, group.getDegradeFactor());
+
+        drive.mWorkNanos = kMillis;
+        for(int i = 0; i < LoopGroup.kRecoveryCycles; i++) {
+            group.step();
+        }
+        assertEquals(1, group.getDegradeFactor());
+    }
+
+    private static class FakeTimeSource implements ITimeSource {
+        private long mNow = 0;
+
+        @Override
+        public long getNanos() {
+            return mNow;
+        }
+
+        @Override
+        public void sleepUntil(long pNanos) {
+            mNow = Math.max(mNow, pNanos);
+        }
+
+        void advance(long pNanos) {
+            mNow += pNanos;
+        }
+    }
+
+    /**
+     * A loop that takes a fixed amount of (fake) time in loop().
+     */
+    private static class WorkLoop extends Loop {
+        private final FakeTimeSource mTime;
+        long mWorkNanos;
+        long mLastStart = -1;
+        int mLoops = 0;
+
+        WorkLoop(FakeTimeSource pTime, long pWorkNanos) {
+            mTime = pTime;
+            mWorkNanos = pWorkNanos;
+        }
+
+        @Override
+        public void loop(double pNow) {
+            mLastStart = mTime.getNanos();
+            mLoops++;
+            mTime.advance(mWorkNanos);
+        }
+
+        @Override
+        public void modeInit(double pNow) {
+        }
+
+        @Override
+        public void periodicInput(double pNow) {
+        }
+
+        @Override
+        public void update(double pNow) {
+        }
+
+        @Override
+        public void shutdown(double pNow) {
+        }
+    }
+
+}
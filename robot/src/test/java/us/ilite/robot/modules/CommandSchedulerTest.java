@@ -0,0 +1,172 @@
+package us.ilite.robot.modules;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import us.ilite.robot.commands.ICommand;
+import us.ilite.robot.commands.ParallelCommandGroup;
+
+public class CommandSchedulerTest {
+
+    /**
+     * Finishes after a set number of updates, and counts what was called on it.
+     */
+    private static class TestCommand implements ICommand {
+
+        private final long mRequirements;
+        private final int mUpdatesToFinish;
+        int mInits = 0, mUpdates = 0, mShutdowns = 0;
+
+        TestCommand(int pUpdatesToFinish, ESubsystem... pRequirements) {
+            mRequirements = ESubsystem.mask(pRequirements);
+            mUpdatesToFinish = pUpdatesToFinish;
+        }
+
+        @Override
+        public void init(double pNow) {
+            mInits++;
+            mUpdates = 0;
+        }
+
+        @Override
+        public boolean update(double pNow) {
+            return ++mUpdates >= mUpdatesToFinish;
+        }
+
+        @Override
+        public void shutdown(double pNow) {
+            mShutdowns++;
+        }
+
+        @Override
+        public long getRequirements() {
+            return mRequirements;
+        }
+
+    }
+
+    @Test
+    public void testRunsCommandsWithoutConflictsTogether() {
+        CommandScheduler scheduler = new CommandScheduler();
+        TestCommand drive = new TestCommand(3, ESubsystem.DRIVE);
+        TestCommand limelight = new TestCommand(2, ESubsystem.LIMELIGHT);
+        TestCommand none = new TestCommand(1);
+
+        assertTrue(scheduler.schedule(drive, 0, 0.0));
+        assertTrue(scheduler.schedule(limelight, 0, 0.0));
+        assertTrue(scheduler.schedule(none, 0, 0.0));
+        assertEquals(3, scheduler.getScheduledCount());
+        assertSame(drive, scheduler.getRequiring(ESubsystem.DRIVE));
+
+        // Not updated in the cycle they're initialized
+        scheduler.update(0.0);
+        assertEquals(0, drive.mUpdates);
+
+        scheduler.update(0.02);
+        assertEquals(1, none.mShutdowns);
+        scheduler.update(0.04);
+        assertEquals(1, limelight.mShutdowns);
+        assertNull(scheduler.getRequiring(ESubsystem.LIMELIGHT));
+        scheduler.update(0.06);
+        assertEquals(1, drive.mShutdowns);
+        assertEquals(0, scheduler.getScheduledCount());
+        assertNull(scheduler.getRequiring(ESubsystem.DRIVE));
+    }
+
+    @Test
+    public void testInterruptsOnlyConflictingCommands() {
+        CommandScheduler scheduler = new CommandScheduler();
+        TestCommand auto = new TestCommand(100, ESubsystem.DRIVE);
+        TestCommand limelight = new TestCommand(100, ESubsystem.LIMELIGHT);
+        TestCommand lock = new TestCommand(100, ESubsystem.DRIVE);
+
+        scheduler.schedule(auto, 0, 0.0);
+        scheduler.schedule(limelight, 0, 0.0);
+        assertTrue(scheduler.schedule(lock, 0, 0.02));
+
+        assertEquals(1, auto.mShutdowns);
+        assertFalse(scheduler.isScheduled(auto));
+        assertTrue(scheduler.isScheduled(limelight));
+        assertSame(lock, scheduler.getRequiring(ESubsystem.DRIVE));
+    }
+
+    @Test
+    public void testRejectsLowerPriority() {
+        CommandScheduler scheduler = new CommandScheduler();
+        TestCommand high = new TestCommand(100, ESubsystem.DRIVE, ESubsystem.LIMELIGHT);
+        TestCommand low = new TestCommand(100, ESubsystem.LIMELIGHT);
+
+        scheduler.schedule(high, 10, 0.0);
+        assertFalse(scheduler.schedule(low, 5, 0.0));
+        assertEquals(0, low.mInits);
+        assertEquals(0, high.mShutdowns);
+
+        // Once the subsystem is free it can run
+        scheduler.cancel(high, 0.02);
+        assertTrue(scheduler.schedule(low, 5, 0.02));
+        assertSame(low, scheduler.getRequiring(ESubsystem.LIMELIGHT));
+    }
+
+    @Test
+    public void testInterruptsEveryConflictingCommandOnce() {
+        CommandScheduler scheduler = new CommandScheduler();
+        TestCommand drive = new TestCommand(100, ESubsystem.DRIVE);
+        TestCommand limelight = new TestCommand(100, ESubsystem.LIMELIGHT);
+        TestCommand both = new TestCommand(100, ESubsystem.DRIVE, ESubsystem.LIMELIGHT);
+        TestCommand other = new TestCommand(100, ESubsystem.DRIVE, ESubsystem.LIMELIGHT);
+
+        scheduler.schedule(drive, 0, 0.0);
+        scheduler.schedule(limelight, 0, 0.0);
+        scheduler.schedule(both, 0, 0.0);
+        assertEquals(1, drive.mShutdowns);
+        assertEquals(1, limelight.mShutdowns);
+
+        scheduler.schedule(other, 0, 0.0);
+        assertEquals(1, both.mShutdowns);
+        assertEquals(1, scheduler.getScheduledCount());
+    }
+
+    @Test
+    public void testGroupsRequireTheirChildrensSubsystems() {
+        CommandScheduler scheduler = new CommandScheduler();
+        ParallelCommandGroup group = new ParallelCommandGroup(new TestCommand(1, ESubsystem.DRIVE),
+                new TestCommand(1, ESubsystem.LIMELIGHT));
+        assertEquals(ESubsystem.mask(ESubsystem.DRIVE, ESubsystem.LIMELIGHT), group.getRequirements());
+
+        scheduler.schedule(group, 0, 0.0);
+        assertSame(group, scheduler.getRequiring(ESubsystem.DRIVE));
+        assertSame(group, scheduler.getRequiring(ESubsystem.LIMELIGHT));
+    }
+
+    @Test
+    public void testSchedulingTwiceDoesNothing() {
+        CommandScheduler scheduler = new CommandScheduler();
+        TestCommand command = new TestCommand(100, ESubsystem.DRIVE);
+
+        assertTrue(scheduler.schedule(command, 0, 0.0));
+        assertTrue(scheduler.schedule(command, 0, 0.02));
+        assertEquals(1, command.mInits);
+        assertEquals(0, command.mShutdowns);
+    }
+
+    @Test
+    public void testRejectsWhenFull() {
+        CommandScheduler scheduler = new CommandScheduler();
+        for(int i = 0; i < CommandScheduler.kMaxCommands; i++) {
+            assertTrue(scheduler.schedule(new TestCommand(100), 0, 0.0));
+        }
+        assertFalse(scheduler.schedule(new TestCommand(100), 0, 0.0));
+        // Interrupting a command frees its slot
+        TestCommand drive = new TestCommand(100, ESubsystem.DRIVE);
+        scheduler.cancelAll(0.0);
+        scheduler.schedule(drive, 0, 0.0);
+        for(int i = 1; i < CommandScheduler.kMaxCommands; i++) {
+            scheduler.schedule(new TestCommand(100), 0, 0.0);
+        }
+        assertTrue(scheduler.schedule(new TestCommand(100, ESubsystem.DRIVE), 0, 0.0));
+        assertEquals(1, drive.mShutdowns);
+        assertEquals(CommandScheduler.kMaxCommands, scheduler.getScheduledCount());
+    }
+
+}
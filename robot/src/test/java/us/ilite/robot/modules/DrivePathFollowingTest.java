@@ -0,0 +1,101 @@
+package us.ilite.robot.modules;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.wpi.first.wpilibj.trajectory.Trajectory;
+import us.ilite.common.Data;
+import us.ilite.common.lib.control.TrajectorySampler;
+import us.ilite.common.lib.util.SimulatedTimeSource;
+import us.ilite.common.types.drive.EDriveData;
+import us.ilite.robot.auto.paths.AutoPaths;
+import us.ilite.robot.auto.paths.PathGenerator;
+import us.ilite.robot.hardware.Clock;
+import us.ilite.robot.hardware.SimDriveHardware;
+
+/**
+ * Runs Drive's path follower closed-loop against SimDriveHardware, the way the drive loop group would.
+ */
+public class DrivePathFollowingTest {
+
+    private static final double kDt = 0.01;
+
+    private final SimulatedTimeSource mTime = new SimulatedTimeSource();
+    private final Clock mClock = new Clock(mTime);
+    private final Data mData = new Data();
+    private Drive mDrive;
+    private PoseEstimator mPoseEstimator;
+
+    @Before
+    public void setUp() {
+        SimDriveHardware hardware = new SimDriveHardware(mClock, AutoPaths.kProfile);
+        mDrive = new Drive(mData, hardware, null);
+        mPoseEstimator = new PoseEstimator(mData);
+        mDrive.setPoseEstimator(mPoseEstimator.getEstimator());
+        mDrive.modeInit(mClock.getCurrentTime());
+        mPoseEstimator.modeInit(mClock.getCurrentTime());
+        cycle();
+    }
+
+    private void cycle() {
+        double now = mClock.getCurrentTime();
+        mDrive.periodicInput(now);
+        mPoseEstimator.periodicInput(now);
+        mDrive.loop(now);
+        mPoseEstimator.loop(now);
+        mTime.advanceSeconds(kDt);
+        mClock.cycleEnded();
+    }
+
+    private void follow(Trajectory pTrajectory) {
+        mDrive.setPathFollowing(new TrajectorySampler(pTrajectory));
+        int cycles = 0;
+        // Until the trajectory ends, plus a little to settle
+        while(!mDrive.isPathFinished() && cycles++ < 2000) {
+            cycle();
+        }
+        for(int i = 0; i < 50; i++) {
+            cycle();
+        }
+        assertTrue(mDrive.isPathFinished());
+    }
+
+    @Test
+    public void testFollowsSCurve() {
+        Trajectory trajectory = new PathGenerator(AutoPaths.kProfile).generate(AutoPaths.kSCurveLeft);
+        follow(trajectory);
+
+        assertEquals(120.0, mPoseEstimator.getEstimator().getXInches(), 1.0);
+        assertEquals(60.0, mPoseEstimator.getEstimator().getYInches(), 1.0);
+        assertEquals(0.0, mPoseEstimator.getEstimator().getHeadingDegrees(), 2.0);
+        // Stopped with nothing left to correct
+        assertEquals(0.0, mData.drive.get(EDriveData.LEFT_MESSAGE_OUTPUT), 1.0);
+        assertEquals(0.0, mData.drive.get(EDriveData.RIGHT_MESSAGE_OUTPUT), 1.0);
+    }
+
+    @Test
+    public void testCorrectsStartingError() {
+        // The robot starts 6" right of and turned 10 degrees away from where the path expects it
+        mPoseEstimator.resetPose(0.0, -6.0, -10.0);
+        cycle();
+
+        Trajectory trajectory = new PathGenerator(AutoPaths.kProfile).generate(AutoPaths.kDriveForward);
+        follow(trajectory);
+
+        assertEquals(120.0, mPoseEstimator.getEstimator().getXInches(), 1.0);
+        assertEquals(0.0, mPoseEstimator.getEstimator().getYInches(), 1.0);
+        assertEquals(0.0, mPoseEstimator.getEstimator().getHeadingDegrees(), 2.0);
+    }
+
+    @Test
+    public void testDrivesBackwards() {
+        Trajectory trajectory = new PathGenerator(AutoPaths.kProfile).generate(AutoPaths.kBackUp);
+        follow(trajectory);
+
+        assertEquals(-48.0, mPoseEstimator.getEstimator().getXInches(), 1.0);
+        assertEquals(0.0, mPoseEstimator.getEstimator().getYInches(), 1.0);
+    }
+
+}
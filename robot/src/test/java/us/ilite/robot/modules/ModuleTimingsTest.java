@@ -0,0 +1,54 @@
+package us.ilite.robot.modules;
+
+import static org.junit.Assert.*;
+
+import com.flybotix.hfr.codex.Codex;
+import org.junit.Test;
+
+import us.ilite.common.lib.util.LatencyHistogram;
+import us.ilite.common.types.EModuleTiming;
+import us.ilite.robot.modules.ModuleTimings.EPhase;
+
+public class ModuleTimingsTest {
+
+    @Test
+    public void testReusesCodexAndHistogramsPerModule() {
+        Intake intake = new Intake();
+        ModuleTimings timings = new ModuleTimings("TEST", 0.02, intake);
+        Codex<Double, EModuleTiming> codex = timings.getCodex(0);
+        LatencyHistogram histogram = timings.getHistogram(0, EPhase.UPDATE);
+        histogram.record(1000);
+
+        timings.setModules(new Shooter(), intake);
+
+        assertEquals(2, timings.size());
+        assertEquals("TEST_INTAKE", timings.getName(1));
+        assertSame(codex, timings.getCodex(1));
+        assertSame(histogram, timings.getHistogram(1, EPhase.UPDATE));
+        // A new window starts with the new list
+        assertEquals(0, histogram.getTotalCount());
+        assertNotSame(codex, timings.getCodex(0));
+    }
+
+    private static class Intake extends Module {
+        @Override
+        public void modeInit(double pNow) {
+        }
+
+        @Override
+        public void periodicInput(double pNow) {
+        }
+
+        @Override
+        public void update(double pNow) {
+        }
+
+        @Override
+        public void shutdown(double pNow) {
+        }
+    }
+
+    private static class Shooter extends Intake {
+    }
+
+}
@@ -0,0 +1,38 @@
+package us.ilite.robot.modules;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Test;
+
+import us.ilite.common.config.Settings;
+
+public class PoseEstimatorTest {
+
+    private final double mToBumperIn = Settings.LimeLight.kToBumperIn;
+    private final double mForwardOfCenterIn = Settings.LimeLight.kForwardOfCenterIn;
+    private final double mLeftOfCenterIn = Settings.LimeLight.kLeftOfCenterIn;
+
+    @After
+    public void restoreSettings() {
+        Settings.LimeLight.kToBumperIn = mToBumperIn;
+        Settings.LimeLight.kForwardOfCenterIn = mForwardOfCenterIn;
+        Settings.LimeLight.kLeftOfCenterIn = mLeftOfCenterIn;
+    }
+
+    @Test
+    public void testVisionRangeIsMovedToRobotCenter() {
+        Settings.LimeLight.kToBumperIn = 10.0;
+        Settings.LimeLight.kForwardOfCenterIn = 6.0;
+        Settings.LimeLight.kLeftOfCenterIn = -4.0;
+
+        // 90in from the bumper is 100in from the lens
+        assertEquals(106.0, PoseEstimator.getForwardOfCenter(90.0, 0.0), 1e-9);
+        assertEquals(-4.0, PoseEstimator.getLeftOfCenter(90.0, 0.0), 1e-9);
+
+        // 30 degrees to the right of the camera
+        assertEquals(6.0 + 100.0 * Math.cos(Math.toRadians(30.0)), PoseEstimator.getForwardOfCenter(90.0, 30.0), 1e-9);
+        assertEquals(-4.0 - 50.0, PoseEstimator.getLeftOfCenter(90.0, 30.0), 1e-9);
+    }
+
+}
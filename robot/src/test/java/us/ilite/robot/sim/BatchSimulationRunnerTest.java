@@ -0,0 +1,84 @@
+package us.ilite.robot.sim;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import us.ilite.common.config.Settings;
+import us.ilite.robot.auto.paths.AutoPaths;
+import us.ilite.robot.commands.CommandQueue;
+import us.ilite.robot.commands.Delay;
+import us.ilite.robot.commands.FunctionalCommand;
+import us.ilite.robot.hardware.ECommonControlMode;
+import us.ilite.robot.modules.DriveMessage;
+
+public class BatchSimulationRunnerTest {
+
+    private final double mEncoderNoise = Settings.Simulation.kEncoderNoiseInches;
+
+    // Drives forward at 30% for a second
+    private static final IAutonomousRoutine kDriveForward = (drive, data, parameters) -> {
+        CommandQueue queue = new CommandQueue();
+        queue.setCommands(
+                new FunctionalCommand(() -> drive.setDriveMessage(new DriveMessage().demand(0.3, 0.3).mode(ECommonControlMode.PERCENT_OUTPUT))),
+                new Delay(1.0),
+                new FunctionalCommand(() -> drive.setDriveMessage(DriveMessage.kBrake)));
+        return queue;
+    };
+
+    @After
+    public void tearDown() {
+        Settings.Simulation.kEncoderNoiseInches = mEncoderNoise;
+    }
+
+    private static List<SimulationParameters> variations() {
+        List<SimulationParameters> variations = new ArrayList<>();
+        for(int i = 0; i < 16; i++) {
+            variations.add(new SimulationParameters().startPose(0.0, 0.0, i * 90.0).noiseSeed(i).timeout(5.0));
+        }
+        return variations;
+    }
+
+    @Test
+    public void testRunsEachVariation() {
+        List<SimulationParameters> variations = variations();
+        BatchSimulationRunner runner = new BatchSimulationRunner(new AutonomousSimulation(AutoPaths.kProfile, kDriveForward), 4);
+        List<SimulationResult> results = runner.run(variations);
+        runner.shutdown();
+
+        assertEquals(variations.size(), results.size());
+        for(int i = 0; i < results.size(); i++) {
+            SimulationResult result = results.get(i);
+            assertSame(variations.get(i), result.getParameters());
+            assertTrue(result.isCompleted());
+            assertEquals(1.0, result.getTimeToComplete(), 0.05);
+            assertTrue(result.getPeakCurrent() > 0.0);
+            // Out along the starting heading - open loop, so the sides' different friction bends it a little
+            double heading = Math.toRadians(variations.get(i).getStartHeading());
+            double distance = Math.hypot(result.getX(), result.getY());
+            double alongHeading = result.getX() * Math.cos(heading) + result.getY() * Math.sin(heading);
+            assertTrue(distance > 12.0);
+            assertEquals(distance, alongHeading, 0.05 * distance);
+        }
+    }
+
+    @Test
+    public void testParallelRunsMatchSequentialRuns() {
+        Settings.Simulation.kEncoderNoiseInches = 0.1;
+        AutonomousSimulation simulation = new AutonomousSimulation(AutoPaths.kProfile, kDriveForward);
+        BatchSimulationRunner parallel = new BatchSimulationRunner(simulation, 4);
+        List<SimulationResult> parallelResults = parallel.run(variations());
+        parallel.shutdown();
+
+        List<SimulationParameters> variations = variations();
+        for(int i = 0; i < variations.size(); i++) {
+            SimulationResult expected = simulation.run(variations.get(i));
+            assertEquals(expected.toCSV(), parallelResults.get(i).toCSV());
+        }
+    }
+
+}